@@ -0,0 +1,31 @@
+package io.kvstore.sdk.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the first argument (default all of them) with the GC profiler,
+ * so that the report has throughput, the latency percentiles (p99 included) and gc.alloc.rate.norm, the bytes allocated per operation.
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar ItemsBenchmark.get
+ * </pre>
+ * The results are also written to jmh-result.json for comparison between runs.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : ".*")
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result("jmh-result.json")
+            .build();
+        new Runner(options).run();
+    }
+
+}
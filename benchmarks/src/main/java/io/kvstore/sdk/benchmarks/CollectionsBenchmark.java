@@ -0,0 +1,67 @@
+package io.kvstore.sdk.benchmarks;
+
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.CollectionsClient;
+import io.kvstore.sdk.clients.KVStoreClient;
+import io.kvstore.sdk.embedded.EmbeddedKVStoreServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing of the collections against the embedded server
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class CollectionsBenchmark {
+
+    @Param({"10", "200"})
+    public int collections;
+
+    @Param({"0"})
+    public long latencyMicros;
+
+    private EmbeddedKVStoreServer server;
+    private KVStoreClient client;
+    private CollectionsClient collectionsClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = EmbeddedKVStoreServer.builder().setLatency(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros))).start();
+        for (int i = 0; i < collections; i++) {
+            server.getStore().putItem("collection-" + i, "item", "value");
+        }
+        client = KVStore.instance("benchmark", server.getPort());
+        collectionsClient = client.collectionsClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public CollectionsClient.CollectionsList list() {
+        return collectionsClient.list();
+    }
+
+}
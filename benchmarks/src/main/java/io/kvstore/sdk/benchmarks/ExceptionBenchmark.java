@@ -0,0 +1,40 @@
+package io.kvstore.sdk.benchmarks;
+
+import io.kvstore.sdk.exceptions.KVStoreException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the exception of a failed request, paid on every non-200 response
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionBenchmark {
+
+    private final String jsonMessage = "{\"message\":\"Item not found\",\"code\":404}";
+    private final String textMessage = "Bad Gateway";
+
+    @Benchmark
+    public KVStoreException jsonBody() {
+        return new KVStoreException(404, jsonMessage);
+    }
+
+    @Benchmark
+    public KVStoreException textBody() {
+        return new KVStoreException(502, textMessage);
+    }
+
+}
@@ -0,0 +1,153 @@
+package io.kvstore.sdk.benchmarks;
+
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.AsyncItemsClient;
+import io.kvstore.sdk.embedded.EmbeddedKVStoreServer;
+import io.kvstore.sdk.transport.Http2Transport;
+import io.kvstore.sdk.transport.PooledHttpTransport;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of concurrent async gets against the embedded server, over HTTP/1.1 with one pooled connection per request
+ * in flight, or over HTTP/2 with all the requests multiplexed on a single connection. The score is in gets per second,
+ * and the number of sockets the client opened is reported as the secondary result {@code socketsOpened}, summed over
+ * the measurement iterations: the first one counts the sockets opened since the start of the trial, warmup included.
+ * A burst with a failed get fails the iteration.
+ * The HTTP_2 runs need Java 11 and the multi-release jar, and fail at setup otherwise.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar Http2Benchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class Http2Benchmark {
+
+    private static final String COLLECTION = "benchmark";
+    private static final int KEYS = 1000;
+    private static final int BURST = 1000;
+
+    public enum Protocol {HTTP_1_1, HTTP_2}
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public Protocol protocol;
+
+    @Param({"16", "128"})
+    public int maxInFlight;
+
+    @Param({"1000"})
+    public long latencyMicros;
+
+    private EmbeddedKVStoreServer server;
+    private KVStore client;
+    private AsyncItemsClient itemsClient;
+
+    /**
+     * The sockets accepted by the embedded server and not reported by a previous measurement iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sockets {
+        public long socketsOpened;
+        private long reported;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            socketsOpened = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(IterationParams iteration) {
+            if (iteration.getType() == IterationType.MEASUREMENT) {
+                reported += socketsOpened;
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (protocol == Protocol.HTTP_2 && !Http2Transport.isAvailable()) {
+            throw new IllegalStateException("HTTP/2 requires Java 11 or later");
+        }
+        server = EmbeddedKVStoreServer.builder()
+            .setLatency(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros)))
+            .setHttp2MaxConcurrentStreams(Math.max(100, maxInFlight))
+            .start();
+        for (int i = 0; i < KEYS; i++) {
+            server.getStore().putItem(COLLECTION, "item-" + i, ItemsBenchmark.payload(64));
+        }
+        KVStore.Builder builder = KVStore.builder()
+            .setApiToken("benchmark")
+            .setMaxInFlight(maxInFlight);
+        if (protocol == Protocol.HTTP_2) {
+            builder.setPort(server.getHttp2Port())
+                .setTransport(Http2Transport.builder()
+                    .setConnections(1)
+                    .setMaxConcurrentStreams(maxInFlight)
+                    .build());
+        } else {
+            builder.setPort(server.getPort())
+                .setTransport(PooledHttpTransport.builder()
+                    .setMaxConnectionsPerHost(maxInFlight)
+                    .setPoolTimeout(Duration.ofSeconds(60))
+                    .build());
+        }
+        client = builder.build();
+        itemsClient = client.asyncItemsClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void concurrentGets(Sockets sockets) {
+        CompletableFuture<?>[] gets = new CompletableFuture<?>[BURST];
+        for (int i = 0; i < BURST; i++) {
+            gets[i] = itemsClient.get(COLLECTION, "item-" + (i % KEYS));
+        }
+        int failures = 0;
+        RuntimeException failure = null;
+        for (CompletableFuture<?> get : gets) {
+            try {
+                get.join();
+            } catch (RuntimeException e) {
+                failures++;
+                failure = e;
+            }
+        }
+        sockets.socketsOpened = server.getConnectionCount() - sockets.reported;
+        if (failures > 0) {
+            // a failed get is answered sooner than a successful one, so the score would no longer be comparable
+            throw new IllegalStateException(failures + " of the " + BURST + " gets failed over " + protocol, failure);
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package io.kvstore.sdk.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.clients.KVStoreClient;
+import io.kvstore.sdk.embedded.EmbeddedKVStoreServer;
+import io.kvstore.sdk.transport.HttpHost;
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+import io.kvstore.sdk.transport.PooledHttpTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of {@link ItemsClient} against the embedded server: the score is the SDK overhead plus the loopback exchange.
+ * The server runs in the same JVM, so the allocations per operation include its own: compare runs rather than absolute values.
+ * <p>
+ * {@code decodeBuffered} and {@code decodeStreaming} send the same GET over a bare transport, and differ only in how
+ * the body is decoded: the former the way the SDK used to, reading it line by line into a String parsed afterwards,
+ * the latter parsing it straight from the connection stream as the SDK now does. Run them with the GC profiler to
+ * compare their gc.alloc.rate.norm side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ItemsBenchmark {
+
+    private static final String COLLECTION = "benchmark";
+
+    @Param({"64", "4096"})
+    public int payloadSize;
+
+    @Param({"0"})
+    public long latencyMicros;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private EmbeddedKVStoreServer server;
+    private KVStoreClient client;
+    private ItemsClient itemsClient;
+    private String payload;
+    private HttpTransport transport;
+    private HttpRequest getRequest;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = EmbeddedKVStoreServer.builder().setLatency(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros))).start();
+        payload = payload(payloadSize);
+        for (int i = 0; i < 1000; i++) {
+            server.getStore().putItem(COLLECTION, "item-" + i, payload);
+        }
+        client = KVStore.instance("benchmark", server.getPort());
+        itemsClient = client.itemsClient();
+        transport = PooledHttpTransport.builder().build();
+        getRequest = HttpRequest.builder("GET", HttpHost.of("http://localhost:" + server.getPort()), "/collections/" + COLLECTION + "/items/item-0")
+            .setHeader("accept", "*/*")
+            .setHeader("kvstoreio_api_key", "benchmark")
+            .setHeader("Content-Type", KVStore.CONTENT_TYPE_JSON)
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        transport.close();
+        client.close();
+        server.close();
+    }
+
+    static String payload(int size) {
+        char[] chars = new char[size];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    @Benchmark
+    public ItemsClient.ItemValue get() {
+        return itemsClient.get(COLLECTION, "item-0");
+    }
+
+    /**
+     * The decoding of the SDK before responses were parsed from the stream: the baseline of {@link #decodeStreaming}
+     */
+    @Benchmark
+    public io.kvstore.api.representationals.items.ItemValue decodeBuffered() throws IOException {
+        try (HttpResponse response = transport.execute(getRequest)) {
+            return objectMapper.readValue(readLines(response.getBody()), io.kvstore.api.representationals.items.ItemValue.class);
+        }
+    }
+
+    @Benchmark
+    public io.kvstore.api.representationals.items.ItemValue decodeStreaming() throws IOException {
+        try (HttpResponse response = transport.execute(getRequest)) {
+            return objectMapper.readValue(response.getBody(), io.kvstore.api.representationals.items.ItemValue.class);
+        }
+    }
+
+    @Benchmark
+    public void put() {
+        itemsClient.put(COLLECTION, "item-1", payload);
+    }
+
+    @Benchmark
+    public List<ItemsClient.Item> list() {
+        return itemsClient.list(COLLECTION, 0, pageSize, null);
+    }
+
+    private static String readLines(InputStream inputStream) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream))) {
+            String inputLine;
+            StringBuilder response = new StringBuilder();
+            while ((inputLine = in.readLine()) != null) {
+                response.append(inputLine);
+            }
+            return response.toString();
+        }
+    }
+
+}
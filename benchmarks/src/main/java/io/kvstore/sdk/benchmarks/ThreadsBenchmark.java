@@ -0,0 +1,144 @@
+package io.kvstore.sdk.benchmarks;
+
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.embedded.EmbeddedKVStoreServer;
+import io.kvstore.sdk.transport.ExecutionMode;
+import io.kvstore.sdk.transport.PooledHttpTransport;
+import io.kvstore.sdk.transport.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bursts of concurrent blocking gets, each on its own platform or virtual thread, against the embedded server.
+ * The score is the time to complete a whole burst; the connection pool is the same in both modes.
+ * The VIRTUAL_THREADS runs need Java 21 and the multi-release jar, and fail at setup otherwise.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ThreadsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ThreadsBenchmark {
+
+    private static final String COLLECTION = "benchmark";
+    private static final int KEYS = 1000;
+
+    @Param({"PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    public ExecutionMode mode;
+
+    @Param({"1000", "10000"})
+    public int concurrency;
+
+    @Param({"1000"})
+    public long latencyMicros;
+
+    @Param({"256"})
+    public int connections;
+
+    private EmbeddedKVStoreServer server;
+    private KVStore client;
+    private ItemsClient itemsClient;
+    private ExecutorService callers;
+    private List<String> keys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (mode == ExecutionMode.VIRTUAL_THREADS && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later");
+        }
+        server = EmbeddedKVStoreServer.builder().setLatency(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros))).start();
+        keys = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            server.getStore().putItem(COLLECTION, "item-" + i, ItemsBenchmark.payload(64));
+            keys.add("item-" + i);
+        }
+        client = KVStore.builder()
+            .setApiToken("benchmark")
+            .setPort(server.getPort())
+            .setTransport(PooledHttpTransport.builder()
+                .setMaxConnectionsPerHost(connections)
+                .setPoolTimeout(Duration.ofSeconds(60))
+                .build())
+            .setExecutionMode(mode)
+            .build();
+        itemsClient = client.itemsClient();
+        callers = mode == ExecutionMode.VIRTUAL_THREADS
+            ? VirtualThreads.newThreadPerTaskExecutor("benchmark-caller-")
+            : Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "benchmark-caller");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callers.shutdownNow();
+        client.close();
+        server.close();
+    }
+
+    /**
+     * @return the number of failed gets, expected to be 0
+     */
+    @Benchmark
+    public int concurrentGets() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < concurrency; i++) {
+            String key = keys.get(i % KEYS);
+            callers.execute(() -> {
+                try {
+                    itemsClient.get(COLLECTION, key);
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return failures.get();
+    }
+
+    /**
+     * The fan-out helper: the requests run on the threads of the execution mode of the client
+     *
+     * @return the number of failed keys, expected to be 0
+     */
+    @Benchmark
+    public int getAll() {
+        List<String> batch = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            batch.add(keys.get(i % KEYS));
+        }
+        return itemsClient.getAll(COLLECTION, batch, concurrency).getFailed().size();
+    }
+
+}
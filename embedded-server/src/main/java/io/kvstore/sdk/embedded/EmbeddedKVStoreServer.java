@@ -0,0 +1,752 @@
+package io.kvstore.sdk.embedded;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * In-memory server compatible with the KVStore.io API: storage, collections and items, with offset, limit and sort,
+ * timestamps and JSON error bodies. It starts in a few milliseconds on a loopback port, so tests and load tests
+ * can run offline, and it can add latency and inject faults to exercise the retries, limits and timeouts of the clients.
+ * The items written or deleted through the API are notified to the webhook of their collection, when set.
+ * <p>
+ * The same API can also be served over HTTP/2 on a second port, either upgraded from HTTP/1.1 (h2c) or with prior knowledge,
+ * to compare the transports of the clients; {@link #getConnectionCount()} tells how many sockets they opened.
+ * <p>
+ * The JDK server leaves Nagle's algorithm enabled on the HTTP/1.1 port, which delays small responses to pipelined
+ * and keep-alive requests by up to 40 ms on some systems. For latency measurements start the JVM with
+ * {@code -Dsun.net.httpserver.nodelay=true}: the JDK reads it once, when its first server starts, so setting it later has no effect.
+ * <pre>
+ * try (EmbeddedKVStoreServer server = EmbeddedKVStoreServer.builder().setLatency(Duration.ofMillis(2)).start()) {
+ *     KVStoreClient client = KVStore.instance("token", server.getPort());
+ *     client.collectionsClient().create("users");
+ *     ...
+ * }
+ * </pre>
+ */
+public class EmbeddedKVStoreServer implements Closeable {
+
+    public static class Builder {
+        private int port;
+        private String apiToken;
+        private Duration minLatency = Duration.ZERO;
+        private Duration maxLatency = Duration.ZERO;
+        private FaultInjector faultInjector = FaultInjector.none();
+        private InMemoryStore store;
+        private boolean conditionalRequests = true;
+        private int compressionThreshold = -1;
+        private boolean http2;
+        private int http2MaxConcurrentStreams = 100;
+
+        private Builder() {
+        }
+
+        /**
+         * @param port the loopback port to listen on (default 0, a free port)
+         * @return the Builder itself
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param apiToken the only API key accepted (default any)
+         * @return the Builder itself
+         */
+        public Builder setApiToken(String apiToken) {
+            this.apiToken = apiToken;
+            return this;
+        }
+
+        /**
+         * @param latency the delay added to every response (default none)
+         * @return the Builder itself
+         */
+        public Builder setLatency(Duration latency) {
+            return setLatency(latency, latency);
+        }
+
+        /**
+         * @param minLatency the shortest delay added to a response
+         * @param maxLatency the longest delay added to a response, the delays being uniformly distributed in between
+         * @return the Builder itself
+         */
+        public Builder setLatency(Duration minLatency, Duration maxLatency) {
+            if (maxLatency.compareTo(minLatency) < 0) {
+                throw new IllegalArgumentException("maxLatency must not be shorter than minLatency");
+            }
+            this.minLatency = minLatency;
+            this.maxLatency = maxLatency;
+            return this;
+        }
+
+        /**
+         * @param faultInjector the chooser of the failing requests (default none)
+         * @return the Builder itself
+         */
+        public Builder setFaultInjector(FaultInjector faultInjector) {
+            this.faultInjector = faultInjector;
+            return this;
+        }
+
+        /**
+         * @param store the data served, i.e. shared by several servers (default an empty store)
+         * @return the Builder itself
+         */
+        public Builder setStore(InMemoryStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * @param conditionalRequests whether single items and collections are sent with an ETag and a Last-Modified
+         *                            date, and answered with 304 Not Modified when they match the request (default true)
+         * @return the Builder itself
+         */
+        public Builder setConditionalRequests(boolean conditionalRequests) {
+            this.conditionalRequests = conditionalRequests;
+            return this;
+        }
+
+        /**
+         * Gzip the JSON responses of at least the given size sent to the clients accepting it (default disabled).
+         * Gzip and deflate request bodies are always accepted.
+         *
+         * @param compressionThreshold the size in bytes from which a response is compressed
+         * @return the Builder itself
+         */
+        public Builder setCompression(int compressionThreshold) {
+            if (compressionThreshold < 0) {
+                throw new IllegalArgumentException("compressionThreshold must not be negative");
+            }
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * @param http2 whether the API is also served over cleartext HTTP/2 on the loopback port
+         *              returned by {@link EmbeddedKVStoreServer#getHttp2Port()} (default false)
+         * @return the Builder itself
+         */
+        public Builder setHttp2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentStreams the number of requests in flight on an HTTP/2 connection advertised to the clients,
+         *                             the streams opened beyond it being refused (default 100)
+         * @return the Builder itself
+         */
+        public Builder setHttp2MaxConcurrentStreams(int maxConcurrentStreams) {
+            if (maxConcurrentStreams <= 0) {
+                throw new IllegalArgumentException("maxConcurrentStreams must be positive");
+            }
+            this.http2 = true;
+            this.http2MaxConcurrentStreams = maxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * @return the running server
+         * @throws IOException if the port can't be bound
+         */
+        public EmbeddedKVStoreServer start() throws IOException {
+            return new EmbeddedKVStoreServer(this);
+        }
+    }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final String apiToken;
+    private final InMemoryStore store;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final boolean conditionalRequests;
+    private final int compressionThreshold;
+    private final ExecutorService executor;
+    private final ServerSocket http2Socket;
+    private final int http2MaxConcurrentStreams;
+    private final Set<Http2Connection> http2Connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong http2ConnectionsAccepted = new AtomicLong();
+    private final Set<InetSocketAddress> http1Clients = ConcurrentHashMap.newKeySet();
+    private volatile long minLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private volatile FaultInjector faultInjector;
+
+    protected EmbeddedKVStoreServer(Builder builder) throws IOException {
+        this.apiToken = builder.apiToken;
+        this.store = builder.store != null ? builder.store : new InMemoryStore();
+        this.minLatencyNanos = builder.minLatency.toNanos();
+        this.maxLatencyNanos = builder.maxLatency.toNanos();
+        this.faultInjector = builder.faultInjector;
+        this.conditionalRequests = builder.conditionalRequests;
+        this.compressionThreshold = builder.compressionThreshold;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "kvstore-embedded-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+        this.http2MaxConcurrentStreams = builder.http2MaxConcurrentStreams;
+        if (builder.http2) {
+            this.http2Socket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::acceptHttp2, "kvstore-embedded-h2-" + THREAD_COUNTER.incrementAndGet());
+            acceptor.setDaemon(true);
+            acceptor.start();
+        } else {
+            this.http2Socket = null;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the loopback port serving HTTP/2, or -1 when it is disabled
+     */
+    public int getHttp2Port() {
+        return http2Socket != null ? http2Socket.getLocalPort() : -1;
+    }
+
+    /**
+     * @return the number of connections opened by the clients so far, over HTTP/1.1 and HTTP/2
+     */
+    public long getConnectionCount() {
+        return http1Clients.size() + http2ConnectionsAccepted.get();
+    }
+
+    /**
+     * @return the data served, to seed or inspect it directly
+     */
+    public InMemoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * @param minLatency the shortest delay added to a response
+     * @param maxLatency the longest delay added to a response
+     */
+    public void setLatency(Duration minLatency, Duration maxLatency) {
+        this.minLatencyNanos = minLatency.toNanos();
+        this.maxLatencyNanos = Math.max(maxLatency.toNanos(), minLatencyNanos);
+    }
+
+    /**
+     * @param faultInjector the chooser of the failing requests, replacing the current one
+     */
+    public void setFaultInjector(FaultInjector faultInjector) {
+        this.faultInjector = faultInjector != null ? faultInjector : FaultInjector.none();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        if (http2Socket != null) {
+            try {
+                http2Socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+            for (Http2Connection connection : http2Connections) {
+                connection.close();
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void acceptHttp2() {
+        while (!http2Socket.isClosed()) {
+            try {
+                Socket socket = http2Socket.accept();
+                socket.setTcpNoDelay(true);
+                http2ConnectionsAccepted.incrementAndGet();
+                Http2Connection connection = new Http2Connection(socket, this::handle, executor, http2MaxConcurrentStreams, http2Connections::remove);
+                http2Connections.add(connection);
+                executor.execute(connection);
+            } catch (IOException | RejectedExecutionException e) {
+                // closed, or a client gone before being served
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!(exchange instanceof Http2Exchange)) {
+            // the JDK server opens no other connection than the ones of the clients, each with its own port
+            http1Clients.add(exchange.getRemoteAddress());
+        }
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream requestStream = exchange.getRequestBody();
+            if (contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip")) {
+                requestStream = new GZIPInputStream(requestStream);
+            } else if (contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("deflate")) {
+                requestStream = new InflaterInputStream(requestStream);
+            } else if (contentEncoding != null && !contentEncoding.trim().equalsIgnoreCase("identity")) {
+                readAll(requestStream);
+                error(exchange, 415, "Unsupported Content-Encoding");
+                return;
+            }
+            byte[] requestBody = readAll(requestStream);
+
+            Fault fault = faultInjector.next(method, path);
+            long latency = minLatencyNanos + (maxLatencyNanos > minLatencyNanos ? ThreadLocalRandom.current().nextLong(maxLatencyNanos - minLatencyNanos + 1) : 0);
+            if (fault != null && fault.getKind() == Fault.Kind.DELAY) {
+                latency += fault.getDuration().toNanos();
+            }
+            if (latency > 0) {
+                LockSupport.parkNanos(latency);
+            }
+            if (fault != null && fault.getKind() == Fault.Kind.DISCONNECT) {
+                // closing the exchange before the headers are sent drops the connection
+                return;
+            }
+            if (fault != null && fault.getKind() == Fault.Kind.STATUS) {
+                if (fault.getDuration() != null) {
+                    exchange.getResponseHeaders().set("Retry-After", Long.toString((fault.getDuration().toMillis() + 999) / 1000));
+                }
+                error(exchange, fault.getStatusCode(), "Injected fault");
+                return;
+            }
+            if (apiToken != null && !apiToken.equals(exchange.getRequestHeaders().getFirst("kvstoreio_api_key"))) {
+                error(exchange, 401, "Invalid API key");
+                return;
+            }
+            route(exchange, method, path, requestBody);
+        } catch (RuntimeException e) {
+            error(exchange, 500, String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String path, byte[] requestBody) throws IOException {
+        String[] segments = path.substring(1).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = URLDecoder.decode(segments[i], "UTF-8");
+        }
+        if (segments.length == 1 && "storage".equals(segments[0])) {
+            storage(exchange, method, requestBody);
+        } else if (segments.length == 1 && "collections".equals(segments[0])) {
+            collections(exchange, method, requestBody);
+        } else if (segments.length == 2 && "collections".equals(segments[0])) {
+            collection(exchange, method, segments[1], requestBody);
+        } else if (segments.length == 3 && "collections".equals(segments[0]) && "items".equals(segments[2])) {
+            items(exchange, method, segments[1], exchange.getRequestURI().getRawQuery());
+        } else if (segments.length == 4 && "collections".equals(segments[0]) && "items".equals(segments[2])) {
+            item(exchange, method, segments[1], segments[3], requestBody);
+        } else {
+            error(exchange, 404, "Resource not found");
+        }
+    }
+
+    private void storage(HttpExchange exchange, String method, byte[] requestBody) throws IOException {
+        switch (method) {
+            case "GET":
+                json(exchange, 200, generator -> {
+                    generator.writeStartObject();
+                    generator.writeStringField("storage_uuid", store.getStorageUUID().toString());
+                    generator.writeStringField("referer", store.getReferer());
+                    generator.writeEndObject();
+                });
+                return;
+            case "PUT":
+                JsonNode update = parse(exchange, requestBody);
+                if (update != null) {
+                    if (update.hasNonNull("referer")) {
+                        store.setReferer(update.get("referer").asText());
+                    }
+                    empty(exchange, 200);
+                }
+                return;
+            default:
+                error(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void collections(HttpExchange exchange, String method, byte[] requestBody) throws IOException {
+        switch (method) {
+            case "GET":
+                json(exchange, 200, generator -> {
+                    Map<String, InMemoryStore.StoredCollection> collections = store.getCollections();
+                    generator.writeStartObject();
+                    generator.writeNumberField("total_collections", collections.size());
+                    generator.writeObjectFieldStart("collections");
+                    for (InMemoryStore.StoredCollection collection : collections.values()) {
+                        generator.writeObjectFieldStart(collection.getName());
+                        generator.writeNumberField("items", collection.getItemCount());
+                        generator.writeNumberField("created_at", collection.getCreatedAt());
+                        generator.writeNumberField("updated_at", collection.getUpdatedAt());
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndObject();
+                    generator.writeEndObject();
+                });
+                return;
+            case "POST":
+                JsonNode create = parse(exchange, requestBody);
+                if (create == null) {
+                    return;
+                }
+                String name = create.path("collection").asText("");
+                if (name.isEmpty()) {
+                    error(exchange, 400, "Missing collection name");
+                } else if (store.createCollection(name) == null) {
+                    error(exchange, 409, "Collection already exists");
+                } else {
+                    json(exchange, 200, generator -> {
+                        generator.writeStartObject();
+                        generator.writeStringField("collection", name);
+                        generator.writeEndObject();
+                    });
+                }
+                return;
+            default:
+                error(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void collection(HttpExchange exchange, String method, String name, byte[] requestBody) throws IOException {
+        InMemoryStore.StoredCollection collection = store.getCollection(name);
+        if (collection == null) {
+            error(exchange, 404, "Collection not found");
+            return;
+        }
+        switch (method) {
+            case "GET":
+                String collectionTag = Long.toHexString(Double.doubleToLongBits(collection.getUpdatedAt())) + "-" + Integer.toHexString(collection.getItemCount());
+                if (notModified(exchange, collectionTag, collection.getUpdatedAt())) {
+                    return;
+                }
+                json(exchange, 200, generator -> {
+                    generator.writeStartObject();
+                    generator.writeNumberField("items", collection.getItemCount());
+                    generator.writeBooleanField("public_write", collection.isPublicWrite());
+                    generator.writeBooleanField("public_read", collection.isPublicRead());
+                    generator.writeStringField("webhook", collection.getWebhook());
+                    generator.writeNumberField("created_at", collection.getCreatedAt());
+                    generator.writeNumberField("updated_at", collection.getUpdatedAt());
+                    generator.writeEndObject();
+                });
+                return;
+            case "PUT":
+                JsonNode update = parse(exchange, requestBody);
+                if (update != null) {
+                    collection.update(
+                        update.hasNonNull("public_read") ? update.get("public_read").asBoolean() : null,
+                        update.hasNonNull("public_write") ? update.get("public_write").asBoolean() : null,
+                        update.hasNonNull("email_notification") ? update.get("email_notification").asText() : null,
+                        update.hasNonNull("webhook") ? update.get("webhook").asText() : null,
+                        update.hasNonNull("webhook_secret") ? update.get("webhook_secret").asText() : null,
+                        InMemoryStore.now());
+                    empty(exchange, 200);
+                }
+                return;
+            case "DELETE":
+                store.deleteCollection(name);
+                empty(exchange, 200);
+                notifyWebhook(collection, null, "delete", InMemoryStore.now());
+                return;
+            default:
+                error(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void items(HttpExchange exchange, String method, String collectionName, String query) throws IOException {
+        if (!"GET".equals(method)) {
+            error(exchange, 405, "Method not allowed");
+            return;
+        }
+        InMemoryStore.StoredCollection collection = store.getCollection(collectionName);
+        if (collection == null) {
+            error(exchange, 404, "Collection not found");
+            return;
+        }
+        int offset = 0;
+        int limit = Integer.MAX_VALUE;
+        boolean descending = false;
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = equals >= 0 ? parameter.substring(0, equals) : parameter;
+                String value = equals >= 0 ? parameter.substring(equals + 1) : "";
+                try {
+                    if ("offset".equals(name)) {
+                        offset = Math.max(0, Integer.parseInt(value));
+                    } else if ("limit".equals(name)) {
+                        limit = Math.max(0, Integer.parseInt(value));
+                    } else if ("sort".equals(name)) {
+                        descending = value.toLowerCase(Locale.ROOT).contains("desc");
+                    }
+                } catch (NumberFormatException e) {
+                    error(exchange, 400, "Invalid " + name);
+                    return;
+                }
+            }
+        }
+        List<InMemoryStore.StoredItem> page = collection.listItems(offset, limit, descending);
+        json(exchange, 200, generator -> {
+            generator.writeStartArray();
+            for (InMemoryStore.StoredItem item : page) {
+                generator.writeStartObject();
+                generator.writeStringField("key", item.getKey());
+                generator.writeStringField("value", item.getValue());
+                generator.writeNumberField("created_at", item.getCreatedAt());
+                generator.writeNumberField("updated_at", item.getUpdatedAt());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        });
+    }
+
+    private void item(HttpExchange exchange, String method, String collectionName, String key, byte[] requestBody) throws IOException {
+        InMemoryStore.StoredCollection collection = store.getCollection(collectionName);
+        if (collection == null) {
+            error(exchange, 404, "Collection not found");
+            return;
+        }
+        switch (method) {
+            case "GET":
+                InMemoryStore.StoredItem item = collection.getItem(key);
+                if (item == null) {
+                    error(exchange, 404, "Item not found");
+                    return;
+                }
+                String itemTag = Long.toHexString(Double.doubleToLongBits(item.getUpdatedAt())) + "-" + Integer.toHexString(item.getValue().hashCode());
+                if (notModified(exchange, itemTag, item.getUpdatedAt())) {
+                    return;
+                }
+                json(exchange, 200, generator -> {
+                    generator.writeStartObject();
+                    generator.writeStringField("value", item.getValue());
+                    generator.writeNumberField("created_at", item.getCreatedAt());
+                    generator.writeNumberField("updated_at", item.getUpdatedAt());
+                    generator.writeEndObject();
+                });
+                return;
+            case "PUT":
+                InMemoryStore.StoredItem stored = store.putItem(collectionName, key, new String(requestBody, StandardCharsets.UTF_8));
+                empty(exchange, 200);
+                notifyWebhook(collection, key, "put", stored.getUpdatedAt());
+                return;
+            case "DELETE":
+                if (store.deleteItem(collectionName, key)) {
+                    empty(exchange, 200);
+                    notifyWebhook(collection, key, "delete", InMemoryStore.now());
+                } else {
+                    error(exchange, 404, "Item not found");
+                }
+                return;
+            default:
+                error(exchange, 405, "Method not allowed");
+        }
+    }
+
+    /**
+     * POST a change of a collection written through the API to its webhook, if any, in the background
+     */
+    private void notifyWebhook(InMemoryStore.StoredCollection collection, String key, String operation, double updatedAt) {
+        String webhook = collection.getWebhook();
+        if (webhook == null || webhook.isEmpty()) {
+            return;
+        }
+        String secret = collection.getWebhookSecret();
+        executor.execute(() -> {
+            try {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(body, JsonEncoding.UTF8)) {
+                    generator.writeStartObject();
+                    generator.writeStringField("collection", collection.getName());
+                    if (key != null) {
+                        generator.writeStringField("key", key);
+                    }
+                    generator.writeStringField("operation", operation);
+                    generator.writeNumberField("updated_at", updatedAt);
+                    generator.writeEndObject();
+                }
+                HttpURLConnection connection = (HttpURLConnection) new URL(webhook).openConnection();
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setConnectTimeout(5000);
+                connection.setReadTimeout(5000);
+                connection.setRequestProperty("Content-Type", "application/json");
+                if (secret != null) {
+                    connection.setRequestProperty("X-KVStore-Webhook-Secret", secret);
+                }
+                try (OutputStream out = connection.getOutputStream()) {
+                    body.writeTo(out);
+                }
+                connection.getResponseCode();
+                connection.disconnect();
+            } catch (IOException e) {
+                // like the real service, a webhook that can't be reached doesn't fail the write
+            }
+        });
+    }
+
+    /**
+     * Set the validators of a resource and answer 304 when the request matches them: If-None-Match takes precedence,
+     * If-Modified-Since compares whole seconds like any HTTP date
+     *
+     * @return true when the 304 response has been sent
+     */
+    private boolean notModified(HttpExchange exchange, String tag, double updatedAt) throws IOException {
+        if (!conditionalRequests) {
+            return false;
+        }
+        String etag = "\"" + tag + "\"";
+        long lastModified = (long) Math.floor(updatedAt);
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochSecond(lastModified).atOffset(ZoneOffset.UTC)));
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        boolean matches = false;
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.startsWith("W/")) {
+                    trimmed = trimmed.substring(2);
+                }
+                matches |= trimmed.equals(etag) || trimmed.equals("*");
+            }
+        } else if (ifModifiedSince != null) {
+            try {
+                matches = lastModified <= ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            } catch (DateTimeParseException ignored) {
+                // an invalid date is ignored, as required by RFC 7232
+            }
+        }
+        if (matches) {
+            exchange.sendResponseHeaders(304, -1);
+        }
+        return matches;
+    }
+
+    private JsonNode parse(HttpExchange exchange, byte[] requestBody) throws IOException {
+        try {
+            JsonNode node = objectMapper.readTree(requestBody);
+            if (node != null && node.isObject()) {
+                return node;
+            }
+        } catch (IOException ignored) {
+            // answered below
+        }
+        error(exchange, 400, "Invalid JSON body");
+        return null;
+    }
+
+    private interface BodyWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private void json(HttpExchange exchange, int statusCode, BodyWriter bodyWriter) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            bodyWriter.write(generator);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (compressionThreshold >= 0) {
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+            if (buffer.size() >= compressionThreshold && acceptsGzip(exchange)) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(buffer.size() / 4 + 64);
+                try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+                    buffer.writeTo(gzip);
+                }
+                buffer = compressed;
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+        }
+        exchange.sendResponseHeaders(statusCode, buffer.size());
+        try (OutputStream body = exchange.getResponseBody()) {
+            buffer.writeTo(body);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private void empty(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.sendResponseHeaders(statusCode, -1);
+    }
+
+    private void error(HttpExchange exchange, int statusCode, String message) throws IOException {
+        json(exchange, statusCode, generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("message", message);
+            generator.writeNumberField("status", statusCode);
+            generator.writeEndObject();
+        });
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = inputStream.read(chunk)) > 0) {
+            buffer.write(chunk, 0, n);
+        }
+        return buffer.toByteArray();
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.kvstore.sdk.embedded;
+
+import java.time.Duration;
+
+/**
+ * A misbehaviour of the server for one request
+ */
+public final class Fault {
+
+    enum Kind {STATUS, DISCONNECT, DELAY}
+
+    private final Kind kind;
+    private final int statusCode;
+    private final Duration duration;
+
+    private Fault(Kind kind, int statusCode, Duration duration) {
+        this.kind = kind;
+        this.statusCode = statusCode;
+        this.duration = duration;
+    }
+
+    /**
+     * @param statusCode the status of the error response, i.e. 500 or 503
+     * @return a fault answering with an error instead of serving the request
+     */
+    public static Fault status(int statusCode) {
+        return new Fault(Kind.STATUS, statusCode, null);
+    }
+
+    /**
+     * @param statusCode the status of the error response, i.e. 429 or 503
+     * @param retryAfter the value of the Retry-After header, rounded up to seconds
+     * @return a fault answering with an error asking to retry later
+     */
+    public static Fault status(int statusCode, Duration retryAfter) {
+        return new Fault(Kind.STATUS, statusCode, retryAfter);
+    }
+
+    /**
+     * @return a fault closing the connection without any response
+     */
+    public static Fault disconnect() {
+        return new Fault(Kind.DISCONNECT, 0, null);
+    }
+
+    /**
+     * @param delay the extra time before serving the request
+     * @return a fault serving the request late, on top of the configured latency
+     */
+    public static Fault delay(Duration delay) {
+        return new Fault(Kind.DELAY, 0, delay);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    public String toString() {
+        return "Fault(kind=" + kind + (statusCode > 0 ? ", statusCode=" + statusCode : "") + (duration != null ? ", duration=" + duration : "") + ")";
+    }
+
+}
@@ -0,0 +1,48 @@
+package io.kvstore.sdk.embedded;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the requests that misbehave. Called concurrently, once per request.
+ * <pre>
+ * server.setFaultInjector(FaultInjector.withProbability(0.05, Fault.status(503)));
+ * </pre>
+ */
+@FunctionalInterface
+public interface FaultInjector {
+
+    /**
+     * @param method the HTTP method of the request
+     * @param path   the path of the request
+     * @return the fault of the request, or null to serve it normally
+     */
+    Fault next(String method, String path);
+
+    /**
+     * @return an injector never failing
+     */
+    static FaultInjector none() {
+        return (method, path) -> null;
+    }
+
+    /**
+     * @param probability the share of failed requests, between 0 and 1
+     * @param fault       the fault injected
+     * @return an injector failing requests at random
+     */
+    static FaultInjector withProbability(double probability, Fault fault) {
+        return (method, path) -> ThreadLocalRandom.current().nextDouble() < probability ? fault : null;
+    }
+
+    /**
+     * @param count the number of failed requests
+     * @param fault the fault injected
+     * @return an injector failing the next requests, then serving all the others
+     */
+    static FaultInjector firstRequests(int count, Fault fault) {
+        AtomicInteger remaining = new AtomicInteger(count);
+        return (method, path) -> remaining.get() > 0 && remaining.getAndDecrement() > 0 ? fault : null;
+    }
+
+}
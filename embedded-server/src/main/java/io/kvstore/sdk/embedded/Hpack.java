@@ -0,0 +1,300 @@
+package io.kvstore.sdk.embedded;
+
+import java.io.ByteArrayOutputStream;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The HPACK header compression of HTTP/2 (RFC 7541), as much as the embedded server needs: a full decoder,
+ * and an encoder which never indexes, so that it keeps no state.
+ */
+final class Hpack {
+
+    private static final String[][] STATIC_TABLE = {
+        {":authority", ""}, {":method", "GET"}, {":method", "POST"}, {":path", "/"}, {":path", "/index.html"},
+        {":scheme", "http"}, {":scheme", "https"}, {":status", "200"}, {":status", "204"}, {":status", "206"},
+        {":status", "304"}, {":status", "400"}, {":status", "404"}, {":status", "500"}, {"accept-charset", ""},
+        {"accept-encoding", "gzip, deflate"}, {"accept-language", ""}, {"accept-ranges", ""}, {"accept", ""},
+        {"access-control-allow-origin", ""}, {"age", ""}, {"allow", ""}, {"authorization", ""}, {"cache-control", ""},
+        {"content-disposition", ""}, {"content-encoding", ""}, {"content-language", ""}, {"content-length", ""},
+        {"content-location", ""}, {"content-range", ""}, {"content-type", ""}, {"cookie", ""}, {"date", ""}, {"etag", ""},
+        {"expect", ""}, {"expires", ""}, {"from", ""}, {"host", ""}, {"if-match", ""}, {"if-modified-since", ""},
+        {"if-none-match", ""}, {"if-range", ""}, {"if-unmodified-since", ""}, {"last-modified", ""}, {"link", ""},
+        {"location", ""}, {"max-forwards", ""}, {"proxy-authenticate", ""}, {"proxy-authorization", ""}, {"range", ""},
+        {"referer", ""}, {"refresh", ""}, {"retry-after", ""}, {"server", ""}, {"set-cookie", ""},
+        {"strict-transport-security", ""}, {"transfer-encoding", ""}, {"user-agent", ""}, {"vary", ""}, {"via", ""},
+        {"www-authenticate", ""}
+    };
+
+    /**
+     * The lengths of the Huffman codes of the 256 octets and of EOS, the codes being canonical
+     */
+    private static final byte[] HUFFMAN_CODE_LENGTHS = {
+        13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28,
+        6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6, 5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10,
+        13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6,
+        15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5, 6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28,
+        20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23, 23, 23, 24, 23, 24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+        22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23, 21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23,
+        26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25, 19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27,
+        20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23, 26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26,
+        30
+    };
+
+    private static final int EOS = 256;
+    private static final int MAX_CODE_LENGTH = 30;
+
+    /**
+     * For each code length: the first code, the number of codes and the index of the first symbol in HUFFMAN_SYMBOLS
+     */
+    private static final int[] HUFFMAN_FIRST_CODE = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] HUFFMAN_COUNT = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] HUFFMAN_OFFSET = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] HUFFMAN_SYMBOLS = new int[HUFFMAN_CODE_LENGTHS.length];
+
+    static {
+        for (byte length : HUFFMAN_CODE_LENGTHS) {
+            HUFFMAN_COUNT[length]++;
+        }
+        int code = 0;
+        int offset = 0;
+        for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+            HUFFMAN_FIRST_CODE[length] = code;
+            HUFFMAN_OFFSET[length] = offset;
+            code = (code + HUFFMAN_COUNT[length]) << 1;
+            offset += HUFFMAN_COUNT[length];
+        }
+        int[] next = HUFFMAN_OFFSET.clone();
+        for (int symbol = 0; symbol < HUFFMAN_CODE_LENGTHS.length; symbol++) {
+            HUFFMAN_SYMBOLS[next[HUFFMAN_CODE_LENGTHS[symbol]]++] = symbol;
+        }
+    }
+
+    private Hpack() {
+    }
+
+    /**
+     * Decodes the header blocks of a connection, in the order they were received
+     */
+    static final class Decoder {
+        private final ArrayDeque<String[]> dynamicTable = new ArrayDeque<>();
+        private final int maxTableSizeLimit;
+        private int maxTableSize;
+        private int tableSize;
+
+        private byte[] block;
+        private int position;
+
+        /**
+         * @param maxTableSize the SETTINGS_HEADER_TABLE_SIZE advertised to the peer
+         */
+        Decoder(int maxTableSize) {
+            this.maxTableSizeLimit = maxTableSize;
+            this.maxTableSize = maxTableSize;
+        }
+
+        /**
+         * @param block the complete header block of a HEADERS frame and of its CONTINUATION frames
+         * @return the name and value of each header, in order
+         * @throws ProtocolException if the block is malformed
+         */
+        List<String[]> decode(byte[] block) throws ProtocolException {
+            this.block = block;
+            this.position = 0;
+            List<String[]> headers = new ArrayList<>();
+            try {
+                while (position < block.length) {
+                    int b = block[position] & 0xff;
+                    if ((b & 0x80) != 0) {
+                        headers.add(entry(readInt(7)));
+                    } else if ((b & 0x40) != 0) {
+                        String[] header = readLiteral(6);
+                        add(header);
+                        headers.add(header);
+                    } else if ((b & 0x20) != 0) {
+                        int size = readInt(5);
+                        if (size > maxTableSizeLimit) {
+                            throw new ProtocolException("Header table size " + size + " exceeds " + maxTableSizeLimit);
+                        }
+                        maxTableSize = size;
+                        evict(0);
+                    } else {
+                        // without indexing, or never indexed
+                        headers.add(readLiteral(4));
+                    }
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                throw new ProtocolException("Truncated header block");
+            } finally {
+                this.block = null;
+            }
+            return headers;
+        }
+
+        private String[] readLiteral(int prefixBits) throws ProtocolException {
+            int index = readInt(prefixBits);
+            String name = index == 0 ? readString() : entry(index)[0];
+            return new String[]{name, readString()};
+        }
+
+        private String[] entry(int index) throws ProtocolException {
+            if (index <= 0) {
+                throw new ProtocolException("Invalid header index 0");
+            }
+            if (index <= STATIC_TABLE.length) {
+                return STATIC_TABLE[index - 1];
+            }
+            int dynamicIndex = index - STATIC_TABLE.length - 1;
+            if (dynamicIndex >= dynamicTable.size()) {
+                throw new ProtocolException("Invalid header index " + index);
+            }
+            Iterator<String[]> entries = dynamicTable.iterator();
+            for (int i = 0; i < dynamicIndex; i++) {
+                entries.next();
+            }
+            return entries.next();
+        }
+
+        private void add(String[] header) {
+            int size = size(header);
+            evict(size);
+            if (size <= maxTableSize) {
+                dynamicTable.addFirst(header);
+                tableSize += size;
+            }
+        }
+
+        private void evict(int room) {
+            while (!dynamicTable.isEmpty() && tableSize + room > maxTableSize) {
+                tableSize -= size(dynamicTable.removeLast());
+            }
+        }
+
+        private int readInt(int prefixBits) throws ProtocolException {
+            int mask = (1 << prefixBits) - 1;
+            int value = block[position++] & mask;
+            if (value < mask) {
+                return value;
+            }
+            int shift = 0;
+            int b;
+            do {
+                if (shift > 28) {
+                    throw new ProtocolException("Integer overflow in header block");
+                }
+                b = block[position++] & 0xff;
+                value += (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (value < 0) {
+                throw new ProtocolException("Integer overflow in header block");
+            }
+            return value;
+        }
+
+        private String readString() throws ProtocolException {
+            boolean huffman = (block[position] & 0x80) != 0;
+            int length = readInt(7);
+            if (length > block.length - position) {
+                throw new ProtocolException("Truncated header block");
+            }
+            String value = huffman
+                ? huffmanDecode(block, position, length)
+                : new String(block, position, length, StandardCharsets.ISO_8859_1);
+            position += length;
+            return value;
+        }
+
+        private static int size(String[] header) {
+            return header[0].length() + header[1].length() + 32;
+        }
+    }
+
+    static String huffmanDecode(byte[] bytes, int offset, int length) throws ProtocolException {
+        StringBuilder decoded = new StringBuilder(length * 8 / 5);
+        int code = 0;
+        int codeLength = 0;
+        boolean padding = true;
+        for (int i = offset; i < offset + length; i++) {
+            int b = bytes[i] & 0xff;
+            for (int bit = 7; bit >= 0; bit--) {
+                int value = (b >>> bit) & 1;
+                code = (code << 1) | value;
+                codeLength++;
+                padding &= value == 1;
+                int index = code - HUFFMAN_FIRST_CODE[codeLength];
+                if (index >= 0 && index < HUFFMAN_COUNT[codeLength]) {
+                    int symbol = HUFFMAN_SYMBOLS[HUFFMAN_OFFSET[codeLength] + index];
+                    if (symbol == EOS) {
+                        throw new ProtocolException("EOS in Huffman string");
+                    }
+                    decoded.append((char) symbol);
+                    code = 0;
+                    codeLength = 0;
+                    padding = true;
+                } else if (codeLength == MAX_CODE_LENGTH) {
+                    throw new ProtocolException("Invalid Huffman code");
+                }
+            }
+        }
+        // the last bits must be a prefix of EOS, which is all ones
+        if (codeLength > 7 || !padding) {
+            throw new ProtocolException("Invalid Huffman padding");
+        }
+        return decoded.toString();
+    }
+
+    /**
+     * @param status  the response status
+     * @param headers the response headers, with lower case names
+     * @return the header block, as literals without indexing
+     */
+    static byte[] encode(int status, List<Map.Entry<String, String>> headers) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream(64 + headers.size() * 32);
+        int statusIndex = 0;
+        for (int i = 0; i < STATIC_TABLE.length; i++) {
+            if (STATIC_TABLE[i][0].equals(":status") && STATIC_TABLE[i][1].equals(Integer.toString(status))) {
+                statusIndex = i + 1;
+            }
+        }
+        if (statusIndex > 0) {
+            writeInt(block, 0x80, 7, statusIndex);
+        } else {
+            writeInt(block, 0x00, 4, 8);
+            writeString(block, Integer.toString(status));
+        }
+        for (Map.Entry<String, String> header : headers) {
+            block.write(0x00);
+            writeString(block, header.getKey());
+            writeString(block, header.getValue());
+        }
+        return block.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int flags, int prefixBits, int value) {
+        int mask = (1 << prefixBits) - 1;
+        if (value < mask) {
+            out.write(flags | value);
+            return;
+        }
+        out.write(flags | mask);
+        value -= mask;
+        while (value >= 0x80) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        writeInt(out, 0x00, 7, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+}
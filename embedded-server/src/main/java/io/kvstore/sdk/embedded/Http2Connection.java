@@ -0,0 +1,649 @@
+package io.kvstore.sdk.embedded;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * One HTTP/2 connection of the embedded server, over cleartext TCP: either upgraded from HTTP/1.1 (h2c)
+ * or opened with the connection preface (prior knowledge). A thread reads the frames, and every complete request
+ * is handled on the executor of the server, its response being written as soon as its exchange is closed.
+ * <p>
+ * Only the server side is implemented, without push nor priorities, and request trailers are ignored. The flow-control windows
+ * of the request bodies are given back as soon as they are received.
+ */
+final class Http2Connection implements Runnable, Closeable {
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int PRIORITY = 0x2;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PUSH_PROMISE = 0x5;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+
+    private static final int FLAG_END_STREAM = 0x1;
+    private static final int FLAG_ACK = 0x1;
+    private static final int FLAG_END_HEADERS = 0x4;
+    private static final int FLAG_PADDED = 0x8;
+    private static final int FLAG_PRIORITY = 0x20;
+
+    private static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+    private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    private static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+
+    private static final int NO_ERROR = 0x0;
+    private static final int PROTOCOL_ERROR = 0x1;
+    private static final int INTERNAL_ERROR = 0x2;
+    private static final int FRAME_SIZE_ERROR = 0x6;
+    private static final int REFUSED_STREAM = 0x7;
+
+    private static final int DEFAULT_WINDOW_SIZE = 65_535;
+    private static final int MAX_FRAME_SIZE = 16_384;
+    private static final int HEADER_TABLE_SIZE = 4096;
+
+    private static final class Stream {
+        private final int id;
+        private final ByteArrayOutputStream headerBlock = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private List<String[]> headers;
+        private boolean endStream;
+        private boolean trailers;
+        private long sendWindow;
+        private boolean reset;
+
+        private Stream(int id, long sendWindow) {
+            this.id = id;
+            this.sendWindow = sendWindow;
+        }
+    }
+
+    private final Socket socket;
+    private final HttpHandler handler;
+    private final Executor executor;
+    private final int maxConcurrentStreams;
+    private final Consumer<Http2Connection> onClose;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final Hpack.Decoder decoder = new Hpack.Decoder(HEADER_TABLE_SIZE);
+    private final ConcurrentMap<Integer, Stream> streams = new ConcurrentHashMap<>();
+
+    // guarded by this, which also signals the updates of the send windows
+    private long connectionSendWindow = DEFAULT_WINDOW_SIZE;
+    private int peerInitialWindowSize = DEFAULT_WINDOW_SIZE;
+    private int peerMaxFrameSize = MAX_FRAME_SIZE;
+    private boolean closed;
+
+    private Stream continued;
+    private int lastStreamId;
+    private boolean upgraded;
+
+    Http2Connection(Socket socket, HttpHandler handler, Executor executor, int maxConcurrentStreams, Consumer<Http2Connection> onClose) throws IOException {
+        this.socket = socket;
+        this.handler = handler;
+        this.executor = executor;
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.onClose = onClose;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 16_384));
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 16_384);
+    }
+
+    @Override
+    public void run() {
+        int error = NO_ERROR;
+        boolean framing = false;
+        try {
+            if (!startsWithPreface()) {
+                upgrade();
+            }
+            framing = true;
+            readPreface();
+            while (readFrame()) {
+                // until GOAWAY
+            }
+        } catch (ProtocolException e) {
+            error = PROTOCOL_ERROR;
+        } catch (IOException e) {
+            // the client is gone
+        } finally {
+            if (framing) {
+                goAway(error);
+            }
+            close();
+        }
+    }
+
+    /**
+     * Close the socket, resetting the requests still being handled
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        onClose.accept(this);
+    }
+
+    private boolean startsWithPreface() throws IOException {
+        in.mark(PREFACE.length);
+        byte[] start = new byte[PREFACE.length];
+        int read = 0;
+        while (read < start.length) {
+            int n = in.read(start, read, start.length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+            if (!Arrays.equals(Arrays.copyOf(start, read), Arrays.copyOf(PREFACE, read))) {
+                break;
+            }
+        }
+        in.reset();
+        return read == PREFACE.length && Arrays.equals(start, PREFACE);
+    }
+
+    /**
+     * Answer an HTTP/1.1 request with {@code Upgrade: h2c} by switching protocols, the request becoming stream 1
+     */
+    private void upgrade() throws IOException {
+        String[] requestLine = readLine().split(" ");
+        if (requestLine.length != 3) {
+            throw new ProtocolException("Invalid request line");
+        }
+        Headers headers = new Headers();
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new ProtocolException("Invalid header line");
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+        if (!"h2c".equalsIgnoreCase(headers.getFirst("Upgrade")) || headers.getFirst("HTTP2-Settings") == null
+            || headers.getFirst("Transfer-Encoding") != null) {
+            writeStatusLine("505 HTTP Version Not Supported");
+            throw new EOFException("Not an HTTP/2 request");
+        }
+        String contentLength = headers.getFirst("Content-Length");
+        byte[] body = new byte[contentLength != null ? Integer.parseInt(contentLength.trim()) : 0];
+        in.readFully(body);
+
+        Stream stream = new Stream(1, DEFAULT_WINDOW_SIZE);
+        stream.body.write(body);
+        streams.put(1, stream);
+        lastStreamId = 1;
+        upgraded = true;
+        synchronized (this) {
+            out.write("HTTP/1.1 101 Switching Protocols\r\nConnection: Upgrade\r\nUpgrade: h2c\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            writeSettings();
+            out.flush();
+        }
+        for (String name : Arrays.asList("Connection", "Upgrade", "HTTP2-Settings")) {
+            headers.remove(name);
+        }
+        dispatch(stream, requestLine[0], requestLine[1], headers);
+    }
+
+    private void readPreface() throws IOException {
+        byte[] preface = new byte[PREFACE.length];
+        in.readFully(preface);
+        if (!Arrays.equals(preface, PREFACE)) {
+            throw new ProtocolException("Invalid connection preface");
+        }
+        // an upgraded connection already sent its settings with the 101 response
+        if (!upgraded) {
+            synchronized (this) {
+                writeSettings();
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * @return false once the client went away
+     */
+    private boolean readFrame() throws IOException {
+        int length = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+        int type = in.readUnsignedByte();
+        int flags = in.readUnsignedByte();
+        int streamId = in.readInt() & 0x7fffffff;
+        if (length > MAX_FRAME_SIZE) {
+            goAway(FRAME_SIZE_ERROR);
+            throw new EOFException("Frame of " + length + " bytes");
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        if (continued != null && type != CONTINUATION) {
+            throw new ProtocolException("Expected a CONTINUATION frame");
+        }
+
+        switch (type) {
+            case DATA:
+                onData(streamId, flags, payload);
+                return true;
+            case HEADERS:
+                onHeaders(streamId, flags, payload);
+                return true;
+            case CONTINUATION:
+                if (continued == null || continued.id != streamId) {
+                    throw new ProtocolException("Unexpected CONTINUATION frame");
+                }
+                continued.headerBlock.write(payload);
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    Stream stream = continued;
+                    continued = null;
+                    onHeaderBlock(stream);
+                }
+                return true;
+            case SETTINGS:
+                if ((flags & FLAG_ACK) == 0) {
+                    onSettings(payload);
+                }
+                return true;
+            case PING:
+                if ((flags & FLAG_ACK) == 0) {
+                    synchronized (this) {
+                        writeFrame(PING, FLAG_ACK, 0, payload, 0, payload.length);
+                        out.flush();
+                    }
+                }
+                return true;
+            case WINDOW_UPDATE:
+                onWindowUpdate(streamId, payload);
+                return true;
+            case RST_STREAM:
+                Stream reset = streams.remove(streamId);
+                if (reset != null) {
+                    synchronized (this) {
+                        reset.reset = true;
+                        notifyAll();
+                    }
+                }
+                return true;
+            case GOAWAY:
+                return false;
+            case PUSH_PROMISE:
+                throw new ProtocolException("Clients can't push");
+            case PRIORITY:
+            default:
+                // priorities are ignored, and unknown frames must be
+                return true;
+        }
+    }
+
+    private void onHeaders(int streamId, int flags, byte[] payload) throws IOException {
+        if (streamId == 0 || streamId % 2 == 0) {
+            throw new ProtocolException("Invalid stream " + streamId);
+        }
+        int offset = 0;
+        int padding = 0;
+        if ((flags & FLAG_PADDED) != 0) {
+            padding = payload[offset++] & 0xff;
+        }
+        if ((flags & FLAG_PRIORITY) != 0) {
+            offset += 5;
+        }
+        if (offset + padding > payload.length) {
+            throw new ProtocolException("Invalid padding");
+        }
+        Stream stream = streams.get(streamId);
+        if (stream == null) {
+            if (streamId <= lastStreamId) {
+                throw new ProtocolException("Stream " + streamId + " reused");
+            }
+            lastStreamId = streamId;
+            synchronized (this) {
+                stream = new Stream(streamId, peerInitialWindowSize);
+            }
+            streams.put(streamId, stream);
+        } else if (stream.headers != null) {
+            stream.trailers = true;
+            stream.headerBlock.reset();
+        }
+        stream.endStream = (flags & FLAG_END_STREAM) != 0;
+        stream.headerBlock.write(payload, offset, payload.length - offset - padding);
+        if ((flags & FLAG_END_HEADERS) != 0) {
+            onHeaderBlock(stream);
+        } else {
+            continued = stream;
+        }
+    }
+
+    private void onHeaderBlock(Stream stream) throws IOException {
+        // decoded even when ignored, to keep the table of the decoder in sync with the client
+        List<String[]> block = decoder.decode(stream.headerBlock.toByteArray());
+        if (stream.trailers) {
+            if (stream.endStream) {
+                onRequest(stream);
+            }
+            return;
+        }
+        stream.headers = block;
+        if (streams.size() > maxConcurrentStreams) {
+            streams.remove(stream.id);
+            resetStream(stream.id, REFUSED_STREAM);
+            return;
+        }
+        if (stream.endStream) {
+            onRequest(stream);
+        }
+    }
+
+    private void onData(int streamId, int flags, byte[] payload) throws IOException {
+        int offset = 0;
+        int padding = 0;
+        if ((flags & FLAG_PADDED) != 0 && payload.length > 0) {
+            padding = payload[offset++] & 0xff;
+        }
+        if (offset + padding > payload.length) {
+            throw new ProtocolException("Invalid padding");
+        }
+        Stream stream = streams.get(streamId);
+        boolean endStream = (flags & FLAG_END_STREAM) != 0;
+        if (payload.length > 0) {
+            synchronized (this) {
+                writeWindowUpdate(0, payload.length);
+                if (stream != null && !endStream) {
+                    writeWindowUpdate(streamId, payload.length);
+                }
+                out.flush();
+            }
+        }
+        if (stream == null || stream.headers == null) {
+            // reset or refused
+            return;
+        }
+        stream.body.write(payload, offset, payload.length - offset - padding);
+        if (endStream) {
+            onRequest(stream);
+        }
+    }
+
+    private void onSettings(byte[] payload) throws IOException {
+        if (payload.length % 6 != 0) {
+            throw new ProtocolException("Invalid SETTINGS frame");
+        }
+        synchronized (this) {
+            for (int i = 0; i < payload.length; i += 6) {
+                int id = ((payload[i] & 0xff) << 8) | (payload[i + 1] & 0xff);
+                int value = ((payload[i + 2] & 0xff) << 24) | ((payload[i + 3] & 0xff) << 16) | ((payload[i + 4] & 0xff) << 8) | (payload[i + 5] & 0xff);
+                if (id == SETTINGS_INITIAL_WINDOW_SIZE) {
+                    if (value < 0) {
+                        throw new ProtocolException("Invalid initial window size");
+                    }
+                    // applies to the open streams too
+                    for (Stream stream : streams.values()) {
+                        stream.sendWindow += value - peerInitialWindowSize;
+                    }
+                    peerInitialWindowSize = value;
+                } else if (id == SETTINGS_MAX_FRAME_SIZE) {
+                    if (value < MAX_FRAME_SIZE || value > 16_777_215) {
+                        throw new ProtocolException("Invalid max frame size");
+                    }
+                    peerMaxFrameSize = value;
+                }
+            }
+            writeFrame(SETTINGS, FLAG_ACK, 0, new byte[0], 0, 0);
+            out.flush();
+            notifyAll();
+        }
+    }
+
+    private void onWindowUpdate(int streamId, byte[] payload) throws IOException {
+        if (payload.length != 4) {
+            throw new ProtocolException("Invalid WINDOW_UPDATE frame");
+        }
+        int increment = (((payload[0] & 0x7f) << 24) | ((payload[1] & 0xff) << 16) | ((payload[2] & 0xff) << 8) | (payload[3] & 0xff));
+        synchronized (this) {
+            if (streamId == 0) {
+                connectionSendWindow += increment;
+            } else {
+                Stream stream = streams.get(streamId);
+                if (stream != null) {
+                    stream.sendWindow += increment;
+                }
+            }
+            notifyAll();
+        }
+    }
+
+    private void onRequest(Stream stream) throws IOException {
+        String method = null;
+        String path = null;
+        String authority = null;
+        Headers headers = new Headers();
+        for (String[] header : stream.headers) {
+            switch (header[0]) {
+                case ":method":
+                    method = header[1];
+                    break;
+                case ":path":
+                    path = header[1];
+                    break;
+                case ":authority":
+                    authority = header[1];
+                    break;
+                case ":scheme":
+                    break;
+                default:
+                    if (header[0].startsWith(":")) {
+                        throw new ProtocolException("Unknown pseudo-header " + header[0]);
+                    }
+                    headers.add(header[0], header[1]);
+            }
+        }
+        if (method == null || path == null) {
+            streams.remove(stream.id);
+            resetStream(stream.id, PROTOCOL_ERROR);
+            return;
+        }
+        if (authority != null && !headers.containsKey("Host")) {
+            headers.set("Host", authority);
+        }
+        dispatch(stream, method, path, headers);
+    }
+
+    private void dispatch(Stream stream, String method, String path, Headers headers) throws IOException {
+        URI uri;
+        try {
+            uri = new URI(path);
+        } catch (Exception e) {
+            streams.remove(stream.id);
+            resetStream(stream.id, PROTOCOL_ERROR);
+            return;
+        }
+        Http2Exchange exchange = new Http2Exchange(this, stream.id, method, uri, headers, stream.body.toByteArray(),
+            (InetSocketAddress) socket.getLocalSocketAddress(), (InetSocketAddress) socket.getRemoteSocketAddress());
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.handle(exchange);
+                } catch (IOException | RuntimeException e) {
+                    // the exchange is closed by the handler, resetting the stream if nothing was sent
+                } finally {
+                    exchange.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            streams.remove(stream.id);
+            resetStream(stream.id, REFUSED_STREAM);
+        }
+    }
+
+    /**
+     * Write the response of a stream, waiting for the client to open its flow-control windows as needed
+     */
+    void respond(int streamId, int status, List<Map.Entry<String, String>> headers, byte[] body) {
+        byte[] block = Hpack.encode(status, headers);
+        try {
+            synchronized (this) {
+                Stream stream = streams.get(streamId);
+                if (stream == null || closed) {
+                    return;
+                }
+                writeHeaders(streamId, block, body.length == 0);
+                int offset = 0;
+                while (offset < body.length) {
+                    while (!closed && !stream.reset && (connectionSendWindow <= 0 || stream.sendWindow <= 0)) {
+                        // the frames written so far may be the ones the client needs to open its windows
+                        out.flush();
+                        wait();
+                    }
+                    if (closed || stream.reset) {
+                        return;
+                    }
+                    int length = (int) Math.min(Math.min(body.length - offset, peerMaxFrameSize), Math.min(connectionSendWindow, stream.sendWindow));
+                    connectionSendWindow -= length;
+                    stream.sendWindow -= length;
+                    writeFrame(DATA, offset + length == body.length ? FLAG_END_STREAM : 0, streamId, body, offset, length);
+                    offset += length;
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            streams.remove(streamId);
+        }
+    }
+
+    /**
+     * Abort a stream without a response, as a dropped connection would
+     */
+    void reset(int streamId) {
+        if (streams.remove(streamId) != null) {
+            try {
+                resetStream(streamId, INTERNAL_ERROR);
+            } catch (IOException e) {
+                close();
+            }
+        }
+    }
+
+    private void resetStream(int streamId, int error) throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            writeFrame(RST_STREAM, 0, streamId, int32(error), 0, 4);
+            out.flush();
+        }
+    }
+
+    private void goAway(int error) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                byte[] payload = new byte[8];
+                System.arraycopy(int32(lastStreamId), 0, payload, 0, 4);
+                System.arraycopy(int32(error), 0, payload, 4, 4);
+                writeFrame(GOAWAY, 0, 0, payload, 0, payload.length);
+                out.flush();
+            } catch (IOException e) {
+                // the client is gone
+            }
+        }
+    }
+
+    private void writeSettings() throws IOException {
+        byte[] payload = new byte[12];
+        payload[1] = SETTINGS_MAX_CONCURRENT_STREAMS;
+        System.arraycopy(int32(maxConcurrentStreams), 0, payload, 2, 4);
+        payload[7] = SETTINGS_HEADER_TABLE_SIZE;
+        System.arraycopy(int32(HEADER_TABLE_SIZE), 0, payload, 8, 4);
+        writeFrame(SETTINGS, 0, 0, payload, 0, payload.length);
+    }
+
+    private void writeHeaders(int streamId, byte[] block, boolean endStream) throws IOException {
+        int length = Math.min(block.length, peerMaxFrameSize);
+        int flags = (endStream ? FLAG_END_STREAM : 0) | (length == block.length ? FLAG_END_HEADERS : 0);
+        writeFrame(HEADERS, flags, streamId, block, 0, length);
+        for (int offset = length; offset < block.length; offset += length) {
+            length = Math.min(block.length - offset, peerMaxFrameSize);
+            writeFrame(CONTINUATION, offset + length == block.length ? FLAG_END_HEADERS : 0, streamId, block, offset, length);
+        }
+    }
+
+    private void writeWindowUpdate(int streamId, int increment) throws IOException {
+        writeFrame(WINDOW_UPDATE, 0, streamId, int32(increment), 0, 4);
+    }
+
+    private void writeFrame(int type, int flags, int streamId, byte[] payload, int offset, int length) throws IOException {
+        out.write(length >>> 16);
+        out.write(length >>> 8);
+        out.write(length);
+        out.write(type);
+        out.write(flags);
+        out.write(int32(streamId));
+        out.write(payload, offset, length);
+    }
+
+    private void writeStatusLine(String status) throws IOException {
+        synchronized (this) {
+            out.write(("HTTP/1.1 " + status + "\r\nConnection: close\r\nContent-Length: 0\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Connection closed in the middle of the request head");
+            }
+            if (line.length() > 8192) {
+                throw new ProtocolException("Request head line too long");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static byte[] int32(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+}
@@ -0,0 +1,181 @@
+package io.kvstore.sdk.embedded;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A request received on a stream of an {@link Http2Connection}, handled like the ones of the JDK server.
+ * The response is buffered, and written when the exchange is closed; closing it before the response headers
+ * are sent resets the stream.
+ */
+final class Http2Exchange extends HttpExchange {
+
+    /**
+     * The headers specific to HTTP/1.1 connections, forbidden by HTTP/2
+     */
+    private static final Set<String> CONNECTION_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade"));
+
+    private final Http2Connection connection;
+    private final int streamId;
+    private final String method;
+    private final URI uri;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final InetSocketAddress localAddress;
+    private final InetSocketAddress remoteAddress;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    private InputStream requestBody;
+    private OutputStream responseBody = buffer;
+    private int responseCode = -1;
+    private boolean closed;
+
+    Http2Exchange(Http2Connection connection, int streamId, String method, URI uri, Headers requestHeaders, byte[] requestBody,
+                  InetSocketAddress localAddress, InetSocketAddress remoteAddress) {
+        this.connection = connection;
+        this.streamId = streamId;
+        this.method = method;
+        this.uri = uri;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = new ByteArrayInputStream(requestBody);
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return null;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (responseCode < 0) {
+            connection.reset(streamId);
+            return;
+        }
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (!CONNECTION_HEADERS.contains(name)) {
+                for (String value : header.getValue()) {
+                    headers.add(new AbstractMap.SimpleImmutableEntry<>(name, value));
+                }
+            }
+        }
+        connection.respond(streamId, responseCode, headers, buffer.toByteArray());
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public synchronized void sendResponseHeaders(int responseCode, long responseLength) {
+        if (this.responseCode >= 0) {
+            throw new IllegalStateException("Response headers already sent");
+        }
+        this.responseCode = responseCode;
+        if (responseLength > 0) {
+            responseHeaders.set("Content-Length", Long.toString(responseLength));
+        }
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public String getProtocol() {
+        return "HTTP/2.0";
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream requestBody, OutputStream responseBody) {
+        if (requestBody != null) {
+            this.requestBody = requestBody;
+        }
+        if (responseBody != null) {
+            this.responseBody = responseBody;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+}
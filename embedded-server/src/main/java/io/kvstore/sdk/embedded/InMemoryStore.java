@@ -0,0 +1,266 @@
+package io.kvstore.sdk.embedded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The data of an {@link EmbeddedKVStoreServer}, safe for concurrent use.
+ * Tests can seed and inspect it directly, without going through HTTP.
+ */
+public class InMemoryStore {
+
+    /**
+     * An immutable version of an item
+     */
+    public static final class StoredItem {
+        private final String key;
+        private final String value;
+        private final double createdAt;
+        private final double updatedAt;
+        private final long sequence;
+
+        StoredItem(String key, String value, double createdAt, double updatedAt, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.sequence = sequence;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * @return the creation time, in seconds since the epoch
+         */
+        public double getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * @return the time of the last update, in seconds since the epoch
+         */
+        public double getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+
+    /**
+     * A collection with its settings and items; items are listed in creation order
+     */
+    public static final class StoredCollection {
+        private final String name;
+        private final double createdAt;
+        private volatile double updatedAt;
+        private volatile boolean publicRead;
+        private volatile boolean publicWrite;
+        private volatile String emailNotification;
+        private volatile String webhook;
+        private volatile String webhookSecret;
+        private final ConcurrentMap<String, StoredItem> items = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<Long, StoredItem> creationOrder = new ConcurrentSkipListMap<>();
+
+        StoredCollection(String name, double createdAt) {
+            this.name = name;
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getItemCount() {
+            return items.size();
+        }
+
+        public double getCreatedAt() {
+            return createdAt;
+        }
+
+        public double getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public boolean isPublicRead() {
+            return publicRead;
+        }
+
+        public boolean isPublicWrite() {
+            return publicWrite;
+        }
+
+        public String getEmailNotification() {
+            return emailNotification;
+        }
+
+        public String getWebhook() {
+            return webhook;
+        }
+
+        public String getWebhookSecret() {
+            return webhookSecret;
+        }
+
+        /**
+         * @param key the key of the item
+         * @return the item, or null
+         */
+        public StoredItem getItem(String key) {
+            return items.get(key);
+        }
+
+        /**
+         * @param offset     the items skipped
+         * @param limit      the maximum number of items returned
+         * @param descending true for the most recent items first
+         * @return a page of items in creation order
+         */
+        public List<StoredItem> listItems(int offset, int limit, boolean descending) {
+            NavigableMap<Long, StoredItem> order = descending ? creationOrder.descendingMap() : creationOrder;
+            List<StoredItem> page = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+            Iterator<StoredItem> iterator = order.values().iterator();
+            for (int i = 0; i < offset && iterator.hasNext(); i++) {
+                iterator.next();
+            }
+            while (page.size() < limit && iterator.hasNext()) {
+                page.add(iterator.next());
+            }
+            return page;
+        }
+
+        void update(Boolean publicRead, Boolean publicWrite, String emailNotification, String webhook, String webhookSecret, double now) {
+            if (publicRead != null) {
+                this.publicRead = publicRead;
+            }
+            if (publicWrite != null) {
+                this.publicWrite = publicWrite;
+            }
+            if (emailNotification != null) {
+                this.emailNotification = emailNotification;
+            }
+            if (webhook != null) {
+                this.webhook = webhook;
+            }
+            if (webhookSecret != null) {
+                this.webhookSecret = webhookSecret;
+            }
+            this.updatedAt = now;
+        }
+    }
+
+    private final UUID storageUUID = UUID.randomUUID();
+    private volatile String referer;
+    private final ConcurrentMap<String, StoredCollection> collections = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public UUID getStorageUUID() {
+        return storageUUID;
+    }
+
+    public String getReferer() {
+        return referer;
+    }
+
+    public void setReferer(String referer) {
+        this.referer = referer;
+    }
+
+    /**
+     * @param name the name of the collection
+     * @return the new collection, or null when it already exists
+     */
+    public StoredCollection createCollection(String name) {
+        StoredCollection collection = new StoredCollection(name, now());
+        return collections.putIfAbsent(name, collection) == null ? collection : null;
+    }
+
+    /**
+     * @param name the name of the collection
+     * @return the collection, or null
+     */
+    public StoredCollection getCollection(String name) {
+        return collections.get(name);
+    }
+
+    /**
+     * @return the collections by name
+     */
+    public Map<String, StoredCollection> getCollections() {
+        return Collections.unmodifiableMap(collections);
+    }
+
+    /**
+     * @param name the name of the collection
+     * @return true when the collection existed
+     */
+    public boolean deleteCollection(String name) {
+        return collections.remove(name) != null;
+    }
+
+    /**
+     * Store a value, creating the collection when missing
+     *
+     * @param collectionName the name of the collection
+     * @param key            the key of the item
+     * @param value          the value
+     * @return the stored item
+     */
+    public StoredItem putItem(String collectionName, String key, String value) {
+        StoredCollection collection = collections.computeIfAbsent(collectionName, name -> new StoredCollection(name, now()));
+        double now = now();
+        return collection.items.compute(key, (k, previous) -> {
+            StoredItem item = previous != null
+                ? new StoredItem(key, value, previous.createdAt, now, previous.sequence)
+                : new StoredItem(key, value, now, now, sequence.incrementAndGet());
+            // written while the key is locked by compute, so the index never disagrees with the map
+            collection.creationOrder.put(item.sequence, item);
+            return item;
+        });
+    }
+
+    /**
+     * @param collectionName the name of the collection
+     * @param key            the key of the item
+     * @return true when the item existed
+     */
+    public boolean deleteItem(String collectionName, String key) {
+        StoredCollection collection = collections.get(collectionName);
+        if (collection == null) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        collection.items.computeIfPresent(key, (k, previous) -> {
+            collection.creationOrder.remove(previous.sequence);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Delete every collection
+     */
+    public void clear() {
+        collections.clear();
+    }
+
+    static double now() {
+        return System.currentTimeMillis() / 1000.0;
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.kvstore.sdk.embedded;
+
+import org.junit.Test;
+
+import java.net.ProtocolException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HpackTest {
+
+    @Test
+    public void decodesRequestsWithoutHuffman() throws ProtocolException {
+        // RFC 7541 C.3, the three requests sharing the dynamic table of the connection
+        Hpack.Decoder decoder = new Hpack.Decoder(4096);
+        assertHeaders(decoder.decode(hex("828684410f7777772e6578616d706c652e636f6d")),
+            ":method", "GET", ":scheme", "http", ":path", "/", ":authority", "www.example.com");
+        assertHeaders(decoder.decode(hex("828684be58086e6f2d6361636865")),
+            ":method", "GET", ":scheme", "http", ":path", "/", ":authority", "www.example.com", "cache-control", "no-cache");
+        assertHeaders(decoder.decode(hex("828785bf400a637573746f6d2d6b65790c637573746f6d2d76616c7565")),
+            ":method", "GET", ":scheme", "https", ":path", "/index.html", ":authority", "www.example.com", "custom-key", "custom-value");
+    }
+
+    @Test
+    public void decodesRequestsWithHuffman() throws ProtocolException {
+        // RFC 7541 C.4
+        Hpack.Decoder decoder = new Hpack.Decoder(4096);
+        assertHeaders(decoder.decode(hex("828684418cf1e3c2e5f23a6ba0ab90f4ff")),
+            ":method", "GET", ":scheme", "http", ":path", "/", ":authority", "www.example.com");
+        assertHeaders(decoder.decode(hex("828684be5886a8eb10649cbf")),
+            ":method", "GET", ":scheme", "http", ":path", "/", ":authority", "www.example.com", "cache-control", "no-cache");
+        assertHeaders(decoder.decode(hex("828785bf408825a849e95ba97d7f8925a849e95bb8e8b4bf")),
+            ":method", "GET", ":scheme", "https", ":path", "/index.html", ":authority", "www.example.com", "custom-key", "custom-value");
+    }
+
+    @Test
+    public void evictsTheOldestEntriesOfTheDynamicTable() throws ProtocolException {
+        // RFC 7541 C.5, with a table of 256 bytes: the second response evicts ":status: 302"
+        Hpack.Decoder decoder = new Hpack.Decoder(256);
+        assertHeaders(decoder.decode(hex("4803333032580770726976617465611d4d6f6e2c203231204f637420323031332032303a31333a323120474d54"
+                + "6e1768747470733a2f2f7777772e6578616d706c652e636f6d")),
+            ":status", "302", "cache-control", "private", "date", "Mon, 21 Oct 2013 20:13:21 GMT", "location", "https://www.example.com");
+        assertHeaders(decoder.decode(hex("4803333037c1c0bf")),
+            ":status", "307", "cache-control", "private", "date", "Mon, 21 Oct 2013 20:13:21 GMT", "location", "https://www.example.com");
+        assertHeaders(decoder.decode(hex("88c1611d4d6f6e2c203231204f637420323031332032303a31333a323220474d54c05a04677a69707738666f6f3d"
+                + "4153444a4b48514b425a584f5157454f50495541585157454f49553b206d61782d6167653d333630303b2076657273696f6e3d31")),
+            ":status", "200", "cache-control", "private", "date", "Mon, 21 Oct 2013 20:13:22 GMT", "location", "https://www.example.com",
+            "content-encoding", "gzip", "set-cookie", "foo=ASDJKHQKBZXOQWEOPIUAXQWEOIU; max-age=3600; version=1");
+    }
+
+    @Test
+    public void decodesTheEncodedResponses() throws ProtocolException {
+        Hpack.Decoder decoder = new Hpack.Decoder(4096);
+        List<Map.Entry<String, String>> headers = Arrays.asList(header("content-type", "application/json"), header("etag", "\"42\""));
+        assertHeaders(decoder.decode(Hpack.encode(200, headers)),
+            ":status", "200", "content-type", "application/json", "etag", "\"42\"");
+        // not in the static table, so sent as a literal
+        assertHeaders(decoder.decode(Hpack.encode(429, headers)),
+            ":status", "429", "content-type", "application/json", "etag", "\"42\"");
+
+        // a value of 127 bytes or more needs a multi-byte length
+        char[] value = new char[300];
+        Arrays.fill(value, 'v');
+        assertHeaders(decoder.decode(Hpack.encode(204, Arrays.asList(header("x-long", new String(value))))),
+            ":status", "204", "x-long", new String(value));
+    }
+
+    @Test
+    public void rejectsMalformedBlocks() {
+        // truncated literal
+        assertMalformed(new Hpack.Decoder(4096), hex("400a637573746f6d"));
+        // index beyond the tables
+        assertMalformed(new Hpack.Decoder(4096), hex("be"));
+        // table size update above the advertised limit
+        assertMalformed(new Hpack.Decoder(4096), hex("3fe21f"));
+        // Huffman string padded with zeros instead of the prefix of EOS
+        assertMalformed(new Hpack.Decoder(4096), hex("00016181e0"));
+    }
+
+    private static void assertMalformed(Hpack.Decoder decoder, byte[] block) {
+        try {
+            decoder.decode(block);
+            fail("Expected a ProtocolException");
+        } catch (ProtocolException e) {
+            // expected
+        }
+    }
+
+    static void assertHeaders(List<String[]> headers, String... expected) {
+        String[] actual = new String[headers.size() * 2];
+        for (int i = 0; i < headers.size(); i++) {
+            actual[i * 2] = headers.get(i)[0];
+            actual[i * 2 + 1] = headers.get(i)[1];
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    private static Map.Entry<String, String> header(String name, String value) {
+        return new AbstractMap.SimpleImmutableEntry<>(name, value);
+    }
+
+    private static byte[] hex(String hex) {
+        assertEquals(0, hex.length() % 2);
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,405 @@
+package io.kvstore.sdk.embedded;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Exchanges raw frames with an {@link Http2Connection}, the requests being answered through {@link Http2Exchange}s
+ */
+public class Http2ConnectionTest {
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+
+    private static final int FLAG_END_STREAM = 0x1;
+    private static final int FLAG_ACK = 0x1;
+    private static final int FLAG_END_HEADERS = 0x4;
+
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+    private final Hpack.Decoder decoder = new Hpack.Decoder(4096);
+
+    @Before
+    public void setUp() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http2-test");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (socket != null) {
+            socket.close();
+        }
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void answersRequestWithPriorKnowledge() throws IOException {
+        connect(100, exchange -> respond(exchange, 200, "text/plain", "read " + exchange.getRequestURI()
+            + " by " + exchange.getRequestHeaders().getFirst("User-Agent")));
+        startPriorKnowledge(new byte[0]);
+
+        Frame settings = next(SETTINGS);
+        assertEquals(0, settings.flags);
+        assertEquals(100, setting(settings, 0x3));
+        writeFrame(HEADERS, FLAG_END_STREAM | FLAG_END_HEADERS, 1, block(":method", "GET", ":scheme", "http",
+            ":path", "/collections/users/items/a", ":authority", "localhost", "user-agent", "test"));
+
+        Frame headers = next(HEADERS);
+        assertEquals(1, headers.streamId);
+        assertEquals(FLAG_END_HEADERS, headers.flags);
+        Map<String, String> response = decode(headers);
+        assertEquals("200", response.get(":status"));
+        assertEquals("text/plain", response.get("content-type"));
+        Frame data = next(DATA);
+        assertEquals(FLAG_END_STREAM, data.flags);
+        assertEquals("read /collections/users/items/a by test", data.text());
+        assertEquals(Integer.toString(data.payload.length), response.get("content-length"));
+    }
+
+    @Test
+    public void readsHeaderBlockAndBodySplitAcrossFrames() throws IOException {
+        connect(100, exchange -> respond(exchange, 201, "text/plain",
+            exchange.getRequestMethod() + " " + new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8)));
+        startPriorKnowledge(new byte[0]);
+
+        byte[] block = block(":method", "PUT", ":scheme", "http", ":path", "/collections/users/items/a", "content-type", "text/plain");
+        writeFrame(HEADERS, 0, 1, Arrays.copyOfRange(block, 0, 10));
+        writeFrame(CONTINUATION, FLAG_END_HEADERS, 1, Arrays.copyOfRange(block, 10, block.length));
+        writeFrame(DATA, 0, 1, "abc".getBytes(StandardCharsets.UTF_8));
+        writeFrame(DATA, FLAG_END_STREAM, 1, "def".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("201", decode(next(HEADERS)).get(":status"));
+        assertEquals("PUT abcdef", next(DATA).text());
+    }
+
+    @Test
+    public void waitsForFlowControlWindowOfStream() throws IOException {
+        connect(100, exchange -> respond(exchange, 200, "text/plain", "0123456789abcdefghijklmno"));
+        // SETTINGS_INITIAL_WINDOW_SIZE = 10
+        startPriorKnowledge(new byte[]{0, 0x4, 0, 0, 0, 10});
+        writeFrame(HEADERS, FLAG_END_STREAM | FLAG_END_HEADERS, 1, block(":method", "GET", ":scheme", "http", ":path", "/"));
+
+        next(HEADERS);
+        Frame first = next(DATA);
+        assertEquals(0, first.flags);
+        assertEquals("0123456789", first.text());
+
+        writeFrame(WINDOW_UPDATE, 0, 1, int32(100));
+        Frame last = next(DATA);
+        assertEquals(FLAG_END_STREAM, last.flags);
+        assertEquals("abcdefghijklmno", last.text());
+    }
+
+    @Test
+    public void upgradesHttp11Request() throws IOException {
+        connect(100, exchange -> respond(exchange, 200, "text/plain", exchange.getRequestMethod() + " over " + exchange.getProtocol()));
+        out.write(("GET /collections HTTP/1.1\r\nHost: localhost\r\nConnection: Upgrade, HTTP2-Settings\r\nUpgrade: h2c\r\n"
+            + "HTTP2-Settings: AAMAAABkAAQAAP__\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        assertEquals("HTTP/1.1 101 Switching Protocols", readLine());
+        while (!readLine().isEmpty()) {
+            // Connection and Upgrade
+        }
+        startPriorKnowledge(new byte[0]);
+
+        // the upgraded request is stream 1
+        Frame headers = next(HEADERS);
+        assertEquals(1, headers.streamId);
+        assertEquals("200", decode(headers).get(":status"));
+        assertEquals("GET over HTTP/2.0", next(DATA).text());
+    }
+
+    @Test
+    public void acknowledgesSettingsAndPings() throws IOException {
+        connect(100, exchange -> respond(exchange, 204, null, null));
+        startPriorKnowledge(new byte[0]);
+
+        Frame settings = next(SETTINGS);
+        assertEquals(0, settings.flags);
+        Frame ack = readFrame();
+        assertEquals(SETTINGS, ack.type);
+        assertEquals(FLAG_ACK, ack.flags);
+        assertEquals(0, ack.payload.length);
+
+        byte[] opaque = {1, 2, 3, 4, 5, 6, 7, 8};
+        writeFrame(PING, 0, 0, opaque);
+        Frame pong = next(PING);
+        assertEquals(FLAG_ACK, pong.flags);
+        assertArrayEquals(opaque, pong.payload);
+    }
+
+    @Test
+    public void refusesStreamsBeyondMaxConcurrentStreams() throws IOException, InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        connect(1, exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "text/plain", "first");
+        });
+        startPriorKnowledge(new byte[0]);
+        writeFrame(HEADERS, FLAG_END_STREAM | FLAG_END_HEADERS, 1, block(":method", "GET", ":scheme", "http", ":path", "/a"));
+        writeFrame(HEADERS, FLAG_END_STREAM | FLAG_END_HEADERS, 3, block(":method", "GET", ":scheme", "http", ":path", "/b"));
+
+        Frame refused = next(RST_STREAM);
+        assertEquals(3, refused.streamId);
+        assertEquals(0x7, refused.int32(0));
+
+        release.countDown();
+        Frame headers = next(HEADERS);
+        assertEquals(1, headers.streamId);
+        assertEquals("200", decode(headers).get(":status"));
+        assertEquals("first", next(DATA).text());
+    }
+
+    @Test
+    public void resetsStreamOfExchangeClosedWithoutResponse() throws IOException {
+        connect(100, exchange -> {
+            // closed by the connection once handled
+        });
+        startPriorKnowledge(new byte[0]);
+        writeFrame(HEADERS, FLAG_END_STREAM | FLAG_END_HEADERS, 1, block(":method", "GET", ":scheme", "http", ":path", "/"));
+
+        Frame reset = next(RST_STREAM);
+        assertEquals(1, reset.streamId);
+        assertEquals(0x2, reset.int32(0));
+    }
+
+    @Test
+    public void dropsConnectionHeadersOfResponse() throws IOException {
+        connect(100, exchange -> {
+            exchange.getResponseHeaders().set("Connection", "keep-alive");
+            exchange.getResponseHeaders().set("Transfer-Encoding", "chunked");
+            exchange.getResponseHeaders().set("ETag", "\"7\"");
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        });
+        startPriorKnowledge(new byte[0]);
+        writeFrame(HEADERS, FLAG_END_STREAM | FLAG_END_HEADERS, 1, block(":method", "GET", ":scheme", "http", ":path", "/"));
+
+        Frame headers = next(HEADERS);
+        assertEquals(FLAG_END_STREAM | FLAG_END_HEADERS, headers.flags);
+        Map<String, String> response = decode(headers);
+        assertEquals("304", response.get(":status"));
+        assertEquals("\"7\"", response.get("etag"));
+        assertFalse(response.containsKey("connection"));
+        assertFalse(response.containsKey("transfer-encoding"));
+    }
+
+    @Test
+    public void goesAwayOnProtocolError() throws IOException {
+        connect(100, exchange -> respond(exchange, 204, null, null));
+        startPriorKnowledge(new byte[0]);
+        // a header block must be continued before any other frame
+        writeFrame(HEADERS, 0, 1, block(":method", "GET"));
+        writeFrame(DATA, FLAG_END_STREAM, 1, new byte[0]);
+
+        Frame goAway = next(GOAWAY);
+        assertEquals(1, goAway.int32(0));
+        assertEquals(0x1, goAway.int32(4));
+        assertEquals(-1, in.read());
+    }
+
+    private void connect(int maxConcurrentStreams, HttpHandler handler) throws IOException {
+        Thread acceptor = new Thread(() -> {
+            try {
+                Socket accepted = serverSocket.accept();
+                new Http2Connection(accepted, handler, executor, maxConcurrentStreams, connection -> {
+                }).run();
+            } catch (IOException e) {
+                // closed by the test
+            }
+        }, "http2-test-connection");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        socket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        socket.setSoTimeout(5000);
+        in = new DataInputStream(socket.getInputStream());
+        out = new DataOutputStream(socket.getOutputStream());
+    }
+
+    private void startPriorKnowledge(byte[] settings) throws IOException {
+        out.write(PREFACE);
+        writeFrame(SETTINGS, 0, 0, settings);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        exchange.close();
+    }
+
+    /**
+     * @return a header block of literals without indexing
+     */
+    private static byte[] block(String... namesAndValues) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            block.write(0x00);
+            for (String string : new String[]{namesAndValues[i], namesAndValues[i + 1]}) {
+                byte[] bytes = string.getBytes(StandardCharsets.ISO_8859_1);
+                assertTrue(bytes.length < 127);
+                block.write(bytes.length);
+                block.write(bytes, 0, bytes.length);
+            }
+        }
+        return block.toByteArray();
+    }
+
+    private Map<String, String> decode(Frame headers) throws IOException {
+        Map<String, String> decoded = new HashMap<>();
+        for (String[] header : decoder.decode(headers.payload)) {
+            decoded.put(header[0], header[1]);
+        }
+        return decoded;
+    }
+
+    private static int setting(Frame settings, int id) {
+        for (int i = 0; i < settings.payload.length; i += 6) {
+            if (((settings.payload[i] & 0xff) << 8 | (settings.payload[i + 1] & 0xff)) == id) {
+                return settings.int32(i + 2);
+            }
+        }
+        fail("Missing setting " + id);
+        return -1;
+    }
+
+    private void writeFrame(int type, int flags, int streamId, byte[] payload) throws IOException {
+        out.write(payload.length >>> 16);
+        out.writeShort(payload.length);
+        out.write(type);
+        out.write(flags);
+        out.writeInt(streamId);
+        out.write(payload);
+        out.flush();
+    }
+
+    private Frame readFrame() throws IOException {
+        int length = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+        int type = in.readUnsignedByte();
+        int flags = in.readUnsignedByte();
+        int streamId = in.readInt() & 0x7fffffff;
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new Frame(type, flags, streamId, payload);
+    }
+
+    /**
+     * @return the next frame of the given type, skipping the settings and window updates sent by the server meanwhile
+     */
+    private Frame next(int type) throws IOException {
+        while (true) {
+            Frame frame = readFrame();
+            if (frame.type == type) {
+                return frame;
+            }
+            if (frame.type != SETTINGS && frame.type != WINDOW_UPDATE) {
+                fail("Expected a frame of type " + type + " but got one of type " + frame.type);
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                fail("Connection closed");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[256];
+        int n;
+        while ((n = in.read(chunk)) > 0) {
+            buffer.write(chunk, 0, n);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] int32(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static final class Frame {
+        private final int type;
+        private final int flags;
+        private final int streamId;
+        private final byte[] payload;
+
+        private Frame(int type, int flags, int streamId, byte[] payload) {
+            this.type = type;
+            this.flags = flags;
+            this.streamId = streamId;
+            this.payload = payload;
+        }
+
+        private int int32(int offset) {
+            return ((payload[offset] & 0xff) << 24) | ((payload[offset + 1] & 0xff) << 16) | ((payload[offset + 2] & 0xff) << 8)
+                | (payload[offset + 3] & 0xff);
+        }
+
+        private String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -1,34 +1,542 @@
 package io.kvstore.sdk;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.kvstore.sdk.clients.AsyncCollectionsClient;
+import io.kvstore.sdk.clients.AsyncItemsClient;
+import io.kvstore.sdk.clients.AsyncStorageClient;
 import io.kvstore.sdk.clients.CollectionsClient;
 import io.kvstore.sdk.clients.ItemsClient;
 import io.kvstore.sdk.clients.KVStoreClient;
+import io.kvstore.sdk.clients.Revalidation;
 import io.kvstore.sdk.clients.StorageClient;
+import io.kvstore.sdk.clients.TypedItemsClient;
+import io.kvstore.sdk.clients.Validators;
+import io.kvstore.sdk.clients.impls.AsyncCollectionsClientImpl;
+import io.kvstore.sdk.clients.impls.AsyncItemsClientImpl;
+import io.kvstore.sdk.clients.impls.AsyncStorageClientImpl;
 import io.kvstore.sdk.clients.impls.CollectionsClientImpl;
 import io.kvstore.sdk.clients.impls.ItemsClientImpl;
 import io.kvstore.sdk.clients.impls.StorageClientImpl;
+import io.kvstore.sdk.clients.impls.TypedItemsClientImpl;
+import io.kvstore.sdk.codecs.ValueCodec;
+import io.kvstore.sdk.compression.CompressingTransport;
+import io.kvstore.sdk.compression.CompressionStats;
+import io.kvstore.sdk.compression.ContentCoding;
 import io.kvstore.sdk.exceptions.KVStoreException;
+import io.kvstore.sdk.limits.LimitMode;
+import io.kvstore.sdk.limits.LimitedTransport;
+import io.kvstore.sdk.limits.LimiterStats;
+import io.kvstore.sdk.limits.RateLimiter;
+import io.kvstore.sdk.metrics.KVStoreMetrics;
+import io.kvstore.sdk.metrics.MetricsTransport;
+import io.kvstore.sdk.resilience.HedgingStats;
+import io.kvstore.sdk.resilience.HedgingTransport;
+import io.kvstore.sdk.resilience.ResilientTransport;
+import io.kvstore.sdk.resilience.RetryBudget;
+import io.kvstore.sdk.resilience.RetryPolicy;
+import io.kvstore.sdk.transport.AsyncHttpTransport;
+import io.kvstore.sdk.transport.BufferPool;
+import io.kvstore.sdk.transport.DispatchingAsyncTransport;
+import io.kvstore.sdk.transport.ExecutionMode;
+import io.kvstore.sdk.transport.HttpHost;
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+import io.kvstore.sdk.transport.PooledHttpTransport;
+import io.kvstore.sdk.transport.SingleFlightStats;
+import io.kvstore.sdk.transport.SingleFlightTransport;
+import io.kvstore.sdk.transport.VirtualThreads;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 /**
  * Main class to access the KVStore.io services through this Java SDK.
  * Please refer to the <a href="https://www.kvstore.io/#/documentation">documentation</a> section of the main website to learn the general concepts.
+ * <p>
+ * An instance is immutable and thread-safe: create one per API token and share it, along with its sub-clients,
+ * between all the threads of the application. It owns its transport, connections and threads, released by {@link #close()}.
+ * <pre>
+ * try (KVStoreClient client = KVStore.builder()
+ *         .setApiToken(APIToken)
+ *         .setRetryPolicy(RetryPolicy.builder().setMaxAttempts(5).build())
+ *         .setRateLimit(50, 10)
+ *         .setMetrics(metrics)
+ *         .build()) {
+ *     ItemsClient items = client.itemsClient();
+ *     ...
+ * }
+ * </pre>
  */
 public class KVStore implements KVStoreClient {
     public enum ENV {PRODUCTION, STAGING, DEVELOPMENT}
 
+    public static class Builder {
+        private String apiToken;
+        private ENV env = ENV.PRODUCTION;
+        private Integer port;
+        private HttpTransport transport;
+        private boolean resilience = true;
+        private RetryPolicy retryPolicy;
+        private RetryBudget retryBudget;
+        private int failureThreshold;
+        private Duration openDuration;
+        private double permitsPerSecond;
+        private int burst;
+        private final Map<String, RateLimiter> collectionRateLimits = new LinkedHashMap<>();
+        private int initialConcurrency;
+        private int maxConcurrency;
+        private LimitMode limitMode;
+        private Duration maxQueueTime;
+        private KVStoreMetrics metrics;
+        private boolean compression = true;
+        private int requestCompressionThreshold = -1;
+        private Executor asyncExecutor;
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+        private int maxInFlight;
+        private ObjectMapper objectMapper;
+        private boolean hedging;
+        private double hedgingPercentile = 95;
+        private RetryBudget hedgeBudget;
+        private Duration singleFlightMaxWait;
+        private CompressingTransport compressingTransport;
+        private HedgingTransport hedgingTransport;
+        private SingleFlightTransport singleFlightTransport;
+        private LimitedTransport limitedTransport;
+
+        private Builder() {
+        }
+
+        /**
+         * @param apiToken the secret key obtainable from the service dashboard (required)
+         * @return the Builder itself
+         */
+        public Builder setApiToken(String apiToken) {
+            this.apiToken = apiToken;
+            return this;
+        }
+
+        /**
+         * @param env the environment to connect to (default PRODUCTION)
+         * @return the Builder itself
+         */
+        public Builder setEnvironment(ENV env) {
+            this.env = Objects.requireNonNull(env, "env");
+            return this;
+        }
+
+        /**
+         * @param port the local port where the API runs, selecting the DEVELOPMENT environment
+         * @return the Builder itself
+         */
+        public Builder setPort(int port) {
+            if (port <= 0 || port > 65535) {
+                throw new IllegalArgumentException("port must be between 1 and 65535");
+            }
+            this.env = ENV.DEVELOPMENT;
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param transport the transport doing the I/O, closed with the client (default a {@link PooledHttpTransport} with the default pool)
+         * @return the Builder itself
+         */
+        public Builder setTransport(HttpTransport transport) {
+            this.transport = Objects.requireNonNull(transport, "transport");
+            return this;
+        }
+
+        /**
+         * @param resilience whether the requests go through a {@link ResilientTransport}, retrying transient failures
+         *                   and opening a circuit breaker on repeated ones (default true)
+         * @return the Builder itself
+         */
+        public Builder setResilience(boolean resilience) {
+            this.resilience = resilience;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy the retry policy of the {@link ResilientTransport} (default {@code RetryPolicy.builder().build()})
+         * @return the Builder itself
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy");
+            return this;
+        }
+
+        /**
+         * @param retryBudget the retry budget of the {@link ResilientTransport} (default {@link RetryBudget#defaultBudget()})
+         * @return the Builder itself
+         */
+        public Builder setRetryBudget(RetryBudget retryBudget) {
+            this.retryBudget = Objects.requireNonNull(retryBudget, "retryBudget");
+            return this;
+        }
+
+        /**
+         * @param failureThreshold the number of consecutive failures opening the circuit of a host (default 5)
+         * @param openDuration how long an open circuit rejects requests before letting a probe through (default 10 seconds)
+         * @return the Builder itself
+         */
+        public Builder setCircuitBreaker(int failureThreshold, Duration openDuration) {
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("failureThreshold must be positive");
+            }
+            this.failureThreshold = failureThreshold;
+            this.openDuration = Objects.requireNonNull(openDuration, "openDuration");
+            return this;
+        }
+
+        /**
+         * @param hedging whether the GET requests not answered after the 95th percentile of the observed latencies
+         *                are sent a second time, taking the first response (default false)
+         * @return the Builder itself
+         * @see HedgingTransport
+         */
+        public Builder setHedging(boolean hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        /**
+         * Hedge the GET requests not answered after the given percentile of the observed latencies
+         *
+         * @param percentile  the percentile of the observed latencies after which a GET is sent again
+         * @param hedgeBudget the budget capping the hedges to a fraction of the GETs
+         * @return the Builder itself
+         * @see HedgingTransport
+         */
+        public Builder setHedging(double percentile, RetryBudget hedgeBudget) {
+            if (percentile <= 0 || percentile >= 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100 exclusive");
+            }
+            this.hedging = true;
+            this.hedgingPercentile = percentile;
+            this.hedgeBudget = Objects.requireNonNull(hedgeBudget, "hedgeBudget");
+            return this;
+        }
+
+        /**
+         * @param singleFlight whether concurrent identical GET requests share a single exchange, each caller waiting
+         *                     for it at most 5 seconds (default false)
+         * @return the Builder itself
+         * @see SingleFlightTransport
+         */
+        public Builder setSingleFlight(boolean singleFlight) {
+            this.singleFlightMaxWait = singleFlight ? Duration.ofSeconds(5) : null;
+            return this;
+        }
+
+        /**
+         * Share a single exchange between concurrent identical GET requests
+         *
+         * @param maxWait how long a caller waits for the response of an identical request sent by another one
+         * @return the Builder itself
+         * @see SingleFlightTransport
+         */
+        public Builder setSingleFlight(Duration maxWait) {
+            if (maxWait.isNegative() || maxWait.isZero()) {
+                throw new IllegalArgumentException("maxWait must be positive");
+            }
+            this.singleFlightMaxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param permitsPerSecond the sustained number of requests per second, retries included (default unlimited)
+         * @param burst the number of requests that can be sent at once after an idle period
+         * @return the Builder itself
+         * @see LimitedTransport
+         */
+        public Builder setRateLimit(double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Limit the rate of the requests on the items of a collection, on top of the global rate
+         *
+         * @param collectionName the name of the collection
+         * @param permitsPerSecond the sustained number of requests per second, retries included
+         * @param burst the number of requests that can be sent at once after an idle period
+         * @return the Builder itself
+         * @see LimitedTransport
+         */
+        public Builder setCollectionRateLimit(String collectionName, double permitsPerSecond, int burst) {
+            this.collectionRateLimits.put(Objects.requireNonNull(collectionName, "collectionName"), new RateLimiter(permitsPerSecond, burst));
+            return this;
+        }
+
+        /**
+         * @param initialConcurrency the limit of the requests in flight before any request completes
+         * @param maxConcurrency the highest limit reachable, the limit adapting to the observed latency and throttling
+         *                       (default unlimited)
+         * @return the Builder itself
+         * @see LimitedTransport
+         */
+        public Builder setAdaptiveConcurrency(int initialConcurrency, int maxConcurrency) {
+            if (initialConcurrency <= 0 || maxConcurrency < initialConcurrency) {
+                throw new IllegalArgumentException("initialConcurrency must be positive and not above maxConcurrency");
+            }
+            this.initialConcurrency = initialConcurrency;
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param limitMode what a request does when a rate or concurrency limit is reached (default {@link LimitMode#BLOCK})
+         * @return the Builder itself
+         */
+        public Builder setLimitMode(LimitMode limitMode) {
+            this.limitMode = Objects.requireNonNull(limitMode, "limitMode");
+            return this;
+        }
+
+        /**
+         * @param maxQueueTime the longest wait for the limits in {@link LimitMode#QUEUE_WITH_DEADLINE} mode (default 1 second)
+         * @return the Builder itself
+         */
+        public Builder setMaxQueueTime(Duration maxQueueTime) {
+            if (maxQueueTime.isNegative()) {
+                throw new IllegalArgumentException("maxQueueTime must not be negative");
+            }
+            this.maxQueueTime = maxQueueTime;
+            return this;
+        }
+
+        /**
+         * @param metrics the listener notified of every request, as seen by the caller (default none)
+         * @return the Builder itself
+         * @see MetricsTransport
+         */
+        public Builder setMetrics(KVStoreMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        /**
+         * @param compression whether the responses may be compressed with gzip or deflate, and are then
+         *                    decompressed while they are parsed (default true)
+         * @return the Builder itself
+         * @see CompressingTransport
+         */
+        public Builder setCompression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * @param threshold the size in bytes from which the bodies of put and post are sent gzipped,
+         *                  when the server accepts them (default disabled)
+         * @return the Builder itself
+         */
+        public Builder setRequestCompression(int threshold) {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("threshold must not be negative");
+            }
+            this.compression = true;
+            this.requestCompressionThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * @param asyncExecutor the executor running the blocking exchanges of the async clients, not closed with the client
+         *                      (default an internal pool of daemon threads)
+         * @return the Builder itself
+         */
+        public Builder setAsyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        /**
+         * @param executionMode the kind of threads sending the requests of the async clients and of the multi-key operations,
+         *                      when no async executor is set (default PLATFORM_THREADS)
+         * @return the Builder itself
+         * @see VirtualThreads#isAvailable()
+         */
+        public Builder setExecutionMode(ExecutionMode executionMode) {
+            this.executionMode = Objects.requireNonNull(executionMode, "executionMode");
+            return this;
+        }
+
+        /**
+         * @param maxInFlight the maximum number of requests of the async clients being sent at the same time
+         *                    (default 20 with platform threads, 10000 with virtual threads)
+         * @return the Builder itself
+         */
+        public Builder setMaxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("maxInFlight must be positive");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * @param objectMapper the mapper of the JSON bodies, not to be reconfigured afterwards (default a new ObjectMapper)
+         * @return the Builder itself
+         */
+        public Builder setObjectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+            return this;
+        }
+
+        public KVStore build() {
+            if (apiToken == null) {
+                throw new IllegalStateException("apiToken must be set");
+            }
+            if (executionMode == ExecutionMode.VIRTUAL_THREADS && asyncExecutor == null && !VirtualThreads.isAvailable()) {
+                throw new IllegalStateException("Virtual threads require Java 21 or later");
+            }
+            return new KVStore(this);
+        }
+
+        /**
+         * @return the transport stack: metrics on top, then compression, then the sharing of identical GETs,
+         * then retries and circuit breakers, then hedges, then rate and concurrency limits, then the I/O
+         */
+        private HttpTransport buildTransport() {
+            HttpTransport stack = transport != null ? transport : PooledHttpTransport.builder().build();
+            if (permitsPerSecond > 0 || !collectionRateLimits.isEmpty() || maxConcurrency > 0) {
+                LimitedTransport.Builder limited = LimitedTransport.builder(stack);
+                if (permitsPerSecond > 0) {
+                    limited.setRateLimit(permitsPerSecond, burst);
+                }
+                for (Map.Entry<String, RateLimiter> limit : collectionRateLimits.entrySet()) {
+                    limited.setCollectionRateLimit(limit.getKey(), limit.getValue().getPermitsPerSecond(), limit.getValue().getBurst());
+                }
+                if (maxConcurrency > 0) {
+                    limited.setAdaptiveConcurrency(initialConcurrency, maxConcurrency);
+                }
+                if (limitMode != null) {
+                    limited.setMode(limitMode);
+                }
+                if (maxQueueTime != null) {
+                    limited.setMaxQueueTime(maxQueueTime);
+                }
+                stack = limitedTransport = limited.build();
+            }
+            if (hedging) {
+                HedgingTransport.Builder hedged = HedgingTransport.builder(stack)
+                    .setPercentile(hedgingPercentile)
+                    .setExecutionMode(executionMode);
+                if (hedgeBudget != null) {
+                    hedged.setHedgeBudget(hedgeBudget);
+                }
+                if (metrics != null) {
+                    hedged.setMetrics(metrics);
+                }
+                stack = hedgingTransport = hedged.build();
+            }
+            if (resilience) {
+                ResilientTransport.Builder resilient = ResilientTransport.builder(stack);
+                if (retryPolicy != null) {
+                    resilient.setRetryPolicy(retryPolicy);
+                }
+                if (retryBudget != null) {
+                    resilient.setRetryBudget(retryBudget);
+                }
+                if (openDuration != null) {
+                    resilient.setFailureThreshold(failureThreshold).setOpenDuration(openDuration);
+                }
+                stack = resilient.build();
+            }
+            if (singleFlightMaxWait != null) {
+                // above the retries, so that the waiters share them too
+                stack = singleFlightTransport = SingleFlightTransport.builder(stack).setMaxWait(singleFlightMaxWait).build();
+            }
+            if (compression) {
+                CompressingTransport.Builder compressing = CompressingTransport.builder(stack);
+                if (requestCompressionThreshold >= 0) {
+                    compressing.setRequestCompression(ContentCoding.GZIP, requestCompressionThreshold);
+                }
+                if (metrics != null) {
+                    compressing.setMetrics(metrics);
+                }
+                stack = compressingTransport = compressing.build();
+            }
+            if (metrics != null) {
+                stack = new MetricsTransport(stack, metrics);
+            }
+            return stack;
+        }
+
+        private AsyncHttpTransport buildAsyncTransport(HttpTransport transport) {
+            if (asyncExecutor != null) {
+                return new DispatchingAsyncTransport(transport, asyncExecutor, maxInFlight > 0 ? maxInFlight : DispatchingAsyncTransport.DEFAULT_MAX_IN_FLIGHT);
+            }
+            int defaultMaxInFlight = executionMode == ExecutionMode.VIRTUAL_THREADS
+                ? DispatchingAsyncTransport.DEFAULT_VIRTUAL_MAX_IN_FLIGHT
+                : DispatchingAsyncTransport.DEFAULT_MAX_IN_FLIGHT;
+            return DispatchingAsyncTransport.of(transport, executionMode, maxInFlight > 0 ? maxInFlight : defaultMaxInFlight);
+        }
+    }
+
     private enum HTTP_METHOD {GET, PUT, DELETE, POST}
 
+    /**
+     * Reads the body of a successful response
+     * @param <T> the type of the value read
+     */
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    /**
+     * Reads the body of a successful response along with the validators of its resource
+     * @param <T> the type of the value read
+     */
+    @FunctionalInterface
+    public interface ValidatedReader<T> {
+        T read(InputStream body, Validators validators) throws IOException;
+    }
+
+    /**
+     * Leaves the body unread: closing the response skips it and gives the connection back to the pool
+     */
+    private static final ResponseReader<Void> DISCARD = body -> null;
+
     public final static String CONTENT_TYPE_JSON = "application/json";
     public final static String CONTENT_TYPE_TEXT = "text/plain";
 
     private final String APIToken;
     private final ENV env;
     private final Integer port;
+    private final HttpHost host;
+    private final HttpTransport transport;
+    private final CompressingTransport compressingTransport;
+    private final HedgingTransport hedgingTransport;
+    private final SingleFlightTransport singleFlightTransport;
+    private final LimitedTransport limitedTransport;
+    private final AsyncHttpTransport asyncTransport;
 
     private static final String productionBaseURL = "https://api.kvstore.io";
     private static final String stagingBaseURL = "https://staging-api.kvstore.io";
@@ -37,12 +545,45 @@ public class KVStore implements KVStoreClient {
 
     private final ObjectMapper objectMapper;
 
-    private KVStore(String APIToken, ENV env, Integer port) {
-        this.APIToken = APIToken;
-        this.env = env;
-        this.port = port;
+    private final StorageClient storageClient;
+    private final CollectionsClient collectionsClient;
+    private final ItemsClient itemsClient;
+    private final AsyncStorageClient asyncStorageClient;
+    private final AsyncCollectionsClient asyncCollectionsClient;
+    private final AsyncItemsClient asyncItemsClient;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
-        objectMapper = new ObjectMapper();
+    private final AtomicLong conditionalRequests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong unchangedBodies = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    private KVStore(Builder builder) {
+        this.APIToken = builder.apiToken;
+        this.env = builder.env;
+        this.port = builder.port;
+        this.host = HttpHost.of(getBaseURL());
+        this.transport = builder.buildTransport();
+        this.compressingTransport = builder.compressingTransport;
+        this.hedgingTransport = builder.hedgingTransport;
+        this.singleFlightTransport = builder.singleFlightTransport;
+        this.limitedTransport = builder.limitedTransport;
+        this.asyncTransport = transport instanceof AsyncHttpTransport ? (AsyncHttpTransport) transport : builder.buildAsyncTransport(transport);
+        this.objectMapper = builder.objectMapper != null ? builder.objectMapper : new ObjectMapper();
+
+        this.storageClient = new StorageClientImpl(this);
+        this.collectionsClient = new CollectionsClientImpl(this);
+        this.itemsClient = new ItemsClientImpl(this);
+        this.asyncStorageClient = new AsyncStorageClientImpl(this);
+        this.asyncCollectionsClient = new AsyncCollectionsClientImpl(this);
+        this.asyncItemsClient = new AsyncItemsClientImpl(this);
+    }
+
+    /**
+     * @return a builder of a client owning its transport, with the default retries and circuit breakers
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -51,7 +592,7 @@ public class KVStore implements KVStoreClient {
      * @return instance of KVStoreClient
      */
     public static KVStoreClient instance(String APIToken) {
-        return new KVStore(APIToken, ENV.PRODUCTION, null);
+        return builder().setApiToken(APIToken).build();
     }
 
     /**
@@ -62,7 +603,20 @@ public class KVStore implements KVStoreClient {
      * @see io.kvstore.sdk.KVStore.ENV
      */
     public static KVStoreClient instance(String APIToken, ENV env) {
-        return new KVStore(APIToken, env, null);
+        return builder().setApiToken(APIToken).setEnvironment(env).build();
+    }
+
+    /**
+     * Get an instance of KVStoreClient sending its requests through a custom transport,
+     * i.e. a {@link PooledHttpTransport} with a tuned pool, usually decorated by a {@link ResilientTransport}
+     * @param APIToken Secret key obtainable from the service dashboard
+     * @param env environment to connect to
+     * @param transport the HTTP transport to be used
+     * @return instance of KVStoreClient
+     * @see io.kvstore.sdk.transport.PooledHttpTransport#builder()
+     */
+    public static KVStoreClient instance(String APIToken, ENV env, HttpTransport transport) {
+        return builder().setApiToken(APIToken).setEnvironment(env).setTransport(transport).setResilience(false).build();
     }
 
     /**
@@ -73,7 +627,19 @@ public class KVStore implements KVStoreClient {
      * @see io.kvstore.sdk.clients.KVStoreClient
      */
     public static KVStoreClient instance(String APIToken, int port) {
-        return new KVStore(APIToken, ENV.DEVELOPMENT, port);
+        return builder().setApiToken(APIToken).setPort(port).build();
+    }
+
+    /**
+     * Constructor for development purposes with a custom transport
+     * @param APIToken Secret key obtainable from the service dashboard
+     * @param port the local port where the API run
+     * @param transport the HTTP transport to be used
+     * @return instance of KVStoreClient
+     * @see io.kvstore.sdk.transport.PooledHttpTransport#builder()
+     */
+    public static KVStoreClient instance(String APIToken, int port, HttpTransport transport) {
+        return builder().setApiToken(APIToken).setPort(port).setTransport(transport).setResilience(false).build();
     }
 
     /**
@@ -81,7 +647,7 @@ public class KVStore implements KVStoreClient {
      * @return the instance of the StorageClient handler
      */
     public StorageClient storageClient() {
-        return new StorageClientImpl(this);
+        return storageClient;
     }
 
     /**
@@ -89,7 +655,7 @@ public class KVStore implements KVStoreClient {
      * @return the instanche of the CollectionsClient handler
      */
     public CollectionsClient collectionsClient() {
-        return new CollectionsClientImpl(this);
+        return collectionsClient;
     }
 
     /**
@@ -97,99 +663,378 @@ public class KVStore implements KVStoreClient {
      * @return the instanche of the ItemsClient handler
      */
     public ItemsClient itemsClient() {
-        return new ItemsClientImpl(this);
+        return itemsClient;
+    }
+
+    /**
+     * Get the non-blocking Storage entity handler
+     * @return the instance of the AsyncStorageClient handler
+     */
+    public AsyncStorageClient asyncStorageClient() {
+        return asyncStorageClient;
+    }
+
+    /**
+     * Get the non-blocking Collections entities handler
+     * @return the instance of the AsyncCollectionsClient handler
+     */
+    public AsyncCollectionsClient asyncCollectionsClient() {
+        return asyncCollectionsClient;
+    }
+
+    /**
+     * Get the non-blocking Items entities handler
+     * @return the instance of the AsyncItemsClient handler
+     */
+    public AsyncItemsClient asyncItemsClient() {
+        return asyncItemsClient;
+    }
+
+    /**
+     * Get the Items entities handler storing typed values. It is a lightweight view of this client,
+     * to be created once per codec and shared like the other handlers.
+     * @param codec the codec of the values
+     * @param <T> the type of the values
+     * @return the instance of the TypedItemsClient handler
+     */
+    public <T> TypedItemsClient<T> typedItemsClient(ValueCodec<T> codec) {
+        return new TypedItemsClientImpl<>(this, codec);
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T get(String endpoint, String contentType, Class<T> pojoClass) {
-        String s = this.doRequest(endpoint, HTTP_METHOD.GET, false, contentType, null);
-        if (pojoClass != null) {
-            try {
-                return objectMapper.readValue(s, pojoClass);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }
-        return (T) s;
+        return this.doRequest(endpoint, HTTP_METHOD.GET, contentType, null, jsonReader(pojoClass));
     }
 
     public void put(String endpoint, Object object) {
-        String payload;
-        String contentType;
-        if (object != null && !(object.getClass().isAssignableFrom(String.class))) {
-            try {
-                payload = objectMapper.writeValueAsString(object);
-                contentType = CONTENT_TYPE_JSON;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        } else {
-            payload = (String) object;
-            contentType = CONTENT_TYPE_TEXT;
-        }
-        this.doRequest(endpoint, HTTP_METHOD.PUT, true, contentType, payload);
+        this.doRequest(endpoint, HTTP_METHOD.PUT, null, putBody(object), DISCARD);
     }
 
     public void delete(String endpoint) {
-        this.doRequest(endpoint, HTTP_METHOD.DELETE, false, null, null);
+        this.doRequest(endpoint, HTTP_METHOD.DELETE, null, null, DISCARD);
     }
 
     public String post(String endpoint, Object object) {
-        String payload = null;
-        String contentType = null;
-        if (object != null) {
+        return this.doRequest(endpoint, HTTP_METHOD.POST, null, postBody(object), this::readInputStream);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String endpoint, String contentType, Class<T> pojoClass) {
+        return this.doRequestAsync(endpoint, HTTP_METHOD.GET, contentType, null, jsonReader(pojoClass));
+    }
+
+    public CompletableFuture<Void> putAsync(String endpoint, Object object) {
+        return this.doRequestAsync(endpoint, HTTP_METHOD.PUT, null, putBody(object), DISCARD).thenApply(v -> null);
+    }
+
+    public CompletableFuture<Void> deleteAsync(String endpoint) {
+        return this.doRequestAsync(endpoint, HTTP_METHOD.DELETE, null, null, DISCARD).thenApply(v -> null);
+    }
+
+    public CompletableFuture<String> postAsync(String endpoint, Object object) {
+        return this.doRequestAsync(endpoint, HTTP_METHOD.POST, null, postBody(object), this::readInputStream);
+    }
+
+    /**
+     * Send a GET request and read the body of the response as it streams from the connection
+     * @param endpoint the path and query string of the resource
+     * @param contentType the content type of the request
+     * @param reader the reader of the response body
+     * @param <T> the type of the value read
+     * @return the value read
+     */
+    public <T> T get(String endpoint, String contentType, ResponseReader<T> reader) {
+        return this.doRequest(endpoint, HTTP_METHOD.GET, contentType, null, reader);
+    }
+
+    /**
+     * Send a GET request in the background and read the body of the response as it streams from the connection
+     * @param endpoint the path and query string of the resource
+     * @param contentType the content type of the request
+     * @param reader the reader of the response body, run by the thread completing the request
+     * @param <T> the type of the value read
+     * @return the future of the value read
+     */
+    public <T> CompletableFuture<T> getAsync(String endpoint, String contentType, ResponseReader<T> reader) {
+        return this.doRequestAsync(endpoint, HTTP_METHOD.GET, contentType, null, reader);
+    }
+
+    /**
+     * Send a PUT request with a body written straight into the connection
+     * @param endpoint the path and query string of the resource
+     * @param body the body of the request, written again if the request is resent
+     */
+    public void put(String endpoint, HttpRequest.Body body) {
+        this.doRequest(endpoint, HTTP_METHOD.PUT, null, body, DISCARD);
+    }
+
+    /**
+     * Send a GET request and read the body of the response along with the ETag and Last-Modified date of the resource
+     * @param endpoint the path and query string of the resource
+     * @param contentType the content type of the request
+     * @param reader the reader of the response body
+     * @param <T> the type of the value read
+     * @return the value read
+     */
+    public <T> T getValidated(String endpoint, String contentType, ValidatedReader<T> reader) {
+        try {
+            HttpResponse response = transport.execute(buildRequest(endpoint, HTTP_METHOD.GET, contentType, null));
+            return readResponse(response, body -> reader.read(body, validatorsOf(response)));
+        } catch (IOException e) {
+            throw new KVStoreException(e);
+        }
+    }
+
+    /**
+     * Send a GET request asynchronously and read the body of the response along with the ETag and Last-Modified date
+     * of the resource
+     * @param endpoint the path and query string of the resource
+     * @param contentType the content type of the request
+     * @param reader the reader of the response body
+     * @param <T> the type of the value read
+     * @return the value read
+     */
+    public <T> CompletableFuture<T> getValidatedAsync(String endpoint, String contentType, ValidatedReader<T> reader) {
+        return this.requestAsync(endpoint, HTTP_METHOD.GET, contentType, null, response -> body -> reader.read(body, validatorsOf(response)));
+    }
+
+    /**
+     * Send a conditional GET request: If-None-Match with the ETag and If-Modified-Since with the Last-Modified date
+     * of the cached value, when it is old enough to be trusted (see {@link Validators#getIfModifiedSince}).
+     * A 304 response returns the cached value without reading any body; a full one is read and compared with
+     * the cached value, in case the server ignores the conditional headers or there was no validator to send.
+     * @param endpoint the path and query string of the resource
+     * @param contentType the content type of the request
+     * @param cached the value read before
+     * @param validators the validators of the cached value
+     * @param reader the reader of a full response body
+     * @param sameVersion tells whether the cached value and the one read are the same version of the resource
+     * @param <T> the type of the value read
+     * @return the current value, telling whether it changed
+     * @see Validators#withFallback
+     */
+    public <T> Revalidation<T> revalidate(String endpoint, String contentType, T cached, Validators validators,
+                                          ValidatedReader<T> reader, BiPredicate<T, T> sameVersion) {
+        HttpRequest.Builder request = buildRequest(endpoint, HTTP_METHOD.GET, contentType, null).toBuilder();
+        if (validators.getETag() != null) {
+            request.setHeader("If-None-Match", validators.getETag());
+        }
+        Date ifModifiedSince = validators.getIfModifiedSince();
+        if (ifModifiedSince != null) {
+            request.setHeader("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.ofEpochMilli(ifModifiedSince.getTime()).atOffset(ZoneOffset.UTC)));
+        }
+        conditionalRequests.incrementAndGet();
+        try {
+            HttpResponse response = transport.execute(request.build());
+            if (response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                response.close();
+                notModified.incrementAndGet();
+                if (validators.getContentLength() > 0) {
+                    bytesSaved.addAndGet(validators.getContentLength());
+                }
+                return Revalidation.notModified(cached);
+            }
+            T loaded = readResponse(response, body -> reader.read(body, validatorsOf(response)));
+            if (sameVersion.test(cached, loaded)) {
+                unchangedBodies.incrementAndGet();
+                return Revalidation.notModified(loaded);
+            }
+            return Revalidation.modified(loaded);
+        } catch (IOException e) {
+            throw new KVStoreException(e);
+        }
+    }
+
+    /**
+     * @return the counters of the conditional requests sent by {@link #revalidate}
+     */
+    public RevalidationStats getRevalidationStats() {
+        return new RevalidationStats(conditionalRequests.get(), notModified.get(), unchangedBodies.get(), bytesSaved.get());
+    }
+
+    /**
+     * @return the counters of the compressed request and response bodies, or null when compression is disabled
+     */
+    public CompressionStats getCompressionStats() {
+        return compressingTransport != null ? compressingTransport.getStats() : null;
+    }
+
+    /**
+     * @return the counters of the hedged GET requests, or null when hedging is disabled
+     */
+    public HedgingStats getHedgingStats() {
+        return hedgingTransport != null ? hedgingTransport.getStats() : null;
+    }
+
+    /**
+     * @return the counters of the GET requests shared between callers, or null when single-flight is disabled
+     */
+    public SingleFlightStats getSingleFlightStats() {
+        return singleFlightTransport != null ? singleFlightTransport.getStats() : null;
+    }
+
+    /**
+     * @return the admission counters of the rate and concurrency limits, or null when no limit is set
+     */
+    public LimiterStats getLimiterStats() {
+        return limitedTransport != null ? limitedTransport.getStats() : null;
+    }
+
+    /**
+     * Release the transport, its connections and its threads; the requests sent afterwards fail.
+     * Closing a closed client has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
             try {
-                payload = objectMapper.writeValueAsString(object);
-                contentType = CONTENT_TYPE_JSON;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                // closes the transport it wraps too
+                asyncTransport.close();
+            } catch (IOException e) {
+                throw new KVStoreException(e);
             }
         }
+    }
 
-        return this.doRequest(endpoint, HTTP_METHOD.POST, true, contentType, payload);
+    /**
+     * @return the factory of the JSON parsers and generators of this client
+     */
+    public JsonFactory getJsonFactory() {
+        return objectMapper.getFactory();
+    }
+
+    /**
+     * @return a reader parsing the body straight from the connection, or decoding it as text when pojoClass is null
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ResponseReader<T> jsonReader(Class<T> pojoClass) {
+        if (pojoClass == null) {
+            return body -> (T) readInputStream(body);
+        }
+        return body -> objectMapper.readValue(body, pojoClass);
+    }
+
+    private HttpRequest.Body putBody(Object object) {
+        if (object != null && !(object.getClass().isAssignableFrom(String.class))) {
+            return jsonBody(object);
+        }
+        return object != null ? HttpRequest.Body.of(((String) object).getBytes(StandardCharsets.UTF_8), CONTENT_TYPE_TEXT) : null;
+    }
+
+    private HttpRequest.Body postBody(Object object) {
+        return object != null ? jsonBody(object) : null;
+    }
+
+    private HttpRequest.Body jsonBody(Object object) {
+        try {
+            return HttpRequest.Body.of(objectMapper.writeValueAsBytes(object), CONTENT_TYPE_JSON);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private String doRequest(String endpoint, HTTP_METHOD httpMethod, boolean doOut, String requestContentType, String payload) {
+    private <T> T doRequest(String endpoint, HTTP_METHOD httpMethod, String requestContentType, HttpRequest.Body body, ResponseReader<T> reader) {
         try {
-            URL url = new URL(getBaseURL() + endpoint);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod(httpMethod.name());
-            connection.setRequestProperty("accept", "*/*");
-            if (requestContentType != null) {
-                connection.setRequestProperty("Content-Type", requestContentType);
-            }
-            connection.setRequestProperty("kvstoreio_api_key", APIToken);
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-            connection.setDoOutput(doOut);
-
-            if (payload != null) {
-                try (DataOutputStream writer = new DataOutputStream(connection.getOutputStream())) {
-                    writer.write(payload.getBytes());
-                    writer.flush();
+            return readResponse(transport.execute(buildRequest(endpoint, httpMethod, requestContentType, body)), reader);
+        } catch (IOException e) {
+            throw new KVStoreException(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> doRequestAsync(String endpoint, HTTP_METHOD httpMethod, String requestContentType, HttpRequest.Body body, ResponseReader<T> reader) {
+        return this.requestAsync(endpoint, httpMethod, requestContentType, body, response -> reader);
+    }
+
+    /**
+     * @param readerOf gives the reader of the body of a successful response
+     */
+    private <T> CompletableFuture<T> requestAsync(String endpoint, HTTP_METHOD httpMethod, String requestContentType, HttpRequest.Body body,
+                                                  Function<HttpResponse, ResponseReader<T>> readerOf) {
+        CompletableFuture<HttpResponse> future;
+        try {
+            future = asyncTransport.executeAsync(buildRequest(endpoint, httpMethod, requestContentType, body));
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        return future.handle((response, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                if (cause instanceof IOException) {
+                    throw new KVStoreException((IOException) cause);
                 }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+            }
+            try {
+                return readResponse(response, readerOf.apply(response));
+            } catch (IOException e) {
+                throw new KVStoreException(e);
             }
+        });
+    }
+
+    private HttpRequest buildRequest(String endpoint, HTTP_METHOD httpMethod, String requestContentType, HttpRequest.Body body) {
+        if (closed.get()) {
+            throw new IllegalStateException("The client is closed");
+        }
+        HttpRequest.Builder request = HttpRequest.builder(httpMethod.name(), host, endpoint)
+            .setHeader("accept", "*/*")
+            .setHeader("kvstoreio_api_key", APIToken);
+        if (body != null) {
+            request.setBody(body);
+        } else if (requestContentType != null) {
+            request.setHeader("Content-Type", requestContentType);
+        }
+        return request.build();
+    }
 
-            if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
-                return readInputStream(connection.getInputStream());
+    private <T> T readResponse(HttpResponse httpResponse, ResponseReader<T> reader) throws IOException {
+        try (HttpResponse response = httpResponse) {
+            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                return reader.read(response.getBody());
             } else {
-                throw new KVStoreException(readInputStream(connection.getErrorStream()));
+                throw new KVStoreException(response.getStatusCode(), readInputStream(response.getBody()));
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
-    private String readInputStream(InputStream inputStream) throws IOException {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream))) {
-            String inputLine;
-            StringBuilder response = new StringBuilder();
-
-            while ((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
+    private static Validators validatorsOf(HttpResponse response) {
+        // the Date header comes from the clock of the server, like Last-Modified and updated_at
+        Date readAt = parseDate(response.getHeader("Date"));
+        if (readAt == null) {
+            readAt = new Date();
+        }
+        String lastModified = response.getHeader("Last-Modified");
+        String contentLength = response.getHeader("Content-Length");
+        if (contentLength == null) {
+            // a decoded body saves the transfer of its compressed bytes
+            contentLength = response.getHeader(CompressingTransport.ENCODED_CONTENT_LENGTH);
+        }
+        // when missing or unparseable, withFallback uses updated_at instead
+        Date date = parseDate(lastModified);
+        long length = -1;
+        if (contentLength != null) {
+            try {
+                length = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException ignored) {
+                // unknown
             }
-            return response.toString();
         }
+        return Validators.of(response.getHeader("ETag"), date, length, readAt);
+    }
+
+    private static Date parseDate(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Date.from(ZonedDateTime.parse(header, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private String readInputStream(InputStream inputStream) throws IOException {
+        return BufferPool.shared().readUtf8(inputStream);
     }
 
     private String getBaseURL() {
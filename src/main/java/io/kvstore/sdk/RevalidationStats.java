@@ -0,0 +1,55 @@
+package io.kvstore.sdk;
+
+/**
+ * Point-in-time counters of the conditional requests sent to revalidate cached values
+ */
+public final class RevalidationStats {
+
+    private final long requests;
+    private final long notModified;
+    private final long unchangedBodies;
+    private final long bytesSaved;
+
+    RevalidationStats(long requests, long notModified, long unchangedBodies, long bytesSaved) {
+        this.requests = requests;
+        this.notModified = notModified;
+        this.unchangedBodies = unchangedBodies;
+        this.bytesSaved = bytesSaved;
+    }
+
+    /**
+     * @return the number of conditional requests sent
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of 304 Not Modified responses received, each one saving the transfer and the parsing of a body
+     */
+    public long getNotModified() {
+        return notModified;
+    }
+
+    /**
+     * @return the number of full responses carrying the same version as the cached value,
+     * i.e. from a server ignoring the conditional headers
+     */
+    public long getUnchangedBodies() {
+        return unchangedBodies;
+    }
+
+    /**
+     * @return the number of response body bytes not transferred thanks to 304 responses, when their length was known
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    @Override
+    public String toString() {
+        return "RevalidationStats(requests=" + requests + ", notModified=" + notModified + ", unchangedBodies=" + unchangedBodies
+            + ", bytesSaved=" + bytesSaved + ")";
+    }
+
+}
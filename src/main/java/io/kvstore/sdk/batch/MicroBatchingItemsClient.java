@@ -0,0 +1,296 @@
+package io.kvstore.sdk.batch;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.ItemsClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces the {@link #get} calls made by many threads within a short window into a single
+ * {@link ItemsClient#getAll} per collection. Concurrent reads of the same key share one request,
+ * and the distinct keys of the window are fetched with the bounded concurrency of getAll.
+ * Writes, deletes and lists go straight to the wrapped client.
+ * <pre>
+ * MicroBatchingItemsClient items = MicroBatchingItemsClient.builder(client.itemsClient())
+ *     .setWindow(Duration.ofMillis(2))
+ *     .build();
+ * </pre>
+ */
+public class MicroBatchingItemsClient implements ItemsClient, AutoCloseable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    public static class Builder {
+        private final ItemsClient delegate;
+        private Duration window = Duration.ofMillis(2);
+        private int maxBatchSize = 256;
+        private int batchConcurrency = DEFAULT_BATCH_SIZE;
+
+        private Builder(ItemsClient delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param window how long the first read of a batch waits for others to join (default 2 milliseconds)
+         * @return the Builder itself
+         */
+        public Builder setWindow(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * @param maxBatchSize the number of distinct keys that closes a batch before the end of the window (default 256)
+         * @return the Builder itself
+         */
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize <= 0) {
+                throw new IllegalArgumentException("maxBatchSize must be positive");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * @param batchConcurrency the number of concurrent requests used to fetch a batch (default 32)
+         * @return the Builder itself
+         */
+        public Builder setBatchConcurrency(int batchConcurrency) {
+            if (batchConcurrency <= 0) {
+                throw new IllegalArgumentException("batchConcurrency must be positive");
+            }
+            this.batchConcurrency = batchConcurrency;
+            return this;
+        }
+
+        public MicroBatchingItemsClient build() {
+            return new MicroBatchingItemsClient(this);
+        }
+    }
+
+    private static final class Key {
+        private final String collectionName;
+        private final String itemName;
+
+        private Key(String collectionName, String itemName) {
+            this.collectionName = collectionName;
+            this.itemName = itemName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return collectionName.equals(other.collectionName) && itemName.equals(other.itemName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * collectionName.hashCode() + itemName.hashCode();
+        }
+    }
+
+    private static final class Window {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Key, CompletableFuture<ItemValue>> requests = new LinkedHashMap<>();
+        private boolean closed;
+    }
+
+    private final ItemsClient delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int batchConcurrency;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private final AtomicReference<Window> current = new AtomicReference<>(new Window());
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    protected MicroBatchingItemsClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.windowNanos = builder.window.toNanos();
+        this.maxBatchSize = builder.maxBatchSize;
+        this.batchConcurrency = builder.batchConcurrency;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> newThread(runnable, "kvstore-batch-timer-"));
+        this.executor = Executors.newCachedThreadPool(runnable -> newThread(runnable, "kvstore-batch-"));
+    }
+
+    public static Builder builder(ItemsClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public ItemValue get(String collectionName, String itemName) {
+        calls.incrementAndGet();
+        Key key = new Key(collectionName, itemName);
+        while (true) {
+            Window window = current.get();
+            boolean first;
+            boolean full;
+            CompletableFuture<ItemValue> future;
+            window.lock.lock();
+            try {
+                if (window.closed) {
+                    // the window has just been flushed, join the next one
+                    continue;
+                }
+                first = window.requests.isEmpty();
+                future = window.requests.computeIfAbsent(key, k -> new CompletableFuture<>());
+                full = window.requests.size() >= maxBatchSize;
+            } finally {
+                window.lock.unlock();
+            }
+
+            if (full) {
+                flush(window);
+            } else if (first) {
+                try {
+                    scheduler.schedule(() -> flush(window), windowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    flush(window);
+                }
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+            }
+        }
+    }
+
+    @Override
+    public void put(String collectionName, String itemName, String value) {
+        delegate.put(collectionName, itemName, value);
+    }
+
+    @Override
+    public void delete(String collectionName, String itemName) {
+        delegate.delete(collectionName, itemName);
+    }
+
+    @Override
+    public List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        return delegate.list(collectionName, offset, limit, sortType);
+    }
+
+    @Override
+    public BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        return delegate.getAll(collectionName, itemNames, batchSize);
+    }
+
+    @Override
+    public BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        return delegate.putAll(collectionName, items, batchSize);
+    }
+
+    /**
+     * @return the number of get calls received
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * @return the number of distinct keys actually requested to the wrapped client
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of batches flushed
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * Flush the pending reads and release the background threads
+     */
+    @Override
+    public void close() {
+        flush(current.get());
+        scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    private void flush(Window window) {
+        current.compareAndSet(window, new Window());
+        Map<String, Map<String, CompletableFuture<ItemValue>>> byCollection = new LinkedHashMap<>();
+        window.lock.lock();
+        try {
+            if (window.closed || window.requests.isEmpty()) {
+                window.closed = true;
+                return;
+            }
+            window.closed = true;
+            for (Map.Entry<Key, CompletableFuture<ItemValue>> request : window.requests.entrySet()) {
+                byCollection.computeIfAbsent(request.getKey().collectionName, c -> new LinkedHashMap<>())
+                    .put(request.getKey().itemName, request.getValue());
+            }
+        } finally {
+            window.lock.unlock();
+        }
+
+        batches.incrementAndGet();
+        for (Map.Entry<String, Map<String, CompletableFuture<ItemValue>>> collection : byCollection.entrySet()) {
+            requests.addAndGet(collection.getValue().size());
+            Runnable fetch = () -> fetch(collection.getKey(), collection.getValue());
+            try {
+                executor.execute(fetch);
+            } catch (RejectedExecutionException e) {
+                fetch.run();
+            }
+        }
+    }
+
+    private void fetch(String collectionName, Map<String, CompletableFuture<ItemValue>> futures) {
+        try {
+            BatchResult<ItemValue> result = delegate.getAll(collectionName, new ArrayList<>(futures.keySet()), batchConcurrency);
+            for (Map.Entry<String, CompletableFuture<ItemValue>> entry : futures.entrySet()) {
+                RuntimeException failure = result.getFailed().get(entry.getKey());
+                if (failure != null) {
+                    entry.getValue().completeExceptionally(failure);
+                } else {
+                    entry.getValue().complete(result.getSucceeded().get(entry.getKey()));
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            for (CompletableFuture<ItemValue> future : futures.values()) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static Thread newThread(Runnable runnable, String prefix) {
+        Thread thread = new Thread(runnable, prefix + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
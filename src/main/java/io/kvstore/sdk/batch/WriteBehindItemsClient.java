@@ -0,0 +1,511 @@
+package io.kvstore.sdk.batch;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.clients.Revalidation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers {@link #put} and {@link #delete} calls and sends them in the background, for last-write-wins values
+ * like counters and statuses: the calls return at once, repeated writes of a key are collapsed to the latest one,
+ * and the writes of a key reach the API in the order they were made.
+ * The buffer is flushed every flush interval, as soon as it holds flush threshold keys, and on {@link #flush(Duration)};
+ * at most flush concurrency writes are handed to the background threads at a time, the others staying buffered,
+ * and when max pending keys are buffered or being sent the writers of new keys wait for room.
+ * A failed write is not retried: it is reported to the {@link WriteFailureListener}.
+ * Reads, lists and multi-key reads go straight to the wrapped client and don't see the writes still buffered.
+ * <pre>
+ * WriteBehindItemsClient items = WriteBehindItemsClient.builder(client.itemsClient())
+ *     .setFlushInterval(Duration.ofMillis(250))
+ *     .setFailureListener((collectionName, itemName, value, error) -&gt; log.warn("Lost write of " + itemName, error))
+ *     .build();
+ * </pre>
+ */
+public class WriteBehindItemsClient implements ItemsClient, AutoCloseable {
+
+    /**
+     * Receives the writes that couldn't be sent
+     */
+    @FunctionalInterface
+    public interface WriteFailureListener {
+        /**
+         * @param collectionName the name of the collection
+         * @param itemName the name of the key
+         * @param value the value written, null for a delete
+         * @param error the failure
+         */
+        void onFailure(String collectionName, String itemName, String value, RuntimeException error);
+    }
+
+    /**
+     * How long {@link #close()} waits for the buffered writes to be sent
+     */
+    public static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    public static class Builder {
+        private final ItemsClient delegate;
+        private Duration flushInterval = Duration.ofMillis(100);
+        private int flushThreshold = 500;
+        private int maxPendingKeys = 10_000;
+        private int flushConcurrency = DEFAULT_BATCH_SIZE;
+        private WriteFailureListener failureListener = (collectionName, itemName, value, error) -> {
+        };
+
+        private Builder(ItemsClient delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param flushInterval the longest time a write stays buffered when the API keeps up (default 100 milliseconds)
+         * @return the Builder itself
+         */
+        public Builder setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * @param flushThreshold the number of buffered keys that triggers a flush before the interval (default 500)
+         * @return the Builder itself
+         */
+        public Builder setFlushThreshold(int flushThreshold) {
+            if (flushThreshold <= 0) {
+                throw new IllegalArgumentException("flushThreshold must be positive");
+            }
+            this.flushThreshold = flushThreshold;
+            return this;
+        }
+
+        /**
+         * @param maxPendingKeys the number of keys buffered or being sent above which writers of new keys wait (default 10000)
+         * @return the Builder itself
+         */
+        public Builder setMaxPendingKeys(int maxPendingKeys) {
+            if (maxPendingKeys <= 0) {
+                throw new IllegalArgumentException("maxPendingKeys must be positive");
+            }
+            this.maxPendingKeys = maxPendingKeys;
+            return this;
+        }
+
+        /**
+         * @param flushConcurrency the number of writes sent at the same time (default 32)
+         * @return the Builder itself
+         */
+        public Builder setFlushConcurrency(int flushConcurrency) {
+            if (flushConcurrency <= 0) {
+                throw new IllegalArgumentException("flushConcurrency must be positive");
+            }
+            this.flushConcurrency = flushConcurrency;
+            return this;
+        }
+
+        /**
+         * @param failureListener the receiver of the writes that failed (default none)
+         * @return the Builder itself
+         */
+        public Builder setFailureListener(WriteFailureListener failureListener) {
+            this.failureListener = Objects.requireNonNull(failureListener, "failureListener");
+            return this;
+        }
+
+        public WriteBehindItemsClient build() {
+            return new WriteBehindItemsClient(this);
+        }
+    }
+
+    private static final class Key {
+        private final String collectionName;
+        private final String itemName;
+
+        private Key(String collectionName, String itemName) {
+            this.collectionName = collectionName;
+            this.itemName = itemName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return collectionName.equals(other.collectionName) && itemName.equals(other.itemName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * collectionName.hashCode() + itemName.hashCode();
+        }
+    }
+
+    private final ItemsClient delegate;
+    private final int flushThreshold;
+    private final int maxPendingKeys;
+    private final int flushConcurrency;
+    private final WriteFailureListener failureListener;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // the latest value of each buffered key, null for a delete, in the order the keys were first written
+    private final Map<Key, String> pending = new LinkedHashMap<>();
+    // the keys being sent: their next write waits, so that the writes of a key never overtake each other
+    private final Set<Key> inFlight = new HashSet<>();
+    // whether dispatch left writes buffered because flushConcurrency writes were in flight
+    private boolean backlog;
+    private boolean closed;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    protected WriteBehindItemsClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.flushThreshold = builder.flushThreshold;
+        this.maxPendingKeys = builder.maxPendingKeys;
+        this.flushConcurrency = builder.flushConcurrency;
+        this.failureListener = builder.failureListener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> newThread(runnable, "kvstore-write-behind-timer-"));
+        this.executor = Executors.newFixedThreadPool(builder.flushConcurrency, runnable -> newThread(runnable, "kvstore-write-behind-"));
+        long intervalNanos = builder.flushInterval.toNanos();
+        this.scheduler.scheduleWithFixedDelay(this::dispatch, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static Builder builder(ItemsClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public ItemValue get(String collectionName, String itemName) {
+        return delegate.get(collectionName, itemName);
+    }
+
+    @Override
+    public Revalidation<ItemValue> revalidate(String collectionName, String itemName, ItemValue cached) {
+        return delegate.revalidate(collectionName, itemName, cached);
+    }
+
+    /**
+     * Buffer a value, replacing the one buffered for the same key
+     * @param collectionName the name of the collection we're putting the value inside
+     * @param itemName the name of the key
+     * @param value the value
+     */
+    @Override
+    public void put(String collectionName, String itemName, String value) {
+        buffer(new Key(collectionName, itemName), Objects.requireNonNull(value, "value"));
+    }
+
+    /**
+     * Buffer a delete, replacing the value buffered for the same key
+     * @param collectionName the name of the collection
+     * @param itemName the name of the key
+     */
+    @Override
+    public void delete(String collectionName, String itemName) {
+        buffer(new Key(collectionName, itemName), null);
+    }
+
+    @Override
+    public List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        return delegate.list(collectionName, offset, limit, sortType);
+    }
+
+    @Override
+    public BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        return delegate.getAll(collectionName, itemNames, batchSize);
+    }
+
+    /**
+     * Buffer every value: all of them succeed, their failures are reported to the listener
+     */
+    @Override
+    public BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            put(collectionName, item.getKey(), item.getValue());
+        }
+        return new BatchResult<>(new LinkedHashMap<>(items), new LinkedHashMap<>());
+    }
+
+    /**
+     * Send the buffered writes and wait for them to complete
+     * @param timeout the longest wait
+     * @return true when every write made before the call was sent, false when the timeout expired first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.unlock();
+                try {
+                    dispatch();
+                } finally {
+                    lock.lock();
+                }
+                if (!pending.isEmpty() || !inFlight.isEmpty()) {
+                    remaining = changed.awaitNanos(remaining);
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of keys buffered or being sent
+     */
+    public int getPending() {
+        lock.lock();
+        try {
+            return pending.size() + inFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of put and delete calls received
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**
+     * @return the number of writes actually sent to the wrapped client
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of writes that failed
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Stop buffering, send the buffered writes and release the background threads.
+     * When the timeout expires first, the writes not sent yet are abandoned and reported to the {@link WriteFailureListener};
+     * the threads sending the others are interrupted, but a write already on the wire may still complete.
+     * @param timeout the longest wait for the buffered writes
+     * @return true when every write was sent, false when some were abandoned
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean close(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean flushed = false;
+        try {
+            flushed = flush(timeout);
+            return flushed;
+        } finally {
+            scheduler.shutdownNow();
+            if (flushed) {
+                executor.shutdown();
+            } else {
+                abandon();
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #close(Duration)} with {@link #DEFAULT_CLOSE_TIMEOUT}
+     */
+    @Override
+    public void close() {
+        try {
+            close(DEFAULT_CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void buffer(Key key, String value) {
+        boolean full;
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("The client is closed");
+                }
+                if (pending.containsKey(key) || pending.size() + inFlight.size() < maxPendingKeys) {
+                    break;
+                }
+                scheduler.execute(this::dispatch);
+                changed.awaitUninterruptibly();
+            }
+            writes.incrementAndGet();
+            pending.put(key, value);
+            full = pending.size() >= flushThreshold;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            try {
+                scheduler.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                // closing: the final flush sends it
+            }
+        }
+    }
+
+    /**
+     * Hand the buffered writes of the keys not being sent to the executor, up to flushConcurrency writes in flight:
+     * the others stay buffered, collapsing further, and are handed over as the writes in flight complete
+     */
+    private void dispatch() {
+        List<Send> batch = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Key, String>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && inFlight.size() < flushConcurrency) {
+                Map.Entry<Key, String> write = iterator.next();
+                if (inFlight.add(write.getKey())) {
+                    batch.add(new Send(write.getKey(), write.getValue()));
+                    iterator.remove();
+                }
+            }
+            backlog = iterator.hasNext();
+            if (!batch.isEmpty()) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Send send : batch) {
+            try {
+                executor.execute(send);
+            } catch (RejectedExecutionException e) {
+                send.run();
+            }
+        }
+    }
+
+    /**
+     * The write of a key handed to the executor
+     */
+    private final class Send implements Runnable {
+        private final Key key;
+        private final String value;
+
+        private Send(Key key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public void run() {
+            send(key, value);
+        }
+    }
+
+    /**
+     * Drop the buffered writes and the ones waiting for a thread, reporting them as failed, and interrupt the threads sending the others
+     */
+    private void abandon() {
+        Map<Key, String> abandoned = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            abandoned.putAll(pending);
+            pending.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Runnable queued : executor.shutdownNow()) {
+            if (queued instanceof Send) {
+                Send send = (Send) queued;
+                abandoned.putIfAbsent(send.key, send.value);
+                lock.lock();
+                try {
+                    inFlight.remove(send.key);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        for (Map.Entry<Key, String> write : abandoned.entrySet()) {
+            fail(write.getKey(), write.getValue(), new IllegalStateException("Write abandoned: the client was closed before it was sent"));
+        }
+    }
+
+    private void fail(Key key, String value, RuntimeException error) {
+        failures.incrementAndGet();
+        try {
+            failureListener.onFailure(key.collectionName, key.itemName, value, error);
+        } catch (RuntimeException ignored) {
+            // a broken listener must not stop the flushes
+        }
+    }
+
+    private void send(Key key, String value) {
+        try {
+            requests.incrementAndGet();
+            if (value != null) {
+                delegate.put(key.collectionName, key.itemName, value);
+            } else {
+                delegate.delete(key.collectionName, key.itemName);
+            }
+        } catch (RuntimeException e) {
+            fail(key, value, e);
+        } finally {
+            boolean more;
+            lock.lock();
+            try {
+                inFlight.remove(key);
+                changed.signalAll();
+                more = backlog;
+            } finally {
+                lock.unlock();
+            }
+            if (more) {
+                dispatch();
+            }
+        }
+    }
+
+    private static Thread newThread(Runnable runnable, String prefix) {
+        Thread thread = new Thread(runnable, prefix + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
@@ -0,0 +1,356 @@
+package io.kvstore.sdk.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Size-bounded cache with time-to-live, split in independently locked LRU segments.
+ * <p>
+ * Invalidations are stamped with a version taken from a global sequence. When a load of the key is in progress,
+ * they leave a tombstone behind: the load started before the invalidation carries an older version and is not installed,
+ * so a slow read racing with a write of this client can't put the overwritten value back in the cache.
+ * Otherwise the entry is just removed, so that writing keys nobody reads doesn't fill the cache.
+ */
+final class BoundedCache<K, V> {
+
+    private static final int TOMBSTONE_WEIGHT = 16;
+
+    static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+        private final long version;
+        private final int weight;
+
+        private Entry(V value, long expiresAtNanos, long version, int weight) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.version = version;
+            this.weight = weight;
+        }
+
+        V getValue() {
+            return value;
+        }
+
+        boolean isTombstone() {
+            return value == null;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<K, Integer> loads = new HashMap<>();
+        private final long maxEntries;
+        private final long maxWeight;
+        private final FrequencySketch sketch;
+        private long weight;
+
+        private Segment(long maxEntries, long maxWeight, EvictionPolicy policy) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+            this.sketch = policy == EvictionPolicy.TINY_LFU ? new FrequencySketch(maxEntries) : null;
+        }
+
+        /**
+         * Must be called holding the lock
+         *
+         * @return the number of live entries evicted to make room
+         */
+        private int replace(K key, Entry<V> entry) {
+            Entry<V> previous = map.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entry.weight;
+            int evicted = 0;
+            Iterator<Entry<V>> eldest = map.values().iterator();
+            while ((map.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+                Entry<V> victim = eldest.next();
+                eldest.remove();
+                weight -= victim.weight;
+                if (!victim.isTombstone()) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        /**
+         * Must be called holding the lock
+         */
+        private void remove(K key) {
+            Entry<V> previous = map.remove(key);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+        }
+
+        /**
+         * Must be called holding the lock
+         *
+         * @return whether other loads of the key are still in progress
+         */
+        private boolean endLoad(K key) {
+            return loads.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1) != null;
+        }
+
+        /**
+         * Must be called holding the lock: with TinyLFU, a new key is admitted only if more popular than the victim
+         */
+        private boolean admit(K key) {
+            if (sketch == null || (map.size() < maxEntries && weight < maxWeight) || map.containsKey(key)) {
+                return true;
+            }
+            K victim = map.keySet().iterator().next();
+            return sketch.frequency(key.hashCode()) > sketch.frequency(victim.hashCode());
+        }
+    }
+
+    private final long ttlNanos;
+    private final ToIntBiFunction<K, V> weigher;
+    private final Segment<K, V>[] segments;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejectedAdmissions = new AtomicLong();
+    private final AtomicLong staleLoads = new AtomicLong();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BoundedCache(long maxEntries, long maxWeight, long ttlNanos, EvictionPolicy policy, ToIntBiFunction<K, V> weigher, int concurrencyLevel) {
+        this.ttlNanos = ttlNanos;
+        this.weigher = weigher;
+        int count = 1;
+        while (count < concurrencyLevel && count * 2 <= maxEntries) {
+            count *= 2;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(Math.max(1, maxEntries / count), Math.max(1, maxWeight / count), policy);
+        }
+    }
+
+    /**
+     * Register a load of the key, to be ended by {@link #install} or {@link #abandonLoad}
+     *
+     * @return the current version: pass it to {@link #install} once the value has been loaded
+     */
+    long startLoad(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.loads.merge(key, 1, Integer::sum);
+            return sequence.get();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * End a load registered by {@link #startLoad} which failed
+     */
+    void abandonLoad(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            if (!segment.endLoad(key)) {
+                Entry<V> existing = segment.map.get(key);
+                if (existing != null && existing.isTombstone()) {
+                    segment.remove(key);
+                }
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Look a key up, counting the hit or miss
+     *
+     * @return the cached value if present and not expired, null otherwise
+     */
+    V get(K key) {
+        Entry<V> entry = getEntry(key);
+        if (entry != null && !entry.isTombstone() && !entry.isExpired(System.nanoTime())) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @return the value of an expired entry, to be revalidated, or null when the key has no expired value
+     */
+    V getExpired(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            return entry != null && !entry.isTombstone() && entry.isExpired(System.nanoTime()) ? entry.value : null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the raw entry, tombstones and expired entries included, without counting a hit or miss
+     */
+    Entry<V> getEntry(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            if (segment.sketch != null) {
+                segment.sketch.increment(key.hashCode());
+            }
+            return segment.map.get(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Cache a loaded value, unless the key has been invalidated after the load started
+     * or the entry already cached supersedes the loaded value
+     *
+     * @param key        the key
+     * @param value      the loaded value
+     * @param version    the version returned by {@link #startLoad}
+     * @param supersedes tells whether the first (cached) value is newer than the second (loaded) one
+     * @return the value to be returned to the caller: the loaded one, or the newer one already cached
+     */
+    V install(K key, V value, long version, BiPredicate<V, V> supersedes) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            boolean loading = segment.endLoad(key);
+            Entry<V> existing = segment.map.get(key);
+            if (existing != null) {
+                if (existing.isTombstone() && existing.version > version) {
+                    if (!loading) {
+                        // no load left to discard
+                        segment.remove(key);
+                    }
+                    return value;
+                }
+                if (!existing.isTombstone() && supersedes != null && supersedes.test(existing.value, value)) {
+                    staleLoads.incrementAndGet();
+                    return existing.value;
+                }
+            }
+            if (!segment.admit(key)) {
+                rejectedAdmissions.incrementAndGet();
+                return value;
+            }
+            evictions.addAndGet(segment.replace(key, new Entry<>(value, System.nanoTime() + ttlNanos, version, weigher.applyAsInt(key, value))));
+            return value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Drop the cached value, preventing the loads already in progress from caching what they read
+     */
+    void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            long version = sequence.incrementAndGet();
+            if (segment.loads.containsKey(key)) {
+                evictions.addAndGet(segment.replace(key, new Entry<>(null, System.nanoTime() + ttlNanos, version, TOMBSTONE_WEIGHT)));
+            } else {
+                segment.remove(key);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                // the keys being loaded become tombstones so that the loads in progress are discarded too
+                long version = sequence.incrementAndGet();
+                long expiresAt = System.nanoTime() + ttlNanos;
+                segment.map.clear();
+                segment.weight = 0;
+                for (K key : segment.loads.keySet()) {
+                    segment.map.put(key, new Entry<>(null, expiresAt, version, TOMBSTONE_WEIGHT));
+                    segment.weight += TOMBSTONE_WEIGHT;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drop the cached values of the matching keys, preventing the loads already in progress from caching what they read
+     */
+    void invalidateIf(Predicate<? super K> filter) {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                long version = sequence.incrementAndGet();
+                long expiresAt = System.nanoTime() + ttlNanos;
+                Iterator<Map.Entry<K, Entry<V>>> entries = segment.map.entrySet().iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<K, Entry<V>> entry = entries.next();
+                    if (filter.test(entry.getKey())) {
+                        segment.weight -= entry.getValue().weight;
+                        entries.remove();
+                    }
+                }
+                for (K key : segment.loads.keySet()) {
+                    if (filter.test(key)) {
+                        segment.map.put(key, new Entry<>(null, expiresAt, version, TOMBSTONE_WEIGHT));
+                        segment.weight += TOMBSTONE_WEIGHT;
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    CacheStats stats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                for (Entry<V> entry : segment.map.values()) {
+                    if (!entry.isTombstone()) {
+                        size++;
+                        weight += entry.weight;
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), rejectedAdmissions.get(), staleLoads.get(), size, weight);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.kvstore.sdk.cache;
+
+/**
+ * Point-in-time counters of a client-side cache
+ */
+public final class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long rejectedAdmissions;
+    private final long staleLoads;
+    private final long size;
+    private final long weight;
+
+    CacheStats(long hits, long misses, long evictions, long rejectedAdmissions, long staleLoads, long size, long weight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.rejectedAdmissions = rejectedAdmissions;
+        this.staleLoads = staleLoads;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the ratio of hits over all the lookups, 0 when there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of entries dropped to respect the size bounds
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of loaded values not cached by the TinyLFU admission filter
+     */
+    public long getRejectedAdmissions() {
+        return rejectedAdmissions;
+    }
+
+    /**
+     * @return the number of loaded values discarded because older than the one already seen
+     */
+    public long getStaleLoads() {
+        return staleLoads;
+    }
+
+    /**
+     * @return the number of entries currently cached
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the estimated size in bytes of the entries currently cached
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    public String toString() {
+        return "CacheStats(hits=" + hits +
+            ", misses=" + misses +
+            ", evictions=" + evictions +
+            ", rejectedAdmissions=" + rejectedAdmissions +
+            ", staleLoads=" + staleLoads +
+            ", size=" + size +
+            ", weight=" + weight + ")";
+    }
+
+}
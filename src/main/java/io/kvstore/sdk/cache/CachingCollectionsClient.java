@@ -0,0 +1,356 @@
+package io.kvstore.sdk.cache;
+
+import io.kvstore.sdk.clients.CollectionsClient;
+import io.kvstore.sdk.clients.Revalidation;
+import io.kvstore.sdk.exceptions.KVStoreException;
+import io.kvstore.sdk.metrics.KVStoreMetrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache of the collection infos and of the list of collections in front of another CollectionsClient,
+ * so that the hot paths checking item counts and flags don't pay a round trip per call.
+ * <p>
+ * A value younger than the refresh-ahead ratio of the time-to-live is served as is. Past that ratio it is still served,
+ * and refreshed in the background so that a steadily read value never expires. Past the time-to-live it is served
+ * stale for at most the stale-while-revalidate period while being refreshed; beyond it is read again before answering.
+ * A failed background refresh keeps the stale value until then. Collection infos are refreshed with conditional requests.
+ * <p>
+ * Creating, updating or deleting a collection through this client invalidates its info and the list at once.
+ * The cached {@link CollectionsList} is returned as is, and its map of collections is built once.
+ * <pre>
+ * CachingCollectionsClient collections = CachingCollectionsClient.builder(client.collectionsClient())
+ *     .setTimeToLive(Duration.ofSeconds(10))
+ *     .setStaleWhileRevalidate(Duration.ofMinutes(1))
+ *     .build();
+ * </pre>
+ */
+public class CachingCollectionsClient implements CollectionsClient, Closeable {
+
+    public static class Builder {
+        private final CollectionsClient delegate;
+        private Duration timeToLive = Duration.ofSeconds(30);
+        private Duration staleWhileRevalidate = Duration.ofMinutes(5);
+        private double refreshAhead = 0.8;
+        private Executor executor;
+        private KVStoreMetrics metrics = KVStoreMetrics.NOOP;
+
+        private Builder(CollectionsClient delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param timeToLive how long a value is served before being stale (default 30 seconds)
+         * @return the Builder itself
+         */
+        public Builder setTimeToLive(Duration timeToLive) {
+            if (timeToLive.isNegative() || timeToLive.isZero()) {
+                throw new IllegalArgumentException("timeToLive must be positive");
+            }
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * @param staleWhileRevalidate how long after its time-to-live a stale value is still served
+         *                             while being refreshed (default 5 minutes, zero to never serve stale values)
+         * @return the Builder itself
+         */
+        public Builder setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            if (staleWhileRevalidate.isNegative()) {
+                throw new IllegalArgumentException("staleWhileRevalidate must not be negative");
+            }
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        /**
+         * @param refreshAhead the ratio of the time-to-live after which a served value is refreshed in the background
+         *                     (default 0.8, 1 to only refresh stale values)
+         * @return the Builder itself
+         */
+        public Builder setRefreshAhead(double refreshAhead) {
+            if (refreshAhead <= 0 || refreshAhead > 1) {
+                throw new IllegalArgumentException("refreshAhead must be between 0 exclusive and 1 inclusive");
+            }
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * @param executor the executor of the background refreshes (default a daemon thread owned by the client)
+         * @return the Builder itself
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param metrics the listener notified of every hit and miss, as the "collections" cache
+         * @return the Builder itself
+         */
+        public Builder setMetrics(KVStoreMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        public CachingCollectionsClient build() {
+            return new CachingCollectionsClient(this);
+        }
+    }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long loadedAtNanos;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(T value, long loadedAtNanos) {
+            this.value = value;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private final CollectionsClient delegate;
+    private final long timeToLiveNanos;
+    private final long refreshAheadNanos;
+    private final long maxStaleNanos;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final KVStoreMetrics metrics;
+    private final ConcurrentMap<String, Entry<CollectionInfo>> infos = new ConcurrentHashMap<>();
+    private final AtomicReference<Entry<CollectionsList>> list = new AtomicReference<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong unchangedRefreshes = new AtomicLong();
+    private final AtomicLong failedRefreshes = new AtomicLong();
+
+    protected CachingCollectionsClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.timeToLiveNanos = builder.timeToLive.toNanos();
+        this.refreshAheadNanos = (long) (timeToLiveNanos * builder.refreshAhead);
+        this.maxStaleNanos = timeToLiveNanos + builder.staleWhileRevalidate.toNanos();
+        if (builder.executor != null) {
+            this.executor = builder.executor;
+            this.ownedExecutor = null;
+        } else {
+            this.ownedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kvstore-collections-refresh-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        }
+        this.metrics = builder.metrics;
+    }
+
+    public static Builder builder(CollectionsClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public CollectionsList list() {
+        Entry<CollectionsList> cached = list.get();
+        long now = System.nanoTime();
+        if (cached != null && serve(cached, now)) {
+            if (now - cached.loadedAtNanos > refreshAheadNanos) {
+                refreshInBackground(cached, () -> refreshList(cached));
+            }
+            return cached.value;
+        }
+
+        metrics.onCacheAccess("collections", false);
+        misses.incrementAndGet();
+        long version = invalidations.get();
+        CollectionsList loaded = delegate.list();
+        Entry<CollectionsList> entry = new Entry<>(loaded, System.nanoTime());
+        // a collection changed through this client while loading may be missing from the loaded list
+        if (invalidations.get() == version) {
+            list.compareAndSet(cached, entry);
+        }
+        return loaded;
+    }
+
+    @Override
+    public CollectionInfo get(String collectionName) {
+        Entry<CollectionInfo> cached = infos.get(collectionName);
+        long now = System.nanoTime();
+        if (cached != null && serve(cached, now)) {
+            if (now - cached.loadedAtNanos > refreshAheadNanos) {
+                refreshInBackground(cached, () -> refreshInfo(collectionName, cached));
+            }
+            return cached.value;
+        }
+
+        metrics.onCacheAccess("collections", false);
+        misses.incrementAndGet();
+        long version = invalidations.get();
+        CollectionInfo loaded;
+        try {
+            loaded = delegate.get(collectionName);
+        } catch (KVStoreException e) {
+            if (e.getStatusCode() == 404) {
+                infos.remove(collectionName, cached);
+            }
+            throw e;
+        }
+        install(collectionName, cached, new Entry<>(loaded, System.nanoTime()), version);
+        return loaded;
+    }
+
+    @Override
+    public Revalidation<CollectionInfo> revalidate(String collectionName, CollectionInfo cached) {
+        return delegate.revalidate(collectionName, cached);
+    }
+
+    @Override
+    public void create(String collectionName) {
+        try {
+            delegate.create(collectionName);
+        } finally {
+            invalidate(collectionName);
+        }
+    }
+
+    @Override
+    public void update(String collectionName, UpdateCollection updateCollection) {
+        try {
+            delegate.update(collectionName, updateCollection);
+        } finally {
+            invalidate(collectionName);
+        }
+    }
+
+    @Override
+    public void delete(String collectionName) {
+        try {
+            delegate.delete(collectionName);
+        } finally {
+            invalidate(collectionName);
+        }
+    }
+
+    /**
+     * Drop the cached info of a collection and the cached list, i.e. after being notified that it changed
+     *
+     * @param collectionName the name of the collection
+     */
+    public void invalidate(String collectionName) {
+        invalidations.incrementAndGet();
+        infos.remove(collectionName);
+        list.set(null);
+    }
+
+    /**
+     * Drop all the cached infos and the cached list
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        infos.clear();
+        list.set(null);
+    }
+
+    /**
+     * @return the hit, miss and refresh counters of the cache
+     */
+    public CollectionsCacheStats getStats() {
+        return new CollectionsCacheStats(hits.get(), staleHits.get(), misses.get(), refreshes.get(), unchangedRefreshes.get(),
+            failedRefreshes.get(), infos.size());
+    }
+
+    /**
+     * Stop the background refreshes, when run by the client's own thread
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true when the entry can be served, counting the hit
+     */
+    private boolean serve(Entry<?> entry, long now) {
+        long age = now - entry.loadedAtNanos;
+        if (age <= timeToLiveNanos) {
+            hits.incrementAndGet();
+        } else if (age <= maxStaleNanos) {
+            staleHits.incrementAndGet();
+        } else {
+            return false;
+        }
+        metrics.onCacheAccess("collections", true);
+        return true;
+    }
+
+    private void refreshInBackground(Entry<?> entry, Runnable refresh) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                    refreshes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // the stale value is served until it is too old, and then read again by the caller
+                    failedRefreshes.incrementAndGet();
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void refreshList(Entry<CollectionsList> cached) {
+        long version = invalidations.get();
+        CollectionsList loaded = delegate.list();
+        if (invalidations.get() == version) {
+            list.compareAndSet(cached, new Entry<>(loaded, System.nanoTime()));
+        }
+    }
+
+    private void refreshInfo(String collectionName, Entry<CollectionInfo> cached) {
+        long version = invalidations.get();
+        Revalidation<CollectionInfo> revalidation;
+        try {
+            revalidation = delegate.revalidate(collectionName, cached.value);
+        } catch (KVStoreException e) {
+            if (e.getStatusCode() == 404) {
+                infos.remove(collectionName, cached);
+            }
+            throw e;
+        }
+        if (!revalidation.isModified()) {
+            unchangedRefreshes.incrementAndGet();
+        }
+        install(collectionName, cached, new Entry<>(revalidation.getValue(), System.nanoTime()), version);
+    }
+
+    private void install(String collectionName, Entry<CollectionInfo> cached, Entry<CollectionInfo> entry, long version) {
+        // checked while the key is locked, so that an invalidation either prevents the install or removes it afterwards
+        infos.compute(collectionName, (name, current) -> invalidations.get() != version || (current != null && current != cached) ? current : entry);
+    }
+
+}
@@ -0,0 +1,320 @@
+package io.kvstore.sdk.cache;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.metrics.KVStoreMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Read-through cache of {@link ItemsClient.ItemValue}s in front of another ItemsClient.
+ * Values written or deleted through this client are invalidated at once; the ones written by other clients
+ * are served until their time-to-live expires, and then revalidated with a conditional request.
+ * A loaded value older (by updated_at) than the one already seen for the same key is never served.
+ * <pre>
+ * CachingItemsClient items = CachingItemsClient.builder(client.itemsClient())
+ *     .setMaxEntries(50_000)
+ *     .setTimeToLive(Duration.ofSeconds(10))
+ *     .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+ *     .build();
+ * </pre>
+ */
+public class CachingItemsClient implements ItemsClient {
+
+    public static class Builder {
+        private final ItemsClient delegate;
+        private long maxEntries = 10_000;
+        private long maxBytes = Long.MAX_VALUE;
+        private Duration timeToLive = Duration.ofSeconds(30);
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+        private int concurrencyLevel = 16;
+        private KVStoreMetrics metrics = KVStoreMetrics.NOOP;
+        private boolean revalidation = true;
+
+        private Builder(ItemsClient delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param maxEntries the maximum number of cached values (default 10000)
+         * @return the Builder itself
+         */
+        public Builder setMaxEntries(long maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("maxEntries must be positive");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * @param maxBytes the maximum estimated heap size of the cached values (default unbounded)
+         * @return the Builder itself
+         */
+        public Builder setMaxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("maxBytes must be positive");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param timeToLive how long a value is served before being read again (default 30 seconds)
+         * @return the Builder itself
+         */
+        public Builder setTimeToLive(Duration timeToLive) {
+            Objects.requireNonNull(timeToLive, "timeToLive");
+            if (timeToLive.isNegative() || timeToLive.isZero()) {
+                throw new IllegalArgumentException("timeToLive must be positive");
+            }
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * @param evictionPolicy the eviction policy (default LRU)
+         * @return the Builder itself
+         * @see EvictionPolicy
+         */
+        public Builder setEvictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = Objects.requireNonNull(evictionPolicy, "evictionPolicy");
+            return this;
+        }
+
+        /**
+         * @param concurrencyLevel the number of independently locked segments (default 16)
+         * @return the Builder itself
+         */
+        public Builder setConcurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * @param metrics the listener notified of every hit and miss, as the "items" cache
+         * @return the Builder itself
+         */
+        public Builder setMetrics(KVStoreMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        /**
+         * @param revalidation whether an expired value still held is revalidated with a conditional request
+         *                     rather than read again in full (default true)
+         * @return the Builder itself
+         * @see ItemsClient#revalidate
+         */
+        public Builder setRevalidation(boolean revalidation) {
+            this.revalidation = revalidation;
+            return this;
+        }
+
+        public CachingItemsClient build() {
+            return new CachingItemsClient(this);
+        }
+    }
+
+    static final class CacheKey {
+        private final String collectionName;
+        private final String itemName;
+
+        CacheKey(String collectionName, String itemName) {
+            this.collectionName = collectionName;
+            this.itemName = itemName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return collectionName.equals(other.collectionName) && itemName.equals(other.itemName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * collectionName.hashCode() + itemName.hashCode();
+        }
+    }
+
+    private final ItemsClient delegate;
+    private final BoundedCache<CacheKey, ItemValue> cache;
+    private final KVStoreMetrics metrics;
+    private final boolean revalidation;
+
+    protected CachingItemsClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.cache = new BoundedCache<>(builder.maxEntries, builder.maxBytes, builder.timeToLive.toNanos(),
+            builder.evictionPolicy, CachingItemsClient::weigh, builder.concurrencyLevel);
+        this.metrics = builder.metrics;
+        this.revalidation = builder.revalidation;
+    }
+
+    public static Builder builder(ItemsClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public ItemValue get(String collectionName, String itemName) {
+        CacheKey key = new CacheKey(collectionName, itemName);
+        ItemValue cached = cache.get(key);
+        metrics.onCacheAccess("items", cached != null);
+        if (cached != null) {
+            return cached;
+        }
+        ItemValue expired = revalidation ? cache.getExpired(key) : null;
+        long version = cache.startLoad(key);
+        ItemValue loaded;
+        try {
+            loaded = expired != null ? delegate.revalidate(collectionName, itemName, expired).getValue() : delegate.get(collectionName, itemName);
+        } catch (RuntimeException | Error e) {
+            cache.abandonLoad(key);
+            throw e;
+        }
+        return cache.install(key, loaded, version, CachingItemsClient::isNewer);
+    }
+
+    @Override
+    public void put(String collectionName, String itemName, String value) {
+        CacheKey key = new CacheKey(collectionName, itemName);
+        try {
+            delegate.put(collectionName, itemName, value);
+        } finally {
+            cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public void delete(String collectionName, String itemName) {
+        CacheKey key = new CacheKey(collectionName, itemName);
+        try {
+            delegate.delete(collectionName, itemName);
+        } finally {
+            cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        return delegate.list(collectionName, offset, limit, sortType);
+    }
+
+    /**
+     * The cached values are served at once, and the missing ones are read with a single {@link ItemsClient#getAll}
+     * of the delegate; expired values are read again in full rather than revalidated
+     */
+    @Override
+    public BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        Map<String, ItemValue> cached = new HashMap<>();
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            CacheKey key = new CacheKey(collectionName, itemName);
+            ItemValue value = cache.get(key);
+            metrics.onCacheAccess("items", value != null);
+            if (value != null) {
+                cached.put(itemName, value);
+            } else {
+                versions.put(itemName, cache.startLoad(key));
+            }
+        }
+        BatchResult<ItemValue> loaded = null;
+        try {
+            if (!versions.isEmpty()) {
+                loaded = delegate.getAll(collectionName, versions.keySet(), batchSize);
+            }
+        } finally {
+            if (loaded == null) {
+                for (String itemName : versions.keySet()) {
+                    cache.abandonLoad(new CacheKey(collectionName, itemName));
+                }
+            }
+        }
+
+        Map<String, ItemValue> succeeded = new LinkedHashMap<>();
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            ItemValue value = cached.get(itemName);
+            if (value != null) {
+                succeeded.put(itemName, value);
+                continue;
+            }
+            CacheKey key = new CacheKey(collectionName, itemName);
+            if (loaded.getSucceeded().containsKey(itemName)) {
+                succeeded.put(itemName, cache.install(key, loaded.getSucceeded().get(itemName), versions.get(itemName), CachingItemsClient::isNewer));
+            } else {
+                cache.abandonLoad(key);
+                RuntimeException failure = loaded.getFailed().get(itemName);
+                failed.put(itemName, failure != null ? failure : new IllegalStateException("No outcome for key " + itemName));
+            }
+        }
+        return new BatchResult<>(succeeded, failed);
+    }
+
+    @Override
+    public BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        try {
+            return delegate.putAll(collectionName, items, batchSize);
+        } finally {
+            for (String itemName : items.keySet()) {
+                cache.invalidate(new CacheKey(collectionName, itemName));
+            }
+        }
+    }
+
+    /**
+     * Drop the cached value of a key, i.e. after being notified that it changed
+     *
+     * @param collectionName the name of the collection
+     * @param itemName       the key value
+     */
+    public void invalidate(String collectionName, String itemName) {
+        cache.invalidate(new CacheKey(collectionName, itemName));
+    }
+
+    /**
+     * Drop the cached values of a collection, i.e. after being notified that it changed as a whole
+     *
+     * @param collectionName the name of the collection
+     */
+    public void invalidateCollection(String collectionName) {
+        cache.invalidateIf(key -> key.collectionName.equals(collectionName));
+    }
+
+    /**
+     * Drop all the cached values
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of the cache
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    static boolean isNewer(ItemValue cached, ItemValue loaded) {
+        return cached.getUpdatedAt().after(loaded.getUpdatedAt());
+    }
+
+    private static int weigh(CacheKey key, ItemValue value) {
+        String content = value.getValue();
+        int chars = key.collectionName.length() + key.itemName.length() + (content != null ? content.length() : 0);
+        return 96 + 2 * chars;
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.kvstore.sdk.cache;
+
+/**
+ * Point-in-time counters of a {@link CachingCollectionsClient}
+ */
+public final class CollectionsCacheStats {
+
+    private final long hits;
+    private final long staleHits;
+    private final long misses;
+    private final long refreshes;
+    private final long unchangedRefreshes;
+    private final long failedRefreshes;
+    private final long size;
+
+    CollectionsCacheStats(long hits, long staleHits, long misses, long refreshes, long unchangedRefreshes, long failedRefreshes, long size) {
+        this.hits = hits;
+        this.staleHits = staleHits;
+        this.misses = misses;
+        this.refreshes = refreshes;
+        this.unchangedRefreshes = unchangedRefreshes;
+        this.failedRefreshes = failedRefreshes;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of lookups served with a value younger than its time-to-live
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups served with a stale value while it was being refreshed
+     */
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    /**
+     * @return the number of lookups waiting for the value to be read
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the ratio of the lookups served from the cache, stale or not, 0 when there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + staleHits + misses;
+        return lookups == 0 ? 0 : (double) (hits + staleHits) / lookups;
+    }
+
+    /**
+     * @return the number of background refreshes completed
+     */
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * @return the number of background refreshes of collection infos answered with an unchanged version
+     */
+    public long getUnchangedRefreshes() {
+        return unchangedRefreshes;
+    }
+
+    public long getFailedRefreshes() {
+        return failedRefreshes;
+    }
+
+    /**
+     * @return the number of collection infos cached
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CollectionsCacheStats(hits=" + hits + ", staleHits=" + staleHits + ", misses=" + misses + ", refreshes=" + refreshes
+            + ", unchangedRefreshes=" + unchangedRefreshes + ", failedRefreshes=" + failedRefreshes + ", size=" + size + ")";
+    }
+
+}
@@ -0,0 +1,16 @@
+package io.kvstore.sdk.cache;
+
+/**
+ * How the client-side caches choose the entries to drop when full
+ */
+public enum EvictionPolicy {
+    /**
+     * Drop the least recently used entry
+     */
+    LRU,
+    /**
+     * Least recently used eviction with a TinyLFU admission filter: a new entry is cached only if it has been
+     * requested more often than the entry it would evict, so one-off reads don't flush the hot keys
+     */
+    TINY_LFU
+}
@@ -0,0 +1,69 @@
+package io.kvstore.sdk.cache;
+
+/**
+ * A 4-bit count-min sketch estimating how often keys are accessed, periodically halved so that
+ * the estimates follow the recent popularity. Not thread-safe: the owning cache segment guards it.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int[] SEEDS = {0x97cb3127, 0xb7a4c3d5, 0xd8b54b65, 0x9e3779b9};
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        int size = Integer.highestOneBit((int) Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    int frequency(int hashCode) {
+        int hash = spread(hashCode);
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int h = rehash(hash, i);
+            long word = table[(h >>> 4) & mask];
+            frequency = Math.min(frequency, (int) ((word >>> ((h & 15) << 2)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(int hashCode) {
+        int hash = spread(hashCode);
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int h = rehash(hash, i);
+            int index = (h >>> 4) & mask;
+            int offset = (h & 15) << 2;
+            if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private static int rehash(int hash, int i) {
+        int h = hash * SEEDS[i];
+        return h ^ (h >>> 17);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,423 @@
+package io.kvstore.sdk.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of cache entries in a memory-mapped file, with an open-addressing hash index in direct memory.
+ * Neither the entries nor the index live on the Java heap. The index is rebuilt by scanning the log on open,
+ * and the scan stops at the first record failing its checksum, so a torn write only loses the last entries.
+ * Overwritten and deleted entries stay in the log until a compaction slides the live ones to its start.
+ * <p>
+ * Record layout: length (int), CRC32 of the bytes from offset 16 (int), stored-at millis (long, updated in place),
+ * created-at (double), updated-at (double), key length (int), value length (int, -1 for a deletion),
+ * ETag length (int, -1 when none), key, ETag, value.
+ */
+final class MappedSegment implements Closeable {
+
+    static final class Entry {
+        final String value;
+        final String etag;
+        final double createdAt;
+        final double updatedAt;
+        final long storedAtMillis;
+
+        private Entry(String value, String etag, double createdAt, double updatedAt, long storedAtMillis) {
+            this.value = value;
+            this.etag = etag;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+
+    private static final int MAGIC = 0x4b564e43;
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER = 16;
+    private static final int RECORD_HEADER = 44;
+    private static final int STORED_AT = 8;
+    private static final int CHECKSUMMED_FROM = 16;
+    private static final int SLOT_SIZE = 16;
+    private static final int COPY_CHUNK = 64 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private final MappedByteBuffer log;
+    private final int capacity;
+
+    private ByteBuffer index;
+    private int slots;
+    private int usedSlots;
+    private int entries;
+    private int writePosition;
+    private long compactions;
+    private long evictions;
+
+    MappedSegment(Path path, int capacity, int initialSlots) throws IOException {
+        this.capacity = capacity;
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        this.channel = file.getChannel();
+        this.fileLock = tryLock(channel);
+        if (fileLock == null) {
+            file.close();
+            throw new IOException("The cache file " + path + " is in use by another client");
+        }
+        boolean created = file.length() == 0;
+        if (file.length() != capacity) {
+            file.setLength(capacity);
+        }
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        if (created || log.getInt(0) != MAGIC || log.getInt(4) != VERSION) {
+            log.putInt(0, MAGIC);
+            log.putInt(4, VERSION);
+            log.putInt(FILE_HEADER, 0);
+        }
+        allocateIndex(Integer.highestOneBit(Math.max(initialSlots, 16) - 1) << 1);
+        this.writePosition = scan();
+    }
+
+    /**
+     * @return the entry of the key, or null when absent or deleted
+     */
+    Entry get(byte[] key) {
+        int offset = find(key, hash(key));
+        if (offset < 0) {
+            return null;
+        }
+        int valueLength = log.getInt(offset + 36);
+        if (valueLength < 0) {
+            return null;
+        }
+        int etagLength = log.getInt(offset + 40);
+        ByteBuffer view = log.duplicate();
+        view.position(offset + RECORD_HEADER + key.length);
+        String etag = null;
+        if (etagLength >= 0) {
+            byte[] bytes = new byte[etagLength];
+            view.get(bytes);
+            etag = new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        byte[] value = new byte[valueLength];
+        view.get(value);
+        return new Entry(new String(value, StandardCharsets.UTF_8), etag, log.getDouble(offset + 16), log.getDouble(offset + 24), log.getLong(offset + STORED_AT));
+    }
+
+    /**
+     * Append an entry, or a deletion when value is null
+     * @param etag the ETag the value was read with, or null
+     * @return false when there is no room, even after a compaction
+     */
+    boolean append(byte[] key, byte[] etag, byte[] value, double createdAt, double updatedAt, long storedAtMillis, double retention) {
+        long recordLength = (long) RECORD_HEADER + key.length + (etag != null ? etag.length : 0) + (value != null ? value.length : 0);
+        if (recordLength > capacity / 4) {
+            return false;
+        }
+        int length = (int) recordLength;
+        // in long arithmetic, since the capacity may be close to Integer.MAX_VALUE
+        if ((long) writePosition + length + 4 > capacity || usedSlots + 1 > slots / 4 * 3) {
+            compact(retention);
+            if ((long) writePosition + length + 4 > capacity) {
+                return false;
+            }
+        }
+        int offset = writePosition;
+        log.putLong(offset + STORED_AT, storedAtMillis);
+        log.putDouble(offset + 16, createdAt);
+        log.putDouble(offset + 24, updatedAt);
+        log.putInt(offset + 32, key.length);
+        log.putInt(offset + 36, value != null ? value.length : -1);
+        log.putInt(offset + 40, etag != null ? etag.length : -1);
+        ByteBuffer view = log.duplicate();
+        view.position(offset + RECORD_HEADER);
+        view.put(key);
+        if (etag != null) {
+            view.put(etag);
+        }
+        if (value != null) {
+            view.put(value);
+        }
+        log.putInt(offset + 4, checksum(offset, length));
+        // the terminator hides whatever older data follows, then the length makes the record visible to the next scan
+        log.putInt(offset + length, 0);
+        log.putInt(offset, length);
+        writePosition = offset + length;
+        index(key, hash(key), offset, value != null);
+        return true;
+    }
+
+    /**
+     * Update the stored-at time of the entry of a key, in place
+     */
+    void touch(byte[] key, long storedAtMillis) {
+        int offset = find(key, hash(key));
+        if (offset >= 0) {
+            log.putLong(offset + STORED_AT, storedAtMillis);
+        }
+    }
+
+    /**
+     * Slide the live entries to the start of the log, dropping the oldest ones beyond retention times the capacity
+     * @return the number of live entries dropped
+     */
+    int compact(double retention) {
+        int[] live = new int[Math.max(entries, 1)];
+        int count = 0;
+        long liveBytes = 0;
+        for (int offset = FILE_HEADER; offset < writePosition; offset += log.getInt(offset)) {
+            if (log.getInt(offset + 36) >= 0 && find(keyAt(offset), hashAt(offset)) == offset) {
+                if (count == live.length) {
+                    int[] grown = new int[count * 2];
+                    System.arraycopy(live, 0, grown, 0, count);
+                    live = grown;
+                }
+                live[count++] = offset;
+                liveBytes += log.getInt(offset);
+            }
+        }
+
+        int first = 0;
+        long budget = (long) (capacity * retention);
+        while (liveBytes > budget && first < count) {
+            liveBytes -= log.getInt(live[first++]);
+        }
+
+        allocateIndex(Math.max(slots, Integer.highestOneBit(Math.max(count - first, 1) * 2) << 1));
+        byte[] chunk = new byte[COPY_CHUNK];
+        ByteBuffer source = log.duplicate();
+        ByteBuffer target = log.duplicate();
+        int position = FILE_HEADER;
+        for (int i = first; i < count; i++) {
+            int offset = live[i];
+            int length = log.getInt(offset);
+            // the target never passes the source, so copying front to back in chunks is safe
+            for (int copied = 0; copied < length; copied += COPY_CHUNK) {
+                int n = Math.min(COPY_CHUNK, length - copied);
+                source.position(offset + copied);
+                source.get(chunk, 0, n);
+                target.position(position + copied);
+                target.put(chunk, 0, n);
+            }
+            index(keyAt(position), hashAt(position), position, true);
+            position += length;
+        }
+        log.putInt(position, 0);
+        writePosition = position;
+        compactions++;
+        evictions += first;
+        return first;
+    }
+
+    /**
+     * @return the keys of the live entries starting with the given bytes
+     */
+    List<byte[]> keysStartingWith(byte[] prefix) {
+        List<byte[]> keys = new ArrayList<>();
+        for (int offset = FILE_HEADER; offset < writePosition; offset += log.getInt(offset)) {
+            if (log.getInt(offset + 36) >= 0 && startsWith(offset, prefix)) {
+                byte[] key = keyAt(offset);
+                if (find(key, hash(key)) == offset) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    int getEntries() {
+        return entries;
+    }
+
+    int getUsedBytes() {
+        return writePosition;
+    }
+
+    long getCompactions() {
+        return compactions;
+    }
+
+    long getEvictions() {
+        return evictions;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            log.force();
+        } finally {
+            try {
+                fileLock.release();
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another client of this process
+            return null;
+        }
+    }
+
+    private int scan() {
+        int offset = FILE_HEADER;
+        while ((long) offset + RECORD_HEADER <= capacity) {
+            int length = log.getInt(offset);
+            if (length < RECORD_HEADER || (long) offset + length + 4 > capacity) {
+                break;
+            }
+            int keyLength = log.getInt(offset + 32);
+            int valueLength = log.getInt(offset + 36);
+            int etagLength = log.getInt(offset + 40);
+            if (keyLength < 0 || RECORD_HEADER + keyLength + Math.max(etagLength, 0) + Math.max(valueLength, 0) != length
+                || log.getInt(offset + 4) != checksum(offset, length)) {
+                break;
+            }
+            if (usedSlots + 1 > slots / 4 * 3) {
+                allocateIndex(slots * 2);
+                rehashUpTo(offset);
+            }
+            index(keyAt(offset), hashAt(offset), offset, valueLength >= 0);
+            offset += length;
+        }
+        log.putInt(offset, 0);
+        return offset;
+    }
+
+    private void rehashUpTo(int end) {
+        for (int offset = FILE_HEADER; offset < end; offset += log.getInt(offset)) {
+            index(keyAt(offset), hashAt(offset), offset, log.getInt(offset + 36) >= 0);
+        }
+    }
+
+    private void allocateIndex(int slots) {
+        this.slots = slots;
+        this.index = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        this.usedSlots = 0;
+        this.entries = 0;
+    }
+
+    private void index(byte[] key, long hash, int offset, boolean present) {
+        int mask = slots - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            long slotHash = index.getLong(slot * SLOT_SIZE);
+            if (slotHash == 0) {
+                index.putLong(slot * SLOT_SIZE, hash);
+                index.putLong(slot * SLOT_SIZE + 8, offset);
+                usedSlots++;
+                if (present) {
+                    entries++;
+                }
+                return;
+            }
+            if (slotHash == hash) {
+                int previous = (int) index.getLong(slot * SLOT_SIZE + 8);
+                if (keyEquals(previous, key)) {
+                    boolean wasPresent = log.getInt(previous + 36) >= 0;
+                    index.putLong(slot * SLOT_SIZE + 8, offset);
+                    entries += (present ? 1 : 0) - (wasPresent ? 1 : 0);
+                    return;
+                }
+            }
+        }
+    }
+
+    private int find(byte[] key, long hash) {
+        int mask = slots - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            long slotHash = index.getLong(slot * SLOT_SIZE);
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == hash) {
+                int offset = (int) index.getLong(slot * SLOT_SIZE + 8);
+                if (keyEquals(offset, key)) {
+                    return offset;
+                }
+            }
+        }
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (log.getInt(offset + 32) != key.length) {
+            return false;
+        }
+        int start = offset + RECORD_HEADER;
+        for (int i = 0; i < key.length; i++) {
+            if (log.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWith(int offset, byte[] prefix) {
+        if (log.getInt(offset + 32) < prefix.length) {
+            return false;
+        }
+        int start = offset + RECORD_HEADER;
+        for (int i = 0; i < prefix.length; i++) {
+            if (log.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] keyAt(int offset) {
+        byte[] key = new byte[log.getInt(offset + 32)];
+        ByteBuffer view = log.duplicate();
+        view.position(offset + RECORD_HEADER);
+        view.get(key);
+        return key;
+    }
+
+    private long hashAt(int offset) {
+        return hash(keyAt(offset));
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = log.duplicate();
+        view.position(offset + CHECKSUMMED_FROM);
+        view.limit(offset + length);
+        byte[] chunk = new byte[Math.min(length - CHECKSUMMED_FROM, COPY_CHUNK)];
+        while (view.hasRemaining()) {
+            int n = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * FNV-1a, never 0 since 0 marks the empty slots
+     */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+}
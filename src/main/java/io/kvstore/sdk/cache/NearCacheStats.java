@@ -0,0 +1,100 @@
+package io.kvstore.sdk.cache;
+
+/**
+ * Point-in-time counters of a {@link PersistentCachingItemsClient}
+ */
+public final class NearCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long revalidations;
+    private final long staleServed;
+    private final long evictions;
+    private final long compactions;
+    private final long entries;
+    private final long usedBytes;
+    private final long capacityBytes;
+
+    NearCacheStats(long hits, long misses, long revalidations, long staleServed, long evictions, long compactions,
+                   long entries, long usedBytes, long capacityBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.revalidations = revalidations;
+        this.staleServed = staleServed;
+        this.evictions = evictions;
+        this.compactions = compactions;
+        this.entries = entries;
+        this.usedBytes = usedBytes;
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * @return the number of lookups served from the file without a request
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups of keys absent from the file
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the ratio of hits over all the lookups, 0 when there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + misses + revalidations;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of entries older than the max staleness that were read again
+     */
+    public long getRevalidations() {
+        return revalidations;
+    }
+
+    /**
+     * @return the number of stale entries served because reading them again failed with a transient error
+     */
+    public long getStaleServed() {
+        return staleServed;
+    }
+
+    /**
+     * @return the number of live entries dropped by compactions to make room
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the number of bytes of the file used by live and not yet compacted entries
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCacheStats(hits=" + hits + ", misses=" + misses + ", revalidations=" + revalidations
+            + ", staleServed=" + staleServed + ", evictions=" + evictions + ", compactions=" + compactions
+            + ", entries=" + entries + ", usedBytes=" + usedBytes + ", capacityBytes=" + capacityBytes + ")";
+    }
+
+}
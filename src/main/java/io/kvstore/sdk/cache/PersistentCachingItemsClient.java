@@ -0,0 +1,495 @@
+package io.kvstore.sdk.cache;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.clients.Revalidation;
+import io.kvstore.sdk.clients.Validators;
+import io.kvstore.sdk.exceptions.KVStoreException;
+import io.kvstore.sdk.metrics.KVStoreMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-through near-cache of {@link ItemsClient.ItemValue}s kept in a memory-mapped file, so that a restarted
+ * process finds its hot keys without reading them all again. The values and their hash index stay off the Java heap.
+ * <p>
+ * An entry younger than the max staleness is served as is; an older one is revalidated with a conditional request
+ * on its ETag, and when it didn't change only its age is reset in place. An entry read without an ETag is read again
+ * in full instead, since the one-second resolution of the dates would hide the changes made within the second it was
+ * read. If revalidating it fails with a transient error
+ * the stale value is served instead. Values written or deleted through this client are invalidated at once, and
+ * the loads of these keys in progress are not stored, as in {@link CachingItemsClient}.
+ * <p>
+ * The file is an append-only log: when it is full the live entries are compacted to its start, and the oldest ones
+ * are dropped if they still fill more than the retention ratio of the capacity. A file can only be opened by one
+ * client at a time.
+ * <pre>
+ * PersistentCachingItemsClient items = PersistentCachingItemsClient.builder(client.itemsClient(), Paths.get("/var/cache/kvstore.items"))
+ *     .setMaxBytes(256L * 1024 * 1024)
+ *     .setMaxStaleness(Duration.ofMinutes(10))
+ *     .build();
+ * </pre>
+ */
+public class PersistentCachingItemsClient implements ItemsClient, Closeable {
+
+    public static class Builder {
+        private final ItemsClient delegate;
+        private final Path file;
+        private long maxBytes = 64L * 1024 * 1024;
+        private int expectedEntries = 65_536;
+        private Duration maxStaleness = Duration.ofMinutes(5);
+        private double retention = 0.5;
+        private KVStoreMetrics metrics = KVStoreMetrics.NOOP;
+
+        private Builder(ItemsClient delegate, Path file) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+            this.file = Objects.requireNonNull(file, "file");
+        }
+
+        /**
+         * @param maxBytes the size of the file, up to 2 GB (default 64 MB)
+         * @return the Builder itself
+         */
+        public Builder setMaxBytes(long maxBytes) {
+            if (maxBytes < 4096 || maxBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("maxBytes must be between 4096 and " + Integer.MAX_VALUE);
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param expectedEntries the initial number of entries of the index, which grows as needed (default 65536)
+         * @return the Builder itself
+         */
+        public Builder setExpectedEntries(int expectedEntries) {
+            if (expectedEntries <= 0 || expectedEntries > 1 << 28) {
+                throw new IllegalArgumentException("expectedEntries must be between 1 and " + (1 << 28));
+            }
+            this.expectedEntries = expectedEntries;
+            return this;
+        }
+
+        /**
+         * @param maxStaleness how long an entry is served before being revalidated (default 5 minutes)
+         * @return the Builder itself
+         */
+        public Builder setMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * @param retention the ratio of the file the live entries may still fill after a compaction (default 0.5)
+         * @return the Builder itself
+         */
+        public Builder setCompactionRetention(double retention) {
+            if (retention <= 0 || retention >= 1) {
+                throw new IllegalArgumentException("retention must be between 0 and 1 exclusive");
+            }
+            this.retention = retention;
+            return this;
+        }
+
+        /**
+         * @param metrics the listener notified of every hit and miss, as the "items-near" cache
+         * @return the Builder itself
+         */
+        public Builder setMetrics(KVStoreMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        /**
+         * @return the client, with the entries already in the file
+         * @throws IOException if the file can't be opened or is in use by another client
+         */
+        public PersistentCachingItemsClient build() throws IOException {
+            return new PersistentCachingItemsClient(this);
+        }
+    }
+
+    private final ItemsClient delegate;
+    private final MappedSegment segment;
+    private final long maxStalenessMillis;
+    private final double retention;
+    private final KVStoreMetrics metrics;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Load> loads = new HashMap<>();
+    private long sequence;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+
+    protected PersistentCachingItemsClient(Builder builder) throws IOException {
+        this.delegate = builder.delegate;
+        this.segment = new MappedSegment(builder.file, (int) builder.maxBytes, builder.expectedEntries * 2);
+        this.maxStalenessMillis = builder.maxStaleness.toMillis();
+        this.retention = builder.retention;
+        this.metrics = builder.metrics;
+    }
+
+    public static Builder builder(ItemsClient delegate, Path file) {
+        return new Builder(delegate, file);
+    }
+
+    /**
+     * The loads of a key in progress, and the version of the last invalidation of the key made meanwhile
+     */
+    private static final class Load {
+        private int count;
+        private long invalidatedAt = -1;
+    }
+
+    @Override
+    public ItemValue get(String collectionName, String itemName) {
+        String name = name(collectionName, itemName);
+        byte[] key = key(name);
+        MappedSegment.Entry cached;
+        lock.readLock().lock();
+        try {
+            cached = segment.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.storedAtMillis <= maxStalenessMillis) {
+            hits.incrementAndGet();
+            metrics.onCacheAccess("items-near", true);
+            return toItemValue(cached);
+        }
+        metrics.onCacheAccess("items-near", false);
+
+        long version = startLoad(Collections.singletonList(name));
+        ItemValue loaded;
+        boolean modified = true;
+        try {
+            if (cached == null || cached.etag == null) {
+                loaded = delegate.get(collectionName, itemName);
+            } else {
+                Revalidation<ItemValue> revalidation = delegate.revalidate(collectionName, itemName, toItemValue(cached));
+                loaded = revalidation.getValue();
+                modified = revalidation.isModified();
+            }
+        } catch (RuntimeException e) {
+            endLoad(name, version);
+            if (cached != null && e instanceof KVStoreException && ((KVStoreException) e).isRetryable()) {
+                staleServed.incrementAndGet();
+                return toItemValue(cached);
+            }
+            if (cached != null && e instanceof KVStoreException && ((KVStoreException) e).getStatusCode() == 404) {
+                invalidate(collectionName, itemName);
+            }
+            throw e;
+        }
+
+        if (cached == null) {
+            misses.incrementAndGet();
+        } else {
+            revalidations.incrementAndGet();
+        }
+        store(name, loaded, modified, version, now);
+        return loaded;
+    }
+
+    @Override
+    public void put(String collectionName, String itemName, String value) {
+        try {
+            delegate.put(collectionName, itemName, value);
+        } finally {
+            invalidate(collectionName, itemName);
+        }
+    }
+
+    @Override
+    public void delete(String collectionName, String itemName) {
+        try {
+            delegate.delete(collectionName, itemName);
+        } finally {
+            invalidate(collectionName, itemName);
+        }
+    }
+
+    @Override
+    public List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        return delegate.list(collectionName, offset, limit, sortType);
+    }
+
+    /**
+     * The fresh entries are served at once, and the others are read with a single {@link ItemsClient#getAll}
+     * of the delegate; stale entries are read again in full rather than revalidated, and still served when that
+     * fails with a transient error
+     */
+    @Override
+    public BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        Map<String, MappedSegment.Entry> fresh = new HashMap<>();
+        Map<String, MappedSegment.Entry> stale = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            for (String itemName : new LinkedHashSet<>(itemNames)) {
+                MappedSegment.Entry cached = segment.get(key(name(collectionName, itemName)));
+                if (cached != null && now - cached.storedAtMillis <= maxStalenessMillis) {
+                    fresh.put(itemName, cached);
+                } else {
+                    if (cached != null) {
+                        stale.put(itemName, cached);
+                    }
+                    missing.add(itemName);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.addAndGet(fresh.size());
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            metrics.onCacheAccess("items-near", fresh.containsKey(itemName));
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String itemName : missing) {
+            names.add(name(collectionName, itemName));
+        }
+        long version = startLoad(names);
+        BatchResult<ItemValue> loaded;
+        try {
+            loaded = missing.isEmpty() ? null : delegate.getAll(collectionName, missing, batchSize);
+        } catch (RuntimeException e) {
+            for (String name : names) {
+                endLoad(name, version);
+            }
+            throw e;
+        }
+
+        Map<String, ItemValue> succeeded = new LinkedHashMap<>();
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            MappedSegment.Entry cached = fresh.get(itemName);
+            if (cached != null) {
+                succeeded.put(itemName, toItemValue(cached));
+                continue;
+            }
+            cached = stale.get(itemName);
+            ItemValue value = loaded.getSucceeded().get(itemName);
+            if (value != null || loaded.getSucceeded().containsKey(itemName)) {
+                if (cached == null) {
+                    misses.incrementAndGet();
+                } else {
+                    revalidations.incrementAndGet();
+                }
+                store(name(collectionName, itemName), value, true, version, now);
+                succeeded.put(itemName, value);
+                continue;
+            }
+            RuntimeException failure = loaded.getFailed().get(itemName);
+            endLoad(name(collectionName, itemName), version);
+            if (cached != null && failure instanceof KVStoreException && ((KVStoreException) failure).isRetryable()) {
+                staleServed.incrementAndGet();
+                succeeded.put(itemName, toItemValue(cached));
+                continue;
+            }
+            if (cached != null && failure instanceof KVStoreException && ((KVStoreException) failure).getStatusCode() == 404) {
+                invalidate(collectionName, itemName);
+            }
+            failed.put(itemName, failure != null ? failure : new IllegalStateException("No outcome for key " + itemName));
+        }
+        return new BatchResult<>(succeeded, failed);
+    }
+
+    @Override
+    public BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        try {
+            return delegate.putAll(collectionName, items, batchSize);
+        } finally {
+            for (String itemName : items.keySet()) {
+                invalidate(collectionName, itemName);
+            }
+        }
+    }
+
+    /**
+     * Drop the cached value of a key, i.e. after being notified that it changed
+     *
+     * @param collectionName the name of the collection
+     * @param itemName       the key value
+     */
+    public void invalidate(String collectionName, String itemName) {
+        String name = name(collectionName, itemName);
+        byte[] key = key(name);
+        lock.writeLock().lock();
+        try {
+            synchronized (loads) {
+                Load load = loads.get(name);
+                long version = ++sequence;
+                if (load != null) {
+                    load.invalidatedAt = version;
+                }
+            }
+            if (segment.get(key) != null) {
+                segment.append(key, null, null, 0, 0, System.currentTimeMillis(), retention);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the cached values of a collection, i.e. after being notified that it changed as a whole
+     *
+     * @param collectionName the name of the collection
+     */
+    public void invalidateCollection(String collectionName) {
+        String start = collectionName + '\0';
+        byte[] prefix = key(start);
+        lock.writeLock().lock();
+        try {
+            synchronized (loads) {
+                long version = ++sequence;
+                for (Map.Entry<String, Load> load : loads.entrySet()) {
+                    if (load.getKey().startsWith(start)) {
+                        load.getValue().invalidatedAt = version;
+                    }
+                }
+            }
+            long now = System.currentTimeMillis();
+            for (byte[] key : segment.keysStartingWith(prefix)) {
+                segment.append(key, null, null, 0, 0, now, retention);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compact the file now rather than when it is full, keeping all the live entries that fit
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            segment.compact(1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the hit, miss, revalidation and compaction counters of the cache
+     */
+    public NearCacheStats getStats() {
+        lock.readLock().lock();
+        try {
+            return new NearCacheStats(hits.get(), misses.get(), revalidations.get(), staleServed.get(),
+                segment.getEvictions(), segment.getCompactions(), segment.getEntries(), segment.getUsedBytes(), segment.getCapacity());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flush the file to disk and release it
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            segment.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Register a load of each key, to be ended by {@link #endLoad} once stored or failed
+     *
+     * @return the current version
+     */
+    private long startLoad(Collection<String> names) {
+        synchronized (loads) {
+            for (String name : names) {
+                loads.computeIfAbsent(name, n -> new Load()).count++;
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * @return true when the key was invalidated after the load started, i.e. by a write of this client
+     * which may be newer than the loaded value
+     */
+    private boolean endLoad(String name, long version) {
+        synchronized (loads) {
+            Load load = loads.get(name);
+            if (--load.count == 0) {
+                loads.remove(name);
+            }
+            return load.invalidatedAt > version;
+        }
+    }
+
+    /**
+     * Write a loaded value to the file, unless its key was invalidated through this client since the load started
+     */
+    private void store(String name, ItemValue loaded, boolean modified, long version, long now) {
+        if (loaded == null || loaded.getValue() == null) {
+            endLoad(name, version);
+            return;
+        }
+        byte[] key = key(name);
+        double createdAt = seconds(loaded.getCreatedAt().getTime());
+        double updatedAt = seconds(loaded.getUpdatedAt().getTime());
+        Validators validators = loaded.getValidators();
+        byte[] etag = validators != null && validators.getETag() != null ? validators.getETag().getBytes(StandardCharsets.ISO_8859_1) : null;
+        lock.writeLock().lock();
+        try {
+            if (endLoad(name, version)) {
+                return;
+            }
+            if (!modified) {
+                segment.touch(key, now);
+            } else {
+                segment.append(key, etag, loaded.getValue().getBytes(StandardCharsets.UTF_8), createdAt, updatedAt, now, retention);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String name(String collectionName, String itemName) {
+        return collectionName + '\0' + itemName;
+    }
+
+    private static byte[] key(String name) {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double seconds(long millis) {
+        return millis / 1000.0;
+    }
+
+    private static ItemValue toItemValue(MappedSegment.Entry entry) {
+        return new ItemValue(new io.kvstore.api.representationals.items.ItemValue()
+            .setValue(entry.value)
+            .setCreated_at(entry.createdAt)
+            .setUpdated_at(entry.updatedAt), entry.etag != null ? Validators.of(entry.etag, null, -1) : null);
+    }
+
+}
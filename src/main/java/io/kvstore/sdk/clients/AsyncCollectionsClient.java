@@ -0,0 +1,51 @@
+package io.kvstore.sdk.clients;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This interface describes the non-blocking operations on collections.
+ * The returned futures complete exceptionally with the same exceptions thrown by {@link CollectionsClient}.
+ */
+public interface AsyncCollectionsClient {
+
+    /**
+     * List all collections
+     *
+     * @return the future of the list of collections
+     */
+    CompletableFuture<CollectionsClient.CollectionsList> list();
+
+    /**
+     * Get the information bean for the given collection
+     *
+     * @param collectionName the name of the collection
+     * @return the future of the information bean
+     */
+    CompletableFuture<CollectionsClient.CollectionInfo> get(String collectionName);
+
+    /**
+     * Create a new collection
+     *
+     * @param collectionName the name of the collection
+     * @return the future completed once the collection is created
+     */
+    CompletableFuture<Void> create(String collectionName);
+
+    /**
+     * Update a collection
+     *
+     * @param collectionName   the name of the collection
+     * @param updateCollection the properties to update
+     * @return the future completed once the collection is updated
+     */
+    CompletableFuture<Void> update(String collectionName, CollectionsClient.UpdateCollection updateCollection);
+
+    /**
+     * Delete a collection
+     *
+     * @param collectionName the name of the collection
+     * @return the future completed once the collection is deleted
+     */
+    CompletableFuture<Void> delete(String collectionName);
+
+}
@@ -0,0 +1,49 @@
+package io.kvstore.sdk.clients;
+
+import io.kvstore.api.representationals.utils.SortType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This interface describes the non-blocking operations on storage values.
+ * The returned futures complete exceptionally with the same exceptions thrown by {@link ItemsClient}.
+ */
+public interface AsyncItemsClient {
+
+    /**
+     * Get the value for the given collection and key
+     * @param collectionName the name of the collection
+     * @param itemName the key value
+     * @return the future of the stored value
+     */
+    CompletableFuture<ItemsClient.ItemValue> get(String collectionName, String itemName);
+
+    /**
+     * Store a value
+     * @param collectionName the name of the collection we're putting the value inside
+     * @param itemName the name of the key
+     * @param value the value to be stored
+     * @return the future completed once the value is stored
+     */
+    CompletableFuture<Void> put(String collectionName, String itemName, String value);
+
+    /**
+     * Delete a stored value
+     * @param collectionName the name of the collection
+     * @param itemName the key value to be deleted
+     * @return the future completed once the value is deleted
+     */
+    CompletableFuture<Void> delete(String collectionName, String itemName);
+
+    /**
+     * Get the list of stored values inside a collection
+     * @param collectionName the name of the collection
+     * @param offset the offset to start from (default 0)
+     * @param limit the maximum number of items to fetch
+     * @param sortType the type of sorting (ascending or descending by value creation date)
+     * @return the future of the list of found items
+     */
+    CompletableFuture<List<ItemsClient.Item>> list(String collectionName, Integer offset, Integer limit, SortType sortType);
+
+}
@@ -0,0 +1,26 @@
+package io.kvstore.sdk.clients;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This interface describes the non-blocking operations on the user's storage.
+ * The returned futures complete exceptionally with the same exceptions thrown by {@link StorageClient}.
+ */
+public interface AsyncStorageClient {
+
+    /**
+     * Get the user's storage descriptor
+     *
+     * @return the future of the Storage bean descriptor
+     */
+    CompletableFuture<StorageClient.Storage> get();
+
+    /**
+     * Update the user's storage attributes
+     *
+     * @param storageUpdate the properties to update
+     * @return the future completed once the storage is updated
+     */
+    CompletableFuture<Void> update(StorageClient.StorageUpdate storageUpdate);
+
+}
@@ -2,8 +2,10 @@ package io.kvstore.sdk.clients;
 
 import io.kvstore.api.representationals.collections.CollectionsResult;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -13,21 +15,45 @@ public interface CollectionsClient {
 
     class CollectionInfoCompact {
         private final io.kvstore.api.representationals.collections.CollectionInfoCompact collectionInfoCompact;
+        private final long createdAtMillis;
+        private final long updatedAtMillis;
 
         public Integer getItems() {
             return collectionInfoCompact.getItems();
         }
 
+        /**
+         * @return a new Date on each call, or null when the API sent none; see {@link #getCreatedAtMillis()}
+         */
         public Date getCreatedAt() {
-            return new Date((long) (this.collectionInfoCompact.getCreated_at() * 1000));
+            return Timestamps.date(this.createdAtMillis);
         }
 
+        /**
+         * @return a new Date on each call, or null when the API sent none; see {@link #getUpdatedAtMillis()}
+         */
         public Date getUpdatedAt() {
-            return new Date((long) (this.collectionInfoCompact.getUpdated_at() * 1000));
+            return Timestamps.date(this.updatedAtMillis);
+        }
+
+        /**
+         * @return the creation time in milliseconds since the epoch, or -1 when the API sent none
+         */
+        public long getCreatedAtMillis() {
+            return createdAtMillis;
+        }
+
+        /**
+         * @return the time of the last change in milliseconds since the epoch, or -1 when the API sent none
+         */
+        public long getUpdatedAtMillis() {
+            return updatedAtMillis;
         }
 
         public CollectionInfoCompact(io.kvstore.api.representationals.collections.CollectionInfoCompact collectionInfoCompact) {
             this.collectionInfoCompact = collectionInfoCompact;
+            this.createdAtMillis = Timestamps.millis(collectionInfoCompact.getCreated_at());
+            this.updatedAtMillis = Timestamps.millis(collectionInfoCompact.getUpdated_at());
         }
 
         public String toString() {
@@ -37,9 +63,23 @@ public interface CollectionsClient {
 
     class CollectionInfo {
         private final io.kvstore.api.representationals.collections.CollectionInfo collectionInfo;
+        private final Validators validators;
+        private final long createdAtMillis;
+        private final long updatedAtMillis;
 
         public CollectionInfo(io.kvstore.api.representationals.collections.CollectionInfo collectionInfo) {
+            this(collectionInfo, null);
+        }
+
+        /**
+         * @param collectionInfo the information read
+         * @param validators the validators of the response it was read from, or null
+         */
+        public CollectionInfo(io.kvstore.api.representationals.collections.CollectionInfo collectionInfo, Validators validators) {
             this.collectionInfo = collectionInfo;
+            this.validators = validators;
+            this.createdAtMillis = Timestamps.millis(collectionInfo.getCreated_at());
+            this.updatedAtMillis = Timestamps.millis(collectionInfo.getUpdated_at());
         }
 
         public Integer getItems() {
@@ -58,12 +98,46 @@ public interface CollectionsClient {
             return this.collectionInfo.getWebhook();
         }
 
+        /**
+         * @return a new Date on each call, or null when the API sent none; see {@link #getCreatedAtMillis()}
+         */
         public Date getCreatedAt() {
-            return new Date((long) (this.collectionInfo.getCreated_at() * 1000));
+            return Timestamps.date(this.createdAtMillis);
         }
 
+        /**
+         * @return a new Date on each call, or null when the API sent none; see {@link #getUpdatedAtMillis()}
+         */
         public Date getUpdatedAt() {
-            return new Date((long) (this.collectionInfo.getUpdated_at() * 1000));
+            return Timestamps.date(this.updatedAtMillis);
+        }
+
+        /**
+         * @return the creation time in milliseconds since the epoch, or -1 when the API sent none
+         */
+        public long getCreatedAtMillis() {
+            return createdAtMillis;
+        }
+
+        /**
+         * @return the time of the last change in milliseconds since the epoch, or -1 when the API sent none
+         */
+        public long getUpdatedAtMillis() {
+            return updatedAtMillis;
+        }
+
+        /**
+         * @return the validators of the response the information was read from, or null when it sent none
+         */
+        public Validators getValidators() {
+            return validators;
+        }
+
+        /**
+         * @return true when both were read from the same version of a collection, judging by updated_at and item count
+         */
+        public static boolean isSameVersion(CollectionInfo first, CollectionInfo second) {
+            return first.getUpdatedAtMillis() == second.getUpdatedAtMillis() && Objects.equals(first.getItems(), second.getItems());
         }
 
         public String toString() {
@@ -78,14 +152,24 @@ public interface CollectionsClient {
 
     class CollectionsList {
         private final CollectionsResult collectionsResult;
+        private volatile Map<String, CollectionInfoCompact> collections;
 
         public Integer getTotalCollections() {
             return collectionsResult.getTotal_collections();
         }
 
+        /**
+         * @return the collections by name, an unmodifiable map built on the first call and returned by the next ones
+         */
         public Map<String, CollectionInfoCompact> getCollections() {
-            return collectionsResult.getCollections().entrySet().stream().
-                collect(Collectors.toMap(Map.Entry::getKey, e -> new CollectionInfoCompact(e.getValue())));
+            Map<String, CollectionInfoCompact> collections = this.collections;
+            if (collections == null) {
+                // racing threads may each build the map, but they all build an equal one
+                collections = Collections.unmodifiableMap(collectionsResult.getCollections().entrySet().stream().
+                    collect(Collectors.toMap(Map.Entry::getKey, e -> new CollectionInfoCompact(e.getValue()))));
+                this.collections = collections;
+            }
+            return collections;
         }
 
         public CollectionsList(CollectionsResult collectionsResult) {
@@ -210,6 +294,20 @@ public interface CollectionsClient {
      */
     CollectionInfo get(String collectionName);
 
+    /**
+     * Read the information of a collection again only if it changed. The default implementation reads it in full
+     * and compares the updated_at dates and item counts; the ones talking to the server send a conditional request,
+     * answered with a bodiless 304 when the collection didn't change.
+     *
+     * @param collectionName the name of the collection
+     * @param cached         the information read before
+     * @return the current information, telling whether it changed
+     */
+    default Revalidation<CollectionInfo> revalidate(String collectionName, CollectionInfo cached) {
+        CollectionInfo loaded = get(collectionName);
+        return CollectionInfo.isSameVersion(cached, loaded) ? Revalidation.notModified(loaded) : Revalidation.modified(loaded);
+    }
+
     /**
      * Create a new collection
      *
@@ -232,4 +330,4 @@ public interface CollectionsClient {
      */
     void delete(String collectionName);
 
-}
\ No newline at end of file
+}
@@ -2,9 +2,19 @@ package io.kvstore.sdk.clients;
 
 import io.kvstore.api.representationals.utils.SortType;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This interface describes the operations on storage values
@@ -50,9 +60,19 @@ public interface ItemsClient {
 
     class ItemValue {
         private final io.kvstore.api.representationals.items.ItemValue itemValue;
+        private final Validators validators;
 
         public ItemValue(io.kvstore.api.representationals.items.ItemValue item) {
+            this(item, null);
+        }
+
+        /**
+         * @param item the value read
+         * @param validators the validators of the response it was read from, or null
+         */
+        public ItemValue(io.kvstore.api.representationals.items.ItemValue item, Validators validators) {
             this.itemValue = item;
+            this.validators = validators;
         }
 
         public String getValue() {
@@ -67,11 +87,69 @@ public interface ItemsClient {
             return new Date((long) (this.itemValue.getUpdated_at() * 1000));
         }
 
+        /**
+         * @return the validators of the response the value was read from, or null when it sent none
+         */
+        public Validators getValidators() {
+            return validators;
+        }
+
+        /**
+         * @return true when both were read from the same version of an item, judging by updated_at
+         */
+        public static boolean isSameVersion(ItemValue first, ItemValue second) {
+            return first.getUpdatedAt().equals(second.getUpdatedAt());
+        }
+
         public String toString() {
             return "Item(value=" + this.getValue() + ", created_at=" + this.getCreatedAt() + ", updated_at=" + this.getUpdatedAt() + ")";
         }
     }
 
+    /**
+     * The outcome of a multi-key operation: each key either succeeded or failed on its own
+     * @param <T> the type of the values of the succeeded keys
+     */
+    class BatchResult<T> {
+        private final Map<String, T> succeeded;
+        private final Map<String, RuntimeException> failed;
+
+        public BatchResult(Map<String, T> succeeded, Map<String, RuntimeException> failed) {
+            this.succeeded = Collections.unmodifiableMap(succeeded);
+            this.failed = Collections.unmodifiableMap(failed);
+        }
+
+        /**
+         * @return the values of the keys that succeeded, in request order
+         */
+        public Map<String, T> getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * @return the exceptions of the keys that failed, in request order
+         */
+        public Map<String, RuntimeException> getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return true when no key failed
+         */
+        public boolean isComplete() {
+            return failed.isEmpty();
+        }
+
+        public String toString() {
+            return "BatchResult(succeeded=" + succeeded.size() + ", failed=" + failed.keySet() + ")";
+        }
+    }
+
+    /**
+     * Default number of requests a multi-key operation keeps in flight
+     */
+    int DEFAULT_BATCH_SIZE = 32;
+
     /**
      * Get the value for the given collection and key
      * @param collectionName the name of the collection
@@ -80,6 +158,20 @@ public interface ItemsClient {
      */
     ItemValue get(String collectionName, String itemName);
 
+    /**
+     * Read a cached value again only if it changed. The default implementation reads it in full and compares
+     * the updated_at dates; the ones talking to the server send a conditional request, answered with a bodiless
+     * 304 when the value didn't change.
+     * @param collectionName the name of the collection
+     * @param itemName the key value
+     * @param cached the value read before
+     * @return the current value, telling whether it changed
+     */
+    default Revalidation<ItemValue> revalidate(String collectionName, String itemName, ItemValue cached) {
+        ItemValue loaded = get(collectionName, itemName);
+        return ItemValue.isSameVersion(cached, loaded) ? Revalidation.notModified(loaded) : Revalidation.modified(loaded);
+    }
+
     /**
      * Store a value
      * @param collectionName the name of the collection we're putting the value inside
@@ -105,4 +197,87 @@ public interface ItemsClient {
      */
     List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType);
 
+    /**
+     * Get the values of many keys of a collection; a failing key doesn't prevent the others from being read
+     * @param collectionName the name of the collection
+     * @param itemNames the key values
+     * @return the values found and the failures, by key
+     */
+    default BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames) {
+        return getAll(collectionName, itemNames, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Get the values of many keys of a collection; a failing key doesn't prevent the others from being read
+     * @param collectionName the name of the collection
+     * @param itemNames the key values
+     * @param batchSize the maximum number of concurrent requests, when supported by the implementation
+     * @return the values found and the failures, by key
+     */
+    default BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        Map<String, ItemValue> succeeded = new LinkedHashMap<>();
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            try {
+                succeeded.put(itemName, get(collectionName, itemName));
+            } catch (RuntimeException e) {
+                failed.put(itemName, e);
+            }
+        }
+        return new BatchResult<>(succeeded, failed);
+    }
+
+    /**
+     * Store many values in a collection; a failing key doesn't prevent the others from being written
+     * @param collectionName the name of the collection
+     * @param items the values to be stored, by key
+     * @return the values stored and the failures, by key
+     */
+    default BatchResult<String> putAll(String collectionName, Map<String, String> items) {
+        return putAll(collectionName, items, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Store many values in a collection; a failing key doesn't prevent the others from being written
+     * @param collectionName the name of the collection
+     * @param items the values to be stored, by key
+     * @param batchSize the maximum number of concurrent requests, when supported by the implementation
+     * @return the values stored and the failures, by key
+     */
+    default BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        Map<String, String> succeeded = new LinkedHashMap<>();
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            try {
+                put(collectionName, item.getKey(), item.getValue());
+                succeeded.put(item.getKey(), item.getValue());
+            } catch (RuntimeException e) {
+                failed.put(item.getKey(), e);
+            }
+        }
+        return new BatchResult<>(succeeded, failed);
+    }
+
+    /**
+     * Iterate over all the items of a collection, fetching them one page at a time
+     * @param collectionName the name of the collection
+     * @param pageSize the number of items requested per page
+     * @param sortType the type of sorting (ascending or descending by value creation date)
+     * @return the iterator over the items
+     */
+    default Iterator<Item> iterator(String collectionName, int pageSize, SortType sortType) {
+        return new PagingIterator<>((offset, limit) -> CompletableFuture.completedFuture(list(collectionName, offset, limit, sortType)), pageSize, false);
+    }
+
+    /**
+     * Stream all the items of a collection, fetching them one page at a time as the stream is consumed
+     * @param collectionName the name of the collection
+     * @param pageSize the number of items requested per page
+     * @param sortType the type of sorting (ascending or descending by value creation date)
+     * @return the sequential stream of the items
+     */
+    default Stream<Item> stream(String collectionName, int pageSize, SortType sortType) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(collectionName, pageSize, sortType), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package io.kvstore.sdk.clients;
 
+import io.kvstore.sdk.codecs.ValueCodec;
+
 /**
- * This instance is obtained from the KVStore instance methods and gives access to different handlers on KVStore
+ * This instance is obtained from the KVStore instance methods and gives access to different handlers on KVStore.
+ * Implementations are thread-safe and return the same handlers on every call.
  */
-public interface KVStoreClient {
+public interface KVStoreClient extends AutoCloseable {
 
     StorageClient storageClient();
 
@@ -11,4 +14,18 @@ public interface KVStoreClient {
 
     ItemsClient itemsClient();
 
+    AsyncStorageClient asyncStorageClient();
+
+    AsyncCollectionsClient asyncCollectionsClient();
+
+    AsyncItemsClient asyncItemsClient();
+
+    <T> TypedItemsClient<T> typedItemsClient(ValueCodec<T> codec);
+
+    /**
+     * Release the connections and threads of the client; it can't be used afterwards
+     */
+    @Override
+    void close();
+
 }
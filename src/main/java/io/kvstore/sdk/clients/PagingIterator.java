@@ -0,0 +1,89 @@
+package io.kvstore.sdk.clients;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Iterates over a paginated listing, fetching one page at a time by offset and limit.
+ * When prefetching is enabled, the next page is requested as soon as the current one arrives,
+ * so at most two pages are held in memory.
+ * <p>
+ * Pages are addressed by offset: entries added or removed while iterating may shift the following pages.
+ *
+ * @param <T> the type of the entries
+ */
+public final class PagingIterator<T> implements Iterator<T> {
+
+    /**
+     * Fetches the page starting at the given offset
+     * @param <T> the type of the entries
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        CompletableFuture<List<T>> fetch(int offset, int limit);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final int pageSize;
+    private final boolean prefetch;
+
+    private Iterator<T> page = Collections.emptyIterator();
+    private CompletableFuture<List<T>> next;
+    private int offset;
+    private boolean lastPage;
+
+    /**
+     * @param fetcher  the fetcher of the pages
+     * @param pageSize the number of entries requested per page
+     * @param prefetch true to request the next page while the current one is consumed
+     */
+    public PagingIterator(PageFetcher<T> fetcher, int pageSize, boolean prefetch) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            CompletableFuture<List<T>> current = next != null ? next : fetcher.fetch(offset, pageSize);
+            next = null;
+            List<T> entries = join(current);
+            offset += entries.size();
+            lastPage = entries.size() < pageSize;
+            if (!lastPage && prefetch) {
+                next = fetcher.fetch(offset, pageSize);
+            }
+            page = entries.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    private static <T> List<T> join(CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.kvstore.sdk.clients;
+
+/**
+ * The outcome of revalidating a cached value
+ * @param <T> the type of the value
+ */
+public final class Revalidation<T> {
+
+    private final T value;
+    private final boolean modified;
+
+    private Revalidation(T value, boolean modified) {
+        this.value = value;
+        this.modified = modified;
+    }
+
+    /**
+     * @param value the new value read from the server
+     * @param <T> the type of the value
+     * @return a revalidation reporting a changed value
+     */
+    public static <T> Revalidation<T> modified(T value) {
+        return new Revalidation<>(value, true);
+    }
+
+    /**
+     * @param value the current value, the cached one or an identical one read again
+     * @param <T> the type of the value
+     * @return a revalidation reporting an unchanged value
+     */
+    public static <T> Revalidation<T> notModified(T value) {
+        return new Revalidation<>(value, false);
+    }
+
+    /**
+     * @return the current value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return true when the value changed since it was cached
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    public String toString() {
+        return "Revalidation(modified=" + modified + ", value=" + value + ")";
+    }
+
+}
@@ -0,0 +1,29 @@
+package io.kvstore.sdk.clients;
+
+import java.util.Date;
+
+/**
+ * Conversions of the timestamps of the API, in seconds since the epoch
+ */
+final class Timestamps {
+
+    private Timestamps() {
+    }
+
+    /**
+     * @param seconds a timestamp of the API, or null
+     * @return the timestamp in milliseconds since the epoch, or -1
+     */
+    static long millis(Double seconds) {
+        return seconds != null ? (long) (seconds * 1000) : -1;
+    }
+
+    /**
+     * @param millis a timestamp in milliseconds since the epoch, or -1
+     * @return a new Date, or null
+     */
+    static Date date(long millis) {
+        return millis != -1 ? new Date(millis) : null;
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.kvstore.sdk.clients;
+
+import java.util.Date;
+
+/**
+ * This interface describes the operations on storage values of a given type,
+ * converted by a {@link io.kvstore.sdk.codecs.ValueCodec}: values are encoded into a buffer sent with its length,
+ * and decoded while the response streams
+ * @param <T> the type of the values
+ */
+public interface TypedItemsClient<T> {
+
+    class ItemValue<T> {
+        private final T value;
+        private final Double createdAt;
+        private final Double updatedAt;
+
+        public ItemValue(T value, Double createdAt, Double updatedAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+
+        public T getValue() {
+            return this.value;
+        }
+
+        public Date getCreatedAt() {
+            return this.createdAt != null ? new Date((long) (this.createdAt * 1000)) : null;
+        }
+
+        public Date getUpdatedAt() {
+            return this.updatedAt != null ? new Date((long) (this.updatedAt * 1000)) : null;
+        }
+
+        public String toString() {
+            return "Item(value=" + this.getValue() + ", created_at=" + this.getCreatedAt() + ", updated_at=" + this.getUpdatedAt() + ")";
+        }
+    }
+
+    /**
+     * Get the value for the given collection and key
+     * @param collectionName the name of the collection
+     * @param itemName the key value
+     * @return the stored value, decoded
+     */
+    ItemValue<T> get(String collectionName, String itemName);
+
+    /**
+     * Store a value
+     * @param collectionName the name of the collection we're putting the value inside
+     * @param itemName the name of the key
+     * @param value the value, encoded before the request is sent
+     */
+    void put(String collectionName, String itemName, T value);
+
+    /**
+     * Delete a value
+     * @param collectionName the name of the collection
+     * @param itemName the name of the key
+     */
+    void delete(String collectionName, String itemName);
+
+}
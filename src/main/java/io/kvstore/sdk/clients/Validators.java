@@ -0,0 +1,99 @@
+package io.kvstore.sdk.clients;
+
+import java.util.Date;
+
+/**
+ * What the server sent to identify the version of a resource, used to ask it again only if it changed.
+ * The ETag is preferred: the Last-Modified date has a resolution of one second, so a change made within the same
+ * second as the cached version would be answered with a 304 Not Modified. A date is therefore only sent when it is
+ * at least one second older than the time the value was read; without an ETag nor such a date, the value is read
+ * again in full and compared with the cached one.
+ */
+public final class Validators {
+
+    private final String etag;
+    private final Date lastModified;
+    private final long contentLength;
+    private final Date readAt;
+
+    private Validators(String etag, Date lastModified, long contentLength, Date readAt) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentLength = contentLength;
+        this.readAt = readAt;
+    }
+
+    /**
+     * @param etag          the ETag header of the response, or null
+     * @param lastModified  the Last-Modified date of the response, or null
+     * @param contentLength the length in bytes of the response body, or -1 when unknown
+     * @return the validators
+     */
+    public static Validators of(String etag, Date lastModified, long contentLength) {
+        return new Validators(etag, lastModified, contentLength, null);
+    }
+
+    /**
+     * @param etag          the ETag header of the response, or null
+     * @param lastModified  the Last-Modified date of the response, or null
+     * @param contentLength the length in bytes of the response body, or -1 when unknown
+     * @param readAt        the date of the response, or null when unknown
+     * @return the validators
+     */
+    public static Validators of(String etag, Date lastModified, long contentLength, Date readAt) {
+        return new Validators(etag, lastModified, contentLength, readAt);
+    }
+
+    /**
+     * @param validators the validators of a cached value, or null when it was read without any
+     * @param updatedAt  the updated_at of the cached value, used when there is no Last-Modified date
+     * @return the validators to revalidate the cached value with
+     */
+    public static Validators withFallback(Validators validators, Date updatedAt) {
+        if (validators == null) {
+            // the read time is unknown, so updated_at can't be trusted
+            return new Validators(null, null, -1, null);
+        }
+        return validators.lastModified != null ? validators
+            : new Validators(validators.etag, updatedAt, validators.contentLength, validators.readAt);
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the date of the response the value was read from, or null when unknown
+     */
+    public Date getReadAt() {
+        return readAt;
+    }
+
+    /**
+     * @return the date to send as If-Modified-Since: the Last-Modified one when it is at least one second older
+     * than the read time, null otherwise
+     */
+    public Date getIfModifiedSince() {
+        if (lastModified == null || readAt == null || readAt.getTime() - lastModified.getTime() < 1000) {
+            return null;
+        }
+        return lastModified;
+    }
+
+    /**
+     * @return the length in bytes of the body that a 304 Not Modified response saves, or -1 when unknown
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public String toString() {
+        return "Validators(etag=" + etag + ", lastModified=" + lastModified + ", contentLength=" + contentLength
+            + ", readAt=" + readAt + ")";
+    }
+
+}
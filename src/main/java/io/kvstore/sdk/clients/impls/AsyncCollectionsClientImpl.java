@@ -0,0 +1,49 @@
+package io.kvstore.sdk.clients.impls;
+
+import io.kvstore.api.representationals.collections.CollectionsResult;
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.AsyncCollectionsClient;
+import io.kvstore.sdk.clients.CollectionsClient;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncCollectionsClientImpl implements AsyncCollectionsClient {
+
+    private final KVStore kvStore;
+
+    public AsyncCollectionsClientImpl(KVStore kvStore) {
+        this.kvStore = kvStore;
+    }
+
+    @Override
+    public CompletableFuture<CollectionsClient.CollectionsList> list() {
+        return kvStore.getAsync("/collections", KVStore.CONTENT_TYPE_JSON, CollectionsResult.class)
+            .thenApply(CollectionsClient.CollectionsList::new);
+    }
+
+    @Override
+    public CompletableFuture<CollectionsClient.CollectionInfo> get(String collectionName) {
+        return kvStore.getAsync("/collections/" + collectionName, KVStore.CONTENT_TYPE_JSON, io.kvstore.api.representationals.collections.CollectionInfo.class)
+            .thenApply(CollectionsClient.CollectionInfo::new);
+    }
+
+    @Override
+    public CompletableFuture<Void> create(String collectionName) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("collection", collectionName);
+        return kvStore.postAsync("/collections", map).thenApply(s -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String collectionName, CollectionsClient.UpdateCollection updateCollection) {
+        return kvStore.putAsync("/collections/" + collectionName, updateCollection.instance());
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collectionName) {
+        return kvStore.deleteAsync("/collections/" + collectionName);
+    }
+
+}
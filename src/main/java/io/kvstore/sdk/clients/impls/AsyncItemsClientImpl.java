@@ -0,0 +1,41 @@
+package io.kvstore.sdk.clients.impls;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.AsyncItemsClient;
+import io.kvstore.sdk.clients.ItemsClient;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncItemsClientImpl implements AsyncItemsClient {
+
+    private final KVStore kvStore;
+
+    public AsyncItemsClientImpl(KVStore kvStore) {
+        this.kvStore = kvStore;
+    }
+
+    @Override
+    public CompletableFuture<ItemsClient.ItemValue> get(String collectionName, String itemName) {
+        return kvStore.getAsync("/collections/" + collectionName + "/items/" + itemName, KVStore.CONTENT_TYPE_JSON, io.kvstore.api.representationals.items.ItemValue.class)
+            .thenApply(ItemsClient.ItemValue::new);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String collectionName, String itemName, String value) {
+        return kvStore.putAsync("/collections/" + collectionName + "/items/" + itemName, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collectionName, String itemName) {
+        return kvStore.deleteAsync("/collections/" + collectionName + "/items/" + itemName);
+    }
+
+    @Override
+    public CompletableFuture<List<ItemsClient.Item>> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        return kvStore.getAsync(ItemsClientImpl.listEndpoint(collectionName, offset, limit, sortType), KVStore.CONTENT_TYPE_JSON,
+            body -> ItemsReader.read(kvStore.getJsonFactory(), body));
+    }
+
+}
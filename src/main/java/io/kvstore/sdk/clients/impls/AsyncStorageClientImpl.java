@@ -0,0 +1,26 @@
+package io.kvstore.sdk.clients.impls;
+
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.AsyncStorageClient;
+import io.kvstore.sdk.clients.StorageClient;
+
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncStorageClientImpl implements AsyncStorageClient {
+
+    private final KVStore kvStore;
+
+    public AsyncStorageClientImpl(KVStore kvStore) {
+        this.kvStore = kvStore;
+    }
+
+    public CompletableFuture<StorageClient.Storage> get() {
+        return kvStore.getAsync("/storage", KVStore.CONTENT_TYPE_JSON, io.kvstore.api.representationals.storages.Storage.class)
+            .thenApply(StorageClient.Storage::new);
+    }
+
+    public CompletableFuture<Void> update(StorageClient.StorageUpdate storageUpdate) {
+        return kvStore.putAsync("/storage", storageUpdate.instance());
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.kvstore.sdk.clients.impls;
+
+import io.kvstore.sdk.clients.ItemsClient;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Runs one asynchronous call per key keeping at most {@code batchSize} of them in flight,
+ * and collects the outcome of each key
+ */
+final class Batches {
+
+    private Batches() {
+    }
+
+    static <T> ItemsClient.BatchResult<T> run(Collection<String> keys, int batchSize, Function<String, CompletableFuture<T>> call) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        Semaphore permits = new Semaphore(batchSize);
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        boolean interrupted = false;
+        for (String key : new LinkedHashSet<>(keys)) {
+            if (!interrupted) {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                futures.put(key, failedFuture(new CancellationException("Interrupted before sending the request")));
+                continue;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = call.apply(key);
+            } catch (RuntimeException e) {
+                future = failedFuture(e);
+            }
+            future.whenComplete((value, throwable) -> permits.release());
+            futures.put(key, future);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<String, T> succeeded = new LinkedHashMap<>();
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+            try {
+                succeeded.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                failed.put(entry.getKey(), cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause));
+            } catch (CancellationException e) {
+                failed.put(entry.getKey(), e);
+            }
+        }
+        return new ItemsClient.BatchResult<>(succeeded, failed);
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+}
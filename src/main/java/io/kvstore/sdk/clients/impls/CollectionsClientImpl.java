@@ -1,9 +1,14 @@
 package io.kvstore.sdk.clients.impls;
 
+import com.fasterxml.jackson.core.JsonParser;
 import io.kvstore.api.representationals.collections.CollectionsResult;
 import io.kvstore.sdk.KVStore;
 import io.kvstore.sdk.clients.CollectionsClient;
+import io.kvstore.sdk.clients.Revalidation;
+import io.kvstore.sdk.clients.Validators;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,7 +27,13 @@ public class CollectionsClientImpl implements CollectionsClient {
 
     @Override
     public CollectionInfo get(String collectionName) {
-        return new CollectionInfo(kvStore.get("/collections/" + collectionName, KVStore.CONTENT_TYPE_JSON, io.kvstore.api.representationals.collections.CollectionInfo.class));
+        return kvStore.getValidated("/collections/" + collectionName, KVStore.CONTENT_TYPE_JSON, this::readCollectionInfo);
+    }
+
+    @Override
+    public Revalidation<CollectionInfo> revalidate(String collectionName, CollectionInfo cached) {
+        return kvStore.revalidate("/collections/" + collectionName, KVStore.CONTENT_TYPE_JSON, cached,
+            Validators.withFallback(cached.getValidators(), cached.getUpdatedAt()), this::readCollectionInfo, CollectionInfo::isSameVersion);
     }
 
     @Override
@@ -42,4 +53,10 @@ public class CollectionsClientImpl implements CollectionsClient {
         kvStore.delete("/collections/" + collectionName);
     }
 
-}
\ No newline at end of file
+    private CollectionInfo readCollectionInfo(InputStream body, Validators validators) throws IOException {
+        try (JsonParser parser = kvStore.getJsonFactory().createParser(body)) {
+            return new CollectionInfo(parser.readValueAs(io.kvstore.api.representationals.collections.CollectionInfo.class), validators);
+        }
+    }
+
+}
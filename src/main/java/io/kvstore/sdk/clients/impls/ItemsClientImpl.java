@@ -1,13 +1,20 @@
 package io.kvstore.sdk.clients.impls;
 
+import com.fasterxml.jackson.core.JsonParser;
 import io.kvstore.api.representationals.utils.SortType;
 import io.kvstore.sdk.KVStore;
 import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.clients.PagingIterator;
+import io.kvstore.sdk.clients.Revalidation;
+import io.kvstore.sdk.clients.Validators;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class ItemsClientImpl implements ItemsClient {
 
@@ -19,7 +26,13 @@ public class ItemsClientImpl implements ItemsClient {
 
     @Override
     public ItemValue get(String collectionName, String itemName) {
-        return new ItemsClient.ItemValue(kvStore.get("/collections/" + collectionName + "/items/" + itemName, KVStore.CONTENT_TYPE_JSON, io.kvstore.api.representationals.items.ItemValue.class));
+        return kvStore.getValidated("/collections/" + collectionName + "/items/" + itemName, KVStore.CONTENT_TYPE_JSON, this::readItemValue);
+    }
+
+    @Override
+    public Revalidation<ItemValue> revalidate(String collectionName, String itemName, ItemValue cached) {
+        return kvStore.revalidate("/collections/" + collectionName + "/items/" + itemName, KVStore.CONTENT_TYPE_JSON, cached,
+            Validators.withFallback(cached.getValidators(), cached.getUpdatedAt()), this::readItemValue, ItemValue::isSameVersion);
     }
 
     @Override
@@ -33,8 +46,38 @@ public class ItemsClientImpl implements ItemsClient {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
+    public BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        return Batches.run(itemNames, batchSize, itemName ->
+            kvStore.getValidatedAsync("/collections/" + collectionName + "/items/" + itemName, KVStore.CONTENT_TYPE_JSON, this::readItemValue));
+    }
+
+    @Override
+    public BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        return Batches.run(items.keySet(), batchSize, itemName -> {
+            String value = items.get(itemName);
+            return kvStore.putAsync("/collections/" + collectionName + "/items/" + itemName, value).thenApply(v -> value);
+        });
+    }
+
+    @Override
     public List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        return kvStore.get(listEndpoint(collectionName, offset, limit, sortType), KVStore.CONTENT_TYPE_JSON,
+            body -> ItemsReader.read(kvStore.getJsonFactory(), body));
+    }
+
+    @Override
+    public Iterator<Item> iterator(String collectionName, int pageSize, SortType sortType) {
+        return new PagingIterator<>((offset, limit) -> kvStore.getAsync(listEndpoint(collectionName, offset, limit, sortType), KVStore.CONTENT_TYPE_JSON,
+            body -> ItemsReader.read(kvStore.getJsonFactory(), body)), pageSize, true);
+    }
+
+    private ItemValue readItemValue(InputStream body, Validators validators) throws IOException {
+        try (JsonParser parser = kvStore.getJsonFactory().createParser(body)) {
+            return new ItemValue(parser.readValueAs(io.kvstore.api.representationals.items.ItemValue.class), validators);
+        }
+    }
+
+    static String listEndpoint(String collectionName, Integer offset, Integer limit, SortType sortType) {
         String url = "/collections/" + collectionName + "/items";
 
         if (offset != null || limit != null || sortType != null) {
@@ -55,8 +98,7 @@ public class ItemsClientImpl implements ItemsClient {
             url += "?" + String.join("&", params);
         }
 
-        List<Map<String, Object>> list = kvStore.get(url, KVStore.CONTENT_TYPE_JSON, List.class);
-        return list.stream().map(Item::instance).collect(Collectors.toList());
+        return url;
     }
 
 }
\ No newline at end of file
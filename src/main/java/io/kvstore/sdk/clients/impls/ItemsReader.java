@@ -0,0 +1,60 @@
+package io.kvstore.sdk.clients.impls;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.kvstore.sdk.clients.ItemsClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a page of items token by token, straight from the response stream
+ */
+final class ItemsReader {
+
+    private ItemsReader() {
+    }
+
+    static List<ItemsClient.Item> read(JsonFactory jsonFactory, InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of items");
+            }
+            List<ItemsClient.Item> items = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                io.kvstore.api.representationals.items.Item item = new io.kvstore.api.representationals.items.Item();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getText();
+                    parser.nextToken();
+                    switch (field) {
+                        case "key":
+                            item.setKey(parser.getValueAsString());
+                            break;
+                        case "value":
+                            item.setValue(parser.getValueAsString());
+                            break;
+                        case "created_at":
+                            item.setCreated_at(readDouble(parser));
+                            break;
+                        case "updated_at":
+                            item.setUpdated_at(readDouble(parser));
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+                items.add(new ItemsClient.Item(item));
+            }
+            return items;
+        }
+    }
+
+    private static Double readDouble(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble();
+    }
+
+}
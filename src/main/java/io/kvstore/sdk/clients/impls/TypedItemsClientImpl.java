@@ -0,0 +1,76 @@
+package io.kvstore.sdk.clients.impls;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.kvstore.sdk.KVStore;
+import io.kvstore.sdk.clients.TypedItemsClient;
+import io.kvstore.sdk.codecs.ValueCodec;
+import io.kvstore.sdk.exceptions.KVStoreException;
+import io.kvstore.sdk.transport.HttpRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class TypedItemsClientImpl<T> implements TypedItemsClient<T> {
+
+    private final KVStore kvStore;
+    private final ValueCodec<T> codec;
+
+    public TypedItemsClientImpl(KVStore kvStore, ValueCodec<T> codec) {
+        this.kvStore = kvStore;
+        this.codec = codec;
+    }
+
+    @Override
+    public ItemValue<T> get(String collectionName, String itemName) {
+        return kvStore.get("/collections/" + collectionName + "/items/" + itemName, KVStore.CONTENT_TYPE_JSON, this::readItemValue);
+    }
+
+    @Override
+    public void put(String collectionName, String itemName, T value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            codec.write(value, out);
+        } catch (IOException e) {
+            throw new KVStoreException(e);
+        }
+        kvStore.put("/collections/" + collectionName + "/items/" + itemName, HttpRequest.Body.of(out.toByteArray(), codec.getContentType()));
+    }
+
+    @Override
+    public void delete(String collectionName, String itemName) {
+        kvStore.delete("/collections/" + collectionName + "/items/" + itemName);
+    }
+
+    private ItemValue<T> readItemValue(InputStream body) throws IOException {
+        try (JsonParser parser = kvStore.getJsonFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an item");
+            }
+            T value = null;
+            Double createdAt = null;
+            Double updatedAt = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getText();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "value":
+                        value = token == JsonToken.VALUE_NULL ? null : codec.read(parser);
+                        break;
+                    case "created_at":
+                        createdAt = token == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble();
+                        break;
+                    case "updated_at":
+                        updatedAt = token == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return new ItemValue<>(value, createdAt, updatedAt);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.kvstore.sdk.codecs;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.kvstore.sdk.KVStore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Base64;
+
+/**
+ * Stores values in a compact binary JSON format, like Smile or CBOR, wrapped in Base64 text.
+ * The format is the one of the given ObjectMapper, so the SDK doesn't depend on any dataformat module:
+ * <pre>
+ * ValueCodec&lt;Order&gt; codec = new BinaryJsonValueCodec&lt;&gt;(new ObjectMapper(new SmileFactory()), Order.class);
+ * </pre>
+ *
+ * @param <T> the type of the values
+ */
+public class BinaryJsonValueCodec<T> implements ValueCodec<T> {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public BinaryJsonValueCodec(ObjectMapper binaryMapper, Class<T> valueClass) {
+        this.reader = binaryMapper.readerFor(valueClass);
+        this.writer = binaryMapper.writerFor(valueClass);
+    }
+
+    @Override
+    public String getContentType() {
+        return KVStore.CONTENT_TYPE_TEXT;
+    }
+
+    @Override
+    public void write(T value, OutputStream outputStream) throws IOException {
+        try (OutputStream base64 = Base64.getEncoder().wrap(new NonClosingOutputStream(outputStream))) {
+            writer.writeValue(base64, value);
+        }
+    }
+
+    @Override
+    public T read(JsonParser parser) throws IOException {
+        return reader.readValue(parser.getBinaryValue(Base64Variants.MIME_NO_LINEFEEDS));
+    }
+
+}
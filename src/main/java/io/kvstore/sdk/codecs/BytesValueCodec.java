@@ -0,0 +1,35 @@
+package io.kvstore.sdk.codecs;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import io.kvstore.sdk.KVStore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Base64;
+
+/**
+ * Stores raw bytes as Base64 text, encoded while writing the request and decoded while parsing the response
+ */
+public class BytesValueCodec implements ValueCodec<byte[]> {
+
+    public static final BytesValueCodec INSTANCE = new BytesValueCodec();
+
+    @Override
+    public String getContentType() {
+        return KVStore.CONTENT_TYPE_TEXT;
+    }
+
+    @Override
+    public void write(byte[] value, OutputStream outputStream) throws IOException {
+        try (OutputStream base64 = Base64.getEncoder().wrap(new NonClosingOutputStream(outputStream))) {
+            base64.write(value);
+        }
+    }
+
+    @Override
+    public byte[] read(JsonParser parser) throws IOException {
+        return parser.getBinaryValue(Base64Variants.MIME_NO_LINEFEEDS);
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.kvstore.sdk.codecs;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.kvstore.sdk.KVStore;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stores values as JSON documents. The reader and writer for the type are resolved once,
+ * so create one codec per type and reuse it.
+ *
+ * @param <T> the type of the values
+ */
+public class JsonValueCodec<T> implements ValueCodec<T> {
+
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public JsonValueCodec(ObjectMapper objectMapper, Class<T> valueClass) {
+        this.reader = objectMapper.readerFor(valueClass);
+        this.writer = objectMapper.writerFor(valueClass).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public JsonValueCodec(ObjectMapper objectMapper, TypeReference<T> valueType) {
+        this.reader = objectMapper.readerFor(valueType);
+        this.writer = objectMapper.writerFor(valueType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * @param valueClass the class of the values
+     * @param <T>        the type of the values
+     * @return a codec using a default ObjectMapper
+     */
+    public static <T> JsonValueCodec<T> of(Class<T> valueClass) {
+        return new JsonValueCodec<>(DEFAULT_MAPPER, valueClass);
+    }
+
+    @Override
+    public String getContentType() {
+        return KVStore.CONTENT_TYPE_TEXT;
+    }
+
+    @Override
+    public void write(T value, OutputStream outputStream) throws IOException {
+        writer.writeValue(outputStream, value);
+    }
+
+    @Override
+    public T read(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            // the stored document is the text of the string token: parse it from the parser's own buffer
+            return reader.readValue(new CharArrayReader(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+        }
+        return reader.readValue(parser);
+    }
+
+}
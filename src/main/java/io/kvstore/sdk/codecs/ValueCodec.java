@@ -0,0 +1,41 @@
+package io.kvstore.sdk.codecs;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Converts typed values to and from the text stored by KVStore.io, without intermediate Strings:
+ * values are written straight into the request stream and read straight from the response parser.
+ * Implementations must be thread-safe.
+ *
+ * @param <T> the type of the values
+ * @see io.kvstore.sdk.clients.TypedItemsClient
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * @return the content type of the request bodies written by {@link #write}
+     */
+    String getContentType();
+
+    /**
+     * Write the stored representation of a value. The stream must not be closed.
+     *
+     * @param value        the value to be written
+     * @param outputStream the request body stream
+     * @throws IOException if the value can't be encoded or written
+     */
+    void write(T value, OutputStream outputStream) throws IOException;
+
+    /**
+     * Read a value from the "value" field of a response.
+     *
+     * @param parser the parser of the response, positioned on the first token of the value
+     * @return the decoded value
+     * @throws IOException if the value can't be read or decoded
+     */
+    T read(JsonParser parser) throws IOException;
+
+}
@@ -0,0 +1,74 @@
+package io.kvstore.sdk.compression;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A small lock-free pool of {@link java.util.zip.Inflater}s or {@link java.util.zip.Deflater}s, whose native
+ * zlib state is costly to allocate for every body. Coders not fitting in the pool are ended at once
+ * rather than left to the garbage collector.
+ *
+ * @param <T> the type of the coders
+ */
+final class CoderPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> end;
+    private volatile boolean cleared;
+
+    CoderPool(int capacity, Supplier<T> factory, Consumer<T> reset, Consumer<T> end) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.factory = factory;
+        this.reset = reset;
+        this.end = end;
+    }
+
+    T acquire() {
+        int length = slots.length();
+        int start = probe(length);
+        for (int i = 0; i < length; i++) {
+            T coder = slots.getAndSet((start + i) % length, null);
+            if (coder != null) {
+                return coder;
+            }
+        }
+        return factory.get();
+    }
+
+    void release(T coder) {
+        if (cleared) {
+            end.accept(coder);
+            return;
+        }
+        reset.accept(coder);
+        int length = slots.length();
+        int start = probe(length);
+        for (int i = 0; i < length; i++) {
+            if (slots.compareAndSet((start + i) % length, null, coder)) {
+                return;
+            }
+        }
+        end.accept(coder);
+    }
+
+    /**
+     * End the pooled coders; the ones in use are ended when released
+     */
+    void clear() {
+        cleared = true;
+        for (int i = 0; i < slots.length(); i++) {
+            T coder = slots.getAndSet(i, null);
+            if (coder != null) {
+                end.accept(coder);
+            }
+        }
+    }
+
+    private static int probe(int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+}
@@ -0,0 +1,312 @@
+package io.kvstore.sdk.compression;
+
+import io.kvstore.sdk.metrics.KVStoreMetrics;
+import io.kvstore.sdk.metrics.MetricsTransport;
+import io.kvstore.sdk.transport.BufferPool;
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Decorates an {@link HttpTransport} with HTTP compression. Every request advertises the accepted codings,
+ * and compressed responses are inflated while they are read, so that the JSON parser gets the decoded bytes
+ * straight from the connection. Request bodies at least as large as a threshold can be compressed too,
+ * and are sent as is when that doesn't make them smaller.
+ * Inflaters, deflaters and buffers are pooled, and the compression ratio and CPU cost are reported
+ * to the {@link KVStoreMetrics} and by {@link #getStats()}.
+ * <p>
+ * Put it on top of the {@link io.kvstore.sdk.resilience.ResilientTransport}, so that a resent request reuses its compressed body.
+ * <pre>
+ * HttpTransport transport = CompressingTransport.builder(ResilientTransport.builder(PooledHttpTransport.builder().build()).build())
+ *     .setRequestCompression(ContentCoding.GZIP, 1024)
+ *     .build();
+ * </pre>
+ */
+public class CompressingTransport implements HttpTransport {
+
+    /**
+     * The header carrying the Content-Length of a decoded response as received, i.e. the length of its compressed body
+     */
+    public static final String ENCODED_CONTENT_LENGTH = "X-KVStore-Encoded-Content-Length";
+
+    public static class Builder {
+        private final HttpTransport delegate;
+        private Set<ContentCoding> acceptedCodings = EnumSet.allOf(ContentCoding.class);
+        private ContentCoding requestCoding;
+        private int requestThreshold;
+        private int level = Deflater.DEFAULT_COMPRESSION;
+        private int poolSize = 32;
+        private KVStoreMetrics metrics = KVStoreMetrics.NOOP;
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param codings the codings of the responses advertised with Accept-Encoding, none to disable it (default all)
+         * @return the Builder itself
+         */
+        public Builder setAcceptedCodings(ContentCoding... codings) {
+            this.acceptedCodings = codings.length == 0 ? EnumSet.noneOf(ContentCoding.class) : EnumSet.copyOf(Arrays.asList(codings));
+            return this;
+        }
+
+        /**
+         * Compress the request bodies of at least the given size (default disabled, as the server may not accept them).
+         * The bodies of unknown length are always compressed.
+         *
+         * @param coding    the coding of the request bodies
+         * @param threshold the size in bytes from which a body is compressed
+         * @return the Builder itself
+         */
+        public Builder setRequestCompression(ContentCoding coding, int threshold) {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("threshold must not be negative");
+            }
+            this.requestCoding = Objects.requireNonNull(coding, "coding");
+            this.requestThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * @param level the compression level of the request bodies, from 1 (fastest) to 9 (smallest) (default 6)
+         * @return the Builder itself
+         */
+        public Builder setCompressionLevel(int level) {
+            if (level < 1 || level > 9) {
+                throw new IllegalArgumentException("level must be between 1 and 9");
+            }
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * @param poolSize the number of idle inflaters and deflaters of each kind kept for reuse (default 32)
+         * @return the Builder itself
+         */
+        public Builder setPoolSize(int poolSize) {
+            if (poolSize <= 0) {
+                throw new IllegalArgumentException("poolSize must be positive");
+            }
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * @param metrics the listener notified of every body compressed or decompressed
+         * @return the Builder itself
+         */
+        public Builder setMetrics(KVStoreMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        public CompressingTransport build() {
+            return new CompressingTransport(this);
+        }
+    }
+
+    private final HttpTransport delegate;
+    private final String acceptEncoding;
+    private final ContentCoding requestCoding;
+    private final int requestThreshold;
+    private final KVStoreMetrics metrics;
+    private final CoderPool<Deflater> deflaters;
+    private final CoderPool<Inflater> zlibInflaters;
+    private final CoderPool<Inflater> rawInflaters;
+
+    private final AtomicLong requestsCompressed = new AtomicLong();
+    private final AtomicLong requestsUncompressed = new AtomicLong();
+    private final AtomicLong requestDecodedBytes = new AtomicLong();
+    private final AtomicLong requestEncodedBytes = new AtomicLong();
+    private final AtomicLong requestCpuNanos = new AtomicLong();
+    private final AtomicLong responsesDecompressed = new AtomicLong();
+    private final AtomicLong responseDecodedBytes = new AtomicLong();
+    private final AtomicLong responseEncodedBytes = new AtomicLong();
+    private final AtomicLong responseCpuNanos = new AtomicLong();
+
+    protected CompressingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.acceptEncoding = builder.acceptedCodings.isEmpty() ? null
+            : builder.acceptedCodings.stream().map(ContentCoding::getToken).collect(Collectors.joining(", "));
+        this.requestCoding = builder.requestCoding;
+        this.requestThreshold = builder.requestThreshold;
+        this.metrics = builder.metrics;
+        int level = builder.level;
+        boolean rawDeflate = builder.requestCoding == ContentCoding.GZIP;
+        this.deflaters = new CoderPool<>(builder.poolSize, () -> new Deflater(level, rawDeflate), Deflater::reset, Deflater::end);
+        this.zlibInflaters = new CoderPool<>(builder.poolSize, () -> new Inflater(false), Inflater::reset, Inflater::end);
+        this.rawInflaters = new CoderPool<>(builder.poolSize, () -> new Inflater(true), Inflater::reset, Inflater::end);
+    }
+
+    public static Builder builder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        HttpRequest.Builder encoded = null;
+        if (acceptEncoding != null && request.getHeader("Accept-Encoding") == null) {
+            encoded = request.toBuilder().setHeader("Accept-Encoding", acceptEncoding);
+        }
+        HttpRequest.Body body = request.getBody();
+        if (requestCoding != null && body != null && request.getHeader("Content-Encoding") == null
+            && (body.getContentLength() < 0 || body.getContentLength() >= requestThreshold)) {
+            HttpRequest.Body compressed = compress(body, MetricsTransport.endpointTemplate(request.getPath()));
+            if (compressed != body) {
+                encoded = (encoded != null ? encoded : request.toBuilder())
+                    .setBody(compressed)
+                    .setHeader("Content-Encoding", requestCoding.getToken());
+            }
+        }
+        if (encoded != null) {
+            request = encoded.build();
+        }
+
+        HttpResponse response = delegate.execute(request);
+        String contentEncoding = response.getHeader("Content-Encoding");
+        if (contentEncoding == null || contentEncoding.trim().equalsIgnoreCase("identity")
+            || request.getMethod().equals("HEAD") || response.getStatusCode() == 204 || response.getStatusCode() == 304) {
+            return response;
+        }
+        ContentCoding coding = ContentCoding.fromToken(contentEncoding);
+        if (coding == null) {
+            response.close();
+            throw new ProtocolException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+        String endpoint = MetricsTransport.endpointTemplate(request.getPath());
+        // the headers describe the decoded body from now on, so that no other layer decodes it again
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(response.getHeaders());
+        headers.remove("Content-Encoding");
+        String contentLength = headers.remove("Content-Length");
+        if (contentLength != null) {
+            headers.put(ENCODED_CONTENT_LENGTH, contentLength);
+        }
+        return response.withHeaders(headers).withBody(new DecodingInputStream(response.getBody(), coding, zlibInflaters, rawInflaters,
+            decoded -> onDecoded(decoded, endpoint)));
+    }
+
+    /**
+     * @return a snapshot of the compression counters
+     */
+    public CompressionStats getStats() {
+        return new CompressionStats(requestsCompressed.get(), requestsUncompressed.get(), requestDecodedBytes.get(), requestEncodedBytes.get(),
+            requestCpuNanos.get(), responsesDecompressed.get(), responseDecodedBytes.get(), responseEncodedBytes.get(), responseCpuNanos.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            deflaters.clear();
+            zlibInflaters.clear();
+            rawInflaters.clear();
+        }
+    }
+
+    /**
+     * Compress a body of known length at once, so that it keeps a Content-Length and is compressed only once
+     * however many times it is sent. A body of unknown length is compressed while it is written.
+     *
+     * @return the compressed body, or the given one when compressing it doesn't make it smaller
+     */
+    private HttpRequest.Body compress(HttpRequest.Body body, String endpoint) throws IOException {
+        long length = body.getContentLength();
+        if (length < 0) {
+            return new StreamingBody(body, endpoint);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(length / 2 + 64, Integer.MAX_VALUE - 8));
+        EncodingOutputStream encoder = encode(body, out);
+        if (encoder.getEncodedBytes() >= length) {
+            requestsUncompressed.incrementAndGet();
+            requestCpuNanos.addAndGet(encoder.getCpuNanos());
+            return body;
+        }
+        onEncoded(encoder, endpoint);
+        return HttpRequest.Body.of(out.toByteArray(), body.getContentType());
+    }
+
+    private EncodingOutputStream encode(HttpRequest.Body body, OutputStream out) throws IOException {
+        Deflater deflater = deflaters.acquire();
+        byte[] buffer = BufferPool.shared().acquire();
+        try {
+            EncodingOutputStream encoder = new EncodingOutputStream(out, requestCoding, deflater, buffer);
+            body.writeTo(encoder);
+            encoder.close();
+            return encoder;
+        } finally {
+            BufferPool.shared().release(buffer);
+            deflaters.release(deflater);
+        }
+    }
+
+    private void onEncoded(EncodingOutputStream encoder, String endpoint) {
+        requestsCompressed.incrementAndGet();
+        requestDecodedBytes.addAndGet(encoder.getRawBytes());
+        requestEncodedBytes.addAndGet(encoder.getEncodedBytes());
+        requestCpuNanos.addAndGet(encoder.getCpuNanos());
+        fire(new CompressionEvent(requestCoding, true, endpoint, encoder.getRawBytes(), encoder.getEncodedBytes(), encoder.getCpuNanos()));
+    }
+
+    private void onDecoded(DecodingInputStream decoder, String endpoint) {
+        responsesDecompressed.incrementAndGet();
+        responseDecodedBytes.addAndGet(decoder.getDecodedBytes());
+        responseEncodedBytes.addAndGet(decoder.getEncodedBytes());
+        responseCpuNanos.addAndGet(decoder.getCpuNanos());
+        fire(new CompressionEvent(decoder.getCoding(), false, endpoint, decoder.getDecodedBytes(), decoder.getEncodedBytes(), decoder.getCpuNanos()));
+    }
+
+    private void fire(CompressionEvent event) {
+        try {
+            metrics.onCompression(event);
+        } catch (RuntimeException ignored) {
+            // a broken listener must not fail the request
+        }
+    }
+
+    /**
+     * A body of unknown length, compressed again every time it is written and sent in chunks
+     */
+    private final class StreamingBody implements HttpRequest.Body {
+        private final HttpRequest.Body body;
+        private final String endpoint;
+
+        private StreamingBody(HttpRequest.Body body, String endpoint) {
+            this.body = body;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getContentType() {
+            return body.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            onEncoded(encode(body, outputStream), endpoint);
+        }
+    }
+
+}
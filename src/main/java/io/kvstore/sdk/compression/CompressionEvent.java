@@ -0,0 +1,82 @@
+package io.kvstore.sdk.compression;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request body compressed or a response body decompressed by a {@link CompressingTransport},
+ * as seen by {@link io.kvstore.sdk.metrics.KVStoreMetrics#onCompression}
+ */
+public final class CompressionEvent {
+
+    private final ContentCoding coding;
+    private final boolean request;
+    private final String endpoint;
+    private final long decodedBytes;
+    private final long encodedBytes;
+    private final long cpuNanos;
+
+    CompressionEvent(ContentCoding coding, boolean request, String endpoint, long decodedBytes, long encodedBytes, long cpuNanos) {
+        this.coding = coding;
+        this.request = request;
+        this.endpoint = endpoint;
+        this.decodedBytes = decodedBytes;
+        this.encodedBytes = encodedBytes;
+        this.cpuNanos = cpuNanos;
+    }
+
+    public ContentCoding getCoding() {
+        return coding;
+    }
+
+    /**
+     * @return true for a compressed request body, false for a decompressed response body
+     */
+    public boolean isRequest() {
+        return request;
+    }
+
+    /**
+     * @return the template of the path, like /collections/{c}/items/{k}
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the bytes of the body before compression
+     */
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    /**
+     * @return the bytes of the body on the wire
+     */
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    /**
+     * @return the nanoseconds spent compressing or decompressing, excluding the I/O
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * @return the decoded size divided by the encoded size, i.e. 4 when the body shrank to a quarter
+     */
+    public double getRatio() {
+        return encodedBytes == 0 ? 1 : (double) decodedBytes / encodedBytes;
+    }
+
+    public String toString() {
+        return "CompressionEvent(coding=" + coding +
+            ", request=" + request +
+            ", endpoint=" + endpoint +
+            ", decodedBytes=" + decodedBytes +
+            ", encodedBytes=" + encodedBytes +
+            ", cpu=" + TimeUnit.NANOSECONDS.toMicros(cpuNanos) + "us)";
+    }
+
+}
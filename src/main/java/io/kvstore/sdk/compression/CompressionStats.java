@@ -0,0 +1,116 @@
+package io.kvstore.sdk.compression;
+
+/**
+ * Point-in-time counters of a {@link CompressingTransport}
+ */
+public final class CompressionStats {
+
+    private final long requestsCompressed;
+    private final long requestsUncompressed;
+    private final long requestDecodedBytes;
+    private final long requestEncodedBytes;
+    private final long requestCpuNanos;
+    private final long responsesDecompressed;
+    private final long responseDecodedBytes;
+    private final long responseEncodedBytes;
+    private final long responseCpuNanos;
+
+    CompressionStats(long requestsCompressed, long requestsUncompressed, long requestDecodedBytes, long requestEncodedBytes, long requestCpuNanos,
+                     long responsesDecompressed, long responseDecodedBytes, long responseEncodedBytes, long responseCpuNanos) {
+        this.requestsCompressed = requestsCompressed;
+        this.requestsUncompressed = requestsUncompressed;
+        this.requestDecodedBytes = requestDecodedBytes;
+        this.requestEncodedBytes = requestEncodedBytes;
+        this.requestCpuNanos = requestCpuNanos;
+        this.responsesDecompressed = responsesDecompressed;
+        this.responseDecodedBytes = responseDecodedBytes;
+        this.responseEncodedBytes = responseEncodedBytes;
+        this.responseCpuNanos = responseCpuNanos;
+    }
+
+    /**
+     * @return the number of request bodies sent compressed
+     */
+    public long getRequestsCompressed() {
+        return requestsCompressed;
+    }
+
+    /**
+     * @return the number of request bodies above the threshold sent as is, because compressing them didn't make them smaller
+     */
+    public long getRequestsUncompressed() {
+        return requestsUncompressed;
+    }
+
+    /**
+     * @return the bytes of the compressed request bodies before compression
+     */
+    public long getRequestDecodedBytes() {
+        return requestDecodedBytes;
+    }
+
+    /**
+     * @return the bytes of the compressed request bodies on the wire
+     */
+    public long getRequestEncodedBytes() {
+        return requestEncodedBytes;
+    }
+
+    /**
+     * @return the nanoseconds spent compressing request bodies, the uncompressed ones included
+     */
+    public long getRequestCpuNanos() {
+        return requestCpuNanos;
+    }
+
+    /**
+     * @return the number of compressed response bodies received
+     */
+    public long getResponsesDecompressed() {
+        return responsesDecompressed;
+    }
+
+    /**
+     * @return the decompressed bytes of the response bodies read
+     */
+    public long getResponseDecodedBytes() {
+        return responseDecodedBytes;
+    }
+
+    /**
+     * @return the bytes of the compressed response bodies read from the wire
+     */
+    public long getResponseEncodedBytes() {
+        return responseEncodedBytes;
+    }
+
+    /**
+     * @return the nanoseconds spent decompressing response bodies
+     */
+    public long getResponseCpuNanos() {
+        return responseCpuNanos;
+    }
+
+    /**
+     * @return the size of the compressed request bodies divided by their size on the wire, or 1 when none was compressed
+     */
+    public double getRequestRatio() {
+        return requestEncodedBytes == 0 ? 1 : (double) requestDecodedBytes / requestEncodedBytes;
+    }
+
+    /**
+     * @return the size of the compressed response bodies divided by their size on the wire, or 1 when none was received
+     */
+    public double getResponseRatio() {
+        return responseEncodedBytes == 0 ? 1 : (double) responseDecodedBytes / responseEncodedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats(requestsCompressed=" + requestsCompressed + ", requestsUncompressed=" + requestsUncompressed
+            + ", requestRatio=" + String.format("%.2f", getRequestRatio()) + ", requestCpuNanos=" + requestCpuNanos
+            + ", responsesDecompressed=" + responsesDecompressed + ", responseRatio=" + String.format("%.2f", getResponseRatio())
+            + ", responseCpuNanos=" + responseCpuNanos + ")";
+    }
+
+}
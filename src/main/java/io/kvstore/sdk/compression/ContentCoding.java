@@ -0,0 +1,49 @@
+package io.kvstore.sdk.compression;
+
+import java.util.Locale;
+
+/**
+ * The HTTP content codings supported by the {@link CompressingTransport}, all backed by the zlib of the JDK
+ */
+public enum ContentCoding {
+
+    /**
+     * The gzip format of RFC 1952, the most widely supported by servers
+     */
+    GZIP("gzip"),
+
+    /**
+     * The zlib format of RFC 1950; raw deflate streams sent by some servers are accepted too
+     */
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return the name of the coding in the Accept-Encoding and Content-Encoding headers
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @param token the value of a Content-Encoding header
+     * @return the coding, or null when it isn't supported
+     */
+    public static ContentCoding fromToken(String token) {
+        switch (token.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return GZIP;
+            case "deflate":
+                return DEFLATE;
+            default:
+                return null;
+        }
+    }
+
+}
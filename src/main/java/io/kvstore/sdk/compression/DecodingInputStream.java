@@ -0,0 +1,283 @@
+package io.kvstore.sdk.compression;
+
+import io.kvstore.sdk.transport.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Inflates a gzip or deflate response body as it is read, so that the JSON parser pulls decoded bytes straight
+ * from the connection. The {@link Inflater} and the read buffer are pooled, and given back on close.
+ * The CPU cost reported is the time spent in the read calls minus the time spent waiting for the connection.
+ */
+final class DecodingInputStream extends InputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final ContentCoding coding;
+    private final CoderPool<Inflater> zlibInflaters;
+    private final CoderPool<Inflater> rawInflaters;
+    private final Consumer<DecodingInputStream> onClose;
+    private final byte[] buffer;
+    private final CRC32 crc = new CRC32();
+
+    private Inflater inflater;
+    private CoderPool<Inflater> inflaterPool;
+    private int position;
+    private int limit;
+    private boolean started;
+    private boolean finished;
+    private boolean closed;
+
+    private long encodedBytes;
+    private long decodedBytes;
+    private long waitNanos;
+    private long cpuNanos;
+
+    DecodingInputStream(InputStream in, ContentCoding coding, CoderPool<Inflater> zlibInflaters, CoderPool<Inflater> rawInflaters,
+                        Consumer<DecodingInputStream> onClose) {
+        this.in = in;
+        this.coding = coding;
+        this.zlibInflaters = zlibInflaters;
+        this.rawInflaters = rawInflaters;
+        this.onClose = onClose;
+        this.buffer = BufferPool.shared().acquire();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n > 0 ? single[0] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (finished) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        long waited = waitNanos;
+        try {
+            if (!started) {
+                started = true;
+                if (!start()) {
+                    finished = true;
+                    return -1;
+                }
+            }
+            while (true) {
+                if (inflater.finished()) {
+                    if (coding == ContentCoding.GZIP) {
+                        readGzipTrailer();
+                    }
+                    finished = true;
+                    return -1;
+                }
+                if (inflater.needsInput()) {
+                    if (position == limit && !fill()) {
+                        throw new EOFException("Unexpected end of the " + coding.getToken() + " body");
+                    }
+                    inflater.setInput(buffer, position, limit - position);
+                }
+                int n = inflater.inflate(b, off, len);
+                position = limit - inflater.getRemaining();
+                if (n > 0) {
+                    if (coding == ContentCoding.GZIP) {
+                        crc.update(b, off, n);
+                    }
+                    decodedBytes += n;
+                    return n;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Preset dictionaries are not supported");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid " + coding.getToken() + " body: " + e.getMessage());
+        } finally {
+            cpuNanos += System.nanoTime() - start - (waitNanos - waited);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            in.close();
+        } finally {
+            if (inflater != null) {
+                inflaterPool.release(inflater);
+                inflater = null;
+            }
+            BufferPool.shared().release(buffer);
+            onClose.accept(this);
+        }
+    }
+
+    ContentCoding getCoding() {
+        return coding;
+    }
+
+    /**
+     * @return the compressed bytes read from the connection
+     */
+    long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    /**
+     * @return the decoded bytes returned to the reader
+     */
+    long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Read the gzip header or detect the zlib header, and pick an inflater accordingly
+     *
+     * @return false when the body is empty
+     */
+    private boolean start() throws IOException {
+        if (!buffer(2)) {
+            if (position == limit) {
+                return false;
+            }
+            throw new EOFException("Unexpected end of the " + coding.getToken() + " body");
+        }
+        if (coding == ContentCoding.GZIP) {
+            readGzipHeader();
+            inflaterPool = rawInflaters;
+        } else {
+            int header = (buffer[position] & 0xff) << 8 | buffer[position + 1] & 0xff;
+            boolean zlib = (header & 0x0f00) == 0x0800 && header % 31 == 0;
+            inflaterPool = zlib ? zlibInflaters : rawInflaters;
+        }
+        inflater = inflaterPool.acquire();
+        if (position < limit) {
+            inflater.setInput(buffer, position, limit - position);
+        }
+        return true;
+    }
+
+    private void readGzipHeader() throws IOException {
+        if (readUnsignedShort() != GZIP_MAGIC) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (readUnsignedByte() != 8) {
+            throw new ZipException("Unsupported gzip compression method");
+        }
+        int flags = readUnsignedByte();
+        // mtime, extra flags and operating system
+        skip(6);
+        if ((flags & FEXTRA) != 0) {
+            skip(readUnsignedShort());
+        }
+        if ((flags & FNAME) != 0) {
+            while (readUnsignedByte() != 0) {
+                // skip the file name
+            }
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (readUnsignedByte() != 0) {
+                // skip the comment
+            }
+        }
+        if ((flags & FHCRC) != 0) {
+            skip(2);
+        }
+    }
+
+    private void readGzipTrailer() throws IOException {
+        long expectedCrc = readUnsignedInt();
+        long expectedSize = readUnsignedInt();
+        if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip trailer");
+        }
+    }
+
+    private long readUnsignedInt() throws IOException {
+        return (long) readUnsignedShort() | (long) readUnsignedShort() << 16;
+    }
+
+    private int readUnsignedShort() throws IOException {
+        return readUnsignedByte() | readUnsignedByte() << 8;
+    }
+
+    private int readUnsignedByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("Unexpected end of the " + coding.getToken() + " body");
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private void skip(int bytes) throws IOException {
+        for (int i = 0; i < bytes; i++) {
+            readUnsignedByte();
+        }
+    }
+
+    /**
+     * Read from the connection until at least the given number of bytes are buffered
+     *
+     * @return false when the body ended before
+     */
+    private boolean buffer(int bytes) throws IOException {
+        while (limit - position < bytes) {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            if (readFromConnection(limit) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = 0;
+        return readFromConnection(0) > 0;
+    }
+
+    private int readFromConnection(int at) throws IOException {
+        long start = System.nanoTime();
+        int n = in.read(buffer, at, buffer.length - at);
+        waitNanos += System.nanoTime() - start;
+        if (n > 0) {
+            limit += n;
+            encodedBytes += n;
+        }
+        return n;
+    }
+
+}
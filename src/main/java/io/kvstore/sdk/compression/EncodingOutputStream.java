@@ -0,0 +1,115 @@
+package io.kvstore.sdk.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a request body in the gzip or zlib format while it is written. Closing the stream writes
+ * the end of the compressed data but leaves the target stream open, like a request body must.
+ * The CPU cost reported is the time spent in the {@link Deflater}, excluding the writes to the target stream.
+ */
+final class EncodingOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final ContentCoding coding;
+    private final Deflater deflater;
+    private final byte[] buffer;
+    private final CRC32 crc = new CRC32();
+
+    private boolean closed;
+    private long rawBytes;
+    private long encodedBytes;
+    private long cpuNanos;
+
+    /**
+     * @param deflater a deflater producing raw deflate data for gzip, and zlib data for deflate
+     */
+    EncodingOutputStream(OutputStream out, ContentCoding coding, Deflater deflater, byte[] buffer) throws IOException {
+        this.out = out;
+        this.coding = coding;
+        this.deflater = deflater;
+        this.buffer = buffer;
+        if (coding == ContentCoding.GZIP) {
+            out.write(GZIP_HEADER);
+            encodedBytes += GZIP_HEADER.length;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (coding == ContentCoding.GZIP) {
+            crc.update(b, off, len);
+        }
+        cpuNanos += System.nanoTime() - start;
+        rawBytes += len;
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate();
+        }
+        if (coding == ContentCoding.GZIP) {
+            byte[] trailer = new byte[8];
+            writeInt(trailer, 0, crc.getValue());
+            writeInt(trailer, 4, rawBytes);
+            out.write(trailer);
+            encodedBytes += trailer.length;
+        }
+        out.flush();
+    }
+
+    long getRawBytes() {
+        return rawBytes;
+    }
+
+    long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    private void deflate() throws IOException {
+        long start = System.nanoTime();
+        int n = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+        cpuNanos += System.nanoTime() - start;
+        if (n > 0) {
+            out.write(buffer, 0, n);
+            encodedBytes += n;
+        }
+    }
+
+    private static void writeInt(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+}
@@ -1,30 +1,98 @@
 package io.kvstore.sdk.exceptions;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 public class KVStoreException extends RuntimeException {
 
+    /**
+     * Status code of the exceptions not caused by a response
+     */
+    public static final int NO_STATUS = -1;
+
+    /**
+     * Shared by all the exceptions: a reader is immutable and thread-safe
+     */
+    private static final ObjectReader ERROR_READER = new ObjectMapper().readerFor(Map.class);
+
     private Map<String, Object> error;
+    private final int statusCode;
+    private final boolean retryable;
 
-    @SuppressWarnings("unchecked")
     public KVStoreException(String message) {
-        super(message);
+        this(NO_STATUS, message);
+    }
 
-        ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * @param statusCode the status code of the response
+     * @param message the body of the response
+     */
+    @SuppressWarnings("unchecked")
+    public KVStoreException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryable = isRetryableStatus(statusCode);
 
         try {
-            error = objectMapper.readValue(message, Map.class);
+            error = ERROR_READER.readValue(message);
         } catch (Exception e) {
             error = new HashMap<>();
             error.put("message", e.getMessage());
         }
     }
 
+    /**
+     * @param cause the I/O failure that prevented a response, transient unless the response couldn't be parsed
+     */
+    public KVStoreException(IOException cause) {
+        super(cause.toString(), cause);
+        this.statusCode = NO_STATUS;
+        this.retryable = !(cause instanceof JsonProcessingException);
+        this.error = new HashMap<>();
+        this.error.put("message", cause.getMessage());
+    }
+
+    /**
+     * @param message the description of a failure detected by the client itself
+     * @param retryable whether the same request may succeed later
+     */
+    protected KVStoreException(String message, boolean retryable) {
+        super(message);
+        this.statusCode = NO_STATUS;
+        this.retryable = retryable;
+        this.error = new HashMap<>();
+        this.error.put("message", message);
+    }
+
     public Map<String, Object> getError() {
         return error;
     }
 
+    /**
+     * @return the status code of the response, or {@link #NO_STATUS} when no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return true when the failure is transient and the same request may succeed later
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * @param statusCode the status code of a response
+     * @return true for throttling (429) and for the gateway and availability errors (502, 503, 504)
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
 }
@@ -0,0 +1,125 @@
+package io.kvstore.sdk.limits;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit of the requests in flight (AIMD): each request completed in time while the limit is in use
+ * raises the limit by one, each request throttled, failed or slower than the latency threshold cuts it by the backoff ratio.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param initialLimit the limit before any request completes
+     * @param maxLimit the highest limit reachable
+     * @param latencyThresholdNanos the latency above which a request counts as a sign of overload
+     */
+    public ConcurrencyLimiter(int initialLimit, int maxLimit, long latencyThresholdNanos) {
+        if (initialLimit <= 0 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("initialLimit must be positive and not above maxLimit");
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @param maxWaitNanos the longest acceptable wait for a slot
+     * @return true when a slot was taken, and must be given back with {@link #release}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean acquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (maxWaitNanos == Long.MAX_VALUE) {
+                    available.await();
+                } else {
+                    remaining = available.awaitNanos(remaining);
+                }
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back a slot and adjust the limit
+     *
+     * @param latencyNanos the time until the response arrived
+     * @param overloaded true when the request failed or the API asked to slow down
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            int used = inFlight--;
+            if (overloaded || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (used * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            if (inFlight < (int) limit) {
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back a slot taken by {@link #acquire} but not used, i.e. when another limit rejected the request,
+     * without adjusting the limit
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String toString() {
+        return "ConcurrencyLimiter(limit=" + getLimit() + ", maxLimit=" + maxLimit +
+            ", latencyThreshold=" + TimeUnit.NANOSECONDS.toMillis(latencyThresholdNanos) + "ms)";
+    }
+
+}
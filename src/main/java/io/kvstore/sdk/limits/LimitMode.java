@@ -0,0 +1,19 @@
+package io.kvstore.sdk.limits;
+
+/**
+ * What a request does when a limit is reached
+ */
+public enum LimitMode {
+    /**
+     * Wait as long as needed
+     */
+    BLOCK,
+    /**
+     * Wait up to the maximum queue time, then fail with a {@link RequestRejectedException}
+     */
+    QUEUE_WITH_DEADLINE,
+    /**
+     * Fail at once with a {@link RequestRejectedException}
+     */
+    REJECT
+}
@@ -0,0 +1,356 @@
+package io.kvstore.sdk.limits;
+
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an {@link HttpTransport} with client-side limits, so that the instances sharing an API token stay under its quota:
+ * a token bucket for the whole client, optional token buckets per collection and adaptive concurrency limits,
+ * for the whole client and per collection, that shrink on 429 and 503 responses, I/O errors and slow responses.
+ * Put it under the {@link io.kvstore.sdk.resilience.ResilientTransport} so that retries are paced too.
+ * <pre>
+ * HttpTransport transport = ResilientTransport.builder(LimitedTransport.builder(PooledHttpTransport.builder().build())
+ *         .setRateLimit(50, 10)
+ *         .setCollectionRateLimit("sessions", 10, 5)
+ *         .setAdaptiveConcurrency(8, 64)
+ *         .setCollectionConcurrency("sessions", 2, 16)
+ *         .setMode(LimitMode.QUEUE_WITH_DEADLINE)
+ *         .build())
+ *     .build();
+ * </pre>
+ */
+public class LimitedTransport implements HttpTransport {
+
+    public static class Builder {
+        private final HttpTransport delegate;
+        private RateLimiter rateLimiter;
+        private final Map<String, RateLimiter> collectionRateLimiters = new HashMap<>();
+        private int initialConcurrency;
+        private int maxConcurrency;
+        private final Map<String, int[]> collectionConcurrency = new HashMap<>();
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        private LimitMode mode = LimitMode.BLOCK;
+        private Duration maxQueueTime = Duration.ofSeconds(1);
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Limit the rate of all the requests (default unlimited)
+         *
+         * @param permitsPerSecond the sustained requests per second
+         * @param burst the requests that can be sent at once after a quiet period
+         * @return the Builder itself
+         */
+        public Builder setRateLimit(double permitsPerSecond, int burst) {
+            this.rateLimiter = new RateLimiter(permitsPerSecond, burst);
+            return this;
+        }
+
+        /**
+         * Limit the rate of the requests on the items of a collection, on top of the global rate
+         *
+         * @param collectionName the name of the collection
+         * @param permitsPerSecond the sustained requests per second
+         * @param burst the requests that can be sent at once after a quiet period
+         * @return the Builder itself
+         */
+        public Builder setCollectionRateLimit(String collectionName, double permitsPerSecond, int burst) {
+            this.collectionRateLimiters.put(collectionName, new RateLimiter(permitsPerSecond, burst));
+            return this;
+        }
+
+        /**
+         * Limit the requests in flight with a limit adapting to the observed latency and throttling (default unlimited)
+         *
+         * @param initialConcurrency the limit before any request completes
+         * @param maxConcurrency the highest limit reachable
+         * @return the Builder itself
+         */
+        public Builder setAdaptiveConcurrency(int initialConcurrency, int maxConcurrency) {
+            if (initialConcurrency <= 0 || maxConcurrency < initialConcurrency) {
+                throw new IllegalArgumentException("initialConcurrency must be positive and not above maxConcurrency");
+            }
+            this.initialConcurrency = initialConcurrency;
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Limit the requests in flight on the items of a collection, on top of the global limit,
+         * with a limit adapting to the latency and throttling of that collection
+         *
+         * @param collectionName the name of the collection
+         * @param initialConcurrency the limit before any request completes
+         * @param maxConcurrency the highest limit reachable
+         * @return the Builder itself
+         */
+        public Builder setCollectionConcurrency(String collectionName, int initialConcurrency, int maxConcurrency) {
+            if (initialConcurrency <= 0 || maxConcurrency < initialConcurrency) {
+                throw new IllegalArgumentException("initialConcurrency must be positive and not above maxConcurrency");
+            }
+            this.collectionConcurrency.put(collectionName, new int[]{initialConcurrency, maxConcurrency});
+            return this;
+        }
+
+        /**
+         * @param latencyThreshold the latency above which a response lowers the concurrency limit (default 2 seconds)
+         * @return the Builder itself
+         */
+        public Builder setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * @param mode what a request does when a limit is reached (default {@link LimitMode#BLOCK})
+         * @return the Builder itself
+         */
+        public Builder setMode(LimitMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * @param maxQueueTime the longest wait in {@link LimitMode#QUEUE_WITH_DEADLINE} mode (default 1 second)
+         * @return the Builder itself
+         */
+        public Builder setMaxQueueTime(Duration maxQueueTime) {
+            this.maxQueueTime = maxQueueTime;
+            return this;
+        }
+
+        public LimitedTransport build() {
+            return new LimitedTransport(this);
+        }
+    }
+
+    private final HttpTransport delegate;
+    private final RateLimiter rateLimiter;
+    private final Map<String, RateLimiter> collectionRateLimiters;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Map<String, ConcurrencyLimiter> collectionConcurrencyLimiters = new HashMap<>();
+    private final LimitMode mode;
+    private final long maxQueueNanos;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong totalQueuedNanos = new AtomicLong();
+    private final AtomicLong maxQueuedNanos = new AtomicLong();
+
+    protected LimitedTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.rateLimiter = builder.rateLimiter;
+        this.collectionRateLimiters = new HashMap<>(builder.collectionRateLimiters);
+        this.concurrencyLimiter = builder.maxConcurrency > 0
+            ? new ConcurrencyLimiter(builder.initialConcurrency, builder.maxConcurrency, builder.latencyThreshold.toNanos())
+            : null;
+        builder.collectionConcurrency.forEach((collectionName, limits) -> this.collectionConcurrencyLimiters.put(collectionName,
+            new ConcurrencyLimiter(limits[0], limits[1], builder.latencyThreshold.toNanos())));
+        this.mode = builder.mode;
+        this.maxQueueNanos = builder.maxQueueTime.toNanos();
+    }
+
+    public static Builder builder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        long start = System.nanoTime();
+        String collectionName = collectionName(request.getPath());
+        ConcurrencyLimiter collectionConcurrencyLimiter = collectionName != null ? collectionConcurrencyLimiters.get(collectionName) : null;
+        admit(collectionName, collectionConcurrencyLimiter, start);
+        recordAdmission(System.nanoTime() - start);
+
+        long sent = System.nanoTime();
+        HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (IOException | RuntimeException | Error e) {
+            release(collectionConcurrencyLimiter, System.nanoTime() - sent, true);
+            throw e;
+        }
+        if (concurrencyLimiter == null && collectionConcurrencyLimiter == null) {
+            return response;
+        }
+        long latencyNanos = System.nanoTime() - sent;
+        boolean overloaded = response.getStatusCode() == 429 || response.getStatusCode() == 503;
+        // the slot is held until the body is consumed, since the connection is in use until then
+        AtomicBoolean released = new AtomicBoolean();
+        return response.withBody(new FilterInputStream(response.getBody()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        release(collectionConcurrencyLimiter, latencyNanos, overloaded);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return a snapshot of the admission counters
+     */
+    public LimiterStats getStats() {
+        return new LimiterStats(admitted.get(), rejected.get(), queued.get(), totalQueuedNanos.get(), maxQueuedNanos.get(),
+            concurrencyLimiter != null ? concurrencyLimiter.getLimit() : 0,
+            concurrencyLimiter != null ? concurrencyLimiter.getInFlight() : 0);
+    }
+
+    /**
+     * @param collectionName the name of a collection
+     * @return the current adaptive concurrency limit of the collection, 0 when its concurrency isn't limited
+     */
+    public int getCollectionConcurrencyLimit(String collectionName) {
+        ConcurrencyLimiter limiter = collectionConcurrencyLimiters.get(collectionName);
+        return limiter != null ? limiter.getLimit() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * Reserve the permits of the collection and global buckets, wait until both are due, then take the concurrency slots
+     * of the collection and of the client.
+     * When a limit rejects the request, or the wait is interrupted, the permits and slots already taken are given back,
+     * so that rejected requests don't delay the admitted ones.
+     */
+    private void admit(String collectionName, ConcurrencyLimiter collectionConcurrencyLimiter, long start) throws InterruptedIOException {
+        RateLimiter collectionRateLimiter = collectionName != null ? collectionRateLimiters.get(collectionName) : null;
+        boolean collectionReserved = false;
+        boolean globalReserved = false;
+        boolean admitted = false;
+        try {
+            long wait = 0;
+            if (collectionRateLimiter != null) {
+                wait = collectionRateLimiter.reserve(remainingNanos(start));
+                if (wait < 0) {
+                    throw reject("Rate limit of collection " + collectionName + " exceeded");
+                }
+                collectionReserved = true;
+            }
+            if (rateLimiter != null) {
+                long globalWait = rateLimiter.reserve(remainingNanos(start));
+                if (globalWait < 0) {
+                    throw reject("Rate limit exceeded");
+                }
+                globalReserved = true;
+                wait = Math.max(wait, globalWait);
+            }
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+                }
+            }
+            if (collectionConcurrencyLimiter != null) {
+                awaitConcurrency(collectionConcurrencyLimiter, "Concurrency limit of collection " + collectionName, start);
+            }
+            try {
+                if (concurrencyLimiter != null) {
+                    awaitConcurrency(concurrencyLimiter, "Concurrency limit", start);
+                }
+            } catch (InterruptedIOException | RuntimeException e) {
+                if (collectionConcurrencyLimiter != null) {
+                    collectionConcurrencyLimiter.cancel();
+                }
+                throw e;
+            }
+            admitted = true;
+        } finally {
+            if (!admitted) {
+                if (collectionReserved) {
+                    collectionRateLimiter.cancel();
+                }
+                if (globalReserved) {
+                    rateLimiter.cancel();
+                }
+            }
+        }
+    }
+
+    private void awaitConcurrency(ConcurrencyLimiter limiter, String name, long start) throws InterruptedIOException {
+        boolean acquired;
+        try {
+            acquired = limiter.acquire(remainingNanos(start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the concurrency limit");
+        }
+        if (!acquired) {
+            throw reject(name + " of " + limiter.getLimit() + " requests exceeded");
+        }
+    }
+
+    private void release(ConcurrencyLimiter collectionConcurrencyLimiter, long latencyNanos, boolean overloaded) {
+        if (collectionConcurrencyLimiter != null) {
+            collectionConcurrencyLimiter.release(latencyNanos, overloaded);
+        }
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.release(latencyNanos, overloaded);
+        }
+    }
+
+    private long remainingNanos(long start) {
+        switch (mode) {
+            case BLOCK:
+                return Long.MAX_VALUE;
+            case QUEUE_WITH_DEADLINE:
+                return Math.max(0, maxQueueNanos - (System.nanoTime() - start));
+            default:
+                return 0;
+        }
+    }
+
+    private RequestRejectedException reject(String message) {
+        rejected.incrementAndGet();
+        return new RequestRejectedException(message);
+    }
+
+    private void recordAdmission(long queuedNanos) {
+        admitted.incrementAndGet();
+        if (queuedNanos > TimeUnit.MICROSECONDS.toNanos(100)) {
+            queued.incrementAndGet();
+            totalQueuedNanos.addAndGet(queuedNanos);
+            maxQueuedNanos.accumulateAndGet(queuedNanos, Math::max);
+        }
+    }
+
+    /**
+     * @return the collection addressed by a path like /collections/{name}/items, or null
+     */
+    static String collectionName(String path) {
+        String prefix = "/collections/";
+        if (!path.startsWith(prefix)) {
+            return null;
+        }
+        int end = prefix.length();
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') {
+            end++;
+        }
+        return end > prefix.length() ? path.substring(prefix.length(), end) : null;
+    }
+
+}
@@ -0,0 +1,84 @@
+package io.kvstore.sdk.limits;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time counters of a {@link LimitedTransport}
+ */
+public final class LimiterStats {
+
+    private final long admitted;
+    private final long rejected;
+    private final long queued;
+    private final long totalQueuedNanos;
+    private final long maxQueuedNanos;
+    private final int concurrencyLimit;
+    private final int inFlight;
+
+    LimiterStats(long admitted, long rejected, long queued, long totalQueuedNanos, long maxQueuedNanos, int concurrencyLimit, int inFlight) {
+        this.admitted = admitted;
+        this.rejected = rejected;
+        this.queued = queued;
+        this.totalQueuedNanos = totalQueuedNanos;
+        this.maxQueuedNanos = maxQueuedNanos;
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * @return the number of requests sent
+     */
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    /**
+     * @return the number of requests failed with a {@link RequestRejectedException}
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the number of requests that had to wait for a limit
+     */
+    public long getQueued() {
+        return queued;
+    }
+
+    /**
+     * @return the average wait of the queued requests, in milliseconds
+     */
+    public double getAverageQueuedMillis() {
+        return queued == 0 ? 0 : (double) totalQueuedNanos / queued / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest wait of a request, in milliseconds
+     */
+    public double getMaxQueuedMillis() {
+        return (double) maxQueuedNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the current adaptive concurrency limit, 0 when concurrency isn't limited
+     */
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public String toString() {
+        return "LimiterStats(admitted=" + admitted +
+            ", rejected=" + rejected +
+            ", queued=" + queued +
+            ", averageQueuedMillis=" + getAverageQueuedMillis() +
+            ", maxQueuedMillis=" + getMaxQueuedMillis() +
+            ", concurrencyLimit=" + concurrencyLimit +
+            ", inFlight=" + inFlight + ")";
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.kvstore.sdk.limits;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket: permits refill at a steady rate up to the burst size.
+ * Callers reserve a permit and wait the returned time, so waiting requests are served in reservation order.
+ */
+public class RateLimiter {
+
+    private final double permitsPerSecond;
+    private final double nanosPerPermit;
+    private final int burst;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double permits;
+    private long refilledAt;
+
+    /**
+     * @param permitsPerSecond the sustained rate
+     * @param burst the permits that can be used at once after a quiet period
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burst = burst;
+        this.permits = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Reserve a permit if it becomes available in time
+     *
+     * @param maxWaitNanos the longest acceptable wait
+     * @return the nanoseconds to wait before using the permit, or -1 when no permit was reserved
+     */
+    public long reserve(long maxWaitNanos) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            permits = Math.min(burst, permits + (now - refilledAt) / nanosPerPermit);
+            refilledAt = now;
+            // the bucket goes negative while permits are reserved ahead of time
+            long wait = permits >= 1 ? 0 : (long) Math.ceil((1 - permits) * nanosPerPermit);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            permits -= 1;
+            return wait;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back a permit reserved by {@link #reserve} but not used, i.e. when another limit rejected the request
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            permits = Math.min(burst, permits + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public String toString() {
+        return "RateLimiter(permitsPerSecond=" + permitsPerSecond + ", burst=" + burst + ")";
+    }
+
+}
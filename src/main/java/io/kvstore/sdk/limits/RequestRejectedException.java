@@ -0,0 +1,14 @@
+package io.kvstore.sdk.limits;
+
+import io.kvstore.sdk.exceptions.KVStoreException;
+
+/**
+ * Thrown when a request is not sent because a client-side limit was reached; it may succeed later
+ */
+public class RequestRejectedException extends KVStoreException {
+
+    public RequestRejectedException(String message) {
+        super(message, true);
+    }
+
+}
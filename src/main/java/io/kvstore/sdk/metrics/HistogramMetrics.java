@@ -0,0 +1,237 @@
+package io.kvstore.sdk.metrics;
+
+import io.kvstore.sdk.compression.CompressionEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Built-in {@link KVStoreMetrics} keeping, per method and endpoint template, a {@link LatencyHistogram} and counters
+ * of errors, retries and bytes, plus hit and miss counters per cache, compression counters per direction and hedge counters. Everything can be read at any time, i.e. by a scraper.
+ */
+public class HistogramMetrics implements KVStoreMetrics {
+
+    /**
+     * The metrics of one method and endpoint template, like "GET /collections/{c}/items/{k}"
+     */
+    public static final class EndpointMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getRequests() {
+            return latency.getCount();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+
+        public String toString() {
+            return "EndpointMetrics(requests=" + getRequests() +
+                ", errors=" + getErrors() +
+                ", retries=" + getRetries() +
+                ", requestBytes=" + getRequestBytes() +
+                ", responseBytes=" + getResponseBytes() +
+                ", latency=" + latency + ")";
+        }
+    }
+
+    /**
+     * The hit and miss counters of one cache
+     */
+    public static final class CacheMetrics {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public double getHitRate() {
+            long hits = getHits();
+            long total = hits + getMisses();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        public String toString() {
+            return "CacheMetrics(hits=" + getHits() + ", misses=" + getMisses() + ")";
+        }
+    }
+
+    /**
+     * The compression counters of the request or of the response bodies
+     */
+    public static final class CompressionMetrics {
+        private final AtomicLong bodies = new AtomicLong();
+        private final AtomicLong decodedBytes = new AtomicLong();
+        private final AtomicLong encodedBytes = new AtomicLong();
+        private final AtomicLong cpuNanos = new AtomicLong();
+
+        public long getBodies() {
+            return bodies.get();
+        }
+
+        public long getDecodedBytes() {
+            return decodedBytes.get();
+        }
+
+        public long getEncodedBytes() {
+            return encodedBytes.get();
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos.get();
+        }
+
+        /**
+         * @return the decoded size divided by the encoded size of all the bodies
+         */
+        public double getRatio() {
+            long encoded = getEncodedBytes();
+            return encoded == 0 ? 1 : (double) getDecodedBytes() / encoded;
+        }
+
+        /**
+         * @return the nanoseconds of CPU spent per decoded kilobyte
+         */
+        public double getCpuNanosPerKilobyte() {
+            long decoded = getDecodedBytes();
+            return decoded == 0 ? 0 : getCpuNanos() * 1024.0 / decoded;
+        }
+
+        public String toString() {
+            return "CompressionMetrics(bodies=" + getBodies() +
+                ", decodedBytes=" + getDecodedBytes() +
+                ", encodedBytes=" + getEncodedBytes() +
+                ", cpuNanos=" + getCpuNanos() + ")";
+        }
+    }
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CacheMetrics> caches = new ConcurrentHashMap<>();
+    private final CompressionMetrics requestCompression = new CompressionMetrics();
+    private final CompressionMetrics responseCompression = new CompressionMetrics();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    @Override
+    public void onRequest(RequestEvent event) {
+        EndpointMetrics metrics = endpoints.computeIfAbsent(event.getMethod() + " " + event.getEndpoint(), k -> new EndpointMetrics());
+        metrics.latency.record(event.getLatencyNanos());
+        if (event.isError()) {
+            metrics.errors.incrementAndGet();
+        }
+        if (event.getAttempts() > 1) {
+            metrics.retries.addAndGet(event.getAttempts() - 1);
+        }
+        metrics.requestBytes.addAndGet(event.getRequestBytes());
+        metrics.responseBytes.addAndGet(event.getResponseBytes());
+    }
+
+    @Override
+    public void onCacheAccess(String cacheName, boolean hit) {
+        CacheMetrics metrics = caches.computeIfAbsent(cacheName, k -> new CacheMetrics());
+        (hit ? metrics.hits : metrics.misses).incrementAndGet();
+    }
+
+    @Override
+    public void onCompression(CompressionEvent event) {
+        CompressionMetrics metrics = event.isRequest() ? requestCompression : responseCompression;
+        metrics.bodies.incrementAndGet();
+        metrics.decodedBytes.addAndGet(event.getDecodedBytes());
+        metrics.encodedBytes.addAndGet(event.getEncodedBytes());
+        metrics.cpuNanos.addAndGet(event.getCpuNanos());
+    }
+
+    @Override
+    public void onHedge(boolean won) {
+        hedges.incrementAndGet();
+        if (won) {
+            hedgesWon.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the metrics by method and endpoint template, like "GET /collections/{c}/items/{k}"
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    /**
+     * @param method   the HTTP method
+     * @param endpoint the endpoint template
+     * @return the metrics of the endpoint, or null when it wasn't called
+     */
+    public EndpointMetrics getEndpoint(String method, String endpoint) {
+        return endpoints.get(method + " " + endpoint);
+    }
+
+    /**
+     * @return the metrics by cache name
+     */
+    public Map<String, CacheMetrics> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    /**
+     * @return the compression counters of the request bodies
+     */
+    public CompressionMetrics getRequestCompression() {
+        return requestCompression;
+    }
+
+    /**
+     * @return the compression counters of the response bodies
+     */
+    public CompressionMetrics getResponseCompression() {
+        return responseCompression;
+    }
+
+    /**
+     * @return the number of hedged requests
+     */
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * @return the number of hedged requests answered first by their hedge
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    public String toString() {
+        return "HistogramMetrics(endpoints=" + endpoints + ", caches=" + caches
+            + ", requestCompression=" + requestCompression + ", responseCompression=" + responseCompression
+            + ", hedges=" + hedges + ", hedgesWon=" + hedgesWon + ")";
+    }
+
+}
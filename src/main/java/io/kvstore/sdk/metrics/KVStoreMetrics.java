@@ -0,0 +1,59 @@
+package io.kvstore.sdk.metrics;
+
+import io.kvstore.sdk.compression.CompressionEvent;
+
+/**
+ * Listener of the activity of the SDK, to be bridged to any metrics or tracing library.
+ * Callbacks run on the thread completing the request and must return quickly without throwing.
+ * <pre>
+ * HistogramMetrics metrics = new HistogramMetrics();
+ * HttpTransport transport = new MetricsTransport(ResilientTransport.builder(PooledHttpTransport.builder().build()).build(), metrics);
+ * </pre>
+ *
+ * @see MetricsTransport
+ * @see HistogramMetrics
+ */
+public interface KVStoreMetrics {
+
+    /**
+     * A listener ignoring every event
+     */
+    KVStoreMetrics NOOP = new KVStoreMetrics() {
+    };
+
+    /**
+     * Called once per request, when its response has been read or it failed
+     *
+     * @param event the description of the request
+     */
+    default void onRequest(RequestEvent event) {
+    }
+
+    /**
+     * Called on every lookup of a client-side cache
+     *
+     * @param cacheName the name of the cache, i.e. "items"
+     * @param hit       true when the value was served from the cache
+     */
+    default void onCacheAccess(String cacheName, boolean hit) {
+    }
+
+    /**
+     * Called once per request body compressed, and once per response body decompressed when it is closed
+     *
+     * @param event the sizes and CPU cost of the compression
+     * @see io.kvstore.sdk.compression.CompressingTransport
+     */
+    default void onCompression(CompressionEvent event) {
+    }
+
+    /**
+     * Called once per hedged request, when its first response arrives
+     *
+     * @param won true when the hedge was answered before the request it hedged
+     * @see io.kvstore.sdk.resilience.HedgingTransport
+     */
+    default void onHedge(boolean won) {
+    }
+
+}
@@ -0,0 +1,177 @@
+package io.kvstore.sdk.metrics;
+
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an {@link HttpTransport} to report every request to a {@link KVStoreMetrics}.
+ * The event is fired when the response body is closed, so latency and response size cover the whole exchange.
+ * Put it on top of the {@link io.kvstore.sdk.resilience.ResilientTransport} to observe the requests as the caller sees them,
+ * with their number of attempts.
+ */
+public class MetricsTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final KVStoreMetrics metrics;
+
+    public MetricsTransport(HttpTransport delegate, KVStoreMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        long start = System.nanoTime();
+        String endpoint = endpointTemplate(request.getPath());
+        HttpRequest.Body body = request.getBody();
+        AtomicLong requestBytes = new AtomicLong(body != null ? Math.max(body.getContentLength(), 0) : 0);
+        if (body != null && body.getContentLength() < 0) {
+            request = request.toBuilder().setBody(new CountingBody(body, requestBytes)).build();
+        }
+
+        HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (IOException | RuntimeException e) {
+            long latency = System.nanoTime() - start;
+            fire(new RequestEvent(request.getMethod(), endpoint, RequestEvent.NO_STATUS, latency, latency, requestBytes.get(), 0, 1, e));
+            throw e;
+        }
+        long timeToHeaders = System.nanoTime() - start;
+        String method = request.getMethod();
+        int statusCode = response.getStatusCode();
+        int attempts = response.getAttempts();
+        AtomicBoolean fired = new AtomicBoolean();
+        return response.withBody(new FilterInputStream(response.getBody()) {
+            private long responseBytes;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    responseBytes++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    responseBytes += n;
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (fired.compareAndSet(false, true)) {
+                        fire(new RequestEvent(method, endpoint, statusCode, timeToHeaders, System.nanoTime() - start,
+                            requestBytes.get(), responseBytes, attempts, null));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private void fire(RequestEvent event) {
+        try {
+            metrics.onRequest(event);
+        } catch (RuntimeException ignored) {
+            // a broken listener must not fail the request
+        }
+    }
+
+    /**
+     * Replace the names of collections and items in a path with placeholders, and drop the query string
+     *
+     * @param path the path of a request, like /collections/users/items/42?offset=10
+     * @return the template of the endpoint, like /collections/{c}/items/{k}
+     */
+    public static String endpointTemplate(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query >= 0 ? path.substring(0, query) : path).split("/");
+        StringBuilder template = new StringBuilder(path.length());
+        String previous = null;
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/');
+            // only a literal segment introduces a name, so that collections named "items" or "collections" are replaced too
+            if ("collections".equals(previous)) {
+                template.append("{c}");
+                previous = null;
+            } else if ("items".equals(previous)) {
+                template.append("{k}");
+                previous = null;
+            } else {
+                template.append(segment);
+                previous = segment;
+            }
+        }
+        return template.length() > 0 ? template.toString() : "/";
+    }
+
+    private static final class CountingBody implements HttpRequest.Body {
+        private final HttpRequest.Body body;
+        private final AtomicLong bytes;
+
+        private CountingBody(HttpRequest.Body body, AtomicLong bytes) {
+            this.body = body;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String getContentType() {
+            return body.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return body.getContentLength();
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            // a resent request writes the body again: count the last copy only
+            bytes.set(0);
+            body.writeTo(new FilterOutputStream(outputStream) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    bytes.incrementAndGet();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytes.addAndGet(len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+        }
+    }
+
+}
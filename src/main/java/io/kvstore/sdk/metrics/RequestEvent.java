@@ -0,0 +1,118 @@
+package io.kvstore.sdk.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A completed request as seen by {@link KVStoreMetrics}
+ */
+public final class RequestEvent {
+
+    /**
+     * Status code of the requests that failed without a response
+     */
+    public static final int NO_STATUS = -1;
+
+    private final String method;
+    private final String endpoint;
+    private final int statusCode;
+    private final long timeToHeadersNanos;
+    private final long latencyNanos;
+    private final long requestBytes;
+    private final long responseBytes;
+    private final int attempts;
+    private final Throwable error;
+
+    RequestEvent(String method, String endpoint, int statusCode, long timeToHeadersNanos, long latencyNanos,
+                 long requestBytes, long responseBytes, int attempts, Throwable error) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.statusCode = statusCode;
+        this.timeToHeadersNanos = timeToHeadersNanos;
+        this.latencyNanos = latencyNanos;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.attempts = attempts;
+        this.error = error;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the template of the path, like /collections/{c}/items/{k}, so that it can be used as a metric tag
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the status code of the response, or {@link #NO_STATUS}
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the nanoseconds until the status line and headers were received
+     */
+    public long getTimeToHeadersNanos() {
+        return timeToHeadersNanos;
+    }
+
+    /**
+     * @return the nanoseconds until the body was read, or the request failed
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * @return the bytes of the request body
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return the bytes of the response body read by the client
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return the attempts made, more than one when a {@link io.kvstore.sdk.resilience.ResilientTransport} resent the request;
+     * a request failing without a response always reports one
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return the failure preventing a response, or null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return true when the request failed or the response is a 4xx or 5xx, a 304 Not Modified answering a revalidation
+     * being a success
+     */
+    public boolean isError() {
+        return error != null || statusCode >= 400;
+    }
+
+    public String toString() {
+        return "RequestEvent(method=" + method +
+            ", endpoint=" + endpoint +
+            ", statusCode=" + statusCode +
+            ", latency=" + TimeUnit.NANOSECONDS.toMicros(latencyNanos) + "us" +
+            ", requestBytes=" + requestBytes +
+            ", responseBytes=" + responseBytes +
+            ", attempts=" + attempts +
+            (error != null ? ", error=" + error : "") + ")";
+    }
+
+}
@@ -0,0 +1,111 @@
+package io.kvstore.sdk.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fails fast while a host is down: after a run of consecutive failures the circuit opens and requests are rejected
+ * without being sent; once the open duration elapses a single probe is let through, and its outcome closes or reopens the circuit.
+ */
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * @param failureThreshold the consecutive failures that open the circuit
+     * @param openDurationNanos how long the circuit stays open before a probe
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationNanos) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+    }
+
+    /**
+     * @return true when a request may be sent; the caller must then report its outcome
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAt < openDurationNanos) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probing = true;
+                    return true;
+                default:
+                    if (probing) {
+                        return false;
+                    }
+                    probing = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            probing = false;
+            state = State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            probing = false;
+            if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Report an attempt that failed before reaching the host, so it tells nothing about its health
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            probing = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String toString() {
+        return "CircuitBreaker(state=" + getState() + ", failureThreshold=" + failureThreshold + ")";
+    }
+
+}
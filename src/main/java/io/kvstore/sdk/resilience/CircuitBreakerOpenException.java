@@ -0,0 +1,23 @@
+package io.kvstore.sdk.resilience;
+
+import io.kvstore.sdk.transport.HttpHost;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the circuit of its host is open
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    private final HttpHost host;
+
+    public CircuitBreakerOpenException(HttpHost host) {
+        super("Circuit open for " + host);
+        this.host = host;
+    }
+
+    public HttpHost getHost() {
+        return host;
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.kvstore.sdk.resilience;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time counters of a {@link HedgingTransport}
+ */
+public final class HedgingStats {
+
+    private final long requests;
+    private final long hedges;
+    private final long hedgesWon;
+    private final long hedgesDenied;
+    private final long cancelledAttempts;
+    private final long hedgeDelayNanos;
+
+    HedgingStats(long requests, long hedges, long hedgesWon, long hedgesDenied, long cancelledAttempts, long hedgeDelayNanos) {
+        this.requests = requests;
+        this.hedges = hedges;
+        this.hedgesWon = hedgesWon;
+        this.hedgesDenied = hedgesDenied;
+        this.cancelledAttempts = cancelledAttempts;
+        this.hedgeDelayNanos = hedgeDelayNanos;
+    }
+
+    /**
+     * @return the number of GET requests executed, not counting their hedges
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedges() {
+        return hedges;
+    }
+
+    /**
+     * @return the number of hedges answered before the request they hedged
+     */
+    public long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    /**
+     * @return the number of hedges not sent because the budget was exhausted
+     */
+    public long getHedgesDenied() {
+        return hedgesDenied;
+    }
+
+    /**
+     * @return the number of losing attempts interrupted while still waiting to be sent or answered
+     */
+    public long getCancelledAttempts() {
+        return cancelledAttempts;
+    }
+
+    /**
+     * @return the ratio of hedges over requests, i.e. the extra load
+     */
+    public double getHedgeRate() {
+        return requests == 0 ? 0 : (double) hedges / requests;
+    }
+
+    /**
+     * @return the ratio of hedges that won, 0 when none was sent
+     */
+    public double getWinRate() {
+        return hedges == 0 ? 0 : (double) hedgesWon / hedges;
+    }
+
+    /**
+     * @return the hedge delay used when the snapshot was taken
+     */
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingStats(requests=" + requests + ", hedges=" + hedges + ", hedgesWon=" + hedgesWon + ", hedgesDenied=" + hedgesDenied
+            + ", cancelledAttempts=" + cancelledAttempts + ", hedgeDelay=" + getHedgeDelay() + ")";
+    }
+
+}
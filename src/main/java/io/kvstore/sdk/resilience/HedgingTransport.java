@@ -0,0 +1,438 @@
+package io.kvstore.sdk.resilience;
+
+import io.kvstore.sdk.metrics.KVStoreMetrics;
+import io.kvstore.sdk.metrics.LatencyHistogram;
+import io.kvstore.sdk.transport.ExecutionMode;
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+import io.kvstore.sdk.transport.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an {@link HttpTransport} with hedged GET requests, to cut the tail latency caused by the occasional slow response.
+ * When a GET hasn't been answered after the hedge delay a second, identical request is sent, and the first response
+ * received is returned; the other attempt is cancelled, or its response closed as soon as it arrives.
+ * <p>
+ * The hedge delay is the given percentile of the latencies observed over the last window, within a min and a max:
+ * with the default 95th percentile about one request in twenty is hedged. The {@link RetryBudget} caps the hedges
+ * to a fraction of the requests, so that a slow API doesn't get twice the load.
+ * <p>
+ * The attempts are run by the transport's own threads while the caller waits, which costs a thread hand-off per GET.
+ * <pre>
+ * KVStoreClient client = KVStore.instance(APIToken, KVStore.ENV.PRODUCTION, HedgingTransport.builder(PooledHttpTransport.builder().build())
+ *     .setPercentile(99)
+ *     .setHedgeBudget(new RetryBudget(0.02, 10))
+ *     .build());
+ * </pre>
+ */
+public class HedgingTransport implements HttpTransport {
+
+    public static class Builder {
+        private final HttpTransport delegate;
+        private double percentile = 95;
+        private Duration minDelay = Duration.ofMillis(1);
+        private Duration maxDelay = Duration.ofSeconds(1);
+        private Duration initialDelay = Duration.ofMillis(50);
+        private int minSamples = 100;
+        private Duration window = Duration.ofSeconds(30);
+        private RetryBudget hedgeBudget;
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+        private Executor executor;
+        private KVStoreMetrics metrics = KVStoreMetrics.NOOP;
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param percentile the percentile of the observed latencies after which a request is hedged (default 95)
+         * @return the Builder itself
+         */
+        public Builder setPercentile(double percentile) {
+            if (percentile <= 0 || percentile >= 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100 exclusive");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param minDelay the shortest hedge delay (default 1 millisecond)
+         * @param maxDelay the longest hedge delay (default 1 second)
+         * @return the Builder itself
+         */
+        public Builder setDelayRange(Duration minDelay, Duration maxDelay) {
+            if (minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0) {
+                throw new IllegalArgumentException("maxDelay must not be shorter than minDelay, and minDelay must not be negative");
+            }
+            this.minDelay = minDelay;
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * @param initialDelay the hedge delay until enough latencies have been observed (default 50 milliseconds)
+         * @param minSamples   the number of latencies needed to use the percentile (default 100)
+         * @return the Builder itself
+         */
+        public Builder setInitialDelay(Duration initialDelay, int minSamples) {
+            if (minSamples <= 0) {
+                throw new IllegalArgumentException("minSamples must be positive");
+            }
+            this.initialDelay = Objects.requireNonNull(initialDelay, "initialDelay");
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * @param window how long the observed latencies are kept, from one to two windows (default 30 seconds)
+         * @return the Builder itself
+         */
+        public Builder setWindow(Duration window) {
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("window must be positive");
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * @param hedgeBudget the budget of the hedges, deposited by every GET (default one hedge every twenty GETs, starting with ten)
+         * @return the Builder itself
+         */
+        public Builder setHedgeBudget(RetryBudget hedgeBudget) {
+            this.hedgeBudget = Objects.requireNonNull(hedgeBudget, "hedgeBudget");
+            return this;
+        }
+
+        /**
+         * @param executionMode the kind of threads of the internal executor running the attempts (default PLATFORM_THREADS)
+         * @return the Builder itself
+         */
+        public Builder setExecutionMode(ExecutionMode executionMode) {
+            this.executionMode = Objects.requireNonNull(executionMode, "executionMode");
+            return this;
+        }
+
+        /**
+         * @param executor the executor running the attempts, not shut down with the transport (default an internal one)
+         * @return the Builder itself
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param metrics the listener notified of every hedge sent
+         * @return the Builder itself
+         */
+        public Builder setMetrics(KVStoreMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        /**
+         * @return the transport
+         * @throws UnsupportedOperationException if the mode is {@link ExecutionMode#VIRTUAL_THREADS} and the runtime doesn't support them
+         */
+        public HedgingTransport build() {
+            return new HedgingTransport(this);
+        }
+    }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final long RECOMPUTE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The response of the first attempt to succeed
+     */
+    private static final class Outcome {
+        private final HttpResponse response;
+        private final Attempt attempt;
+
+        Outcome(HttpResponse response, Attempt attempt) {
+            this.response = response;
+            this.attempt = attempt;
+        }
+    }
+
+    /**
+     * One request sent, which can be cancelled by interrupting the thread sending it while it waits,
+     * i.e. for a connection or a rate limit
+     */
+    private final class Attempt implements Runnable {
+        private final HttpRequest request;
+        private final CompletableFuture<Outcome> outcome;
+        private final AtomicInteger outstanding;
+        private Thread runner;
+        private boolean cancelled;
+
+        Attempt(HttpRequest request, CompletableFuture<Outcome> outcome, AtomicInteger outstanding) {
+            this.request = request;
+            this.outcome = outcome;
+            this.outstanding = outstanding;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    fail(new InterruptedIOException("Hedged attempt cancelled"));
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            long start = System.nanoTime();
+            HttpResponse response = null;
+            Throwable error = null;
+            try {
+                response = delegate.execute(request);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // clears an interrupt that came too late to stop the exchange, so the pooled thread isn't affected
+                    Thread.interrupted();
+                }
+            }
+            if (error != null) {
+                fail(error);
+                return;
+            }
+            latencies.record(System.nanoTime() - start);
+            if (!outcome.complete(new Outcome(response, this))) {
+                closeQuietly(response);
+            }
+        }
+
+        void cancel() {
+            synchronized (this) {
+                if (!cancelled) {
+                    cancelled = true;
+                    if (runner != null) {
+                        runner.interrupt();
+                        cancelledAttempts.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        void fail(Throwable error) {
+            if (outstanding.decrementAndGet() == 0) {
+                outcome.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * The latencies of the current window, and of the previous one until the current one has enough of them
+     */
+    private final class Latencies {
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile LatencyHistogram previous;
+        private volatile long windowStartNanos = System.nanoTime();
+        private volatile long delayNanos = initialDelayNanos;
+        private final AtomicLong computedAtNanos = new AtomicLong(System.nanoTime());
+
+        void record(long nanos) {
+            current.record(nanos);
+        }
+
+        long delayNanos() {
+            long now = System.nanoTime();
+            long computedAt = computedAtNanos.get();
+            if (now - computedAt >= RECOMPUTE_NANOS && computedAtNanos.compareAndSet(computedAt, now)) {
+                if (now - windowStartNanos >= windowNanos) {
+                    previous = current;
+                    current = new LatencyHistogram();
+                    windowStartNanos = now;
+                }
+                LatencyHistogram histogram = current.getCount() >= minSamples || previous == null ? current : previous;
+                delayNanos = histogram.getCount() < minSamples
+                    ? initialDelayNanos
+                    : Math.min(maxDelayNanos, Math.max(minDelayNanos, histogram.getValueAtPercentile(percentile)));
+            }
+            return delayNanos;
+        }
+    }
+
+    private final HttpTransport delegate;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long initialDelayNanos;
+    private final int minSamples;
+    private final long windowNanos;
+    private final RetryBudget hedgeBudget;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final KVStoreMetrics metrics;
+    private final Latencies latencies;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesDenied = new AtomicLong();
+    private final AtomicLong cancelledAttempts = new AtomicLong();
+
+    protected HedgingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.percentile = builder.percentile;
+        this.minDelayNanos = builder.minDelay.toNanos();
+        this.maxDelayNanos = builder.maxDelay.toNanos();
+        this.initialDelayNanos = builder.initialDelay.toNanos();
+        this.minSamples = builder.minSamples;
+        this.windowNanos = builder.window.toNanos();
+        this.hedgeBudget = builder.hedgeBudget != null ? builder.hedgeBudget : new RetryBudget(0.05, 10);
+        if (builder.executor != null) {
+            this.executor = builder.executor;
+            this.ownedExecutor = null;
+        } else if (builder.executionMode == ExecutionMode.VIRTUAL_THREADS) {
+            this.ownedExecutor = VirtualThreads.newThreadPerTaskExecutor("kvstore-hedge-virtual-");
+            this.executor = ownedExecutor;
+        } else {
+            this.ownedExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "kvstore-hedge-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        }
+        this.metrics = builder.metrics;
+        this.latencies = new Latencies();
+    }
+
+    public static Builder builder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        if (!"GET".equals(request.getMethod())) {
+            return delegate.execute(request);
+        }
+        requests.incrementAndGet();
+        hedgeBudget.deposit();
+
+        CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        Attempt primary = new Attempt(request, outcome, outstanding);
+        submit(primary);
+        Attempt hedge = null;
+        try {
+            Outcome first;
+            try {
+                first = outcome.get(latencies.delayNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                hedge = hedge(request, outcome, outstanding);
+                first = outcome.get();
+            }
+            if (first.attempt == hedge) {
+                hedgesWon.incrementAndGet();
+            }
+            if (hedge != null) {
+                metrics.onHedge(first.attempt == hedge);
+            }
+            return first.response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            // the winner has already returned, so only a pending attempt is stopped
+            primary.cancel();
+            if (hedge != null) {
+                hedge.cancel();
+            }
+        }
+    }
+
+    /**
+     * @return the hedge sent, or null when the budget is exhausted or every attempt already failed
+     */
+    private Attempt hedge(HttpRequest request, CompletableFuture<Outcome> outcome, AtomicInteger outstanding) {
+        if (!hedgeBudget.tryWithdraw()) {
+            hedgesDenied.incrementAndGet();
+            return null;
+        }
+        int current;
+        do {
+            current = outstanding.get();
+            if (current == 0) {
+                return null;
+            }
+        } while (!outstanding.compareAndSet(current, current + 1));
+        hedges.incrementAndGet();
+        Attempt hedge = new Attempt(request, outcome, outstanding);
+        submit(hedge);
+        return hedge;
+    }
+
+    private void submit(Attempt attempt) {
+        try {
+            executor.execute(attempt);
+        } catch (RejectedExecutionException e) {
+            attempt.fail(new IOException("The transport is closed", e));
+        }
+    }
+
+    /**
+     * @return the hedge delay used right now
+     */
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(latencies.delayNanos());
+    }
+
+    /**
+     * @return a snapshot of the hedging counters
+     */
+    public HedgingStats getStats() {
+        return new HedgingStats(requests.get(), hedges.get(), hedgesWon.get(), hedgesDenied.get(), cancelledAttempts.get(),
+            latencies.delayNanos());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+        delegate.close();
+    }
+
+    private static void closeQuietly(HttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the response of the losing attempt is not needed anyway
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.kvstore.sdk.resilience;
+
+/**
+ * Point-in-time counters of a {@link ResilientTransport}
+ */
+public final class ResilienceStats {
+
+    private final long requests;
+    private final long retries;
+    private final long retriesDenied;
+    private final long rejected;
+    private final int openCircuits;
+
+    ResilienceStats(long requests, long retries, long retriesDenied, long rejected, int openCircuits) {
+        this.requests = requests;
+        this.retries = retries;
+        this.retriesDenied = retriesDenied;
+        this.rejected = rejected;
+        this.openCircuits = openCircuits;
+    }
+
+    /**
+     * @return the number of requests executed, not counting their retries
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of attempts sent after the first one
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return the number of retries not sent because the retry budget was exhausted
+     */
+    public long getRetriesDenied() {
+        return retriesDenied;
+    }
+
+    /**
+     * @return the number of attempts rejected by an open circuit
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public int getOpenCircuits() {
+        return openCircuits;
+    }
+
+    public String toString() {
+        return "ResilienceStats(requests=" + requests +
+            ", retries=" + retries +
+            ", retriesDenied=" + retriesDenied +
+            ", rejected=" + rejected +
+            ", openCircuits=" + openCircuits + ")";
+    }
+
+}
@@ -0,0 +1,233 @@
+package io.kvstore.sdk.resilience;
+
+import io.kvstore.sdk.transport.HttpHost;
+import io.kvstore.sdk.transport.HttpRequest;
+import io.kvstore.sdk.transport.HttpResponse;
+import io.kvstore.sdk.transport.HttpTransport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an {@link HttpTransport} with retries and a circuit breaker per host.
+ * Failed attempts of idempotent requests, either I/O errors or transient statuses (429, 502, 503, 504), are resent
+ * after a jittered backoff or after the Retry-After of the response, as long as the {@link RetryBudget} allows it.
+ * An interrupted request is neither retried nor counted as a failure of the host, unlike a timeout.
+ * When the attempts are over the last response is returned as it is, so the caller sees its status.
+ * <pre>
+ * KVStoreClient client = KVStore.instance(APIToken, KVStore.ENV.PRODUCTION, ResilientTransport.builder(PooledHttpTransport.builder().build())
+ *     .setRetryPolicy(RetryPolicy.builder().setMaxAttempts(5).build())
+ *     .build());
+ * </pre>
+ */
+public class ResilientTransport implements HttpTransport {
+
+    public static class Builder {
+        private final HttpTransport delegate;
+        private RetryPolicy retryPolicy = RetryPolicy.builder().build();
+        private RetryBudget retryBudget = RetryBudget.defaultBudget();
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param retryPolicy the policy of the retries (default 3 attempts of GET, PUT and DELETE)
+         * @return the Builder itself
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param retryBudget the budget shared by the retries of all requests (default {@link RetryBudget#defaultBudget()})
+         * @return the Builder itself
+         */
+        public Builder setRetryBudget(RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return this;
+        }
+
+        /**
+         * @param failureThreshold the consecutive failed attempts that open the circuit of a host (default 5)
+         * @return the Builder itself
+         */
+        public Builder setFailureThreshold(int failureThreshold) {
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("failureThreshold must be positive");
+            }
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * @param openDuration how long an open circuit rejects requests before letting a probe through (default 10 seconds)
+         * @return the Builder itself
+         */
+        public Builder setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        public ResilientTransport build() {
+            return new ResilientTransport(this);
+        }
+    }
+
+    private final HttpTransport delegate;
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private final ConcurrentMap<HttpHost, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriesDenied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    protected ResilientTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.retryPolicy = builder.retryPolicy;
+        this.retryBudget = builder.retryBudget;
+        this.failureThreshold = builder.failureThreshold;
+        this.openDurationNanos = builder.openDuration.toNanos();
+    }
+
+    public static Builder builder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(request.getHost());
+        requests.incrementAndGet();
+        retryBudget.deposit();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                rejected.incrementAndGet();
+                throw new CircuitBreakerOpenException(request.getHost());
+            }
+
+            HttpResponse response;
+            try {
+                response = delegate.execute(request);
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+                    // the caller gave up, i.e. interrupted while waiting for a connection or a permit: nothing is known of the host
+                    circuitBreaker.onIgnored();
+                    throw e;
+                }
+                circuitBreaker.onFailure();
+                if (!canRetry(request, attempt)) {
+                    throw e;
+                }
+                pause(retryPolicy.backoffNanos(attempt));
+                continue;
+            } catch (RuntimeException | Error e) {
+                // not an I/O failure: the request was rejected or broken before reaching the host
+                circuitBreaker.onIgnored();
+                throw e;
+            }
+
+            int statusCode = response.getStatusCode();
+            if (statusCode >= 500) {
+                circuitBreaker.onFailure();
+            } else {
+                // throttling and client errors show the host is up
+                circuitBreaker.onSuccess();
+            }
+            if (!retryPolicy.isRetryableStatus(statusCode)) {
+                return response.withAttempts(attempt);
+            }
+
+            long retryAfterNanos = parseRetryAfter(response.getHeader("Retry-After"));
+            if (retryAfterNanos > retryPolicy.getMaxRetryAfterNanos() || !canRetry(request, attempt)) {
+                return response.withAttempts(attempt);
+            }
+            response.close();
+            pause(Math.max(retryAfterNanos, retryPolicy.backoffNanos(attempt)));
+        }
+    }
+
+    /**
+     * @param host the host of the requests
+     * @return the circuit breaker guarding the host
+     */
+    public CircuitBreaker getCircuitBreaker(HttpHost host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+        return circuitBreaker != null ? circuitBreaker : circuitBreakers.computeIfAbsent(host, h -> new CircuitBreaker(failureThreshold, openDurationNanos));
+    }
+
+    /**
+     * @return a snapshot of the retry and circuit breaker counters
+     */
+    public ResilienceStats getStats() {
+        int openCircuits = 0;
+        for (CircuitBreaker circuitBreaker : circuitBreakers.values()) {
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                openCircuits++;
+            }
+        }
+        return new ResilienceStats(requests.get(), retries.get(), retriesDenied.get(), rejected.get(), openCircuits);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private boolean canRetry(HttpRequest request, int attempt) {
+        if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryableMethod(request.getMethod())) {
+            return false;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            retriesDenied.incrementAndGet();
+            return false;
+        }
+        retries.incrementAndGet();
+        return true;
+    }
+
+    private static void pause(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * @return the wait asked by a Retry-After header, either delay-seconds or an HTTP-date, 0 when absent or invalid
+     */
+    static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isEmpty()) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                long millis = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - System.currentTimeMillis();
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+}
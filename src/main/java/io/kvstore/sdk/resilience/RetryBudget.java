@@ -0,0 +1,83 @@
+package io.kvstore.sdk.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a fraction of the requests, so that when the API is struggling
+ * the retries can't multiply the load: every request deposits a share of a retry, every retry withdraws a whole one.
+ */
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * @param retryRatio the retries allowed per request, for example 0.1 for one retry every ten requests
+     * @param minRetries the retries available before any request is made, also the floor of the capacity
+     */
+    public RetryBudget(double retryRatio, int minRetries) {
+        if (retryRatio < 0 || minRetries < 0) {
+            throw new IllegalArgumentException("retryRatio and minRetries must not be negative");
+        }
+        this.deposit = (long) (retryRatio * UNIT);
+        this.capacity = Math.max(minRetries, 100) * UNIT;
+        this.balance = new AtomicLong(minRetries * UNIT);
+    }
+
+    /**
+     * @return a budget of one retry every five requests, starting with ten
+     */
+    public static RetryBudget defaultBudget() {
+        return new RetryBudget(0.2, 10);
+    }
+
+    /**
+     * @return a budget that never denies a retry
+     */
+    public static RetryBudget unlimited() {
+        return new RetryBudget(0, 0) {
+            @Override
+            public boolean tryWithdraw() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Record a first attempt
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * @return true when a retry may be sent, false when the budget is exhausted
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    /**
+     * @return the number of retries currently available
+     */
+    public double getAvailable() {
+        return (double) balance.get() / UNIT;
+    }
+
+}
@@ -0,0 +1,160 @@
+package io.kvstore.sdk.resilience;
+
+import io.kvstore.sdk.exceptions.KVStoreException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests are resent and how long to wait before each attempt:
+ * exponential backoff with full jitter, capped, for idempotent methods only.
+ * <pre>
+ * RetryPolicy policy = RetryPolicy.builder()
+ *     .setMaxAttempts(4)
+ *     .setInitialBackoff(Duration.ofMillis(50))
+ *     .build();
+ * </pre>
+ */
+public class RetryPolicy {
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private Duration maxRetryAfter = Duration.ofSeconds(30);
+        private Set<String> retryableMethods = new HashSet<>(Arrays.asList("GET", "PUT", "DELETE"));
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxAttempts the number of attempts including the first one (default 3, 1 disables retries)
+         * @return the Builder itself
+         */
+        public Builder setMaxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("maxAttempts must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff the upper bound of the wait before the first retry, doubled at each retry (default 100 milliseconds)
+         * @return the Builder itself
+         */
+        public Builder setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * @param maxBackoff the cap of the exponential backoff (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Set the longest Retry-After the client is willing to wait: responses asking for more are returned as they are (default 30 seconds)
+         *
+         * @param maxRetryAfter the longest wait honored
+         * @return the Builder itself
+         */
+        public Builder setMaxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * @param retryableMethods the HTTP methods safe to resend (default GET, PUT and DELETE)
+         * @return the Builder itself
+         */
+        public Builder setRetryableMethods(String... retryableMethods) {
+            this.retryableMethods = new HashSet<>(Arrays.asList(retryableMethods));
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long maxRetryAfterNanos;
+    private final Set<String> retryableMethods;
+
+    protected RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoff.toNanos();
+        this.maxBackoffNanos = builder.maxBackoff.toNanos();
+        this.maxRetryAfterNanos = builder.maxRetryAfter.toNanos();
+        this.retryableMethods = Collections.unmodifiableSet(builder.retryableMethods);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a policy that never retries
+     */
+    public static RetryPolicy none() {
+        return builder().setMaxAttempts(1).build();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param method the HTTP method of the request
+     * @return true when the request can be sent again without side effects
+     */
+    public boolean isRetryableMethod(String method) {
+        return retryableMethods.contains(method);
+    }
+
+    /**
+     * @param statusCode the status code of a response
+     * @return true when the response reports a transient failure
+     */
+    public boolean isRetryableStatus(int statusCode) {
+        return KVStoreException.isRetryableStatus(statusCode);
+    }
+
+    /**
+     * @param attempt the number of the failed attempt, starting at 1
+     * @return the wait before the next attempt, in nanoseconds: random between 0 and the capped exponential bound
+     */
+    public long backoffNanos(int attempt) {
+        long bound = initialBackoffNanos << Math.min(attempt - 1, 30);
+        if (bound <= 0 || bound > maxBackoffNanos) {
+            bound = maxBackoffNanos;
+        }
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+
+    /**
+     * @return the longest Retry-After honored, in nanoseconds
+     */
+    public long getMaxRetryAfterNanos() {
+        return maxRetryAfterNanos;
+    }
+
+    public String toString() {
+        return "RetryPolicy(maxAttempts=" + maxAttempts +
+            ", initialBackoff=" + Duration.ofNanos(initialBackoffNanos) +
+            ", maxBackoff=" + Duration.ofNanos(maxBackoffNanos) +
+            ", retryableMethods=" + retryableMethods + ")";
+    }
+
+}
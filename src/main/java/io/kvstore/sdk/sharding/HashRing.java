@@ -0,0 +1,75 @@
+package io.kvstore.sdk.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Consistent hash ring: every shard owns a number of points proportional to its weight, and a key belongs
+ * to the shard owning the first point at or after its hash. Adding or removing a shard only moves the keys
+ * of its own points, and the points of a shard depend on its name alone, not on the order of the shards.
+ */
+final class HashRing {
+
+    private final long[] points;
+    private final int[] owners;
+
+    HashRing(List<Shard> shards, int virtualNodes) {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.getWeight() * virtualNodes;
+        }
+        long[] hashes = new long[total];
+        int[] shardIndexes = new int[total];
+        int n = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            for (int v = 0; v < shard.getWeight() * virtualNodes; v++) {
+                hashes[n] = hash(shard.getName() + '#' + v);
+                shardIndexes[n] = i;
+                n++;
+            }
+        }
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> hashes[i]).thenComparingInt(i -> shardIndexes[i]));
+        this.points = new long[total];
+        this.owners = new int[total];
+        for (int i = 0; i < total; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = shardIndexes[order[i]];
+        }
+    }
+
+    /**
+     * @return the index of the shard owning the key
+     */
+    int owner(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, finished with the MurmurHash3 mixer to spread close names over the ring
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.kvstore.sdk.sharding;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges iterators sorted by the same order into one sorted iterator, holding one entry per iterator
+ *
+ * @param <T> the type of the entries
+ */
+final class MergingIterator<T> implements Iterator<T> {
+
+    private static final class Head<T> {
+        private final T entry;
+        private final Iterator<T> iterator;
+
+        private Head(T entry, Iterator<T> iterator) {
+            this.entry = entry;
+            this.iterator = iterator;
+        }
+    }
+
+    private final List<Iterator<T>> iterators;
+    private final PriorityQueue<Head<T>> heads;
+    private boolean started;
+
+    MergingIterator(List<Iterator<T>> iterators, Comparator<? super T> comparator) {
+        this.iterators = iterators;
+        this.heads = new PriorityQueue<>(Math.max(1, iterators.size()), (first, second) -> comparator.compare(first.entry, second.entry));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            // the first pages are fetched lazily, like the ones of a single iterator
+            started = true;
+            for (Iterator<T> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    heads.add(new Head<>(iterator.next(), iterator));
+                }
+            }
+        }
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Head<T> head = heads.poll();
+        if (head.iterator.hasNext()) {
+            heads.add(new Head<>(head.iterator.next(), head.iterator));
+        }
+        return head.entry;
+    }
+
+}
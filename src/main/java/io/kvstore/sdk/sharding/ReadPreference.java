@@ -0,0 +1,19 @@
+package io.kvstore.sdk.sharding;
+
+/**
+ * Where a {@link ShardedKVStoreClient} sends the reads of a shard having replicas
+ */
+public enum ReadPreference {
+
+    /**
+     * Every request goes to the primary instance of the shard
+     */
+    PRIMARY,
+
+    /**
+     * Reads go to the replicas in turn, and to the primary when a replica fails with a transient error;
+     * writes always go to the primary. The replicas may lag behind the primary.
+     */
+    REPLICAS
+
+}
@@ -0,0 +1,102 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.sdk.clients.KVStoreClient;
+import io.kvstore.sdk.exceptions.KVStoreException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A primary instance with its weight on the hash ring and its read replicas
+ */
+final class Shard {
+
+    private final String name;
+    private final int weight;
+    private final KVStoreClient primary;
+    private final List<KVStoreClient> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    Shard(String name, int weight, KVStoreClient primary) {
+        this.name = name;
+        this.weight = weight;
+        this.primary = primary;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    KVStoreClient getPrimary() {
+        return primary;
+    }
+
+    List<KVStoreClient> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    void addReplica(KVStoreClient replica) {
+        replicas.add(replica);
+    }
+
+    /**
+     * @return the instance a read should go to
+     */
+    KVStoreClient reader(ReadPreference readPreference) {
+        if (readPreference == ReadPreference.PRIMARY || replicas.isEmpty()) {
+            return primary;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * Read from a replica if preferred, falling back to the primary on a transient failure
+     */
+    <T> T read(ReadPreference readPreference, Function<KVStoreClient, T> call) {
+        KVStoreClient reader = reader(readPreference);
+        if (reader == primary) {
+            return call.apply(primary);
+        }
+        try {
+            return call.apply(reader);
+        } catch (KVStoreException e) {
+            if (!e.isRetryable()) {
+                throw e;
+            }
+            return call.apply(primary);
+        }
+    }
+
+    <T> CompletableFuture<T> readAsync(ReadPreference readPreference, Function<KVStoreClient, CompletableFuture<T>> call) {
+        KVStoreClient reader = reader(readPreference);
+        if (reader == primary) {
+            return call.apply(primary);
+        }
+        return call.apply(reader).handle((value, throwable) -> {
+            if (throwable == null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof KVStoreException && ((KVStoreException) cause).isRetryable()) {
+                return call.apply(primary);
+            }
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }).thenCompose(Function.identity());
+    }
+
+    public String toString() {
+        return "Shard(name=" + name + ", weight=" + weight + ", replicas=" + replicas.size() + ")";
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.sdk.clients.AsyncCollectionsClient;
+import io.kvstore.sdk.clients.CollectionsClient;
+
+import java.util.concurrent.CompletableFuture;
+
+final class ShardedAsyncCollectionsClient implements AsyncCollectionsClient {
+
+    private final ShardedKVStoreClient client;
+
+    ShardedAsyncCollectionsClient(ShardedKVStoreClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<CollectionsClient.CollectionsList> list() {
+        return client.readAllAsync(c -> c.asyncCollectionsClient().list()).thenApply(ShardedCollectionsClient::mergeLists);
+    }
+
+    @Override
+    public CompletableFuture<CollectionsClient.CollectionInfo> get(String collectionName) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).readAsync(client.getReadPreference(), c -> c.asyncCollectionsClient().get(collectionName));
+        }
+        return client.readAllAsync(c -> c.asyncCollectionsClient().get(collectionName)).thenApply(ShardedCollectionsClient::mergeInfos);
+    }
+
+    @Override
+    public CompletableFuture<Void> create(String collectionName) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).getPrimary().asyncCollectionsClient().create(collectionName);
+        }
+        return client.writeAllAsync(c -> c.asyncCollectionsClient().create(collectionName));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String collectionName, CollectionsClient.UpdateCollection updateCollection) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).getPrimary().asyncCollectionsClient().update(collectionName, updateCollection);
+        }
+        return client.writeAllAsync(c -> c.asyncCollectionsClient().update(collectionName, updateCollection));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collectionName) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).getPrimary().asyncCollectionsClient().delete(collectionName);
+        }
+        return client.writeAllAsync(c -> c.asyncCollectionsClient().delete(collectionName));
+    }
+
+}
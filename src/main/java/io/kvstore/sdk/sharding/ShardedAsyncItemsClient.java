@@ -0,0 +1,43 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.AsyncItemsClient;
+import io.kvstore.sdk.clients.ItemsClient;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+final class ShardedAsyncItemsClient implements AsyncItemsClient {
+
+    private final ShardedKVStoreClient client;
+
+    ShardedAsyncItemsClient(ShardedKVStoreClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<ItemsClient.ItemValue> get(String collectionName, String itemName) {
+        return client.shardFor(collectionName, itemName).readAsync(client.getReadPreference(), c -> c.asyncItemsClient().get(collectionName, itemName));
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String collectionName, String itemName, String value) {
+        return client.shardFor(collectionName, itemName).getPrimary().asyncItemsClient().put(collectionName, itemName, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collectionName, String itemName) {
+        return client.shardFor(collectionName, itemName).getPrimary().asyncItemsClient().delete(collectionName, itemName);
+    }
+
+    @Override
+    public CompletableFuture<List<ItemsClient.Item>> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).readAsync(client.getReadPreference(), c -> c.asyncItemsClient().list(collectionName, offset, limit, sortType));
+        }
+        Integer shardLimit = limit != null ? Integer.valueOf((offset != null ? offset : 0) + limit) : null;
+        return client.readAllAsync(c -> c.asyncItemsClient().list(collectionName, 0, shardLimit, sortType))
+            .thenApply(pages -> ShardedItemsClient.mergePage(pages, offset, limit, sortType));
+    }
+
+}
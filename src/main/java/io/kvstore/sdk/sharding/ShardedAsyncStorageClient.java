@@ -0,0 +1,26 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.sdk.clients.AsyncStorageClient;
+import io.kvstore.sdk.clients.StorageClient;
+
+import java.util.concurrent.CompletableFuture;
+
+final class ShardedAsyncStorageClient implements AsyncStorageClient {
+
+    private final ShardedKVStoreClient client;
+
+    ShardedAsyncStorageClient(ShardedKVStoreClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<StorageClient.Storage> get() {
+        return client.getShards().get(0).readAsync(client.getReadPreference(), c -> c.asyncStorageClient().get());
+    }
+
+    @Override
+    public CompletableFuture<Void> update(StorageClient.StorageUpdate storageUpdate) {
+        return client.writeAllAsync(c -> c.asyncStorageClient().update(storageUpdate));
+    }
+
+}
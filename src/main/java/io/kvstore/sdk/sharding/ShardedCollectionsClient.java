@@ -0,0 +1,120 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.api.representationals.collections.CollectionsResult;
+import io.kvstore.sdk.clients.CollectionsClient;
+import io.kvstore.sdk.clients.Revalidation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class ShardedCollectionsClient implements CollectionsClient {
+
+    private final ShardedKVStoreClient client;
+
+    ShardedCollectionsClient(ShardedKVStoreClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CollectionsList list() {
+        return mergeLists(client.readAll(c -> c.collectionsClient().list()));
+    }
+
+    @Override
+    public CollectionInfo get(String collectionName) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).read(client.getReadPreference(), c -> c.collectionsClient().get(collectionName));
+        }
+        return mergeInfos(client.readAll(c -> c.collectionsClient().get(collectionName)));
+    }
+
+    @Override
+    public Revalidation<CollectionInfo> revalidate(String collectionName, CollectionInfo cached) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).read(client.getReadPreference(), c -> c.collectionsClient().revalidate(collectionName, cached));
+        }
+        return CollectionsClient.super.revalidate(collectionName, cached);
+    }
+
+    @Override
+    public void create(String collectionName) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            client.shardFor(collectionName).getPrimary().collectionsClient().create(collectionName);
+        } else {
+            client.writeAll(c -> c.collectionsClient().create(collectionName));
+        }
+    }
+
+    @Override
+    public void update(String collectionName, UpdateCollection updateCollection) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            client.shardFor(collectionName).getPrimary().collectionsClient().update(collectionName, updateCollection);
+        } else {
+            client.writeAll(c -> c.collectionsClient().update(collectionName, updateCollection));
+        }
+    }
+
+    @Override
+    public void delete(String collectionName) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            client.shardFor(collectionName).getPrimary().collectionsClient().delete(collectionName);
+        } else {
+            client.writeAll(c -> c.collectionsClient().delete(collectionName));
+        }
+    }
+
+    /**
+     * @return the collections of all the shards, with the items of a collection present on several shards summed up
+     */
+    static CollectionsList mergeLists(List<CollectionsList> lists) {
+        Map<String, io.kvstore.api.representationals.collections.CollectionInfoCompact> collections = new LinkedHashMap<>();
+        for (CollectionsList list : lists) {
+            for (Map.Entry<String, CollectionInfoCompact> entry : list.getCollections().entrySet()) {
+                CollectionInfoCompact info = entry.getValue();
+                io.kvstore.api.representationals.collections.CollectionInfoCompact merged = collections.get(entry.getKey());
+                if (merged == null) {
+                    collections.put(entry.getKey(), new io.kvstore.api.representationals.collections.CollectionInfoCompact()
+                        .setItems(info.getItems())
+                        .setCreated_at(seconds(info.getCreatedAtMillis()))
+                        .setUpdated_at(seconds(info.getUpdatedAtMillis())));
+                } else {
+                    merged.setItems(sum(merged.getItems(), info.getItems()))
+                        .setCreated_at(Math.min(merged.getCreated_at(), seconds(info.getCreatedAtMillis())))
+                        .setUpdated_at(Math.max(merged.getUpdated_at(), seconds(info.getUpdatedAtMillis())));
+                }
+            }
+        }
+        return new CollectionsList(new CollectionsResult().setTotal_collections(collections.size()).setCollections(collections));
+    }
+
+    /**
+     * @return the information of a collection present on all the shards: the items are summed up,
+     * the settings are the ones of the first shard
+     */
+    static CollectionInfo mergeInfos(List<CollectionInfo> infos) {
+        CollectionInfo first = infos.get(0);
+        io.kvstore.api.representationals.collections.CollectionInfo merged = new io.kvstore.api.representationals.collections.CollectionInfo()
+            .setItems(first.getItems())
+            .setPublic_read(first.getPublicRead())
+            .setPublic_write(first.getPublicWrite())
+            .setWebhook(first.getWebhook())
+            .setCreated_at(seconds(first.getCreatedAtMillis()))
+            .setUpdated_at(seconds(first.getUpdatedAtMillis()));
+        for (CollectionInfo info : infos.subList(1, infos.size())) {
+            merged.setItems(sum(merged.getItems(), info.getItems()))
+                .setCreated_at(Math.min(merged.getCreated_at(), seconds(info.getCreatedAtMillis())))
+                .setUpdated_at(Math.max(merged.getUpdated_at(), seconds(info.getUpdatedAtMillis())));
+        }
+        return new CollectionInfo(merged);
+    }
+
+    private static Integer sum(Integer first, Integer second) {
+        return first == null ? second : second == null ? first : Integer.valueOf(first + second);
+    }
+
+    private static double seconds(long millis) {
+        return millis / 1000.0;
+    }
+
+}
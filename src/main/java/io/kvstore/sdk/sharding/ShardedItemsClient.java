@@ -0,0 +1,144 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.clients.Revalidation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+final class ShardedItemsClient implements ItemsClient {
+
+    private final ShardedKVStoreClient client;
+
+    ShardedItemsClient(ShardedKVStoreClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public ItemValue get(String collectionName, String itemName) {
+        return client.shardFor(collectionName, itemName).read(client.getReadPreference(), c -> c.itemsClient().get(collectionName, itemName));
+    }
+
+    @Override
+    public Revalidation<ItemValue> revalidate(String collectionName, String itemName, ItemValue cached) {
+        return client.shardFor(collectionName, itemName).read(client.getReadPreference(),
+            c -> c.itemsClient().revalidate(collectionName, itemName, cached));
+    }
+
+    @Override
+    public void put(String collectionName, String itemName, String value) {
+        client.shardFor(collectionName, itemName).getPrimary().itemsClient().put(collectionName, itemName, value);
+    }
+
+    @Override
+    public void delete(String collectionName, String itemName) {
+        client.shardFor(collectionName, itemName).getPrimary().itemsClient().delete(collectionName, itemName);
+    }
+
+    /**
+     * In {@link ShardingMode#BY_KEY} mode, the first offset + limit items of every shard are merged to build the page
+     */
+    @Override
+    public List<Item> list(String collectionName, Integer offset, Integer limit, SortType sortType) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).read(client.getReadPreference(), c -> c.itemsClient().list(collectionName, offset, limit, sortType));
+        }
+        Integer shardLimit = limit != null ? Integer.valueOf((offset != null ? offset : 0) + limit) : null;
+        return mergePage(client.readAll(c -> c.itemsClient().list(collectionName, 0, shardLimit, sortType)), offset, limit, sortType);
+    }
+
+    @Override
+    public BatchResult<ItemValue> getAll(String collectionName, Collection<String> itemNames, int batchSize) {
+        Map<Shard, List<String>> groups = group(collectionName, itemNames);
+        List<BatchResult<ItemValue>> results = new ArrayList<>(groups.size());
+        for (Map.Entry<Shard, List<String>> group : groups.entrySet()) {
+            results.add(group.getKey().reader(client.getReadPreference()).itemsClient().getAll(collectionName, group.getValue(), batchSize));
+        }
+        return merge(itemNames, results);
+    }
+
+    @Override
+    public BatchResult<String> putAll(String collectionName, Map<String, String> items, int batchSize) {
+        Map<Shard, List<String>> groups = group(collectionName, items.keySet());
+        List<BatchResult<String>> results = new ArrayList<>(groups.size());
+        for (Map.Entry<Shard, List<String>> group : groups.entrySet()) {
+            Map<String, String> shardItems = new LinkedHashMap<>();
+            for (String itemName : group.getValue()) {
+                shardItems.put(itemName, items.get(itemName));
+            }
+            results.add(group.getKey().getPrimary().itemsClient().putAll(collectionName, shardItems, batchSize));
+        }
+        return merge(items.keySet(), results);
+    }
+
+    /**
+     * In {@link ShardingMode#BY_KEY} mode, the pages of all the shards are fetched side by side and merged in order
+     */
+    @Override
+    public Iterator<Item> iterator(String collectionName, int pageSize, SortType sortType) {
+        if (client.getMode() == ShardingMode.BY_COLLECTION) {
+            return client.shardFor(collectionName).reader(client.getReadPreference()).itemsClient().iterator(collectionName, pageSize, sortType);
+        }
+        List<Iterator<Item>> iterators = new ArrayList<>();
+        for (Shard shard : client.getShards()) {
+            iterators.add(shard.reader(client.getReadPreference()).itemsClient().iterator(collectionName, pageSize, sortType));
+        }
+        return new MergingIterator<>(iterators, order(sortType));
+    }
+
+    /**
+     * @return the page at the given offset of the items of all the shards, each list starting at offset 0
+     */
+    static List<Item> mergePage(List<List<Item>> shardItems, Integer offset, Integer limit, SortType sortType) {
+        List<Item> items = new ArrayList<>();
+        for (List<Item> page : shardItems) {
+            items.addAll(page);
+        }
+        items.sort(order(sortType));
+        int from = Math.min(offset != null ? offset : 0, items.size());
+        int to = limit != null ? Math.min(from + limit, items.size()) : items.size();
+        return new ArrayList<>(items.subList(from, to));
+    }
+
+    /**
+     * @return the order of the items listed, by creation date then by key
+     */
+    static Comparator<Item> order(SortType sortType) {
+        Comparator<Item> ascending = Comparator.comparing(Item::getCreatedAt).thenComparing(Item::getKey);
+        return sortType == SortType.desc ? ascending.reversed() : ascending;
+    }
+
+    private Map<Shard, List<String>> group(String collectionName, Collection<String> itemNames) {
+        Map<Shard, List<String>> groups = new LinkedHashMap<>();
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            groups.computeIfAbsent(client.shardFor(collectionName, itemName), k -> new ArrayList<>()).add(itemName);
+        }
+        return groups;
+    }
+
+    /**
+     * @return the outcomes of the keys of all the shards, in request order
+     */
+    private static <T> BatchResult<T> merge(Collection<String> itemNames, List<BatchResult<T>> results) {
+        Map<String, T> succeeded = new LinkedHashMap<>();
+        Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (String itemName : new LinkedHashSet<>(itemNames)) {
+            for (BatchResult<T> result : results) {
+                if (result.getSucceeded().containsKey(itemName)) {
+                    succeeded.put(itemName, result.getSucceeded().get(itemName));
+                } else if (result.getFailed().containsKey(itemName)) {
+                    failed.put(itemName, result.getFailed().get(itemName));
+                }
+            }
+        }
+        return new BatchResult<>(succeeded, failed);
+    }
+
+}
@@ -0,0 +1,348 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.sdk.clients.AsyncCollectionsClient;
+import io.kvstore.sdk.clients.AsyncItemsClient;
+import io.kvstore.sdk.clients.AsyncStorageClient;
+import io.kvstore.sdk.clients.CollectionsClient;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.clients.KVStoreClient;
+import io.kvstore.sdk.clients.StorageClient;
+import io.kvstore.sdk.clients.TypedItemsClient;
+import io.kvstore.sdk.codecs.ValueCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link KVStoreClient} spreading the collections, or the items, over several KVStore.io instances or API tokens,
+ * to share their quotas and load. The shards are placed on a consistent hash ring with virtual nodes, so adding a shard
+ * moves only the share of the data it takes over, and a shard of weight 2 gets twice the data of a shard of weight 1.
+ * <p>
+ * Each shard may have read replicas, i.e. instances kept in sync outside of the SDK: with {@link ReadPreference#REPLICAS}
+ * the reads go to them in turn, while the writes always go to the primary.
+ * <pre>
+ * try (KVStoreClient client = ShardedKVStoreClient.builder()
+ *         .addShard("eu-1", KVStore.builder().setApiToken(token1).build())
+ *         .addShard("eu-2", KVStore.builder().setApiToken(token2).build(), 2)
+ *         .addReplica("eu-2", KVStore.builder().setApiToken(token3).build())
+ *         .setMode(ShardingMode.BY_KEY)
+ *         .setReadPreference(ReadPreference.REPLICAS)
+ *         .build()) {
+ *     client.itemsClient().put("users", "42", "...");
+ * }
+ * </pre>
+ * The storage of the first shard is the one returned by {@link StorageClient#get()}, while updates are applied to all the shards.
+ * Moving the existing data when the shards change is left to the application, i.e. with a
+ * {@link io.kvstore.sdk.transfer.CollectionTransfer}.
+ */
+public class ShardedKVStoreClient implements KVStoreClient {
+
+    public static class Builder {
+        private final List<Shard> shards = new ArrayList<>();
+        private ShardingMode mode = ShardingMode.BY_COLLECTION;
+        private ReadPreference readPreference = ReadPreference.PRIMARY;
+        private int virtualNodes = 160;
+
+        private Builder() {
+        }
+
+        /**
+         * @param name   the name of the shard, which places it on the hash ring and must not change
+         * @param client the primary instance of the shard, closed with the sharded client
+         * @return the Builder itself
+         */
+        public Builder addShard(String name, KVStoreClient client) {
+            return addShard(name, client, 1);
+        }
+
+        /**
+         * @param name   the name of the shard, which places it on the hash ring and must not change
+         * @param client the primary instance of the shard, closed with the sharded client
+         * @param weight the share of the data of the shard relative to the others
+         * @return the Builder itself
+         */
+        public Builder addShard(String name, KVStoreClient client, int weight) {
+            Objects.requireNonNull(name, "name");
+            Objects.requireNonNull(client, "client");
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight must be positive");
+            }
+            if (find(name) != null) {
+                throw new IllegalArgumentException("Duplicate shard " + name);
+            }
+            shards.add(new Shard(name, weight, client));
+            return this;
+        }
+
+        /**
+         * @param shardName the name of a shard already added
+         * @param replica   a read-only copy of the primary instance of the shard, closed with the sharded client
+         * @return the Builder itself
+         */
+        public Builder addReplica(String shardName, KVStoreClient replica) {
+            Shard shard = find(shardName);
+            if (shard == null) {
+                throw new IllegalArgumentException("Unknown shard " + shardName);
+            }
+            shard.addReplica(Objects.requireNonNull(replica, "replica"));
+            return this;
+        }
+
+        /**
+         * @param mode whether whole collections or single items are spread over the shards (default BY_COLLECTION)
+         * @return the Builder itself
+         */
+        public Builder setMode(ShardingMode mode) {
+            this.mode = Objects.requireNonNull(mode, "mode");
+            return this;
+        }
+
+        /**
+         * @param readPreference where the reads of the shards having replicas go (default PRIMARY)
+         * @return the Builder itself
+         */
+        public Builder setReadPreference(ReadPreference readPreference) {
+            this.readPreference = Objects.requireNonNull(readPreference, "readPreference");
+            return this;
+        }
+
+        /**
+         * @param virtualNodes the points on the hash ring of a shard of weight 1: more points spread the data
+         *                     more evenly (default 160)
+         * @return the Builder itself
+         */
+        public Builder setVirtualNodes(int virtualNodes) {
+            if (virtualNodes <= 0) {
+                throw new IllegalArgumentException("virtualNodes must be positive");
+            }
+            this.virtualNodes = virtualNodes;
+            return this;
+        }
+
+        public ShardedKVStoreClient build() {
+            if (shards.isEmpty()) {
+                throw new IllegalStateException("At least one shard must be added");
+            }
+            return new ShardedKVStoreClient(this);
+        }
+
+        private Shard find(String name) {
+            for (Shard shard : shards) {
+                if (shard.getName().equals(name)) {
+                    return shard;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final List<Shard> shards;
+    private final HashRing ring;
+    private final ShardingMode mode;
+    private final ReadPreference readPreference;
+
+    private final StorageClient storageClient;
+    private final CollectionsClient collectionsClient;
+    private final ItemsClient itemsClient;
+    private final AsyncStorageClient asyncStorageClient;
+    private final AsyncCollectionsClient asyncCollectionsClient;
+    private final AsyncItemsClient asyncItemsClient;
+
+    protected ShardedKVStoreClient(Builder builder) {
+        this.shards = Collections.unmodifiableList(new ArrayList<>(builder.shards));
+        this.ring = new HashRing(shards, builder.virtualNodes);
+        this.mode = builder.mode;
+        this.readPreference = builder.readPreference;
+
+        this.storageClient = new ShardedStorageClient(this);
+        this.collectionsClient = new ShardedCollectionsClient(this);
+        this.itemsClient = new ShardedItemsClient(this);
+        this.asyncStorageClient = new ShardedAsyncStorageClient(this);
+        this.asyncCollectionsClient = new ShardedAsyncCollectionsClient(this);
+        this.asyncItemsClient = new ShardedAsyncItemsClient(this);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public StorageClient storageClient() {
+        return storageClient;
+    }
+
+    @Override
+    public CollectionsClient collectionsClient() {
+        return collectionsClient;
+    }
+
+    @Override
+    public ItemsClient itemsClient() {
+        return itemsClient;
+    }
+
+    @Override
+    public AsyncStorageClient asyncStorageClient() {
+        return asyncStorageClient;
+    }
+
+    @Override
+    public AsyncCollectionsClient asyncCollectionsClient() {
+        return asyncCollectionsClient;
+    }
+
+    @Override
+    public AsyncItemsClient asyncItemsClient() {
+        return asyncItemsClient;
+    }
+
+    /**
+     * Get the Items entities handler storing typed values. Like the one of a single instance,
+     * it is a lightweight view to be created once per codec and shared.
+     * @param codec the codec of the values
+     * @param <T> the type of the values
+     * @return the instance of the TypedItemsClient handler
+     */
+    @Override
+    public <T> TypedItemsClient<T> typedItemsClient(ValueCodec<T> codec) {
+        return new ShardedTypedItemsClient<>(this, codec);
+    }
+
+    /**
+     * @param collectionName the name of the collection
+     * @param itemName       the key value
+     * @return the name of the shard storing the item
+     */
+    public String getShardName(String collectionName, String itemName) {
+        return shardFor(collectionName, itemName).getName();
+    }
+
+    public ShardingMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Close the primary instances and the replicas of all the shards
+     */
+    @Override
+    public void close() {
+        Set<KVStoreClient> clients = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Shard shard : shards) {
+            clients.add(shard.getPrimary());
+            clients.addAll(shard.getReplicas());
+        }
+        RuntimeException failure = null;
+        for (KVStoreClient client : clients) {
+            try {
+                client.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public String toString() {
+        return "ShardedKVStoreClient(mode=" + mode + ", readPreference=" + readPreference + ", shards=" + shards + ")";
+    }
+
+    List<Shard> getShards() {
+        return shards;
+    }
+
+    ReadPreference getReadPreference() {
+        return readPreference;
+    }
+
+    /**
+     * @return the shard of an item
+     */
+    Shard shardFor(String collectionName, String itemName) {
+        return shards.get(ring.owner(mode == ShardingMode.BY_COLLECTION ? collectionName : collectionName + '\0' + itemName));
+    }
+
+    /**
+     * @return the shard of a whole collection, in {@link ShardingMode#BY_COLLECTION} mode
+     */
+    Shard shardFor(String collectionName) {
+        return shards.get(ring.owner(collectionName));
+    }
+
+    /**
+     * Run a write on the primary instance of every shard, all of them even when some fail
+     */
+    void writeAll(Consumer<KVStoreClient> call) {
+        RuntimeException failure = null;
+        for (Shard shard : shards) {
+            try {
+                call.accept(shard.getPrimary());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the results of a read on every shard, in shard order
+     */
+    <T> List<T> readAll(Function<KVStoreClient, T> call) {
+        List<T> results = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            results.add(shard.read(readPreference, call));
+        }
+        return results;
+    }
+
+    /**
+     * @return the future of the results of a read on every shard, in shard order
+     */
+    <T> CompletableFuture<List<T>> readAllAsync(Function<KVStoreClient, CompletableFuture<T>> call) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            futures.add(shard.readAsync(readPreference, call));
+        }
+        return allOf(futures);
+    }
+
+    /**
+     * @return the future completed once the write is done on the primary instance of every shard
+     */
+    CompletableFuture<Void> writeAllAsync(Function<KVStoreClient, CompletableFuture<Void>> call) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            futures.add(call.apply(shard.getPrimary()));
+        }
+        return allOf(futures).thenApply(v -> null);
+    }
+
+    private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<T> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+}
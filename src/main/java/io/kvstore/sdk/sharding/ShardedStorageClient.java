@@ -0,0 +1,26 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.sdk.clients.StorageClient;
+
+final class ShardedStorageClient implements StorageClient {
+
+    private final ShardedKVStoreClient client;
+
+    ShardedStorageClient(ShardedKVStoreClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @return the storage of the first shard
+     */
+    @Override
+    public Storage get() {
+        return client.getShards().get(0).read(client.getReadPreference(), c -> c.storageClient().get());
+    }
+
+    @Override
+    public void update(StorageUpdate storageUpdate) {
+        client.writeAll(c -> c.storageClient().update(storageUpdate));
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.kvstore.sdk.sharding;
+
+import io.kvstore.sdk.clients.TypedItemsClient;
+import io.kvstore.sdk.codecs.ValueCodec;
+
+final class ShardedTypedItemsClient<T> implements TypedItemsClient<T> {
+
+    private final ShardedKVStoreClient client;
+    private final ValueCodec<T> codec;
+
+    ShardedTypedItemsClient(ShardedKVStoreClient client, ValueCodec<T> codec) {
+        this.client = client;
+        this.codec = codec;
+    }
+
+    @Override
+    public ItemValue<T> get(String collectionName, String itemName) {
+        return client.shardFor(collectionName, itemName).read(client.getReadPreference(), c -> c.typedItemsClient(codec).get(collectionName, itemName));
+    }
+
+    @Override
+    public void put(String collectionName, String itemName, T value) {
+        client.shardFor(collectionName, itemName).getPrimary().typedItemsClient(codec).put(collectionName, itemName, value);
+    }
+
+    @Override
+    public void delete(String collectionName, String itemName) {
+        client.shardFor(collectionName, itemName).getPrimary().typedItemsClient(codec).delete(collectionName, itemName);
+    }
+
+}
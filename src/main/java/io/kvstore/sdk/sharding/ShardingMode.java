@@ -0,0 +1,21 @@
+package io.kvstore.sdk.sharding;
+
+/**
+ * What a {@link ShardedKVStoreClient} places on the shards
+ */
+public enum ShardingMode {
+
+    /**
+     * Each collection lives whole on one shard: listing its items needs a single request,
+     * but a busy collection loads a single shard
+     */
+    BY_COLLECTION,
+
+    /**
+     * The items of every collection are spread by key over all the shards, where the collection exists too:
+     * the load of a busy collection is shared, but listing items merges a page of every shard
+     * and creating, updating or deleting a collection is done on every shard
+     */
+    BY_KEY
+
+}
@@ -0,0 +1,456 @@
+package io.kvstore.sdk.transfer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.kvstore.api.representationals.utils.SortType;
+import io.kvstore.sdk.clients.ItemsClient;
+import io.kvstore.sdk.limits.RateLimiter;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Exports all the items of a collection to a snapshot file and imports them back, i.e. to back up a collection
+ * or to migrate it to another account. Both stream the items: an export holds two pages of items in memory
+ * and an import one batch, whatever the size of the collection.
+ * <p>
+ * An import writes the batches of items with concurrent requests, optionally paced by a rate limit, each write waiting
+ * for its own permit, and records in a checkpoint file how many items of the snapshot it imported along with a checksum
+ * of them. When it fails, importing the same snapshot again with the same checkpoint file resumes after the last
+ * complete batch, once the checksum of the items skipped matches; the checkpoint is deleted once the whole snapshot
+ * is imported.
+ * <pre>
+ * CollectionTransfer transfer = CollectionTransfer.builder(client.itemsClient())
+ *     .setRateLimit(200, 50)
+ *     .setCheckpoint(Paths.get("users.checkpoint"))
+ *     .setListener(progress -&gt; log.info("{}", progress))
+ *     .build();
+ * try (InputStream in = Files.newInputStream(Paths.get("users.ndjson"))) {
+ *     transfer.importCollection("users", in);
+ * }
+ * </pre>
+ * The creation and update dates of the items are exported, but the imported items get new ones.
+ */
+public class CollectionTransfer {
+
+    public static class Builder {
+        private final ItemsClient itemsClient;
+        private SnapshotFormat format = SnapshotFormat.NDJSON;
+        private int pageSize = 100;
+        private int batchSize = 256;
+        private int concurrency = ItemsClient.DEFAULT_BATCH_SIZE;
+        private RateLimiter rateLimiter;
+        private Path checkpoint;
+        private TransferListener listener = TransferListener.NOOP;
+        private JsonFactory jsonFactory;
+
+        private Builder(ItemsClient itemsClient) {
+            this.itemsClient = Objects.requireNonNull(itemsClient, "itemsClient");
+        }
+
+        /**
+         * @param format the format of the snapshots written and read (default NDJSON)
+         * @return the Builder itself
+         */
+        public Builder setFormat(SnapshotFormat format) {
+            this.format = Objects.requireNonNull(format, "format");
+            return this;
+        }
+
+        /**
+         * @param pageSize the number of items listed per request by an export (default 100)
+         * @return the Builder itself
+         */
+        public Builder setPageSize(int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize must be positive");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param batchSize the number of items written by an import between two checkpoints (default 256)
+         * @return the Builder itself
+         */
+        public Builder setBatchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param concurrency the maximum number of concurrent requests of an import (default 32)
+         * @return the Builder itself
+         */
+        public Builder setConcurrency(int concurrency) {
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("concurrency must be positive");
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Limit the rate of the writes of an import (default unlimited)
+         *
+         * @param permitsPerSecond the sustained items written per second
+         * @param burst the items that can be written at once
+         * @return the Builder itself
+         */
+        public Builder setRateLimit(double permitsPerSecond, int burst) {
+            this.rateLimiter = new RateLimiter(permitsPerSecond, burst);
+            return this;
+        }
+
+        /**
+         * @param checkpoint the file recording the progress of an import, to resume it after a failure (default none)
+         * @return the Builder itself
+         */
+        public Builder setCheckpoint(Path checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
+        /**
+         * @param listener the listener of the progress
+         * @return the Builder itself
+         */
+        public Builder setListener(TransferListener listener) {
+            this.listener = Objects.requireNonNull(listener, "listener");
+            return this;
+        }
+
+        /**
+         * @param jsonFactory the factory of the NDJSON parsers and generators (default a new JsonFactory)
+         * @return the Builder itself
+         */
+        public Builder setJsonFactory(JsonFactory jsonFactory) {
+            this.jsonFactory = Objects.requireNonNull(jsonFactory, "jsonFactory");
+            return this;
+        }
+
+        public CollectionTransfer build() {
+            return new CollectionTransfer(this);
+        }
+    }
+
+    private static final String CHECKPOINT_COLLECTION = "collection";
+    private static final String CHECKPOINT_ITEMS = "items";
+    private static final String CHECKPOINT_CHECKSUM = "checksum";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ItemsClient itemsClient;
+    private final SnapshotFormat format;
+    private final int pageSize;
+    private final int batchSize;
+    private final int concurrency;
+    private final RateLimiter rateLimiter;
+    private final Path checkpoint;
+    private final TransferListener listener;
+    private final JsonFactory jsonFactory;
+
+    protected CollectionTransfer(Builder builder) {
+        this.itemsClient = builder.itemsClient;
+        this.format = builder.format;
+        this.pageSize = builder.pageSize;
+        this.batchSize = builder.batchSize;
+        this.concurrency = builder.concurrency;
+        this.rateLimiter = builder.rateLimiter;
+        this.checkpoint = builder.checkpoint;
+        this.listener = builder.listener;
+        this.jsonFactory = builder.jsonFactory != null ? builder.jsonFactory : new JsonFactory();
+    }
+
+    public static Builder builder(ItemsClient itemsClient) {
+        return new Builder(itemsClient);
+    }
+
+    /**
+     * Write all the items of a collection, in creation order, to a snapshot
+     *
+     * @param collectionName the name of the collection
+     * @param outputStream   the stream the snapshot is written to, left open
+     * @return the final progress
+     * @throws IOException if the snapshot can't be written
+     */
+    public TransferProgress exportCollection(String collectionName, OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream out = new CountingOutputStream(outputStream);
+        SnapshotFormat.SnapshotWriter writer = format.writer(out, jsonFactory);
+        long items = 0;
+        Iterator<ItemsClient.Item> iterator = itemsClient.iterator(collectionName, pageSize, SortType.asc);
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+            if (++items % pageSize == 0) {
+                fire(new TransferProgress(collectionName, items, 0, out.count, System.nanoTime() - start, false));
+            }
+        }
+        writer.finish();
+        TransferProgress progress = new TransferProgress(collectionName, items, 0, out.count, System.nanoTime() - start, true);
+        fire(progress);
+        return progress;
+    }
+
+    /**
+     * Write all the items of a snapshot to a collection, resuming from the checkpoint if any. The collection must exist,
+     * and the items already in it are overwritten.
+     *
+     * @param collectionName the name of the collection
+     * @param inputStream    the stream the snapshot is read from, left open
+     * @return the final progress
+     * @throws IOException if the snapshot or the checkpoint can't be read, or the checkpoint can't be written
+     * @throws TransferException if some items of a batch could not be written
+     * @throws IllegalStateException if the checkpoint belongs to the import of another collection or snapshot
+     */
+    public TransferProgress importCollection(String collectionName, InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        Properties resumed = readCheckpoint(collectionName);
+        long skipped = resumed != null ? parseCheckpoint(resumed, CHECKPOINT_ITEMS) : 0;
+        CountingInputStream in = new CountingInputStream(inputStream);
+        SnapshotFormat.SnapshotReader reader = format.reader(in, jsonFactory);
+        // the checksum of the records read so far, identifying the part of the snapshot a checkpoint covers
+        CRC32 checksum = new CRC32();
+        for (long i = 0; i < skipped; i++) {
+            ItemsClient.Item item = reader.next();
+            if (item == null) {
+                throw new IllegalStateException("The checkpoint " + checkpoint + " is beyond the end of the snapshot");
+            }
+            update(checksum, item);
+        }
+        if (resumed != null && checksum.getValue() != parseCheckpoint(resumed, CHECKPOINT_CHECKSUM)) {
+            throw new IllegalStateException("The checkpoint " + checkpoint + " belongs to the import of another snapshot");
+        }
+
+        ExecutorService executor = rateLimiter == null ? null
+            : Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "kvstore-transfer-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        try {
+            long imported = 0;
+            int records = 0;
+            Map<String, String> batch = new LinkedHashMap<>();
+            ItemsClient.Item item;
+            while ((item = reader.next()) != null) {
+                update(checksum, item);
+                // a key repeated in a batch is written once, with its last value
+                batch.put(item.getKey(), item.getValue());
+                if (++records == batchSize) {
+                    imported = writeBatch(collectionName, batch, records, skipped, imported, checksum.getValue(), executor, in.count, start);
+                    records = 0;
+                }
+            }
+            if (records > 0) {
+                imported = writeBatch(collectionName, batch, records, skipped, imported, checksum.getValue(), executor, in.count, start);
+            }
+            if (checkpoint != null) {
+                Files.deleteIfExists(checkpoint);
+            }
+            TransferProgress progress = new TransferProgress(collectionName, imported, skipped, in.count, System.nanoTime() - start, true);
+            fire(progress);
+            return progress;
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return the number of items imported once the batch is written
+     */
+    private long writeBatch(String collectionName, Map<String, String> batch, int records, long skipped, long imported,
+                            long checksum, ExecutorService executor, long bytes, long start) throws IOException {
+        ItemsClient.BatchResult<String> result = executor == null ? itemsClient.putAll(collectionName, batch, concurrency)
+            : pacedPutAll(collectionName, batch, executor);
+        if (!result.isComplete()) {
+            throw new TransferException(new TransferProgress(collectionName, imported, skipped, bytes, System.nanoTime() - start, false),
+                result.getFailed());
+        }
+        imported += records;
+        batch.clear();
+        writeCheckpoint(collectionName, skipped + imported, checksum);
+        fire(new TransferProgress(collectionName, imported, skipped, bytes, System.nanoTime() - start, false));
+        return imported;
+    }
+
+    /**
+     * Write the items of a batch with at most concurrency writes in flight, each one sent once the rate limit grants
+     * its permit, so that the writes are spread evenly instead of leaving in bursts of a batch
+     */
+    private ItemsClient.BatchResult<String> pacedPutAll(String collectionName, Map<String, String> batch, ExecutorService executor)
+        throws InterruptedIOException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        Map<String, Future<?>> writes = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, String> item : batch.entrySet()) {
+                inFlight.acquire();
+                long wait = rateLimiter.reserve(Long.MAX_VALUE);
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                writes.put(item.getKey(), executor.submit(() -> {
+                    try {
+                        itemsClient.put(collectionName, item.getKey(), item.getValue());
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            Map<String, String> succeeded = new LinkedHashMap<>();
+            Map<String, RuntimeException> failed = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<?>> write : writes.entrySet()) {
+                try {
+                    write.getValue().get();
+                    succeeded.put(write.getKey(), batch.get(write.getKey()));
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    failed.put(write.getKey(), cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause));
+                }
+            }
+            return new ItemsClient.BatchResult<>(succeeded, failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing a batch at the rate limit");
+        }
+    }
+
+    private static void update(CRC32 checksum, ItemsClient.Item item) {
+        byte[] key = item.getKey().getBytes(StandardCharsets.UTF_8);
+        checksum.update(key, 0, key.length);
+        checksum.update(0);
+        if (item.getValue() != null) {
+            byte[] value = item.getValue().getBytes(StandardCharsets.UTF_8);
+            checksum.update(value, 0, value.length);
+        }
+        checksum.update('\n');
+    }
+
+    /**
+     * @return the properties of the checkpoint of an import of the collection, or null when there is none
+     */
+    private Properties readCheckpoint(String collectionName) throws IOException {
+        if (checkpoint == null || !Files.exists(checkpoint)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint)) {
+            properties.load(in);
+        }
+        String collection = properties.getProperty(CHECKPOINT_COLLECTION);
+        if (!collectionName.equals(collection)) {
+            throw new IllegalStateException("The checkpoint " + checkpoint + " belongs to the import of collection " + collection);
+        }
+        return properties;
+    }
+
+    private long parseCheckpoint(Properties properties, String name) throws IOException {
+        try {
+            return Long.parseLong(properties.getProperty(name));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid checkpoint " + checkpoint, e);
+        }
+    }
+
+    /**
+     * Replace the checkpoint atomically, so that a crash leaves either the previous one or the new one
+     */
+    private void writeCheckpoint(String collectionName, long items, long checksum) throws IOException {
+        if (checkpoint == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(CHECKPOINT_COLLECTION, collectionName);
+        properties.setProperty(CHECKPOINT_ITEMS, Long.toString(items));
+        properties.setProperty(CHECKPOINT_CHECKSUM, Long.toString(checksum));
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            properties.store(out, "Import of collection " + collectionName);
+        }
+        try {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void fire(TransferProgress progress) {
+        try {
+            listener.onProgress(progress);
+        } catch (RuntimeException ignored) {
+            // a broken listener must not fail the transfer
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+package io.kvstore.sdk.transfer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.kvstore.sdk.clients.ItemsClient;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The file formats of a collection snapshot, both written and read one item at a time
+ */
+public enum SnapshotFormat {
+
+    /**
+     * One JSON object per line, with the key, value, created_at and updated_at of an item: easy to inspect and to
+     * produce with other tools
+     */
+    NDJSON {
+        @Override
+        SnapshotWriter writer(OutputStream outputStream, JsonFactory jsonFactory) throws IOException {
+            JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            return new SnapshotWriter() {
+                @Override
+                public void write(ItemsClient.Item item) throws IOException {
+                    generator.writeStartObject();
+                    generator.writeStringField("key", item.getKey());
+                    generator.writeStringField("value", item.getValue());
+                    generator.writeNumberField("created_at", seconds(item.getCreatedAt().getTime()));
+                    generator.writeNumberField("updated_at", seconds(item.getUpdatedAt().getTime()));
+                    generator.writeEndObject();
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    generator.writeRaw('\n');
+                    generator.close();
+                }
+            };
+        }
+
+        @Override
+        SnapshotReader reader(InputStream inputStream, JsonFactory jsonFactory) throws IOException {
+            JsonParser parser = jsonFactory.createParser(inputStream);
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return () -> {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    parser.close();
+                    return null;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expected an item object");
+                }
+                io.kvstore.api.representationals.items.Item item = new io.kvstore.api.representationals.items.Item();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getText();
+                    parser.nextToken();
+                    switch (field) {
+                        case "key":
+                            item.setKey(parser.getValueAsString());
+                            break;
+                        case "value":
+                            item.setValue(parser.getValueAsString());
+                            break;
+                        case "created_at":
+                            item.setCreated_at(parser.getValueAsDouble());
+                            break;
+                        case "updated_at":
+                            item.setUpdated_at(parser.getValueAsDouble());
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+                if (item.getKey() == null) {
+                    throw new JsonParseException(parser, "Item without key");
+                }
+                return new ItemsClient.Item(item);
+            };
+        }
+    },
+
+    /**
+     * Length-prefixed UTF-8 strings and binary timestamps: smaller and faster to parse than NDJSON
+     */
+    BINARY {
+        private final byte[] magic = {'K', 'V', 'S', 'B', 1};
+
+        @Override
+        SnapshotWriter writer(OutputStream outputStream, JsonFactory jsonFactory) throws IOException {
+            DataOutputStream out = new DataOutputStream(outputStream);
+            out.write(magic);
+            return new SnapshotWriter() {
+                @Override
+                public void write(ItemsClient.Item item) throws IOException {
+                    out.writeByte(1);
+                    writeString(out, item.getKey());
+                    writeString(out, item.getValue());
+                    out.writeDouble(seconds(item.getCreatedAt().getTime()));
+                    out.writeDouble(seconds(item.getUpdatedAt().getTime()));
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    out.writeByte(0);
+                    out.flush();
+                }
+            };
+        }
+
+        @Override
+        SnapshotReader reader(InputStream inputStream, JsonFactory jsonFactory) throws IOException {
+            DataInputStream in = new DataInputStream(inputStream);
+            byte[] header = new byte[magic.length];
+            in.readFully(header);
+            if (!Arrays.equals(header, magic)) {
+                throw new StreamCorruptedException("Not a binary collection snapshot");
+            }
+            return () -> {
+                int marker = in.read();
+                if (marker == 0) {
+                    return null;
+                }
+                if (marker != 1) {
+                    throw marker < 0 ? new EOFException("Truncated collection snapshot") : new StreamCorruptedException("Invalid record marker " + marker);
+                }
+                return new ItemsClient.Item(new io.kvstore.api.representationals.items.Item()
+                    .setKey(readString(in))
+                    .setValue(readString(in))
+                    .setCreated_at(in.readDouble())
+                    .setUpdated_at(in.readDouble()));
+            };
+        }
+    };
+
+    abstract SnapshotWriter writer(OutputStream outputStream, JsonFactory jsonFactory) throws IOException;
+
+    abstract SnapshotReader reader(InputStream inputStream, JsonFactory jsonFactory) throws IOException;
+
+    interface SnapshotWriter {
+        void write(ItemsClient.Item item) throws IOException;
+
+        /**
+         * Write the end of the snapshot and flush it, leaving the stream open
+         */
+        void finish() throws IOException;
+    }
+
+    interface SnapshotReader {
+        /**
+         * @return the next item, or null at the end of the snapshot
+         */
+        ItemsClient.Item next() throws IOException;
+    }
+
+    private static double seconds(long millis) {
+        return millis / 1000.0;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
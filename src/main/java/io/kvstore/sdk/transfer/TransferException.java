@@ -0,0 +1,35 @@
+package io.kvstore.sdk.transfer;
+
+import java.util.Map;
+
+/**
+ * Thrown when some items of a batch could not be imported. The checkpoint, if any, points to the start
+ * of the failed batch, so that importing the same snapshot again resumes from there.
+ */
+public class TransferException extends RuntimeException {
+
+    private final TransferProgress progress;
+    private final Map<String, RuntimeException> failed;
+
+    TransferException(TransferProgress progress, Map<String, RuntimeException> failed) {
+        super(failed.size() + " items of collection " + progress.getCollectionName() + " could not be imported after "
+            + progress.getItems() + " items", failed.values().iterator().next());
+        this.progress = progress;
+        this.failed = failed;
+    }
+
+    /**
+     * @return the progress up to the failed batch
+     */
+    public TransferProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * @return the exceptions of the items that failed, by key
+     */
+    public Map<String, RuntimeException> getFailed() {
+        return failed;
+    }
+
+}
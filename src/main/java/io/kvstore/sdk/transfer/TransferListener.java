@@ -0,0 +1,18 @@
+package io.kvstore.sdk.transfer;
+
+/**
+ * Listener of the progress of an export or import, called by the thread running it
+ * after every page or batch of items and once at the end. It must return quickly.
+ */
+@FunctionalInterface
+public interface TransferListener {
+
+    /**
+     * A listener ignoring the progress
+     */
+    TransferListener NOOP = progress -> {
+    };
+
+    void onProgress(TransferProgress progress);
+
+}
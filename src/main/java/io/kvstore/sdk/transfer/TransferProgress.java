@@ -0,0 +1,83 @@
+package io.kvstore.sdk.transfer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time progress of an export or import of a collection
+ */
+public final class TransferProgress {
+
+    private final String collectionName;
+    private final long items;
+    private final long skippedItems;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final boolean done;
+
+    TransferProgress(String collectionName, long items, long skippedItems, long bytes, long elapsedNanos, boolean done) {
+        this.collectionName = collectionName;
+        this.items = items;
+        this.skippedItems = skippedItems;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.done = done;
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * @return the number of items exported, or imported by this run
+     */
+    public long getItems() {
+        return items;
+    }
+
+    /**
+     * @return the number of items of the snapshot skipped because a previous run imported them, per the checkpoint
+     */
+    public long getSkippedItems() {
+        return skippedItems;
+    }
+
+    /**
+     * @return the number of bytes of the snapshot written or read
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the throughput of this run, in items per second
+     */
+    public double getItemsPerSecond() {
+        return elapsedNanos == 0 ? 0 : items * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return the throughput of this run, in snapshot bytes per second
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return true when the whole collection or snapshot has been transferred
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferProgress(collectionName=" + collectionName + ", items=" + items + ", skippedItems=" + skippedItems
+            + ", bytes=" + bytes + ", elapsed=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms"
+            + ", itemsPerSecond=" + String.format("%.1f", getItemsPerSecond()) + ", done=" + done + ")";
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.kvstore.sdk.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link HttpTransport} able to send requests without blocking the calling thread
+ */
+public interface AsyncHttpTransport extends HttpTransport {
+
+    /**
+     * Send the request in the background.
+     * The caller owns the response the future completes with and must close it.
+     *
+     * @param request the request to be sent
+     * @return the future completed with the response head, or exceptionally with the IOException raised by the exchange
+     */
+    CompletableFuture<HttpResponse> executeAsync(HttpRequest request);
+
+}
@@ -0,0 +1,94 @@
+package io.kvstore.sdk.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small lock-free pool of byte arrays reused to read response bodies.
+ * Unlike thread-local buffers, pooled ones are shared by all the threads, virtual ones included.
+ */
+public final class BufferPool {
+
+    public static final int BUFFER_SIZE = 8192;
+
+    private static final BufferPool SHARED = new BufferPool(64);
+
+    private final AtomicReferenceArray<byte[]> slots;
+
+    public BufferPool(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return the pool shared by the whole SDK
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return a buffer of {@link #BUFFER_SIZE} bytes, to be given back with {@link #release(byte[])}
+     */
+    public byte[] acquire() {
+        int length = slots.length();
+        int start = probe(length);
+        for (int i = 0; i < length; i++) {
+            byte[] buffer = slots.getAndSet((start + i) % length, null);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return new byte[BUFFER_SIZE];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer.length != BUFFER_SIZE) {
+            return;
+        }
+        int length = slots.length();
+        int start = probe(length);
+        for (int i = 0; i < length; i++) {
+            if (slots.compareAndSet((start + i) % length, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read a whole stream as UTF-8 text. Bodies fitting in a pooled buffer are decoded with a single copy.
+     *
+     * @param inputStream the stream to be read, closed at the end
+     * @return the decoded text
+     * @throws IOException if the stream can't be read
+     */
+    public String readUtf8(InputStream inputStream) throws IOException {
+        byte[] buffer = acquire();
+        try (InputStream in = inputStream) {
+            int length = 0;
+            int n;
+            while (length < buffer.length && (n = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += n;
+            }
+            if (length < buffer.length) {
+                return new String(buffer, 0, length, StandardCharsets.UTF_8);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(buffer.length * 2);
+            out.write(buffer, 0, length);
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private static int probe(int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+}
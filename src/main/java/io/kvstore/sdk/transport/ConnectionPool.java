@@ -0,0 +1,167 @@
+package io.kvstore.sdk.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of keep-alive connections to a single host.
+ * Idle connections are reused most-recently-used first, and the ones idle for longer than the configured timeout
+ * are evicted whenever the pool is accessed.
+ */
+final class ConnectionPool {
+
+    private final HttpHost host;
+    private final PooledHttpTransport transport;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private int leased;
+    private int total;
+    private boolean closed;
+
+    ConnectionPool(HttpHost host, PooledHttpTransport transport) {
+        this.host = host;
+        this.transport = transport;
+    }
+
+    PooledConnection acquire() throws IOException {
+        long deadline = System.nanoTime() + transport.getPoolTimeoutNanos();
+        List<PooledConnection> expired = new ArrayList<>(0);
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IOException("Connection pool for " + host + " is closed");
+                }
+                long now = System.nanoTime();
+                evictExpired(now, expired);
+                PooledConnection connection = idle.pollFirst();
+                if (connection != null) {
+                    leased++;
+                    return connection;
+                }
+                if (total < transport.getMaxConnectionsPerHost()) {
+                    total++;
+                    leased++;
+                    break;
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    throw new IOException("Timed out waiting for a connection to " + host);
+                }
+                released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + host);
+        } finally {
+            lock.unlock();
+            closeAll(expired);
+        }
+
+        try {
+            PooledConnection connection = transport.openConnection(host);
+            transport.onConnectionCreated();
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                leased--;
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    void release(PooledConnection connection, boolean reusable) {
+        int maxRequests = transport.getMaxRequestsPerConnection();
+        boolean discard = !reusable || !connection.isOpen()
+            || (maxRequests > 0 && connection.getRequestCount() >= maxRequests);
+        List<PooledConnection> expired = new ArrayList<>(0);
+        lock.lock();
+        try {
+            leased--;
+            long now = System.nanoTime();
+            if (discard || closed) {
+                discard = true;
+                total--;
+            } else {
+                connection.touch(now);
+                idle.addFirst(connection);
+            }
+            evictExpired(now, expired);
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (discard) {
+            connection.close();
+        }
+        closeAll(expired);
+    }
+
+    int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLeasedCount() {
+        lock.lock();
+        try {
+            return leased;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the idle connections now and the leased ones as soon as they are released
+     */
+    void close() {
+        List<PooledConnection> connections;
+        lock.lock();
+        try {
+            closed = true;
+            connections = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        closeAll(connections);
+    }
+
+    /**
+     * Must be called holding the lock: the least recently used connections sit at the tail of the deque
+     */
+    private void evictExpired(long now, List<PooledConnection> expired) {
+        long idleTimeout = transport.getIdleTimeoutNanos();
+        PooledConnection last;
+        while ((last = idle.peekLast()) != null && now - last.getLastUsedNanos() >= idleTimeout) {
+            idle.pollLast();
+            total--;
+            expired.add(last);
+        }
+    }
+
+    private static void closeAll(List<PooledConnection> connections) {
+        for (PooledConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.kvstore.sdk.transport;
+
+/**
+ * Point-in-time counters of a {@link PooledHttpTransport}
+ */
+public final class ConnectionPoolStats {
+
+    private final long requests;
+    private final long reusedRequests;
+    private final long connectionsCreated;
+    private final int idleConnections;
+    private final int leasedConnections;
+
+    ConnectionPoolStats(long requests, long reusedRequests, long connectionsCreated, int idleConnections, int leasedConnections) {
+        this.requests = requests;
+        this.reusedRequests = reusedRequests;
+        this.connectionsCreated = connectionsCreated;
+        this.idleConnections = idleConnections;
+        this.leasedConnections = leasedConnections;
+    }
+
+    /**
+     * @return the number of requests sent
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of requests sent over an already established connection
+     */
+    public long getReusedRequests() {
+        return reusedRequests;
+    }
+
+    /**
+     * @return the number of connections opened (TCP connect and, for https, TLS handshake)
+     */
+    public long getConnectionsCreated() {
+        return connectionsCreated;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getLeasedConnections() {
+        return leasedConnections;
+    }
+
+    public String toString() {
+        return "ConnectionPoolStats(requests=" + requests +
+            ", reusedRequests=" + reusedRequests +
+            ", connectionsCreated=" + connectionsCreated +
+            ", idleConnections=" + idleConnections +
+            ", leasedConnections=" + leasedConnections + ")";
+    }
+
+}
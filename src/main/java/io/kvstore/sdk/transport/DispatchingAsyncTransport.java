@@ -0,0 +1,178 @@
+package io.kvstore.sdk.transport;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapts a blocking {@link HttpTransport} to {@link AsyncHttpTransport}.
+ * At most {@code maxInFlight} requests are handed to the executor at once: the others wait in a queue
+ * without holding any thread, so thousands of calls can be outstanding while only a few threads do the I/O.
+ * <pre>
+ * HttpTransport transport = new DispatchingAsyncTransport(PooledHttpTransport.builder().build(), 64);
+ * KVStoreClient client = KVStore.instance(APIToken, KVStore.ENV.PRODUCTION, transport);
+ * </pre>
+ */
+public class DispatchingAsyncTransport implements AsyncHttpTransport {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 20;
+
+    /**
+     * Default number of requests in flight with {@link ExecutionMode#VIRTUAL_THREADS}: the connection pool is the actual bound
+     */
+    public static final int DEFAULT_VIRTUAL_MAX_IN_FLIGHT = 10_000;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final class Task {
+        private final HttpRequest request;
+        private final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        private Task(HttpRequest request) {
+            this.request = request;
+        }
+    }
+
+    private final HttpTransport transport;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int maxInFlight;
+
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param transport   the blocking transport doing the I/O
+     * @param maxInFlight the maximum number of requests being sent at the same time
+     */
+    public DispatchingAsyncTransport(HttpTransport transport, int maxInFlight) {
+        this(transport, null, maxInFlight);
+    }
+
+    /**
+     * @param transport   the blocking transport doing the I/O
+     * @param executor    the executor running the blocking exchanges, null for an internal pool of daemon threads
+     * @param maxInFlight the maximum number of requests being sent at the same time
+     */
+    public DispatchingAsyncTransport(HttpTransport transport, Executor executor, int maxInFlight) {
+        this(transport, executor, null, maxInFlight);
+    }
+
+    private DispatchingAsyncTransport(HttpTransport transport, Executor executor, ExecutionMode mode, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.transport = transport;
+        this.maxInFlight = maxInFlight;
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            this.ownedExecutor = VirtualThreads.newThreadPerTaskExecutor("kvstore-async-virtual-");
+            this.executor = ownedExecutor;
+        } else {
+            this.ownedExecutor = Executors.newCachedThreadPool(daemonThreadFactory());
+            this.executor = ownedExecutor;
+        }
+    }
+
+    /**
+     * @param transport   the blocking transport doing the I/O
+     * @param mode        the kind of threads of the internal executor running the blocking exchanges
+     * @param maxInFlight the maximum number of requests being sent at the same time
+     * @return the transport
+     * @throws UnsupportedOperationException if the mode is {@link ExecutionMode#VIRTUAL_THREADS} and the runtime doesn't support them
+     */
+    public static DispatchingAsyncTransport of(HttpTransport transport, ExecutionMode mode, int maxInFlight) {
+        return new DispatchingAsyncTransport(transport, null, mode, maxInFlight);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        return transport.execute(request);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        Task task = new Task(request);
+        queue.add(task);
+        dispatch();
+        return task.future;
+    }
+
+    /**
+     * @return the number of requests being sent right now
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the number of requests waiting for a free slot
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    private void dispatch() {
+        while (!queue.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                // the completion of a running request will dispatch the queued ones
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Task task = queue.poll();
+            if (task == null || task.future.isDone()) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            try {
+                executor.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void run(Task task) {
+        try {
+            HttpResponse response = transport.execute(task.request);
+            if (!task.future.complete(response)) {
+                response.close();
+            }
+        } catch (Throwable e) {
+            task.future.completeExceptionally(e);
+        } finally {
+            inFlight.decrementAndGet();
+            dispatch();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        transport.close();
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "kvstore-async-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
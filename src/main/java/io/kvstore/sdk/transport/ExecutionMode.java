@@ -0,0 +1,21 @@
+package io.kvstore.sdk.transport;
+
+/**
+ * The kind of threads running the requests of the asynchronous clients and of the multi-key operations
+ */
+public enum ExecutionMode {
+
+    /**
+     * A pool of platform threads, bounding the number of requests in flight to a few dozens
+     */
+    PLATFORM_THREADS,
+
+    /**
+     * One virtual thread per request, so that thousands of requests can wait for a connection or a response
+     * without holding a platform thread. Requires Java 21 or later.
+     *
+     * @see VirtualThreads#isAvailable()
+     */
+    VIRTUAL_THREADS
+
+}
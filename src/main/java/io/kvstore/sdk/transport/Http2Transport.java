@@ -0,0 +1,148 @@
+package io.kvstore.sdk.transport;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link AsyncHttpTransport} multiplexing the requests as HTTP/2 streams over a few connections.
+ * This is the implementation for older runtimes, where the HTTP/2 client of the JDK is not available;
+ * the multi-release jar of the SDK replaces it on Java 11 and later.
+ *
+ * @see #isAvailable()
+ */
+public class Http2Transport implements AsyncHttpTransport {
+
+    public static class Builder {
+        private int connections = 1;
+        private int maxConcurrentStreams = 100;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private SSLContext sslContext;
+
+        private Builder() {
+        }
+
+        /**
+         * @param connections the number of HTTP/2 connections opened towards the same host (default 1)
+         * @return the Builder itself
+         */
+        public Builder setConnections(int connections) {
+            if (connections <= 0) {
+                throw new IllegalArgumentException("connections must be positive");
+            }
+            this.connections = connections;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentStreams the maximum number of requests in flight on a connection, which must not exceed
+         *                             the limit advertised by the server (default 100)
+         * @return the Builder itself
+         */
+        public Builder setMaxConcurrentStreams(int maxConcurrentStreams) {
+            if (maxConcurrentStreams <= 0) {
+                throw new IllegalArgumentException("maxConcurrentStreams must be positive");
+            }
+            this.maxConcurrentStreams = maxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout the timeout of TCP connects (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param responseTimeout the maximum time between sending a request and receiving its response head (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        /**
+         * @param sslContext the context of the TLS connections (default the JVM one)
+         * @return the Builder itself
+         */
+        public Builder setSslContext(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * @return the transport, opening its connections on the first requests
+         * @throws UnsupportedOperationException when the runtime is older than Java 11
+         */
+        public Http2Transport build() {
+            return new Http2Transport(this);
+        }
+    }
+
+    protected Http2Transport(Builder builder) {
+        throw new UnsupportedOperationException("HTTP/2 requires Java 11 or later");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true when the runtime supports this transport
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        throw new UnsupportedOperationException("HTTP/2 requires Java 11 or later");
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        throw new UnsupportedOperationException("HTTP/2 requires Java 11 or later");
+    }
+
+    /**
+     * @return the number of connections the requests are spread over
+     */
+    public int getConnections() {
+        return 0;
+    }
+
+    /**
+     * @return the number of requests being sent right now
+     */
+    public int getInFlight() {
+        return 0;
+    }
+
+    /**
+     * @return the number of requests waiting for a free stream
+     */
+    public int getQueued() {
+        return 0;
+    }
+
+    /**
+     * @return the number of requests sent
+     */
+    public long getRequests() {
+        return 0;
+    }
+
+    /**
+     * @return the number of responses received over HTTP/1.1, from hosts not speaking HTTP/2
+     */
+    public long getHttp1Responses() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.kvstore.sdk.transport;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Scheme, host and port of a KVStore.io API endpoint, used as the key of the connection pools
+ */
+public final class HttpHost {
+
+    private final String scheme;
+    private final String hostName;
+    private final int port;
+
+    public HttpHost(String scheme, String hostName, int port) {
+        this.scheme = scheme.toLowerCase(Locale.ROOT);
+        this.hostName = hostName;
+        this.port = port;
+    }
+
+    /**
+     * Parse a base URL like {@code https://api.kvstore.io} or {@code http://localhost:8080}
+     *
+     * @param baseURL the base URL, any path component is ignored
+     * @return the host descriptor
+     */
+    public static HttpHost of(String baseURL) {
+        try {
+            URL url = new URL(baseURL);
+            return new HttpHost(url.getProtocol(), url.getHost(), url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid base URL: " + baseURL, e);
+        }
+    }
+
+    public String getScheme() {
+        return scheme;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public boolean isSecure() {
+        return "https".equals(scheme);
+    }
+
+    /**
+     * @return the value to be sent in the "Host" request header
+     */
+    public String getHostHeader() {
+        boolean defaultPort = isSecure() ? port == 443 : port == 80;
+        return defaultPort ? hostName : hostName + ":" + port;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpHost)) {
+            return false;
+        }
+        HttpHost other = (HttpHost) o;
+        return port == other.port && scheme.equals(other.scheme) && hostName.equalsIgnoreCase(other.hostName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scheme, hostName.toLowerCase(Locale.ROOT), port);
+    }
+
+    public String toString() {
+        return scheme + "://" + hostName + ":" + port;
+    }
+
+}
@@ -0,0 +1,142 @@
+package io.kvstore.sdk.transport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable HTTP request addressed to a KVStore.io API host
+ */
+public final class HttpRequest {
+
+    /**
+     * The payload of a request. Transports may write it more than once (i.e. when retrying on a stale connection),
+     * so implementations must be repeatable.
+     */
+    public interface Body {
+
+        String getContentType();
+
+        /**
+         * @return the length in bytes of the payload, or -1 when unknown
+         */
+        long getContentLength();
+
+        void writeTo(OutputStream outputStream) throws IOException;
+
+        static Body of(byte[] bytes, String contentType) {
+            return new Body() {
+                @Override
+                public String getContentType() {
+                    return contentType;
+                }
+
+                @Override
+                public long getContentLength() {
+                    return bytes.length;
+                }
+
+                @Override
+                public void writeTo(OutputStream outputStream) throws IOException {
+                    outputStream.write(bytes);
+                }
+            };
+        }
+    }
+
+    public static class Builder {
+        private final String method;
+        private final HttpHost host;
+        private final String path;
+        private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private Body body;
+
+        private Builder(String method, HttpHost host, String path) {
+            this.method = method;
+            this.host = host;
+            this.path = path;
+        }
+
+        public Builder setHeader(String name, String value) {
+            if (value == null) {
+                this.headers.remove(name);
+            } else {
+                this.headers.put(name, value);
+            }
+            return this;
+        }
+
+        public Builder setBody(Body body) {
+            this.body = body;
+            return this;
+        }
+
+        public HttpRequest build() {
+            return new HttpRequest(this);
+        }
+    }
+
+    private final String method;
+    private final HttpHost host;
+    private final String path;
+    private final Map<String, String> headers;
+    private final Body body;
+
+    private HttpRequest(Builder builder) {
+        this.method = builder.method;
+        this.host = builder.host;
+        this.path = builder.path;
+        this.headers = Collections.unmodifiableMap(new TreeMap<>(builder.headers));
+        this.body = builder.body;
+    }
+
+    public static Builder builder(String method, HttpHost host, String path) {
+        return new Builder(method, host, path);
+    }
+
+    /**
+     * @return a builder initialized with the content of this request
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(method, host, path).setBody(body);
+        builder.headers.putAll(headers);
+        return builder;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public HttpHost getHost() {
+        return host;
+    }
+
+    /**
+     * @return the path and query string of the request, i.e. {@code /collections/books/items?limit=10}
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the request headers, with case-insensitive names
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public Body getBody() {
+        return body;
+    }
+
+    public String toString() {
+        return "HttpRequest(method=" + method + ", host=" + host + ", path=" + path + ")";
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.kvstore.sdk.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The response to an {@link HttpRequest}. The body is streamed from the connection,
+ * so the response must always be closed to give the connection back to its transport.
+ */
+public final class HttpResponse implements Closeable {
+
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private final int attempts;
+
+    public HttpResponse(int statusCode, Map<String, String> headers, InputStream body) {
+        this(statusCode, headers, body, 1);
+    }
+
+    private HttpResponse(int statusCode, Map<String, String> headers, InputStream body, int attempts) {
+        this.statusCode = statusCode;
+        Map<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers);
+        this.headers = Collections.unmodifiableMap(map);
+        this.body = body != null ? body : new ByteArrayInputStream(new byte[0]);
+        this.attempts = attempts;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the response headers, with case-insensitive names
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * @return the stream of the response body
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * @param body the new body stream
+     * @return a copy of this response reading from another body stream, i.e. a decoding one
+     */
+    public HttpResponse withBody(InputStream body) {
+        return new HttpResponse(statusCode, headers, body, attempts);
+    }
+
+    /**
+     * @param headers the new headers
+     * @return a copy of this response with other headers, i.e. without the Content-Encoding of a decoded body
+     */
+    public HttpResponse withHeaders(Map<String, String> headers) {
+        return new HttpResponse(statusCode, headers, body, attempts);
+    }
+
+    /**
+     * @return the number of times the request was sent to get this response
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @param attempts the number of times the request was sent
+     * @return a copy of this response reporting the given number of attempts
+     */
+    public HttpResponse withAttempts(int attempts) {
+        return attempts == this.attempts ? this : new HttpResponse(statusCode, headers, body, attempts);
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+
+    public String toString() {
+        return "HttpResponse(statusCode=" + statusCode + ", attempts=" + attempts + ")";
+    }
+
+}
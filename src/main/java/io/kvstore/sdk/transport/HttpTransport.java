@@ -0,0 +1,31 @@
+package io.kvstore.sdk.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The SPI used by {@link io.kvstore.sdk.KVStore} to exchange HTTP messages with the KVStore.io API.
+ * Implementations must be safe to use from many threads at once.
+ *
+ * @see PooledHttpTransport
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Send the request and wait for the response head.
+     * The caller owns the returned response and must close it, which gives the underlying connection back to the transport.
+     *
+     * @param request the request to be sent
+     * @return the response, with its body still to be consumed
+     * @throws IOException in case of connection or protocol errors
+     */
+    HttpResponse execute(HttpRequest request) throws IOException;
+
+    /**
+     * Release the resources held by the transport, like idle connections
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+}
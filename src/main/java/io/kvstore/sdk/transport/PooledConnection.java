@@ -0,0 +1,366 @@
+package io.kvstore.sdk.transport;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A persistent HTTP/1.1 connection owned by a {@link ConnectionPool}
+ */
+final class PooledConnection {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final HttpHost host;
+    private final Socket socket;
+    private final boolean absoluteForm;
+    private final InputStream in;
+    private final OutputStream out;
+
+    private long lastUsedNanos;
+    private int requestCount;
+    private boolean receivedData;
+
+    private PooledConnection(HttpHost host, Socket socket, boolean absoluteForm) throws IOException {
+        this.host = host;
+        this.socket = socket;
+        this.absoluteForm = absoluteForm;
+        this.in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    /**
+     * Connect to the host through the proxies the selector chooses for it, trying them in order
+     *
+     * @param proxySelector the selector of the proxies, or null to connect directly
+     */
+    static PooledConnection open(HttpHost host, int connectTimeout, int readTimeout, SSLSocketFactory sslSocketFactory,
+                                 ProxySelector proxySelector) throws IOException {
+        URI uri = URI.create(host.getScheme() + "://" + host.getHostHeader());
+        List<Proxy> proxies = proxySelector != null ? proxySelector.select(uri) : null;
+        if (proxies == null || proxies.isEmpty()) {
+            proxies = Collections.singletonList(Proxy.NO_PROXY);
+        }
+        IOException failure = null;
+        for (Proxy proxy : proxies) {
+            try {
+                return open(host, proxy, connectTimeout, readTimeout, sslSocketFactory);
+            } catch (IOException e) {
+                if (proxy.type() != Proxy.Type.DIRECT) {
+                    proxySelector.connectFailed(uri, proxy.address(), e);
+                }
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private static PooledConnection open(HttpHost host, Proxy proxy, int connectTimeout, int readTimeout, SSLSocketFactory sslSocketFactory) throws IOException {
+        Socket plainSocket = proxy.type() == Proxy.Type.SOCKS ? new Socket(proxy) : new Socket();
+        try {
+            plainSocket.setTcpNoDelay(true);
+            plainSocket.setKeepAlive(true);
+            SocketAddress address;
+            if (proxy.type() == Proxy.Type.HTTP) {
+                InetSocketAddress proxyAddress = (InetSocketAddress) proxy.address();
+                address = new InetSocketAddress(proxyAddress.getHostString(), proxyAddress.getPort());
+            } else if (proxy.type() == Proxy.Type.SOCKS) {
+                // resolved by the proxy
+                address = InetSocketAddress.createUnresolved(host.getHostName(), host.getPort());
+            } else {
+                address = new InetSocketAddress(host.getHostName(), host.getPort());
+            }
+            plainSocket.connect(address, connectTimeout);
+            plainSocket.setSoTimeout(readTimeout);
+
+            if (!host.isSecure()) {
+                // an HTTP proxy is sent the absolute URI of the requests
+                return new PooledConnection(host, plainSocket, proxy.type() == Proxy.Type.HTTP);
+            }
+            if (proxy.type() == Proxy.Type.HTTP) {
+                tunnel(plainSocket, host);
+            }
+
+            SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket(plainSocket, host.getHostName(), host.getPort(), true);
+            SSLParameters parameters = sslSocket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(parameters);
+            sslSocket.startHandshake();
+            return new PooledConnection(host, sslSocket, false);
+        } catch (IOException | RuntimeException e) {
+            plainSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Ask an HTTP proxy to open a tunnel to the host, with a CONNECT request
+     */
+    private static void tunnel(Socket socket, HttpHost host) throws IOException {
+        String authority = host.getHostName() + ":" + host.getPort();
+        OutputStream out = socket.getOutputStream();
+        out.write(("CONNECT " + authority + " HTTP/1.1\r\nHost: " + authority + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        // read unbuffered, the TLS handshake follows on the same stream
+        InputStream in = socket.getInputStream();
+        String statusLine = readLine(in);
+        if (statusLine == null || !statusLine.startsWith("HTTP/1.") || statusLine.length() < 12 || statusLine.charAt(9) != '2') {
+            throw new IOException("Unable to tunnel to " + host + " through the proxy: " + statusLine);
+        }
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            // the headers of the proxy
+        }
+        if (line == null) {
+            throw new EOFException("Connection closed by the proxy in the middle of the headers");
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new ProtocolException("Header line too long");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return b == -1 && line.length() == 0 ? null : line.toString();
+    }
+
+    HttpHost getHost() {
+        return host;
+    }
+
+    int getRequestCount() {
+        return requestCount;
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    void touch(long nanos) {
+        this.lastUsedNanos = nanos;
+    }
+
+    /**
+     * @return true when at least one byte of the current response has been received
+     */
+    boolean hasReceivedData() {
+        return receivedData;
+    }
+
+    boolean isOpen() {
+        return !socket.isClosed() && !socket.isInputShutdown() && !socket.isOutputShutdown();
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
+    void writeRequest(HttpRequest request) throws IOException {
+        requestCount++;
+        receivedData = false;
+
+        HttpRequest.Body body = request.getBody();
+        StringBuilder head = new StringBuilder(256);
+        head.append(request.getMethod()).append(' ');
+        if (absoluteForm) {
+            head.append(host.getScheme()).append("://").append(host.getHostHeader());
+        }
+        head.append(request.getPath()).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(host.getHostHeader()).append("\r\n");
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            String name = header.getKey();
+            if (!name.equalsIgnoreCase("Host") && !name.equalsIgnoreCase("Content-Length")
+                && !name.equalsIgnoreCase("Transfer-Encoding") && !name.equalsIgnoreCase("Connection")) {
+                head.append(name).append(": ").append(header.getValue()).append("\r\n");
+            }
+        }
+
+        boolean chunked = false;
+        if (body != null) {
+            if (body.getContentType() != null && request.getHeader("Content-Type") == null) {
+                head.append("Content-Type: ").append(body.getContentType()).append("\r\n");
+            }
+            if (body.getContentLength() >= 0) {
+                head.append("Content-Length: ").append(body.getContentLength()).append("\r\n");
+            } else {
+                head.append("Transfer-Encoding: chunked\r\n");
+                chunked = true;
+            }
+        } else if (request.getMethod().equals("PUT") || request.getMethod().equals("POST")) {
+            head.append("Content-Length: 0\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        if (body != null) {
+            if (chunked) {
+                try (OutputStream chunkedOut = new BufferedOutputStream(new ChunkedOutputStream(out), BUFFER_SIZE)) {
+                    body.writeTo(chunkedOut);
+                }
+            } else {
+                body.writeTo(out);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Read the response head and wrap the body so that closing it gives the connection back to the pool
+     */
+    HttpResponse readResponse(HttpRequest request, ConnectionPool pool) throws IOException {
+        String statusLine;
+        int statusCode;
+        Map<String, String> headers;
+        do {
+            statusLine = readLine();
+            if (statusLine == null) {
+                throw new EOFException("Connection closed by " + host + " before the response");
+            }
+            if (!statusLine.startsWith("HTTP/1.") || statusLine.length() < 12) {
+                throw new ProtocolException("Unexpected status line: " + statusLine);
+            }
+            try {
+                statusCode = Integer.parseInt(statusLine.substring(9, 12));
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Unexpected status line: " + statusLine);
+            }
+            headers = readHeaders();
+        } while (statusCode >= 100 && statusCode < 200);
+
+        String connectionHeader = headers.get("Connection");
+        boolean keepAlive = statusLine.startsWith("HTTP/1.1")
+            ? !"close".equalsIgnoreCase(connectionHeader)
+            : "keep-alive".equalsIgnoreCase(connectionHeader);
+
+        ResponseBodyInputStream body;
+        String transferEncoding = headers.get("Transfer-Encoding");
+        String contentLength = headers.get("Content-Length");
+        if (request.getMethod().equals("HEAD") || statusCode == 204 || statusCode == 304) {
+            body = new ResponseBodyInputStream(this, pool, ResponseBodyInputStream.Mode.FIXED, 0, keepAlive);
+        } else if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            body = new ResponseBodyInputStream(this, pool, ResponseBodyInputStream.Mode.CHUNKED, 0, keepAlive);
+        } else if (contentLength != null) {
+            long length;
+            try {
+                length = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid Content-Length: " + contentLength);
+            }
+            body = new ResponseBodyInputStream(this, pool, ResponseBodyInputStream.Mode.FIXED, length, keepAlive);
+        } else {
+            body = new ResponseBodyInputStream(this, pool, ResponseBodyInputStream.Mode.UNTIL_CLOSE, 0, false);
+        }
+        return new HttpResponse(statusCode, headers, body);
+    }
+
+    InputStream getInputStream() {
+        return in;
+    }
+
+    /**
+     * Read a CRLF (or LF) terminated line
+     *
+     * @return the line without terminator, or null when the stream ended before any byte
+     */
+    String readLine() throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            receivedData = true;
+            if (b == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new ProtocolException("Header line too long");
+            }
+            line.append((char) b);
+        }
+        if (line.length() == 0) {
+            return null;
+        }
+        throw new EOFException("Connection closed by " + host + " in the middle of a line");
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String line;
+        while ((line = readLine()) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new ProtocolException("Malformed header: " + line);
+            }
+            String name = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            headers.merge(name, value, (previous, next) -> previous + ", " + next);
+        }
+        if (line == null) {
+            throw new EOFException("Connection closed by " + host + " in the middle of the headers");
+        }
+        return headers;
+    }
+
+    private static final class ChunkedOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        ChunkedOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            out.write((Integer.toHexString(len) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.write(b, off, len);
+            out.write('\r');
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+}
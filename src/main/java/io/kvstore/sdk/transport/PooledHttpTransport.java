@@ -0,0 +1,324 @@
+package io.kvstore.sdk.transport;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.ProxySelector;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default {@link HttpTransport}: HTTP/1.1 over a bounded pool of keep-alive connections per host,
+ * so that consecutive requests skip the TCP and TLS handshakes.
+ * <p>
+ * Like {@link java.net.HttpURLConnection}, it connects through the proxies chosen by the default {@link ProxySelector},
+ * i.e. the ones of the {@code http.proxyHost}, {@code https.proxyHost}, {@code http.nonProxyHosts} and
+ * {@code socksProxyHost} system properties, tunnelling the {@code https} requests with CONNECT; proxies requiring
+ * authentication are not supported. It follows the redirections of GET and HEAD requests to the same scheme.
+ * <pre>
+ * KVStoreClient client = KVStore.instance(APIToken, KVStore.ENV.PRODUCTION, PooledHttpTransport.builder()
+ *     .setMaxConnectionsPerHost(32)
+ *     .setIdleTimeout(Duration.ofSeconds(60))
+ *     .build());
+ * </pre>
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    public static class Builder {
+        private int maxConnectionsPerHost = 20;
+        private int maxRequestsPerConnection = 0;
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private Duration poolTimeout = Duration.ofSeconds(5);
+        private SSLSocketFactory sslSocketFactory;
+        private ProxySelector proxySelector;
+        private boolean useDefaultProxySelector = true;
+        private boolean followRedirects = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the maximum number of connections, either idle or in use, opened towards the same host (default 20)
+         *
+         * @param maxConnectionsPerHost the pool size
+         * @return the Builder itself
+         */
+        public Builder setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            if (maxConnectionsPerHost <= 0) {
+                throw new IllegalArgumentException("maxConnectionsPerHost must be positive");
+            }
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Set how many requests a connection serves before being closed (default 0, unlimited)
+         *
+         * @param maxRequestsPerConnection the maximum number of requests, 0 for no limit
+         * @return the Builder itself
+         */
+        public Builder setMaxRequestsPerConnection(int maxRequestsPerConnection) {
+            if (maxRequestsPerConnection < 0) {
+                throw new IllegalArgumentException("maxRequestsPerConnection must not be negative");
+            }
+            this.maxRequestsPerConnection = maxRequestsPerConnection;
+            return this;
+        }
+
+        /**
+         * Set how long an unused connection is kept in the pool before being evicted (default 30 seconds)
+         *
+         * @param idleTimeout the idle timeout
+         * @return the Builder itself
+         */
+        public Builder setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout the timeout of TCP connects (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param readTimeout the maximum time of inactivity while reading a response (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * @param poolTimeout how long to wait for a connection when the pool is exhausted (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setPoolTimeout(Duration poolTimeout) {
+            this.poolTimeout = poolTimeout;
+            return this;
+        }
+
+        /**
+         * @param sslSocketFactory the factory of TLS sockets (default the JVM one)
+         * @return the Builder itself
+         */
+        public Builder setSslSocketFactory(SSLSocketFactory sslSocketFactory) {
+            this.sslSocketFactory = sslSocketFactory;
+            return this;
+        }
+
+        /**
+         * @param proxySelector the selector of the proxy of each host, or null to always connect directly
+         *                      (default the JVM one, at the time of each connect)
+         * @return the Builder itself
+         */
+        public Builder setProxySelector(ProxySelector proxySelector) {
+            this.proxySelector = proxySelector;
+            this.useDefaultProxySelector = false;
+            return this;
+        }
+
+        /**
+         * @param followRedirects whether to follow the redirections of GET and HEAD requests to the same scheme (default true)
+         * @return the Builder itself
+         */
+        public Builder setFollowRedirects(boolean followRedirects) {
+            this.followRedirects = followRedirects;
+            return this;
+        }
+
+        public PooledHttpTransport build() {
+            return new PooledHttpTransport(this);
+        }
+    }
+
+    /**
+     * The methods which can be sent again when a stale connection fails: the server may have processed the request
+     * before resetting the connection, so applying it twice must have the same effect as once
+     */
+    private static final Set<String> IDEMPOTENT_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "GET", "HEAD", "PUT", "DELETE", "OPTIONS")));
+
+    private static final Set<Integer> REDIRECT_STATUSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(301, 302, 303, 307, 308)));
+    private static final int MAX_REDIRECTS = 20;
+
+    private final int maxConnectionsPerHost;
+    private final int maxRequestsPerConnection;
+    private final long idleTimeoutNanos;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long poolTimeoutNanos;
+    private final SSLSocketFactory sslSocketFactory;
+    private final ProxySelector proxySelector;
+    private final boolean useDefaultProxySelector;
+    private final boolean followRedirects;
+
+    private final ConcurrentMap<HttpHost, ConnectionPool> pools = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong reusedRequests = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private volatile boolean closed;
+
+    protected PooledHttpTransport(Builder builder) {
+        this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+        this.maxRequestsPerConnection = builder.maxRequestsPerConnection;
+        this.idleTimeoutNanos = builder.idleTimeout.toNanos();
+        this.connectTimeoutMillis = toMillis(builder.connectTimeout);
+        this.readTimeoutMillis = toMillis(builder.readTimeout);
+        this.poolTimeoutNanos = builder.poolTimeout.toNanos();
+        this.sslSocketFactory = builder.sslSocketFactory != null
+            ? builder.sslSocketFactory
+            : (SSLSocketFactory) SSLSocketFactory.getDefault();
+        this.proxySelector = builder.proxySelector;
+        this.useDefaultProxySelector = builder.useDefaultProxySelector;
+        this.followRedirects = builder.followRedirects;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        HttpResponse response = send(request);
+        for (int redirects = 0; followRedirects && redirects < MAX_REDIRECTS; redirects++) {
+            HttpRequest redirected = redirect(request, response);
+            if (redirected == null) {
+                break;
+            }
+            response.close();
+            request = redirected;
+            response = send(request);
+        }
+        return response;
+    }
+
+    private HttpResponse send(HttpRequest request) throws IOException {
+        if (closed) {
+            throw new IOException("Transport closed");
+        }
+        ConnectionPool pool = pools.get(request.getHost());
+        if (pool == null) {
+            // computeIfAbsent locks the bin even when the key is present, so it is only used for the first request
+            pool = pools.computeIfAbsent(request.getHost(), host -> new ConnectionPool(host, this));
+        }
+        requests.incrementAndGet();
+
+        while (true) {
+            PooledConnection connection = pool.acquire();
+            boolean reused = connection.getRequestCount() > 0;
+            if (reused) {
+                reusedRequests.incrementAndGet();
+            }
+            try {
+                connection.writeRequest(request);
+                return connection.readResponse(request, pool);
+            } catch (IOException | RuntimeException e) {
+                pool.release(connection, false);
+                // a pooled connection may have been closed by the server while idle: the request most likely never reached it,
+                // and it is sent again over another connection unless it isn't idempotent
+                if (!reused || connection.hasReceivedData() || e instanceof SocketTimeoutException || e instanceof RuntimeException
+                    || !IDEMPOTENT_METHODS.contains(request.getMethod())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the counters of the connections and requests handled so far
+     */
+    public ConnectionPoolStats getStats() {
+        int idle = 0;
+        int leased = 0;
+        for (ConnectionPool pool : pools.values()) {
+            idle += pool.getIdleCount();
+            leased += pool.getLeasedCount();
+        }
+        return new ConnectionPoolStats(requests.get(), reusedRequests.get(), connectionsCreated.get(), idle, leased);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (ConnectionPool pool : pools.values()) {
+            pool.close();
+        }
+    }
+
+    PooledConnection openConnection(HttpHost host) throws IOException {
+        return PooledConnection.open(host, connectTimeoutMillis, readTimeoutMillis, sslSocketFactory,
+            useDefaultProxySelector ? ProxySelector.getDefault() : proxySelector);
+    }
+
+    /**
+     * @return the request to send to the Location of a redirection, or null when the response is not one to follow
+     */
+    private static HttpRequest redirect(HttpRequest request, HttpResponse response) throws IOException {
+        String location = response.getHeader("Location");
+        if (!REDIRECT_STATUSES.contains(response.getStatusCode()) || location == null
+            || !(request.getMethod().equals("GET") || request.getMethod().equals("HEAD"))) {
+            return null;
+        }
+        HttpHost host = request.getHost();
+        URI target;
+        try {
+            target = new URI(host.getScheme(), null, host.getHostName(), host.getPort(), "/", null, null).resolve(request.getPath()).resolve(location);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Invalid Location of the redirection: " + location, e);
+        }
+        if (!host.getScheme().equalsIgnoreCase(target.getScheme()) || target.getHost() == null) {
+            // like HttpURLConnection, which doesn't switch between http and https
+            return null;
+        }
+        int port = target.getPort() != -1 ? target.getPort() : host.isSecure() ? 443 : 80;
+        String path = (target.getRawPath() == null || target.getRawPath().isEmpty() ? "/" : target.getRawPath())
+            + (target.getRawQuery() != null ? "?" + target.getRawQuery() : "");
+        HttpRequest.Builder redirected = HttpRequest.builder(request.getMethod(), new HttpHost(host.getScheme(), target.getHost(), port), path);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            redirected.setHeader(header.getKey(), header.getValue());
+        }
+        return redirected.build();
+    }
+
+    void onConnectionCreated() {
+        connectionsCreated.incrementAndGet();
+    }
+
+    int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    int getMaxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
+    long getIdleTimeoutNanos() {
+        return idleTimeoutNanos;
+    }
+
+    long getPoolTimeoutNanos() {
+        return poolTimeoutNanos;
+    }
+
+    private static int toMillis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+
+}
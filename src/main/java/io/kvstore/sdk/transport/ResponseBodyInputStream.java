@@ -0,0 +1,173 @@
+package io.kvstore.sdk.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+
+/**
+ * Response body framed by Content-Length, chunked encoding or connection close.
+ * Closing it gives the connection back to the pool when the body has been fully consumed.
+ */
+final class ResponseBodyInputStream extends InputStream {
+
+    enum Mode {FIXED, CHUNKED, UNTIL_CLOSE}
+
+    /**
+     * Maximum number of unread bytes we are willing to skip to keep a connection alive
+     */
+    private static final long MAX_DRAIN = 64 * 1024;
+
+    private final PooledConnection connection;
+    private final ConnectionPool pool;
+    private final InputStream in;
+    private final Mode mode;
+    private final boolean keepAlive;
+
+    private long remaining;
+    private boolean firstChunk = true;
+    private boolean eof;
+    private boolean broken;
+    private boolean closed;
+    private boolean released;
+
+    ResponseBodyInputStream(PooledConnection connection, ConnectionPool pool, Mode mode, long length, boolean keepAlive) {
+        this.connection = connection;
+        this.pool = pool;
+        this.in = connection.getInputStream();
+        this.mode = mode;
+        this.keepAlive = keepAlive;
+        this.remaining = length;
+        this.eof = mode == Mode.FIXED && length == 0;
+        if (eof) {
+            release();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Response body already closed");
+        }
+        if (eof) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        try {
+            switch (mode) {
+                case FIXED:
+                    return readFixed(b, off, len);
+                case CHUNKED:
+                    return readChunked(b, off, len);
+                default:
+                    int n = in.read(b, off, len);
+                    if (n == -1) {
+                        eof = true;
+                    }
+                    return n;
+            }
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+            throw e;
+        }
+    }
+
+    private int readFixed(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, (int) Math.min(len, remaining));
+        if (n == -1) {
+            throw new EOFException("Connection closed with " + remaining + " bytes of the response body still to be read");
+        }
+        remaining -= n;
+        if (remaining == 0) {
+            eof = true;
+            release();
+        }
+        return n;
+    }
+
+    private int readChunked(byte[] b, int off, int len) throws IOException {
+        if (remaining == 0) {
+            if (!firstChunk && !"".equals(connection.readLine())) {
+                throw new ProtocolException("Missing CRLF after chunk");
+            }
+            firstChunk = false;
+            String sizeLine = connection.readLine();
+            if (sizeLine == null) {
+                throw new EOFException("Connection closed before the end of the chunked body");
+            }
+            int extension = sizeLine.indexOf(';');
+            try {
+                remaining = Long.parseLong((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid chunk size: " + sizeLine);
+            }
+            if (remaining == 0) {
+                String trailer;
+                while ((trailer = connection.readLine()) != null && !trailer.isEmpty()) {
+                    // trailers are not used by the API
+                }
+                eof = true;
+                release();
+                return -1;
+            }
+        }
+        int n = in.read(b, off, (int) Math.min(len, remaining));
+        if (n == -1) {
+            throw new EOFException("Connection closed in the middle of a chunk");
+        }
+        remaining -= n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed || eof) {
+            return 0;
+        }
+        int available = in.available();
+        return mode == Mode.UNTIL_CLOSE ? available : (int) Math.min(available, remaining);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (!eof && !broken && keepAlive && mode != Mode.UNTIL_CLOSE) {
+            drain();
+        }
+        closed = true;
+        release();
+    }
+
+    private void drain() {
+        byte[] buffer = new byte[4096];
+        long drained = 0;
+        try {
+            int n;
+            while (!eof && drained < MAX_DRAIN && (n = read(buffer, 0, buffer.length)) != -1) {
+                drained += n;
+            }
+        } catch (IOException e) {
+            broken = true;
+        }
+    }
+
+    private void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        pool.release(connection, eof && !broken && keepAlive && mode != Mode.UNTIL_CLOSE);
+    }
+
+}
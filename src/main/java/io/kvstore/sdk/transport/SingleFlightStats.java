@@ -0,0 +1,62 @@
+package io.kvstore.sdk.transport;
+
+/**
+ * Point-in-time counters of a {@link SingleFlightTransport}
+ */
+public final class SingleFlightStats {
+
+    private final long requests;
+    private final long coalesced;
+    private final long timeouts;
+    private final int inFlight;
+
+    SingleFlightStats(long requests, long coalesced, long timeouts, int inFlight) {
+        this.requests = requests;
+        this.coalesced = coalesced;
+        this.timeouts = timeouts;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * @return the number of GET requests actually sent
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of GET requests answered with the response of an identical one already in flight
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * @return the number of callers which gave up waiting for an identical request in flight
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return the number of distinct GET requests in flight
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the ratio of the GET requests that weren't sent thanks to an identical one, 0 when there was none
+     */
+    public double getCoalescedRate() {
+        long total = requests + coalesced;
+        return total == 0 ? 0 : (double) coalesced / total;
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlightStats(requests=" + requests + ", coalesced=" + coalesced + ", timeouts=" + timeouts
+            + ", inFlight=" + inFlight + ")";
+    }
+
+}
@@ -0,0 +1,229 @@
+package io.kvstore.sdk.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an {@link HttpTransport} so that concurrent identical GET requests share a single exchange,
+ * i.e. when a popular key expires from the caches and many threads read it again at once.
+ * Requests are identical when they have the same host, path, query string and headers.
+ * <p>
+ * The first caller sends the request and reads its whole body; the callers arriving while it is in flight wait for it,
+ * and get a copy of its response or an exception of their own caused by the one it failed with. A waiter gives up after the max wait with a
+ * {@link SocketTimeoutException}, so that a slow response doesn't hold every caller; when the caller sending
+ * the request is interrupted, one of the waiters sends it again, whereas a read timeout is passed on to the waiters like
+ * any other failure. Only requests in flight are shared, nothing is cached.
+ * <pre>
+ * KVStoreClient client = KVStore.instance(APIToken, KVStore.ENV.PRODUCTION, SingleFlightTransport.builder(PooledHttpTransport.builder().build())
+ *     .setMaxWait(Duration.ofSeconds(2))
+ *     .build());
+ * </pre>
+ */
+public class SingleFlightTransport implements HttpTransport {
+
+    public static class Builder {
+        private final HttpTransport delegate;
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * @param maxWait how long a caller waits for the response of an identical request sent by another one (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setMaxWait(Duration maxWait) {
+            if (maxWait.isNegative() || maxWait.isZero()) {
+                throw new IllegalArgumentException("maxWait must be positive");
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public SingleFlightTransport build() {
+            return new SingleFlightTransport(this);
+        }
+    }
+
+    private static final class Key {
+        private final String method;
+        private final HttpHost host;
+        private final String path;
+        private final Map<String, String> headers;
+
+        private Key(HttpRequest request) {
+            this.method = request.getMethod();
+            this.host = request.getHost();
+            this.path = request.getPath();
+            this.headers = request.getHeaders();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return method.equals(other.method) && host.equals(other.host) && path.equals(other.path) && headers.equals(other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, host, path, headers);
+        }
+    }
+
+    /**
+     * The response of an exchange, with its body read, to be copied for each waiter
+     */
+    private static final class Outcome {
+        private final HttpResponse response;
+        private final byte[] body;
+
+        private Outcome(HttpResponse response, byte[] body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        private HttpResponse copy() {
+            return response.withBody(new ByteArrayInputStream(body));
+        }
+    }
+
+    /**
+     * Completes the flight of an interrupted caller: the request may never have been sent, so a waiter sends it again
+     */
+    private static final Outcome ABANDONED = new Outcome(null, null);
+
+    private final HttpTransport delegate;
+    private final long maxWaitNanos;
+    private final ConcurrentMap<Key, CompletableFuture<Outcome>> flights = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    protected SingleFlightTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxWaitNanos = builder.maxWait.toNanos();
+    }
+
+    public static Builder builder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        if (!"GET".equals(request.getMethod())) {
+            return delegate.execute(request);
+        }
+        Key key = new Key(request);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (true) {
+            CompletableFuture<Outcome> flight = new CompletableFuture<>();
+            CompletableFuture<Outcome> current = flights.putIfAbsent(key, flight);
+            if (current == null) {
+                return send(key, flight, request);
+            }
+            Outcome outcome = await(current, deadline, request);
+            if (outcome != ABANDONED) {
+                coalesced.incrementAndGet();
+                return outcome.copy();
+            }
+        }
+    }
+
+    /**
+     * @return the counters of the shared requests
+     */
+    public SingleFlightStats getStats() {
+        return new SingleFlightStats(requests.get(), coalesced.get(), timeouts.get(), flights.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private HttpResponse send(Key key, CompletableFuture<Outcome> flight, HttpRequest request) throws IOException {
+        requests.incrementAndGet();
+        try {
+            HttpResponse response = delegate.execute(request);
+            byte[] body;
+            try {
+                body = readAll(response.getBody());
+            } finally {
+                response.close();
+            }
+            Outcome outcome = new Outcome(response, body);
+            flight.complete(outcome);
+            return outcome.copy();
+        } catch (IOException | RuntimeException | Error e) {
+            if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+                // this caller gave up, not the server: one of the waiters sends the request again
+                flight.complete(ABANDONED);
+            } else {
+                // the waiters get the exception of this caller, a read timeout included
+                flight.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private Outcome await(CompletableFuture<Outcome> flight, long deadline, HttpRequest request) throws IOException {
+        try {
+            return flight.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            throw new SocketTimeoutException("No response to the identical request in flight within "
+                + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms: " + request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the identical request in flight: " + request);
+        } catch (ExecutionException e) {
+            // each waiter throws its own exception, since the stack trace and suppressed exceptions of the shared one
+            // would be changed by every thread rethrowing it
+            Throwable cause = e.getCause();
+            if (cause instanceof SocketTimeoutException) {
+                SocketTimeoutException timeout = new SocketTimeoutException(cause.getMessage());
+                timeout.initCause(cause);
+                throw timeout;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private static byte[] readAll(InputStream body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = body.read(chunk)) > 0) {
+            buffer.write(chunk, 0, n);
+        }
+        return buffer.toByteArray();
+    }
+
+}
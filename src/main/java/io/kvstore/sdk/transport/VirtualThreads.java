@@ -0,0 +1,30 @@
+package io.kvstore.sdk.transport;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to the virtual threads of Java 21. This is the implementation for older runtimes, where they are not available;
+ * the multi-release jar of the SDK replaces it on Java 21 and later.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true when the runtime supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * @param prefix the prefix of the thread names
+     * @return an executor starting a new virtual thread for each task
+     * @throws UnsupportedOperationException when the runtime doesn't support virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+
+}
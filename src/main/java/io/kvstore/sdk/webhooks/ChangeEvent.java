@@ -0,0 +1,63 @@
+package io.kvstore.sdk.webhooks;
+
+import java.util.Date;
+
+/**
+ * A change of an item notified by a webhook
+ */
+public final class ChangeEvent {
+
+    private final String collectionName;
+    private final String key;
+    private final ChangeOperation operation;
+    private final double updatedAt;
+    private final long receivedAtMillis;
+
+    ChangeEvent(String collectionName, String key, ChangeOperation operation, double updatedAt, long receivedAtMillis) {
+        this.collectionName = collectionName;
+        this.key = key;
+        this.operation = operation;
+        this.updatedAt = updatedAt;
+        this.receivedAtMillis = receivedAtMillis;
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * @return the key of the item, or null when the whole collection changed
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public ChangeOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the time of the change on the server, or null when it wasn't sent
+     */
+    public Date getUpdatedAt() {
+        return Double.isNaN(updatedAt) ? null : new Date((long) (updatedAt * 1000));
+    }
+
+    public long getReceivedAtMillis() {
+        return receivedAtMillis;
+    }
+
+    /**
+     * @return the milliseconds between the change on the server and its notification, or -1 when unknown
+     */
+    public long getLagMillis() {
+        return Double.isNaN(updatedAt) ? -1 : Math.max(0, receivedAtMillis - (long) (updatedAt * 1000));
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent(collectionName=" + collectionName + ", key=" + key + ", operation=" + operation
+            + ", updatedAt=" + getUpdatedAt() + ", receivedAtMillis=" + receivedAtMillis + ")";
+    }
+
+}
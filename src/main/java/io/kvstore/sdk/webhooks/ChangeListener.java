@@ -0,0 +1,12 @@
+package io.kvstore.sdk.webhooks;
+
+/**
+ * Subscriber of the changes received by a {@link WebhookReceiver}, called by one of its dispatch threads.
+ * A slow subscriber delays the others and makes the queue drop events when it is full.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    void onChange(ChangeEvent event);
+
+}
@@ -0,0 +1,51 @@
+package io.kvstore.sdk.webhooks;
+
+import java.util.Locale;
+
+/**
+ * The kind of change notified by a webhook
+ */
+public enum ChangeOperation {
+
+    /**
+     * An item was created or its value replaced
+     */
+    PUT,
+
+    /**
+     * An item was deleted
+     */
+    DELETE,
+
+    /**
+     * A change the receiver doesn't know, to be handled as any change of the item
+     */
+    UNKNOWN;
+
+    /**
+     * @param name the operation sent by the server, i.e. "put", "update" or "delete"
+     * @return the matching operation, {@link #UNKNOWN} when not recognized
+     */
+    public static ChangeOperation fromName(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "put":
+            case "create":
+            case "created":
+            case "update":
+            case "updated":
+            case "set":
+                return PUT;
+            case "delete":
+            case "deleted":
+            case "remove":
+            case "removed":
+                return DELETE;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+}
@@ -0,0 +1,539 @@
+package io.kvstore.sdk.webhooks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.kvstore.sdk.cache.CachingCollectionsClient;
+import io.kvstore.sdk.cache.CachingItemsClient;
+import io.kvstore.sdk.cache.PersistentCachingItemsClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Receiver of the change notifications sent to the webhook of collections, to invalidate client-side caches
+ * as soon as an item changes instead of waiting for it to expire.
+ * <p>
+ * A notification is a POST whose JSON body is one change, or an array of changes, with the fields
+ * {@code collection}, {@code key}, {@code operation} ("put" or "delete") and {@code updated_at} (in seconds).
+ * It must carry the webhook secret of the collection in the secret header, or in a {@code secret} field of the body.
+ * <p>
+ * The caches added to the receiver are invalidated by the thread receiving the notification, before it is answered.
+ * The subscribers are called by dispatch threads, started by the first {@link #subscribe}, fed through a bounded
+ * lock-free queue: during a burst exceeding its capacity the extra events are dropped for the subscribers and counted,
+ * but the caches are still invalidated.
+ * <pre>
+ * client.collectionsClient().update("users", new UpdateCollection().setWebhook("https://app.example.com:8090/kvstore").setWebhookSecret(secret));
+ * WebhookReceiver receiver = WebhookReceiver.builder(secret)
+ *     .setAddress(new InetSocketAddress(8090))
+ *     .setPath("/kvstore")
+ *     .build();
+ * receiver.addCache(cachingItemsClient);
+ * receiver.subscribe(event -&gt; log.info("changed: {}", event));
+ * receiver.start();
+ * </pre>
+ * It can also be embedded in an existing HTTP server by passing the requests to {@link #handle(String, InputStream)}.
+ */
+public class WebhookReceiver implements Closeable {
+
+    public static final String DEFAULT_SECRET_HEADER = "X-KVStore-Webhook-Secret";
+
+    public static class Builder {
+        private final String secret;
+        private String secretHeader = DEFAULT_SECRET_HEADER;
+        private InetSocketAddress address = new InetSocketAddress(0);
+        private String path = "/";
+        private int queueCapacity = 4096;
+        private int dispatchThreads = 1;
+        private Duration maxLag = Duration.ofSeconds(5);
+        private int maxBodySize = 1024 * 1024;
+        private JsonFactory jsonFactory;
+
+        private Builder(String secret) {
+            this.secret = Objects.requireNonNull(secret, "secret");
+        }
+
+        /**
+         * @param secretHeader the request header carrying the webhook secret (default {@value #DEFAULT_SECRET_HEADER})
+         * @return the Builder itself
+         */
+        public Builder setSecretHeader(String secretHeader) {
+            this.secretHeader = Objects.requireNonNull(secretHeader, "secretHeader");
+            return this;
+        }
+
+        /**
+         * @param address the address the built-in server listens on once started (default a free port of every interface)
+         * @return the Builder itself
+         */
+        public Builder setAddress(InetSocketAddress address) {
+            this.address = Objects.requireNonNull(address, "address");
+            return this;
+        }
+
+        /**
+         * @param path the path of the webhook on the built-in server (default "/")
+         * @return the Builder itself
+         */
+        public Builder setPath(String path) {
+            if (path == null || !path.startsWith("/")) {
+                throw new IllegalArgumentException("path must start with '/'");
+            }
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * @param queueCapacity the number of events waiting for the subscribers, a power of two (default 4096)
+         * @return the Builder itself
+         */
+        public Builder setQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 2 || Integer.bitCount(queueCapacity) != 1) {
+                throw new IllegalArgumentException("queueCapacity must be a power of two");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param dispatchThreads the number of threads calling the subscribers (default 1). With more than one thread
+         *                        the changes of a key may be seen out of order.
+         * @return the Builder itself
+         */
+        public Builder setDispatchThreads(int dispatchThreads) {
+            if (dispatchThreads <= 0) {
+                throw new IllegalArgumentException("dispatchThreads must be positive");
+            }
+            this.dispatchThreads = dispatchThreads;
+            return this;
+        }
+
+        /**
+         * @param maxLag the delay between a change and its notification beyond which the event is counted as late (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setMaxLag(Duration maxLag) {
+            this.maxLag = Objects.requireNonNull(maxLag, "maxLag");
+            return this;
+        }
+
+        /**
+         * @param maxBodySize the size in bytes of the largest notification accepted (default 1 MB)
+         * @return the Builder itself
+         */
+        public Builder setMaxBodySize(int maxBodySize) {
+            if (maxBodySize <= 0) {
+                throw new IllegalArgumentException("maxBodySize must be positive");
+            }
+            this.maxBodySize = maxBodySize;
+            return this;
+        }
+
+        /**
+         * @param jsonFactory the factory of the parsers of the notifications (default a new JsonFactory)
+         * @return the Builder itself
+         */
+        public Builder setJsonFactory(JsonFactory jsonFactory) {
+            this.jsonFactory = jsonFactory;
+            return this;
+        }
+
+        /**
+         * @return the receiver, dispatching the events handed to {@link WebhookReceiver#handle(String, InputStream)}
+         * but not listening until started
+         */
+        public WebhookReceiver build() {
+            return new WebhookReceiver(this);
+        }
+    }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final byte[] secret;
+    private final String secretHeader;
+    private final InetSocketAddress address;
+    private final String path;
+    private final long maxLagMillis;
+    private final int maxBodySize;
+    private final int dispatchThreads;
+    private final JsonFactory jsonFactory;
+    private final EventQueue<ChangeEvent> queue;
+    private final List<Thread> dispatchers = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Thread> idleDispatchers = new ConcurrentLinkedQueue<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<ChangeEvent>> caches = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong late = new AtomicLong();
+
+    protected WebhookReceiver(Builder builder) {
+        this.secret = builder.secret.getBytes(StandardCharsets.UTF_8);
+        this.secretHeader = builder.secretHeader;
+        this.address = builder.address;
+        this.path = builder.path;
+        this.maxLagMillis = builder.maxLag.toMillis();
+        this.maxBodySize = builder.maxBodySize;
+        this.jsonFactory = builder.jsonFactory != null ? builder.jsonFactory : new JsonFactory();
+        this.queue = new EventQueue<>(builder.queueCapacity);
+        this.dispatchThreads = builder.dispatchThreads;
+    }
+
+    /**
+     * @param secret the webhook secret set on the collections
+     * @return a builder of receivers
+     */
+    public static Builder builder(String secret) {
+        return new Builder(secret);
+    }
+
+    /**
+     * Invalidate the changed items of a cache on every notification
+     *
+     * @param cache the cache, whose items of a collection are all invalidated when the whole collection changed
+     */
+    public void addCache(CachingItemsClient cache) {
+        caches.add(event -> {
+            if (event.getKey() != null) {
+                cache.invalidate(event.getCollectionName(), event.getKey());
+            } else {
+                cache.invalidateCollection(event.getCollectionName());
+            }
+        });
+    }
+
+    /**
+     * Invalidate the changed items of a persistent cache on every notification
+     *
+     * @param cache the cache, whose items of a collection are all invalidated when the whole collection changed
+     */
+    public void addCache(PersistentCachingItemsClient cache) {
+        caches.add(event -> {
+            if (event.getKey() != null) {
+                cache.invalidate(event.getCollectionName(), event.getKey());
+            } else {
+                cache.invalidateCollection(event.getCollectionName());
+            }
+        });
+    }
+
+    /**
+     * Invalidate the info of the changed collections, and the list of collections, on every notification
+     *
+     * @param cache the cache
+     */
+    public void addCache(CachingCollectionsClient cache) {
+        caches.add(event -> cache.invalidate(event.getCollectionName()));
+    }
+
+    /**
+     * @param listener the subscriber to be called with every change event
+     */
+    public void subscribe(ChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+        startDispatchers();
+    }
+
+    /**
+     * @param listener a subscriber
+     * @return true when it was subscribed
+     */
+    public boolean unsubscribe(ChangeListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Listen for notifications on the built-in HTTP server
+     *
+     * @return the receiver itself
+     * @throws IOException if the address can't be bound
+     */
+    public synchronized WebhookReceiver start() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The receiver is closed");
+        }
+        if (server != null) {
+            return this;
+        }
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "kvstore-webhook-http-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpServer server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext(path, this::exchange);
+        server.start();
+        this.executor = executor;
+        this.server = server;
+        return this;
+    }
+
+    /**
+     * @return the port of the built-in server, or -1 when not started
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Handle a notification received by another HTTP server: verify its secret, invalidate the caches
+     * and queue its events for the subscribers
+     *
+     * @param secretHeader the value of the secret header of the request, or null when missing
+     * @param body         the body of the request, read but not closed
+     * @return the HTTP status code to answer with: 204 when accepted, 400 when malformed, 401 when the secret
+     * doesn't match, 413 when the body is too large, in which case the rest of the body is left unread
+     * and the connection should be closed
+     * @throws IOException if the body can't be read
+     */
+    public int handle(String secretHeader, InputStream body) throws IOException {
+        requests.incrementAndGet();
+        byte[] bytes = readBody(body);
+        if (bytes == null) {
+            malformed.incrementAndGet();
+            return 413;
+        }
+
+        long now = System.currentTimeMillis();
+        List<ChangeEvent> events = new ArrayList<>();
+        String bodySecret;
+        try {
+            bodySecret = parse(bytes, now, events);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            malformed.incrementAndGet();
+            return 400;
+        }
+        String presented = secretHeader != null ? secretHeader : bodySecret;
+        if (presented == null || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            rejected.incrementAndGet();
+            return 401;
+        }
+
+        for (ChangeEvent event : events) {
+            publish(event);
+        }
+        return 204;
+    }
+
+    /**
+     * @return the counters of the notifications and events
+     */
+    public WebhookStats getStats() {
+        return new WebhookStats(requests.get(), rejected.get(), malformed.get(), received.get(), delivered.get(),
+            dropped.get(), late.get(), queue.size());
+    }
+
+    /**
+     * Stop listening and dispatching: the events still queued are not delivered
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+        for (Thread dispatcher : dispatchers) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookReceiver(address=" + address + ", path=" + path + ", stats=" + getStats() + ")";
+    }
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            int statusCode = handle(exchange.getRequestHeaders().getFirst(secretHeader), exchange.getRequestBody());
+            if (statusCode == 413) {
+                exchange.getResponseHeaders().set("Connection", "close");
+            }
+            exchange.sendResponseHeaders(statusCode, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private synchronized void startDispatchers() {
+        if (closed || !dispatchers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < dispatchThreads; i++) {
+            Thread thread = new Thread(this::dispatch, "kvstore-webhook-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            dispatchers.add(thread);
+            thread.start();
+        }
+    }
+
+    private void publish(ChangeEvent event) {
+        received.incrementAndGet();
+        long lag = event.getLagMillis();
+        if (lag > maxLagMillis) {
+            late.incrementAndGet();
+        }
+        for (Consumer<ChangeEvent> cache : caches) {
+            try {
+                cache.accept(event);
+            } catch (RuntimeException e) {
+                // a broken cache must not fail the notification
+            }
+        }
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        Thread idle = idleDispatchers.poll();
+        if (idle != null) {
+            LockSupport.unpark(idle);
+        }
+    }
+
+    private void dispatch() {
+        Thread self = Thread.currentThread();
+        while (!closed) {
+            ChangeEvent event = queue.poll();
+            if (event == null) {
+                idleDispatchers.add(self);
+                // polled again once registered, so that an event offered meanwhile is never left waiting
+                event = queue.poll();
+                if (event == null) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                    idleDispatchers.remove(self);
+                    continue;
+                }
+                idleDispatchers.remove(self);
+            }
+            for (ChangeListener listener : listeners) {
+                try {
+                    listener.onChange(event);
+                } catch (RuntimeException e) {
+                    // a broken listener must not fail the dispatch
+                }
+            }
+            delivered.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the body, or null when larger than the max body size
+     */
+    private byte[] readBody(InputStream body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = body.read(chunk)) != -1) {
+            if (out.size() + n > maxBodySize) {
+                // not drained, so that a client streaming without end can't hold the thread: the connection is closed instead
+                return null;
+            }
+            out.write(chunk, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the secret field of the body, or null
+     */
+    private String parse(byte[] body, long now, List<ChangeEvent> events) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    events.add(parseEvent(parser, now, null));
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new IllegalArgumentException("Expected an array of changes");
+                }
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a change");
+            }
+            String[] bodySecret = new String[1];
+            events.add(parseEvent(parser, now, bodySecret));
+            return bodySecret[0];
+        }
+    }
+
+    private static ChangeEvent parseEvent(JsonParser parser, long now, String[] bodySecret) throws IOException {
+        String collectionName = null;
+        String key = null;
+        ChangeOperation operation = ChangeOperation.UNKNOWN;
+        double updatedAt = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getText();
+            parser.nextToken();
+            switch (field) {
+                case "collection":
+                case "collection_name":
+                    collectionName = parser.getValueAsString();
+                    break;
+                case "key":
+                case "item":
+                    key = parser.getValueAsString();
+                    break;
+                case "operation":
+                case "event":
+                    operation = ChangeOperation.fromName(parser.getValueAsString());
+                    break;
+                case "updated_at":
+                    updatedAt = parser.currentToken().isNumeric() ? parser.getDoubleValue() : Double.NaN;
+                    break;
+                case "secret":
+                    if (bodySecret != null) {
+                        bodySecret[0] = parser.getValueAsString();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (collectionName == null) {
+            throw new IllegalArgumentException("Missing collection");
+        }
+        return new ChangeEvent(collectionName, key, operation, updatedAt, now);
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.kvstore.sdk.webhooks;
+
+/**
+ * Point-in-time counters of a {@link WebhookReceiver}
+ */
+public final class WebhookStats {
+
+    private final long requests;
+    private final long rejected;
+    private final long malformed;
+    private final long received;
+    private final long delivered;
+    private final long dropped;
+    private final long late;
+    private final int queued;
+
+    WebhookStats(long requests, long rejected, long malformed, long received, long delivered, long dropped, long late, int queued) {
+        this.requests = requests;
+        this.rejected = rejected;
+        this.malformed = malformed;
+        this.received = received;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.late = late;
+        this.queued = queued;
+    }
+
+    /**
+     * @return the number of notifications received, valid or not
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of notifications refused because of a missing or wrong secret
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the number of notifications refused because their body couldn't be parsed
+     */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    /**
+     * @return the number of change events parsed
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return the number of change events handed to the subscribers
+     */
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * @return the number of change events not handed to the subscribers because the queue was full.
+     * The caches were invalidated all the same.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return the number of change events received later than the max lag after the change
+     */
+    public long getLate() {
+        return late;
+    }
+
+    /**
+     * @return the number of change events waiting to be dispatched
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookStats(requests=" + requests + ", rejected=" + rejected + ", malformed=" + malformed + ", received=" + received
+            + ", delivered=" + delivered + ", dropped=" + dropped + ", late=" + late + ", queued=" + queued + ")";
+    }
+
+}
@@ -0,0 +1,434 @@
+package io.kvstore.sdk.transport;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link AsyncHttpTransport} multiplexing the requests as HTTP/2 streams over a few connections,
+ * rather than holding one HTTP/1.1 connection per request in flight. Plain {@code http} hosts are upgraded to h2c,
+ * and hosts not speaking HTTP/2 are still served over HTTP/1.1 by the same transport.
+ * <p>
+ * At most {@code maxConcurrentStreams} requests are in flight on each connection, the others wait in a queue without
+ * holding any thread, and are given to the least loaded connection as soon as one of its streams completes.
+ * A stream completes when its response is closed, so responses must be closed as with any other transport.
+ * This implementation requires Java 11, and is the one of the multi-release jar of the SDK on Java 11 and later.
+ * <p>
+ * The flow-control windows advertised to the server, i.e. how many bytes of the response bodies it may send before
+ * being acknowledged, can't be set per client by the JDK: they are the JVM-wide {@code -Djdk.httpclient.windowsize}
+ * (16 MB by default) and {@code -Djdk.httpclient.connectionWindowSize} (32 MB by default) system properties, shared by
+ * every {@code java.net.http.HttpClient} of the JVM.
+ * <pre>
+ * KVStoreClient client = KVStore.builder()
+ *     .setApiToken(APIToken)
+ *     .setTransport(Http2Transport.builder().setConnections(2).setMaxConcurrentStreams(100).build())
+ *     .setMaxInFlight(200)
+ *     .build();
+ * </pre>
+ */
+public class Http2Transport implements AsyncHttpTransport {
+
+    public static class Builder {
+        private int connections = 1;
+        private int maxConcurrentStreams = 100;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private SSLContext sslContext;
+
+        private Builder() {
+        }
+
+        /**
+         * @param connections the number of HTTP/2 connections opened towards the same host (default 1)
+         * @return the Builder itself
+         */
+        public Builder setConnections(int connections) {
+            if (connections <= 0) {
+                throw new IllegalArgumentException("connections must be positive");
+            }
+            this.connections = connections;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentStreams the maximum number of requests in flight on a connection, which must not exceed
+         *                             the limit advertised by the server (default 100)
+         * @return the Builder itself
+         */
+        public Builder setMaxConcurrentStreams(int maxConcurrentStreams) {
+            if (maxConcurrentStreams <= 0) {
+                throw new IllegalArgumentException("maxConcurrentStreams must be positive");
+            }
+            this.maxConcurrentStreams = maxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout the timeout of TCP connects (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param responseTimeout the maximum time between sending a request and receiving its response head (default 5 seconds)
+         * @return the Builder itself
+         */
+        public Builder setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        /**
+         * @param sslContext the context of the TLS connections (default the JVM one)
+         * @return the Builder itself
+         */
+        public Builder setSslContext(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * @return the transport, opening its connections on the first requests
+         * @throws UnsupportedOperationException when the runtime is older than Java 11
+         */
+        public Http2Transport build() {
+            return new Http2Transport(this);
+        }
+    }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * The headers managed by the HTTP client itself, or forbidden by HTTP/2
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "content-length", "date", "expect", "from", "host", "keep-alive", "te", "transfer-encoding",
+        "upgrade", "via", "warning"));
+
+    private static final class Task {
+        private final HttpRequest request;
+        private final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        private Task(HttpRequest request) {
+            this.request = request;
+        }
+    }
+
+    private static final class Connection {
+        private final HttpClient client;
+        private final AtomicInteger streams = new AtomicInteger();
+        private final ConcurrentMap<HttpHost, CompletableFuture<Void>> opened = new ConcurrentHashMap<>();
+
+        private Connection(HttpClient client) {
+            this.client = client;
+        }
+    }
+
+    private final Connection[] connections;
+    private final int maxConcurrentStreams;
+    private final Duration responseTimeout;
+    private final ExecutorService executor;
+
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong http1Responses = new AtomicLong();
+
+    protected Http2Transport(Builder builder) {
+        this.maxConcurrentStreams = builder.maxConcurrentStreams;
+        this.responseTimeout = builder.responseTimeout;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "kvstore-http2-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connections = new Connection[builder.connections];
+        for (int i = 0; i < connections.length; i++) {
+            HttpClient.Builder client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(builder.connectTimeout)
+                .executor(executor);
+            if (builder.sslContext != null) {
+                client.sslContext(builder.sslContext);
+            }
+            connections[i] = new Connection(client.build());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true when the runtime supports this transport
+     */
+    public static boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        CompletableFuture<HttpResponse> future = executeAsync(request);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        Task task = new Task(request);
+        queue.add(task);
+        dispatch();
+        return task.future;
+    }
+
+    /**
+     * @return the number of connections the requests are spread over
+     */
+    public int getConnections() {
+        return connections.length;
+    }
+
+    /**
+     * @return the number of requests being sent right now
+     */
+    public int getInFlight() {
+        int inFlight = 0;
+        for (Connection connection : connections) {
+            inFlight += connection.streams.get();
+        }
+        return inFlight;
+    }
+
+    /**
+     * @return the number of requests waiting for a free stream
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of requests sent
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of responses received over HTTP/1.1, from hosts not speaking HTTP/2
+     */
+    public long getHttp1Responses() {
+        return http1Responses.get();
+    }
+
+    private void dispatch() {
+        while (!queue.isEmpty()) {
+            Connection connection = leastLoaded();
+            int current = connection.streams.get();
+            if (current >= maxConcurrentStreams) {
+                // the completion of a running request will dispatch the queued ones
+                return;
+            }
+            if (!connection.streams.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Task task = queue.poll();
+            if (task == null || task.future.isDone()) {
+                connection.streams.decrementAndGet();
+                continue;
+            }
+            open(connection, task);
+        }
+    }
+
+    private Connection leastLoaded() {
+        Connection leastLoaded = connections[0];
+        for (int i = 1; i < connections.length; i++) {
+            if (connections[i].streams.get() < leastLoaded.streams.get()) {
+                leastLoaded = connections[i];
+            }
+        }
+        return leastLoaded;
+    }
+
+    /**
+     * Send the first request to a host alone, and the others once it is answered: sent together, they would each open
+     * their own connection to negotiate HTTP/2, rather than share the one of the first request
+     */
+    private void open(Connection connection, Task task) {
+        HttpHost host = task.request.getHost();
+        CompletableFuture<Void> opened = connection.opened.get(host);
+        if (opened == null) {
+            CompletableFuture<Void> opening = new CompletableFuture<>();
+            opened = connection.opened.putIfAbsent(host, opening);
+            if (opened == null) {
+                send(connection, task, opening);
+                return;
+            }
+        }
+        if (opened.isDone()) {
+            send(connection, task, null);
+        } else {
+            opened.whenComplete((ignored, failure) -> send(connection, task, null));
+        }
+    }
+
+    private void send(Connection connection, Task task, CompletableFuture<Void> opening) {
+        CompletableFuture<java.net.http.HttpResponse<InputStream>> exchange;
+        try {
+            exchange = connection.client.sendAsync(toHttpRequest(task.request), java.net.http.HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException | RuntimeException e) {
+            if (opening != null) {
+                connection.opened.remove(task.request.getHost(), opening);
+                opening.complete(null);
+            }
+            connection.streams.decrementAndGet();
+            task.future.completeExceptionally(e);
+            dispatch();
+            return;
+        }
+        requests.incrementAndGet();
+        exchange.whenComplete((response, failure) -> {
+            if (opening != null) {
+                if (failure != null) {
+                    // the next request opens it again
+                    connection.opened.remove(task.request.getHost(), opening);
+                }
+                opening.complete(null);
+            }
+            if (failure != null) {
+                connection.streams.decrementAndGet();
+                task.future.completeExceptionally(unwrap(failure));
+                dispatch();
+                return;
+            }
+            if (response.version() == HttpClient.Version.HTTP_1_1) {
+                http1Responses.incrementAndGet();
+            }
+            // the stream stays open until the body is read or reset, which closing the response does
+            HttpResponse converted = toHttpResponse(response, new FilterInputStream(response.body()) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+                    try {
+                        super.close();
+                    } finally {
+                        connection.streams.decrementAndGet();
+                        dispatch();
+                    }
+                }
+            });
+            if (!task.future.complete(converted)) {
+                try {
+                    converted.close();
+                } catch (IOException e) {
+                    // the caller gave up on the response
+                }
+            }
+        });
+    }
+
+    private java.net.http.HttpRequest toHttpRequest(HttpRequest request) throws IOException {
+        HttpHost host = request.getHost();
+        java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create(host.getScheme() + "://" + host.getHostHeader() + request.getPath()))
+            .timeout(responseTimeout);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        HttpRequest.Body body = request.getBody();
+        if (body == null) {
+            return builder.method(request.getMethod(), java.net.http.HttpRequest.BodyPublishers.noBody()).build();
+        }
+        if (body.getContentType() != null && request.getHeader("Content-Type") == null) {
+            builder.header("Content-Type", body.getContentType());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.getContentLength() > 0 ? (int) body.getContentLength() : 256);
+        body.writeTo(bytes);
+        return builder.method(request.getMethod(), java.net.http.HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray())).build();
+    }
+
+    private static HttpResponse toHttpResponse(java.net.http.HttpResponse<InputStream> response, InputStream body) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getKey().startsWith(":")) {
+                headers.put(header.getKey(), String.join(", ", header.getValue()));
+            }
+        }
+        return new HttpResponse(response.statusCode(), headers, body);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof ExecutionException) && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure instanceof CancellationException ? new InterruptedIOException("Request cancelled") : failure;
+    }
+
+    /**
+     * Stop the threads of the transport; the connections are closed once its clients are collected
+     */
+    @Override
+    public void close() {
+        for (Connection connection : connections) {
+            if (connection.client instanceof AutoCloseable) {
+                // Java 21 and later close the connections at once
+                try {
+                    ((AutoCloseable) connection.client).close();
+                } catch (Exception e) {
+                    // nothing more to release
+                }
+            }
+        }
+        executor.shutdown();
+    }
+
+}
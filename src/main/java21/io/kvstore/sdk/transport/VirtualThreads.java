@@ -0,0 +1,30 @@
+package io.kvstore.sdk.transport;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to the virtual threads of Java 21. This is the implementation packaged under {@code META-INF/versions/21}
+ * of the multi-release jar.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true when the runtime supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * @param prefix the prefix of the thread names
+     * @return an executor starting a new virtual thread for each task
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory());
+    }
+
+}
@@ -0,0 +1,306 @@
+package io.kvstore.sdk.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PooledHttpTransportTest {
+
+    private HttpServer server;
+    private HttpHost host;
+    private final AtomicInteger exchanges = new AtomicInteger();
+    private volatile String lastPath;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/moved", exchange -> {
+            exchanges.incrementAndGet();
+            exchange.getResponseHeaders().set("Location", "/collections/books?offset=1");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.createContext("/", exchange -> {
+            lastPath = exchange.getRequestURI().toString();
+            exchanges.incrementAndGet();
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        host = new HttpHost("http", "127.0.0.1", server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void reusesConnectionForSequentialRequests() throws IOException {
+        try (PooledHttpTransport transport = PooledHttpTransport.builder().build()) {
+            for (int i = 0; i < 10; i++) {
+                try (HttpResponse response = transport.execute(HttpRequest.builder("GET", host, "/collections/books").build())) {
+                    assertEquals(200, response.getStatusCode());
+                    assertEquals("{}", read(response.getBody()));
+                }
+            }
+            ConnectionPoolStats stats = transport.getStats();
+            assertEquals(10, stats.getRequests());
+            assertEquals(9, stats.getReusedRequests());
+            assertEquals(1, stats.getConnectionsCreated());
+            assertEquals(1, stats.getIdleConnections());
+            assertEquals(0, stats.getLeasedConnections());
+        }
+        assertEquals(10, exchanges.get());
+    }
+
+    @Test
+    public void opensOneConnectionPerConcurrentRequest() throws IOException {
+        try (PooledHttpTransport transport = PooledHttpTransport.builder().build()) {
+            HttpResponse first = transport.execute(HttpRequest.builder("GET", host, "/collections/a").build());
+            HttpResponse second = transport.execute(HttpRequest.builder("GET", host, "/collections/b").build());
+            assertEquals(2, transport.getStats().getLeasedConnections());
+            first.close();
+            second.close();
+
+            try (HttpResponse third = transport.execute(HttpRequest.builder("GET", host, "/collections/c").build())) {
+                assertEquals(200, third.getStatusCode());
+            }
+            ConnectionPoolStats stats = transport.getStats();
+            assertEquals(3, stats.getRequests());
+            assertEquals(1, stats.getReusedRequests());
+            assertEquals(2, stats.getConnectionsCreated());
+            assertEquals(2, stats.getIdleConnections());
+        }
+    }
+
+    @Test
+    public void resendsIdempotentRequestOnStaleConnection() throws IOException {
+        try (StaleConnectionServer stale = new StaleConnectionServer();
+             PooledHttpTransport transport = PooledHttpTransport.builder().build()) {
+            HttpHost staleHost = new HttpHost("http", "127.0.0.1", stale.getPort());
+            transport.execute(HttpRequest.builder("GET", staleHost, "/collections/a").build()).close();
+
+            try (HttpResponse response = transport.execute(HttpRequest.builder("GET", staleHost, "/collections/a").build())) {
+                assertEquals(200, response.getStatusCode());
+            }
+            assertEquals(3, stale.requests.get());
+            assertEquals(2, transport.getStats().getConnectionsCreated());
+        }
+    }
+
+    @Test
+    public void doesNotResendPostOnStaleConnection() throws IOException {
+        try (StaleConnectionServer stale = new StaleConnectionServer();
+             PooledHttpTransport transport = PooledHttpTransport.builder().build()) {
+            HttpHost staleHost = new HttpHost("http", "127.0.0.1", stale.getPort());
+            transport.execute(HttpRequest.builder("GET", staleHost, "/collections/a").build()).close();
+
+            HttpRequest post = HttpRequest.builder("POST", staleHost, "/collections/a/items/k")
+                .setBody(HttpRequest.Body.of("v".getBytes(StandardCharsets.UTF_8), "text/plain"))
+                .build();
+            try {
+                transport.execute(post).close();
+                fail("The POST must not be sent again");
+            } catch (IOException e) {
+                // expected
+            }
+            assertEquals(2, stale.requests.get());
+            assertEquals(1, transport.getStats().getConnectionsCreated());
+        }
+    }
+
+    @Test
+    public void followsRedirectionOfGet() throws IOException {
+        try (PooledHttpTransport transport = PooledHttpTransport.builder().build()) {
+            try (HttpResponse response = transport.execute(HttpRequest.builder("GET", host, "/moved").build())) {
+                assertEquals(200, response.getStatusCode());
+                assertEquals("{}", read(response.getBody()));
+            }
+            assertEquals("/collections/books?offset=1", lastPath);
+
+            HttpRequest post = HttpRequest.builder("POST", host, "/moved")
+                .setBody(HttpRequest.Body.of("v".getBytes(StandardCharsets.UTF_8), "text/plain"))
+                .build();
+            try (HttpResponse response = transport.execute(post)) {
+                assertEquals(301, response.getStatusCode());
+            }
+        }
+        assertEquals(3, exchanges.get());
+    }
+
+    @Test
+    public void sendsAbsoluteUriThroughHttpProxy() throws IOException {
+        try (ProxyServer proxy = new ProxyServer("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}");
+             PooledHttpTransport transport = PooledHttpTransport.builder().setProxySelector(proxy).build()) {
+            // never resolved by the client
+            HttpHost unresolved = new HttpHost("http", "api.kvstore.invalid", 80);
+            try (HttpResponse response = transport.execute(HttpRequest.builder("GET", unresolved, "/collections/a").build())) {
+                assertEquals(200, response.getStatusCode());
+                assertEquals("{}", read(response.getBody()));
+            }
+            assertEquals("GET http://api.kvstore.invalid/collections/a HTTP/1.1", proxy.requestLine);
+        }
+    }
+
+    @Test
+    public void tunnelsHttpsThroughHttpProxy() throws IOException {
+        try (ProxyServer proxy = new ProxyServer("HTTP/1.1 407 Proxy Authentication Required\r\nContent-Length: 0\r\n\r\n");
+             PooledHttpTransport transport = PooledHttpTransport.builder().setProxySelector(proxy).build()) {
+            HttpHost unresolved = new HttpHost("https", "api.kvstore.invalid", 443);
+            try {
+                transport.execute(HttpRequest.builder("GET", unresolved, "/collections/a").build()).close();
+                fail("The proxy refused the tunnel");
+            } catch (IOException e) {
+                // expected
+            }
+            assertEquals("CONNECT api.kvstore.invalid:443 HTTP/1.1", proxy.requestLine);
+        }
+    }
+
+    private static String read(InputStream body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[256];
+        int n;
+        while ((n = body.read(chunk)) > 0) {
+            buffer.write(chunk, 0, n);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An HTTP proxy selected for every host, answering the first request of each connection with a canned response
+     */
+    private static final class ProxyServer extends ProxySelector implements AutoCloseable, Runnable {
+        private final ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        private final String response;
+        private volatile String requestLine;
+
+        private ProxyServer(String response) throws IOException {
+            this.response = response;
+            Thread thread = new Thread(this, "proxy-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public List<Proxy> select(URI uri) {
+            return Collections.singletonList(new Proxy(Proxy.Type.HTTP, serverSocket.getLocalSocketAddress()));
+        }
+
+        @Override
+        public void connectFailed(URI uri, SocketAddress address, IOException e) {
+            // single proxy
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                    requestLine = in.readLine();
+                    String line;
+                    while ((line = in.readLine()) != null && !line.isEmpty()) {
+                        // headers
+                    }
+                    OutputStream out = socket.getOutputStream();
+                    out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                    in.readLine();
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * Answers the first request of each connection, then reads the second one and closes the connection without a response,
+     * like a server resetting a connection it considered idle
+     */
+    private static final class StaleConnectionServer implements AutoCloseable, Runnable {
+        private final ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private StaleConnectionServer() throws IOException {
+            Thread thread = new Thread(this, "stale-connection-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                    readRequest(in);
+                    OutputStream out = socket.getOutputStream();
+                    out.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                    readRequest(in);
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        }
+
+        private void readRequest(BufferedReader in) throws IOException {
+            String line;
+            int contentLength = 0;
+            while ((line = in.readLine()) != null && !line.isEmpty()) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            if (line == null) {
+                throw new IOException("Connection closed by the client");
+            }
+            for (int i = 0; i < contentLength; i++) {
+                in.read();
+            }
+            requests.incrementAndGet();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+}